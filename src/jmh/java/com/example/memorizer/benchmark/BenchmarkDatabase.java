@@ -0,0 +1,86 @@
+package com.example.memorizer.benchmark;
+
+import com.example.memorizer.MemorizerApplication;
+import com.example.memorizer.config.IdSequenceAligner;
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.service.EarningsLedgerService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Контекст приложения на встроенной in-memory базе H2 для бенчмарков.
+ * 
+ * Каждый запуск получает собственную базу, поэтому бенчмарки
+ * не зависят от файла {@code ./data/memorizerdb} и друг от друга.
+ * Кэши чтения отключены, чтобы замерялась сама работа с базой.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Запускает контекст приложения без веб-сервера.
+     * 
+     * @return запущенный контекст
+     */
+    static ConfigurableApplicationContext start() {
+        String id = UUID.randomUUID().toString();
+        return new SpringApplicationBuilder(MemorizerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-" + id + ";DB_CLOSE_DELAY=-1",
+                        "--memorizer.journal.dir=" + Path.of(System.getProperty("java.io.tmpdir"), "bench-journal-" + id),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.cache.type=none",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=ERROR");
+    }
+
+    /**
+     * Заполняет таблицы смен и песен синтетическими неоплаченными записями
+     * арендатора {@link TenantContext#DEFAULT_TENANT}.
+     * 
+     * Данные вставляются одним SQL-запросом на таблицу (тройки работник,
+     * дата, время начала не повторяются), после чего
+     * выравниваются последовательности идентификаторов и пересчитывается
+     * журнал заработка.
+     * 
+     * @param context    контекст приложения
+     * @param shiftCount количество смен
+     * @param songCount  количество песен
+     */
+    static void seed(ConfigurableApplicationContext context, int shiftCount, int songCount) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                insert into shift (id, tenant_id, worker_name, "DATE", start_time, end_time, cost, paid)
+                select x, ?, 'worker-' || mod(x, 50), dateadd(day, -mod(x / 50, 3650), date '2026-01-01'),
+                       dateadd(hour, mod(x / 182500, 24), time '00:00:00'), time '18:00:00',
+                       case when mod(x, 7) in (0, 1) then 4000 else 3000 end, false
+                from system_range(1, ?)
+                """, TenantContext.DEFAULT_TENANT, shiftCount);
+        jdbcTemplate.update("""
+                insert into song (id, tenant_id, title, artist, added_by, cost, paid)
+                select x, ?, 'song-' || x, 'artist', 'guest-' || mod(x, 100), 1000, false
+                from system_range(1, ?)
+                """, TenantContext.DEFAULT_TENANT, songCount);
+        context.getBean(IdSequenceAligner.class).align();
+        context.getBean(EarningsLedgerService.class).reconcile();
+    }
+
+    /**
+     * Снова помечает все записи неоплаченными и пересчитывает журнал.
+     * 
+     * @param context контекст приложения
+     */
+    static void markAllUnpaid(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("update shift set paid = false, payout_id = null");
+        jdbcTemplate.update("update song set paid = false, payout_id = null");
+        context.getBean(EarningsLedgerService.class).reconcile();
+    }
+}
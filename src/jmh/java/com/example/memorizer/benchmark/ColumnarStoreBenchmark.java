@@ -0,0 +1,98 @@
+package com.example.memorizer.benchmark;
+
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.benchmark.columnar.ColumnarShiftStore;
+import com.example.memorizer.benchmark.columnar.JpaShiftStore;
+import com.example.memorizer.benchmark.columnar.ShiftStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк агрегатов статистики: H2 через JPA против колоночного
+ * хранилища в памяти.
+ * 
+ * Оба варианта вызываются через один интерфейс {@link ShiftStore}
+ * ({@code backend=jpa} - {@link JpaShiftStore} над {@link ShiftRepository},
+ * {@code backend=columnar} - {@link ColumnarShiftStore}, загруженный из той
+ * же таблицы). Перед каждым
+ * вызовом на H2 одна строка таблицы смен перезаписывается без изменений,
+ * иначе H2 вернул бы сохраненный результат предыдущего такого же запроса.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ColumnarStoreBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"jpa", "columnar"})
+    private String backend;
+
+    private ConfigurableApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ShiftStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        BenchmarkDatabase.seed(context, rows, 0);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Каждая третья смена уже оплачена
+        jdbcTemplate.update("update shift set paid = true, payout_id = 1 where mod(id, 3) = 0");
+        store = backend.equals("columnar") ? load() : new JpaShiftStore(context.getBean(ShiftRepository.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void touch() {
+        if (backend.equals("jpa")) {
+            jdbcTemplate.update("update shift set cost = cost where id = 1");
+        }
+    }
+
+    /** Сумма и неоплаченный остаток - как {@code aggregateTables} в {@link EarningsBenchmark} */
+    @Benchmark
+    public long earnings() {
+        return store.sumCost() + store.sumUnpaidCost();
+    }
+
+    @Benchmark
+    public List<EarningsBucket> byWorker() {
+        return store.sumByWorker();
+    }
+
+    @Benchmark
+    public List<MonthlyBucket> byMonth() {
+        return store.sumByMonth();
+    }
+
+    private ColumnarShiftStore load() {
+        ColumnarShiftStore columnar = new ColumnarShiftStore();
+        jdbcTemplate.query("select id, worker_name, \"DATE\", start_time, end_time, cost, paid, payout_id, version "
+                + "from shift order by id", resultSet -> {
+                    long payoutId = resultSet.getLong("payout_id");
+                    columnar.save(new Shift(resultSet.getLong("id"), resultSet.getString("worker_name"),
+                            resultSet.getDate("DATE").toLocalDate(), resultSet.getTime("start_time").toLocalTime(),
+                            resultSet.getTime("end_time").toLocalTime(), resultSet.getInt("cost"),
+                            resultSet.getBoolean("paid"), resultSet.wasNull() ? null : payoutId, null));
+                });
+        return columnar;
+    }
+}
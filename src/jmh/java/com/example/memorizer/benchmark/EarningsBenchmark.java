@@ -0,0 +1,80 @@
+package com.example.memorizer.benchmark;
+
+import com.example.memorizer.dto.BreakdownDTO;
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import com.example.memorizer.service.EarningsLedgerService;
+import com.example.memorizer.service.StatisticsService;
+import com.example.memorizer.service.StatisticsService.BreakdownGroup;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк статистики заработка на встроенной базе H2.
+ * 
+ * {@code getEarnings} читает журнал заработка и не должен зависеть
+ * от количества строк; {@code aggregateTables} выполняет те же суммы
+ * по исходным таблицам и служит точкой сравнения. Разбивки по работникам
+ * и месяцам агрегируются на стороне базы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class EarningsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EarningsLedgerService ledgerService;
+
+    private StatisticsService statisticsService;
+
+    private ShiftRepository shiftRepository;
+
+    private SongRepository songRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        BenchmarkDatabase.seed(context, rows, rows / 10);
+        ledgerService = context.getBean(EarningsLedgerService.class);
+        statisticsService = context.getBean(StatisticsService.class);
+        shiftRepository = context.getBean(ShiftRepository.class);
+        songRepository = context.getBean(SongRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public EarningsDTO getEarnings() {
+        return ledgerService.getEarnings();
+    }
+
+    @Benchmark
+    public EarningsDTO aggregateTables() {
+        return new EarningsDTO(
+                shiftRepository.sumCost() + songRepository.sumCost(),
+                shiftRepository.sumUnpaidCost() + songRepository.sumUnpaidCost());
+    }
+
+    @Benchmark
+    public BreakdownDTO breakdownByWorker() {
+        return statisticsService.getBreakdown(BreakdownGroup.WORKER);
+    }
+
+    @Benchmark
+    public BreakdownDTO breakdownByMonth() {
+        return statisticsService.getBreakdown(BreakdownGroup.MONTH);
+    }
+}
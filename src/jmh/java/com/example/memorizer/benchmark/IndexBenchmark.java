@@ -0,0 +1,98 @@
+package com.example.memorizer.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк составных индексов таблицы смен на встроенной базе H2.
+ *
+ * Одни и те же запросы выполняются с индексами из миграций
+ * ({@code access=index}) и с полным просмотром таблицы
+ * ({@code access=scan}, подсказка H2 {@code USE INDEX ()}).
+ * Неоплаченной остается каждая сотая смена, как после регулярных выплат.
+ * Параметры запросов меняются от вызова к вызову, иначе H2 возвращает
+ * сохраненный результат предыдущего одинакового запроса.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class IndexBenchmark {
+
+    private static final int PAY_CHUNK = 50_000;
+
+    /** Дата, от которой {@link BenchmarkDatabase#seed} отсчитывает смены назад */
+    private static final LocalDate EPOCH = LocalDate.of(2026, 1, 1);
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"index", "scan"})
+    private String access;
+
+    private ConfigurableApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private String hint;
+
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        BenchmarkDatabase.seed(context, rows, 0);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Частями, чтобы журнал отмены in-memory базы не занимал всю кучу
+        for (int from = 1; from <= rows; from += PAY_CHUNK) {
+            jdbcTemplate.update("update shift set paid = true where id between ? and ? and mod(id, 100) <> 0",
+                    from, from + PAY_CHUNK - 1);
+        }
+        jdbcTemplate.execute("analyze");
+        hint = access.equals("scan") ? " use index ()" : "";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Сумма неоплаченных смен — индекс {@code (paid, date)} */
+    @Benchmark
+    public Map<String, Object> unpaidTotal() {
+        // Нижняя граница раньше всех данных: результат тот же, но параметр
+        // меняется, и H2 не отдает закэшированный результат прошлого вызова
+        return jdbcTemplate.queryForMap("select count(*) c, coalesce(sum(cost), 0) s from shift" + hint
+                + " where paid = false and \"DATE\" >= ?", EPOCH.minusDays(next()));
+    }
+
+    /** Смены работника за месяц — индекс {@code (worker_name, date)} */
+    @Benchmark
+    public Map<String, Object> workerMonth() {
+        int n = next();
+        LocalDate from = EPOCH.minusMonths(1 + n % 24);
+        return jdbcTemplate.queryForMap("select count(*) c, coalesce(sum(cost), 0) s from shift" + hint
+                + " where worker_name = ? and \"DATE\" between ? and ?",
+                "worker-" + n % 50, from, from.plusMonths(1).minusDays(1));
+    }
+
+    /** Неоплаченные смены за месяц — индекс {@code (paid, date)} */
+    @Benchmark
+    public List<Long> unpaidInMonth() {
+        LocalDate from = EPOCH.minusMonths(1 + next() % 24);
+        return jdbcTemplate.queryForList("select id from shift" + hint
+                + " where paid = false and \"DATE\" between ? and ?", Long.class, from, from.plusMonths(1).minusDays(1));
+    }
+
+    private int next() {
+        return counter++ & Integer.MAX_VALUE;
+    }
+}
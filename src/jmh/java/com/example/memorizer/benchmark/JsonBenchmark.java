@@ -0,0 +1,121 @@
+package com.example.memorizer.benchmark;
+
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.ShiftSummary;
+import com.example.memorizer.dto.SongSummary;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк JSON-сериализации страниц списков смен и песен.
+ * 
+ * ObjectMapper настраивается так же, как в Spring Boot
+ * ({@link Jackson2ObjectMapperBuilder}), размер страницы соответствует
+ * значению по умолчанию и максимальному значению {@code limit}; 100k
+ * записей показывают стоимость на объеме выгрузки.
+ * 
+ * <p>
+ * Полные сущности (ответ по умолчанию) сравниваются с компактным
+ * форматом ({@code format=compact}): проекции {@link ShiftSummary} и
+ * {@link SongSummary}, по записи на массив значений. Размеры ответов
+ * печатаются при подготовке каждого прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"50", "500", "100000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private KeysetPage<Shift> shiftPage;
+
+    private KeysetPage<Song> songPage;
+
+    private CompactPage compactShiftPage;
+
+    private CompactPage compactSongPage;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Shift> shifts = new ArrayList<>(pageSize);
+        List<Song> songs = new ArrayList<>(pageSize);
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < pageSize; i++) {
+            Shift shift = new Shift();
+            shift.setId((long) i);
+            shift.setWorkerName("worker-" + i % 50);
+            shift.setDate(date.minusDays(i));
+            shift.setStartTime(LocalTime.of(9, 0));
+            shift.setEndTime(LocalTime.of(18, 0));
+            shift.setCost(3000);
+            shifts.add(shift);
+
+            Song song = new Song();
+            song.setId((long) i);
+            song.setTitle("song-" + i);
+            song.setArtist("artist");
+            song.setAddedBy("guest-" + i % 100);
+            song.setCost(1000);
+            songs.add(song);
+        }
+        shiftPage = new KeysetPage<>(shifts, date + ":" + pageSize);
+        songPage = new KeysetPage<>(songs, String.valueOf(pageSize));
+
+        // Проекции создаются так же, как их создает Spring Data по результату запроса
+        ProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        compactShiftPage = CompactPage.of(ShiftSummary.COLUMNS, shiftPage, shift -> projections.createProjection(
+                ShiftSummary.class, Map.of("id", shift.getId(), "date", shift.getDate(),
+                        "workerName", shift.getWorkerName(), "cost", shift.getCost(), "paid", shift.isPaid()))
+                .toRow());
+        compactSongPage = CompactPage.of(SongSummary.COLUMNS, songPage, song -> projections.createProjection(
+                SongSummary.class, Map.of("id", song.getId(), "title", song.getTitle(),
+                        "addedBy", song.getAddedBy(), "cost", song.getCost(), "paid", song.isPaid()))
+                .toRow());
+
+        System.out.printf("%nPayload bytes at %d rows: shifts %d full / %d compact, songs %d full / %d compact%n",
+                pageSize, serializeShiftPage().length, serializeCompactShiftPage().length,
+                serializeSongPage().length, serializeCompactSongPage().length);
+    }
+
+    @Benchmark
+    public byte[] serializeShiftPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(shiftPage);
+    }
+
+    @Benchmark
+    public byte[] serializeSongPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(songPage);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactShiftPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(compactShiftPage);
+    }
+
+    @Benchmark
+    public byte[] serializeCompactSongPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(compactSongPage);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.memorizer.benchmark;
+
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.service.PayoutService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк выплаты на встроенной базе H2.
+ * 
+ * Перед каждым вызовом все записи снова помечаются неоплаченными,
+ * поэтому каждая выплата закрывает {@code rows} смен и {@code rows / 10}
+ * песен. Время подготовки в измерение не входит.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PayoutBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private PayoutService payoutService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start();
+        BenchmarkDatabase.seed(context, rows, rows / 10);
+        payoutService = context.getBean(PayoutService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void markAllUnpaid() {
+        BenchmarkDatabase.markAllUnpaid(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PayoutBatch payout() {
+        return payoutService.payout();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.memorizer.benchmark;
+
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.service.tariff.TariffEngine;
+import com.example.memorizer.service.tariff.TariffProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк расчета стоимости смены, выполняемого в
+ * {@code ShiftService.createShift}.
+ * 
+ * Сравнивает даты внутри окна предрасчитанного календаря и за его
+ * пределами, а также тарифы с персональными ставками работника.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int DAYS = 4096;
+
+    private TariffEngine tariffEngine;
+
+    private LocalDate[] windowDates;
+
+    private LocalDate[] farDates;
+
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        TariffProperties properties = new TariffProperties();
+        TariffProperties.WorkerRates rates = new TariffProperties.WorkerRates();
+        rates.setDefaultRate(3500);
+        properties.setWorkers(Map.of("worker-1", rates));
+        tariffEngine = new TariffEngine(properties);
+
+        LocalDate today = LocalDate.now();
+        windowDates = new LocalDate[DAYS];
+        farDates = new LocalDate[DAYS];
+        for (int i = 0; i < DAYS; i++) {
+            windowDates[i] = today.minusDays(i);
+            farDates[i] = today.minusYears(50).minusDays(i);
+        }
+    }
+
+    @Benchmark
+    public int priceInsideWindow() {
+        return tariffEngine.price(windowDates[next()], null);
+    }
+
+    @Benchmark
+    public int priceOutsideWindow() {
+        return tariffEngine.price(farDates[next()], null);
+    }
+
+    @Benchmark
+    public int priceWithWorkerRates() {
+        return tariffEngine.price(windowDates[next()], "worker-1");
+    }
+
+    @Benchmark
+    public Shift priceNewShift() {
+        Shift shift = new Shift();
+        shift.setWorkerName("worker-2");
+        shift.setDate(windowDates[next()]);
+        shift.setCost(tariffEngine.price(shift.getDate(), shift.getWorkerName()));
+        return shift;
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (DAYS - 1);
+    }
+}
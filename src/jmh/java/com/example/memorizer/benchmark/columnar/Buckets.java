@@ -0,0 +1,39 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.MonthlyBucket;
+import lombok.Value;
+
+/**
+ * Результаты агрегатов колоночных хранилищ - те же проекции,
+ * что возвращают запросы репозиториев.
+ */
+final class Buckets {
+
+    private Buckets() {
+    }
+
+    @Value
+    static class Totals implements ItemTotals {
+        long count;
+        long amount;
+    }
+
+    @Value
+    static class Earnings implements EarningsBucket {
+        String key;
+        long count;
+        long total;
+        long unpaid;
+    }
+
+    @Value
+    static class Monthly implements MonthlyBucket {
+        int year;
+        int month;
+        long count;
+        long total;
+        long unpaid;
+    }
+}
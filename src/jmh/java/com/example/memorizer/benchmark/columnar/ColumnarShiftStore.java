@@ -0,0 +1,254 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.model.Shift;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Колоночное хранилище смен в памяти, без JPA и базы данных.
+ * 
+ * Смена занимает по элементу в массивах: дата - номер дня от эпохи
+ * ({@code int}), начало и конец - минуты от полуночи ({@code short}),
+ * стоимость ({@code int}), имя работника - код в словаре ({@code int}),
+ * признак оплаты - бит в маске. Агрегаты для статистики
+ * ({@link #sumByWorker()}, {@link #sumByMonth()}) считаются одним проходом
+ * по этим массивам. Хранилище можно сохранить в снимок
+ * ({@link #writeSnapshot(Path)}) и загрузить из него ({@link #readSnapshot(Path)}).
+ * 
+ * <p>
+ * Отличия от {@link com.example.memorizer.repository.ShiftRepository}:
+ * время хранится с точностью до минуты, отсутствующая стоимость
+ * считается нулевой, уникальность (работник, дата, начало) не проверяется;
+ * смены без даты не попадают в {@link #sumByMonth()}.
+ * 
+ * <p>
+ * Хранилище используется только бенчмарками ({@code ColumnarStoreBenchmark}):
+ * приложение работает с базой через JPA.
+ * 
+ * @see ColumnarSongStore
+ */
+public class ColumnarShiftStore extends ColumnarTable<Shift> implements ShiftStore {
+
+    /** Сигнатура снимка: "MSHF" */
+    private static final int MAGIC = 0x4D534846;
+
+    /** Значение колонки даты для смены без даты */
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Значение колонок времени для смены без времени */
+    static final short NO_TIME = -1;
+
+    private final StringDictionary workerNames = new StringDictionary();
+
+    private int[] workers = new int[INITIAL_CAPACITY];
+
+    private int[] dates = new int[INITIAL_CAPACITY];
+
+    private short[] startMinutes = new short[INITIAL_CAPACITY];
+
+    private short[] endMinutes = new short[INITIAL_CAPACITY];
+
+    public ColumnarShiftStore() {
+        super(MAGIC);
+    }
+
+    /**
+     * Загружает хранилище из снимка.
+     * 
+     * @param path файл снимка, записанный {@link #writeSnapshot(Path)}
+     * @return хранилище со сменами из снимка
+     * @throws IOException если файл не читается или это не снимок смен
+     */
+    public static ColumnarShiftStore readSnapshot(Path path) throws IOException {
+        ColumnarShiftStore store = new ColumnarShiftStore();
+        store.load(path);
+        return store;
+    }
+
+    @Override
+    public List<EarningsBucket> sumByWorker() {
+        Lock read = readLock();
+        read.lock();
+        try {
+            // Ячейка 0 - смены без работника, далее по коду словаря
+            int buckets = workerNames.size() + 1;
+            long[] count = new long[buckets];
+            long[] total = new long[buckets];
+            long[] unpaid = new long[buckets];
+            for (int row = 0; row < size; row++) {
+                int bucket = workers[row] + 1;
+                count[bucket]++;
+                total[bucket] += costs[row];
+            }
+            for (int row = paid.nextClearBit(0); row < size; row = paid.nextClearBit(row + 1)) {
+                unpaid[workers[row] + 1] += costs[row];
+            }
+
+            List<EarningsBucket> result = new ArrayList<>();
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                if (count[bucket] > 0) {
+                    result.add(new Buckets.Earnings(workerNames.decode(bucket - 1), count[bucket], total[bucket],
+                            unpaid[bucket]));
+                }
+            }
+            result.sort(Comparator.comparing(EarningsBucket::getKey, Comparator.nullsFirst(Comparator.naturalOrder())));
+            return result;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    public List<MonthlyBucket> sumByMonth() {
+        Lock read = readLock();
+        read.lock();
+        try {
+            int first = Integer.MAX_VALUE;
+            int last = Integer.MIN_VALUE;
+            for (int row = 0; row < size; row++) {
+                int date = dates[row];
+                if (date != NO_DATE) {
+                    first = Math.min(first, date);
+                    last = Math.max(last, date);
+                }
+            }
+            if (first > last) {
+                return List.of();
+            }
+
+            // Сначала по дням (индекс в массиве), затем дни сворачиваются в месяцы
+            int days = last - first + 1;
+            long[] count = new long[days];
+            long[] total = new long[days];
+            long[] unpaid = new long[days];
+            for (int row = 0; row < size; row++) {
+                int date = dates[row];
+                if (date != NO_DATE) {
+                    count[date - first]++;
+                    total[date - first] += costs[row];
+                    if (!paid.get(row)) {
+                        unpaid[date - first] += costs[row];
+                    }
+                }
+            }
+
+            List<MonthlyBucket> result = new ArrayList<>();
+            LocalDate day = LocalDate.ofEpochDay(first);
+            for (int offset = 0; offset < days; ) {
+                int year = day.getYear();
+                int month = day.getMonthValue();
+                int monthEnd = Math.min(days, offset + day.lengthOfMonth() - day.getDayOfMonth() + 1);
+                long monthCount = 0;
+                long monthTotal = 0;
+                long monthUnpaid = 0;
+                for (; offset < monthEnd; offset++) {
+                    monthCount += count[offset];
+                    monthTotal += total[offset];
+                    monthUnpaid += unpaid[offset];
+                }
+                if (monthCount > 0) {
+                    result.add(new Buckets.Monthly(year, month, monthCount, monthTotal, monthUnpaid));
+                }
+                day = day.withDayOfMonth(1).plusMonths(1);
+            }
+            return result;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    @Override
+    Long idOf(Shift shift) {
+        return shift.getId();
+    }
+
+    @Override
+    Long versionOf(Shift shift) {
+        return shift.getVersion();
+    }
+
+    @Override
+    void assign(Shift shift, long id, long version) {
+        shift.setId(id);
+        shift.setVersion(version);
+    }
+
+    @Override
+    void writeRow(int row, Shift shift) {
+        workers[row] = workerNames.encode(shift.getWorkerName());
+        dates[row] = shift.getDate() != null ? (int) shift.getDate().toEpochDay() : NO_DATE;
+        startMinutes[row] = minutes(shift.getStartTime());
+        endMinutes[row] = minutes(shift.getEndTime());
+        costs[row] = shift.getCost() != null ? shift.getCost() : 0;
+        paid.set(row, shift.isPaid());
+        payoutIds[row] = shift.getPayoutId() != null ? shift.getPayoutId() : NO_PAYOUT;
+    }
+
+    @Override
+    Shift readRow(int row) {
+        return new Shift(ids[row], workerNames.decode(workers[row]),
+                dates[row] != NO_DATE ? LocalDate.ofEpochDay(dates[row]) : null,
+                time(startMinutes[row]), time(endMinutes[row]), costs[row], paid.get(row),
+                payoutIds[row] != NO_PAYOUT ? payoutIds[row] : null, versions[row]);
+    }
+
+    @Override
+    void resizeColumns(int capacity) {
+        workers = Arrays.copyOf(workers, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        startMinutes = Arrays.copyOf(startMinutes, capacity);
+        endMinutes = Arrays.copyOf(endMinutes, capacity);
+    }
+
+    @Override
+    void copyRows(int from, int to, int length) {
+        System.arraycopy(workers, from, workers, to, length);
+        System.arraycopy(dates, from, dates, to, length);
+        System.arraycopy(startMinutes, from, startMinutes, to, length);
+        System.arraycopy(endMinutes, from, endMinutes, to, length);
+    }
+
+    @Override
+    Snapshots.Part columnsPart() {
+        int rows = size;
+        byte[][] names = Snapshots.encode(workerNames.values());
+        return new Snapshots.Part(Snapshots.sizeOf(names)
+                + (long) rows * (Integer.BYTES + Integer.BYTES + Short.BYTES + Short.BYTES), buffer -> {
+                    Snapshots.putStrings(buffer, names);
+                    Snapshots.putInts(buffer, workers, rows);
+                    Snapshots.putInts(buffer, dates, rows);
+                    Snapshots.putShorts(buffer, startMinutes, rows);
+                    Snapshots.putShorts(buffer, endMinutes, rows);
+                });
+    }
+
+    @Override
+    void readColumns(ByteBuffer buffer) {
+        for (String name : Snapshots.getStrings(buffer)) {
+            workerNames.encode(name);
+        }
+        Snapshots.getInts(buffer, workers, size);
+        Snapshots.getInts(buffer, dates, size);
+        Snapshots.getShorts(buffer, startMinutes, size);
+        Snapshots.getShorts(buffer, endMinutes, size);
+    }
+
+    private static short minutes(LocalTime time) {
+        return time != null ? (short) (time.getHour() * 60 + time.getMinute()) : NO_TIME;
+    }
+
+    private static LocalTime time(short minutes) {
+        return minutes != NO_TIME ? LocalTime.of(minutes / 60, minutes % 60) : null;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.model.Shift;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link ColumnarShiftStore}.
+ *
+ * Проверяют запись и чтение смен, агрегаты по колонкам и снимок
+ * в отображаемом в память файле.
+ */
+@DisplayName("ColumnarShiftStore Tests")
+class ColumnarShiftStoreTest {
+
+    private ColumnarShiftStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarShiftStore();
+    }
+
+    private static Shift shift(String workerName, LocalDate date, int cost) {
+        Shift shift = new Shift();
+        shift.setWorkerName(workerName);
+        shift.setDate(date);
+        shift.setStartTime(LocalTime.of(10, 0));
+        shift.setEndTime(LocalTime.of(18, 30));
+        shift.setCost(cost);
+        return shift;
+    }
+
+    @Test
+    @DisplayName("Новая смена должна получить идентификатор и читаться с теми же полями")
+    void save_NewShift_ShouldAssignIdAndRoundTrip() {
+        // Arrange
+        Shift shift = shift("Я", LocalDate.of(2026, 3, 14), 4000);
+
+        // Act
+        Shift saved = store.save(shift);
+
+        // Assert
+        assertEquals(1L, saved.getId());
+        assertEquals(0L, saved.getVersion());
+        Shift loaded = store.findById(1L).orElseThrow();
+        assertEquals(saved, loaded);
+        assertNotSame(saved, loaded);
+    }
+
+    @Test
+    @DisplayName("Изменение со старой версией должно отклоняться, удаление - сдвигать строки")
+    void save_StaleVersion_ShouldThrowAndDeleteShouldCloseGap() {
+        // Arrange
+        Shift first = store.save(shift("Я", LocalDate.of(2026, 1, 1), 3000));
+        Shift second = store.save(shift("Аня", LocalDate.of(2026, 1, 2), 4000));
+        Shift stale = store.findById(first.getId()).orElseThrow();
+        first.setCost(5000);
+        store.save(first);
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> store.save(stale));
+        store.deleteById(first.getId());
+        assertEquals(1, store.count());
+        assertEquals(second, store.findById(second.getId()).orElseThrow());
+        assertTrue(store.findById(first.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Смена с заданным идентификатором должна встать по порядку, не ломая выдачу следующих")
+    void save_WithExplicitId_ShouldInsertInOrder() {
+        // Arrange
+        Shift late = shift("Я", LocalDate.of(2026, 1, 3), 3000);
+        late.setId(10L);
+        store.save(late);
+        Shift early = shift("Аня", LocalDate.of(2026, 1, 1), 4000);
+        early.setId(5L);
+
+        // Act
+        store.save(early);
+        Shift next = store.save(shift("Я", LocalDate.of(2026, 1, 4), 3000));
+
+        // Assert
+        assertEquals(11L, next.getId());
+        assertEquals("Аня", store.findById(5L).orElseThrow().getWorkerName());
+        assertEquals(3, store.count());
+    }
+
+    @Test
+    @DisplayName("Агрегаты должны совпадать с запросами репозитория")
+    void aggregates_ShouldSumColumns() {
+        // Arrange
+        store.save(shift("Я", LocalDate.of(2026, 1, 31), 3000));
+        store.save(shift("Я", LocalDate.of(2026, 2, 1), 4000));
+        store.save(shift(null, LocalDate.of(2026, 2, 28), 3000));
+        store.settleUnpaid(7L);
+        store.save(shift("Аня", LocalDate.of(2026, 4, 1), 4000));
+
+        // Act
+        List<EarningsBucket> byWorker = store.sumByWorker();
+        List<MonthlyBucket> byMonth = store.sumByMonth();
+        ItemTotals unpaid = store.summarizeUnpaid();
+
+        // Assert
+        assertEquals(14000, store.sumCost());
+        assertEquals(4000, store.sumUnpaidCost());
+        assertEquals(1, unpaid.getCount());
+        assertEquals(List.of(
+                new Buckets.Earnings(null, 1, 3000, 0),
+                new Buckets.Earnings("Аня", 1, 4000, 4000),
+                new Buckets.Earnings("Я", 2, 7000, 0)), byWorker);
+        assertEquals(List.of(
+                new Buckets.Monthly(2026, 1, 1, 3000, 0),
+                new Buckets.Monthly(2026, 2, 2, 7000, 0),
+                new Buckets.Monthly(2026, 4, 1, 4000, 4000)), byMonth);
+        assertEquals(7L, store.findById(1L).orElseThrow().getPayoutId());
+        assertEquals(1L, store.findById(1L).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Снимок должен восстанавливать смены, словарь работников и выдачу идентификаторов")
+    void writeSnapshot_ShouldRoundTrip(@TempDir Path dir) throws Exception {
+        // Arrange
+        for (int i = 0; i < 2000; i++) {
+            store.save(shift("worker-" + (i % 7), LocalDate.of(2025, 1, 1).plusDays(i), 3000 + i % 2 * 1000));
+        }
+        store.deleteById(3L);
+        store.settleUnpaid(1L);
+        store.save(shift("Я", null, 3000));
+        Path snapshot = dir.resolve("shifts.snapshot");
+
+        // Act
+        store.writeSnapshot(snapshot);
+        ColumnarShiftStore loaded = ColumnarShiftStore.readSnapshot(snapshot);
+
+        // Assert
+        assertEquals(store.count(), loaded.count());
+        assertEquals(store.sumCost(), loaded.sumCost());
+        assertEquals(store.sumByWorker(), loaded.sumByWorker());
+        assertEquals(store.sumByMonth(), loaded.sumByMonth());
+        assertEquals(store.findById(2001L), loaded.findById(2001L));
+        assertEquals(2002L, loaded.save(shift("Я", LocalDate.of(2026, 1, 1), 3000)).getId());
+    }
+
+    @Test
+    @DisplayName("Снимок песен не должен читаться как снимок смен")
+    void readSnapshot_OtherStore_ShouldFail(@TempDir Path dir) throws Exception {
+        // Arrange
+        Path snapshot = dir.resolve("songs.snapshot");
+        new ColumnarSongStore().writeSnapshot(snapshot);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> ColumnarShiftStore.readSnapshot(snapshot));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.model.Song;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Колоночное хранилище песен в памяти, без JPA и базы данных.
+ * 
+ * Стоимость, признак оплаты, выплата и версия хранятся массивами
+ * примитивов, исполнитель и гость - кодами в словарях, название -
+ * массивом строк (названия почти не повторяются).
+ * 
+ * @see ColumnarShiftStore
+ */
+public class ColumnarSongStore extends ColumnarTable<Song> implements SongStore {
+
+    /** Сигнатура снимка: "MSNG" */
+    private static final int MAGIC = 0x4D534E47;
+
+    private final StringDictionary artistNames = new StringDictionary();
+
+    private final StringDictionary guestNames = new StringDictionary();
+
+    private String[] titles = new String[INITIAL_CAPACITY];
+
+    private int[] artists = new int[INITIAL_CAPACITY];
+
+    private int[] guests = new int[INITIAL_CAPACITY];
+
+    public ColumnarSongStore() {
+        super(MAGIC);
+    }
+
+    /**
+     * Загружает хранилище из снимка.
+     * 
+     * @param path файл снимка, записанный {@link #writeSnapshot(Path)}
+     * @return хранилище с песнями из снимка
+     * @throws IOException если файл не читается или это не снимок песен
+     */
+    public static ColumnarSongStore readSnapshot(Path path) throws IOException {
+        ColumnarSongStore store = new ColumnarSongStore();
+        store.load(path);
+        return store;
+    }
+
+    @Override
+    Long idOf(Song song) {
+        return song.getId();
+    }
+
+    @Override
+    Long versionOf(Song song) {
+        return song.getVersion();
+    }
+
+    @Override
+    void assign(Song song, long id, long version) {
+        song.setId(id);
+        song.setVersion(version);
+    }
+
+    @Override
+    void writeRow(int row, Song song) {
+        titles[row] = song.getTitle();
+        artists[row] = artistNames.encode(song.getArtist());
+        guests[row] = guestNames.encode(song.getAddedBy());
+        costs[row] = song.getCost() != null ? song.getCost() : 0;
+        paid.set(row, song.isPaid());
+        payoutIds[row] = song.getPayoutId() != null ? song.getPayoutId() : NO_PAYOUT;
+    }
+
+    @Override
+    Song readRow(int row) {
+        return new Song(ids[row], titles[row], artistNames.decode(artists[row]), guestNames.decode(guests[row]),
+                costs[row], paid.get(row), payoutIds[row] != NO_PAYOUT ? payoutIds[row] : null, versions[row]);
+    }
+
+    @Override
+    void resizeColumns(int capacity) {
+        titles = Arrays.copyOf(titles, capacity);
+        artists = Arrays.copyOf(artists, capacity);
+        guests = Arrays.copyOf(guests, capacity);
+    }
+
+    @Override
+    void copyRows(int from, int to, int length) {
+        System.arraycopy(titles, from, titles, to, length);
+        System.arraycopy(artists, from, artists, to, length);
+        System.arraycopy(guests, from, guests, to, length);
+    }
+
+    @Override
+    Snapshots.Part columnsPart() {
+        int rows = size;
+        byte[][] artistValues = Snapshots.encode(artistNames.values());
+        byte[][] guestValues = Snapshots.encode(guestNames.values());
+        byte[][] titleValues = Snapshots.encode(Arrays.asList(titles).subList(0, rows));
+        return new Snapshots.Part(Snapshots.sizeOf(artistValues) + Snapshots.sizeOf(guestValues)
+                + Snapshots.sizeOf(titleValues) + (long) rows * (Integer.BYTES + Integer.BYTES), buffer -> {
+                    Snapshots.putStrings(buffer, artistValues);
+                    Snapshots.putStrings(buffer, guestValues);
+                    Snapshots.putStrings(buffer, titleValues);
+                    Snapshots.putInts(buffer, artists, rows);
+                    Snapshots.putInts(buffer, guests, rows);
+                });
+    }
+
+    @Override
+    void readColumns(ByteBuffer buffer) {
+        for (String artist : Snapshots.getStrings(buffer)) {
+            artistNames.encode(artist);
+        }
+        for (String guest : Snapshots.getStrings(buffer)) {
+            guestNames.encode(guest);
+        }
+        String[] loaded = Snapshots.getStrings(buffer);
+        System.arraycopy(loaded, 0, titles, 0, loaded.length);
+        Snapshots.getInts(buffer, artists, size);
+        Snapshots.getInts(buffer, guests, size);
+    }
+}
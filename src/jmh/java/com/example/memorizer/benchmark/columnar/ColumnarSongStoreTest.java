@@ -0,0 +1,70 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.model.Song;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link ColumnarSongStore}.
+ *
+ * Проверяют выплату по колонке признаков оплаты и снимок песен.
+ */
+@DisplayName("ColumnarSongStore Tests")
+class ColumnarSongStoreTest {
+
+    private static Song song(String title, String addedBy) {
+        Song song = new Song();
+        song.setTitle(title);
+        song.setArtist("Вне очереди");
+        song.setAddedBy(addedBy);
+        song.setCost(1000);
+        return song;
+    }
+
+    @Test
+    @DisplayName("Выплата должна закрыть только неоплаченные песни")
+    void settleUnpaid_ShouldSettleOnlyUnpaid() {
+        // Arrange
+        ColumnarSongStore store = new ColumnarSongStore();
+        store.save(song("Первая", "Гость"));
+        store.settleUnpaid(1L);
+        store.save(song("Вторая", "Гость"));
+        store.save(song("Третья", null));
+
+        // Act
+        int settled = store.settleUnpaid(2L);
+
+        // Assert
+        assertEquals(2, settled);
+        assertEquals(0, store.sumUnpaidCost());
+        assertEquals(3000, store.sumCost());
+        assertEquals(1L, store.findById(1L).orElseThrow().getPayoutId());
+        assertEquals(2L, store.findById(3L).orElseThrow().getPayoutId());
+    }
+
+    @Test
+    @DisplayName("Снимок должен восстанавливать названия, исполнителей и гостей")
+    void writeSnapshot_ShouldRoundTrip(@TempDir Path dir) throws Exception {
+        // Arrange
+        ColumnarSongStore store = new ColumnarSongStore();
+        store.save(song("Группа крови", "Гость"));
+        store.save(song(null, null));
+        store.save(song("Кукушка", "Аня"));
+        Path snapshot = dir.resolve("songs.snapshot");
+
+        // Act
+        store.writeSnapshot(snapshot);
+        ColumnarSongStore loaded = ColumnarSongStore.readSnapshot(snapshot);
+
+        // Assert
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(store.findById(id), loaded.findById(id));
+        }
+        assertEquals(store.summarizeUnpaid(), loaded.summarizeUnpaid());
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.dto.ItemTotals;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Основа колоночного хранилища: строки упорядочены по идентификатору,
+ * каждое поле хранится отдельным массивом примитивов.
+ * 
+ * Общие для смен и песен колонки - идентификатор, стоимость, признак
+ * оплаты (битовая маска), выплата и версия - живут здесь вместе с
+ * операциями записи и агрегатами по ним; наследник добавляет свои
+ * колонки и переводит строки в сущности и обратно.
+ * 
+ * <p>
+ * Агрегаты - простые циклы по массивам под блокировкой чтения; запись
+ * идет под блокировкой записи. Новые записи получают следующий
+ * идентификатор и дописываются в конец, поэтому вставка и удаление
+ * в середине (сдвиг массивов) нужны только для записей с заданным
+ * идентификатором и для удаления.
+ * 
+ * @param <T> тип сущности
+ */
+abstract class ColumnarTable<T> {
+
+    static final int INITIAL_CAPACITY = 1024;
+
+    /** Значение колонки выплаты для записей без выплаты */
+    static final long NO_PAYOUT = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int magic;
+
+    int size;
+
+    private long nextId = 1;
+
+    long[] ids = new long[INITIAL_CAPACITY];
+
+    int[] costs = new int[INITIAL_CAPACITY];
+
+    final BitSet paid = new BitSet();
+
+    long[] payoutIds = new long[INITIAL_CAPACITY];
+
+    long[] versions = new long[INITIAL_CAPACITY];
+
+    /**
+     * @param magic сигнатура снимков хранилища
+     */
+    ColumnarTable(int magic) {
+        this.magic = magic;
+    }
+
+    /** @return идентификатор сущности или null для новой */
+    abstract Long idOf(T item);
+
+    /** @return версия сущности или null */
+    abstract Long versionOf(T item);
+
+    /** Присваивает сохраненной сущности идентификатор и версию */
+    abstract void assign(T item, long id, long version);
+
+    /**
+     * Записывает поля сущности в строку, кроме идентификатора и версии.
+     */
+    abstract void writeRow(int row, T item);
+
+    /**
+     * @return сущность из строки
+     */
+    abstract T readRow(int row);
+
+    /** Меняет емкость собственных колонок наследника */
+    abstract void resizeColumns(int capacity);
+
+    /** Копирует диапазон строк собственных колонок наследника */
+    abstract void copyRows(int from, int to, int length);
+
+    /** @return собственные колонки наследника для снимка (после общих) */
+    abstract Snapshots.Part columnsPart();
+
+    /** Читает собственные колонки наследника из снимка; емкость уже достаточна */
+    abstract void readColumns(ByteBuffer buffer);
+
+    /**
+     * Сохраняет новую или изменяет существующую запись.
+     * 
+     * Новая запись (без идентификатора) получает следующий идентификатор
+     * и версию 0. Изменение существующей записи проверяет версию, как
+     * оптимистичная блокировка JPA, и увеличивает её.
+     * 
+     * @param item сущность
+     * @return та же сущность с идентификатором и версией
+     * @throws OptimisticLockingFailureException если версия устарела
+     */
+    public <S extends T> S save(S item) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            Long id = idOf(item);
+            long version = 0;
+            int row;
+            if (id == null) {
+                id = nextId;
+                row = size;
+                openRow(row);
+            } else {
+                row = indexOf(id);
+                if (row >= 0) {
+                    Long expected = versionOf(item);
+                    if (expected != null && expected != versions[row]) {
+                        throw new OptimisticLockingFailureException("Запись " + id + " изменена параллельно");
+                    }
+                    version = versions[row] + 1;
+                } else {
+                    row = -row - 1;
+                    openRow(row);
+                }
+            }
+            nextId = Math.max(nextId, id + 1);
+            ids[row] = id;
+            versions[row] = version;
+            writeRow(row, item);
+            assign(item, id, version);
+            return item;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * @param id идентификатор записи
+     * @return запись или пустой результат
+     */
+    public Optional<T> findById(Long id) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            int row = indexOf(id);
+            return row >= 0 ? Optional.of(readRow(row)) : Optional.empty();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Удаляет запись; отсутствующий идентификатор игнорируется.
+     * 
+     * @param id идентификатор записи
+     */
+    public void deleteById(Long id) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            int row = indexOf(id);
+            if (row >= 0) {
+                closeRow(row);
+            }
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * @return количество записей
+     */
+    public long count() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return size;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * @return сумма стоимости всех записей
+     */
+    public long sumCost() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            long total = 0;
+            for (int row = 0; row < size; row++) {
+                total += costs[row];
+            }
+            return total;
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * @return сумма стоимости неоплаченных записей
+     */
+    public long sumUnpaidCost() {
+        return summarizeUnpaid().getAmount();
+    }
+
+    /**
+     * @return количество и суммарная стоимость неоплаченных записей
+     */
+    public ItemTotals summarizeUnpaid() {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            long count = 0;
+            long amount = 0;
+            for (int row = paid.nextClearBit(0); row < size; row = paid.nextClearBit(row + 1)) {
+                count++;
+                amount += costs[row];
+            }
+            return new Buckets.Totals(count, amount);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Помечает все неоплаченные записи как оплаченные и привязывает их
+     * к выплате, увеличивая версии.
+     * 
+     * @param payoutId идентификатор выплаты
+     * @return количество обновленных записей
+     */
+    public int settleUnpaid(Long payoutId) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            int settled = 0;
+            for (int row = paid.nextClearBit(0); row < size; row = paid.nextClearBit(row + 1)) {
+                payoutIds[row] = payoutId != null ? payoutId : NO_PAYOUT;
+                versions[row]++;
+                settled++;
+            }
+            paid.set(0, size);
+            return settled;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Записывает снимок хранилища в файл через отображение в память.
+     * 
+     * @param path файл снимка
+     * @throws IOException если файл не удалось записать
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            int rows = size;
+            long next = nextId;
+            long[] paidWords = paid.toLongArray();
+            Snapshots.Part common = new Snapshots.Part(
+                    Integer.BYTES + Long.BYTES + Integer.BYTES + (long) paidWords.length * Long.BYTES
+                            + (long) rows * (Long.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES),
+                    buffer -> {
+                        buffer.putInt(rows).putLong(next);
+                        Snapshots.putLongs(buffer, ids, rows);
+                        Snapshots.putInts(buffer, costs, rows);
+                        Snapshots.putLongs(buffer, payoutIds, rows);
+                        Snapshots.putLongs(buffer, versions, rows);
+                        buffer.putInt(paidWords.length);
+                        Snapshots.putLongs(buffer, paidWords, paidWords.length);
+                    });
+            Snapshots.write(path, magic, common, columnsPart());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Загружает снимок из файла в новое, ещё пустое хранилище.
+     * 
+     * @param path файл снимка
+     * @throws IOException если файл не читается или это снимок другого хранилища
+     */
+    void load(Path path) throws IOException {
+        ByteBuffer buffer = Snapshots.read(path, magic);
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            int rows = buffer.getInt();
+            nextId = buffer.getLong();
+            size = 0;
+            ensureCapacity(rows);
+            Snapshots.getLongs(buffer, ids, rows);
+            Snapshots.getInts(buffer, costs, rows);
+            Snapshots.getLongs(buffer, payoutIds, rows);
+            Snapshots.getLongs(buffer, versions, rows);
+            long[] paidWords = new long[buffer.getInt()];
+            Snapshots.getLongs(buffer, paidWords, paidWords.length);
+            paid.clear();
+            paid.or(BitSet.valueOf(paidWords));
+            size = rows;
+            readColumns(buffer);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Блокировка чтения для агрегатов наследника.
+     */
+    Lock readLock() {
+        return lock.readLock();
+    }
+
+    private int indexOf(Long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private void openRow(int row) {
+        ensureCapacity(size + 1);
+        if (row < size) {
+            copy(row, row + 1, size - row);
+            for (int i = size; i > row; i--) {
+                paid.set(i, paid.get(i - 1));
+            }
+        }
+        size++;
+    }
+
+    private void closeRow(int row) {
+        copy(row + 1, row, size - row - 1);
+        for (int i = row; i < size - 1; i++) {
+            paid.set(i, paid.get(i + 1));
+        }
+        paid.clear(size - 1);
+        size--;
+    }
+
+    private void copy(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(costs, from, costs, to, length);
+        System.arraycopy(payoutIds, from, payoutIds, to, length);
+        System.arraycopy(versions, from, versions, to, length);
+        copyRows(from, to, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        costs = Arrays.copyOf(costs, grown);
+        payoutIds = Arrays.copyOf(payoutIds, grown);
+        versions = Arrays.copyOf(versions, grown);
+        resizeColumns(grown);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.repository.ShiftRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link ShiftStore} поверх {@link ShiftRepository}: H2 через JPA
+ * как точка сравнения для {@link ColumnarShiftStore}.
+ */
+public class JpaShiftStore implements ShiftStore {
+
+    private final ShiftRepository repository;
+
+    public JpaShiftStore(ShiftRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public <S extends Shift> S save(S shift) {
+        return repository.save(shift);
+    }
+
+    @Override
+    public Optional<Shift> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        repository.deleteById(id);
+    }
+
+    @Override
+    public long count() {
+        return repository.count();
+    }
+
+    @Override
+    public long sumCost() {
+        return repository.sumCost();
+    }
+
+    @Override
+    public long sumUnpaidCost() {
+        return repository.sumUnpaidCost();
+    }
+
+    @Override
+    public ItemTotals summarizeUnpaid() {
+        return repository.summarizeUnpaid();
+    }
+
+    @Override
+    public int settleUnpaid(Long payoutId) {
+        return repository.settleUnpaid(payoutId);
+    }
+
+    @Override
+    public List<EarningsBucket> sumByWorker() {
+        return repository.sumByWorker();
+    }
+
+    @Override
+    public List<MonthlyBucket> sumByMonth() {
+        return repository.sumByMonth();
+    }
+}
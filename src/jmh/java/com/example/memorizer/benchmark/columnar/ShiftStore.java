@@ -0,0 +1,79 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.model.Shift;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Хранилище смен: основные операции записи и агрегаты заработка.
+ * 
+ * Общий интерфейс двух вариантов хранения в бенчмарке
+ * {@code ColumnarStoreBenchmark}: {@link JpaShiftStore} (JPA, база данных)
+ * и {@link ColumnarShiftStore} (колоночное хранилище в памяти). Сигнатуры
+ * совпадают с методами {@link com.example.memorizer.repository.ShiftRepository}.
+ * 
+ * @see SongStore
+ */
+public interface ShiftStore {
+
+    /**
+     * Сохраняет новую или изменяет существующую смену.
+     * 
+     * @param shift смена
+     * @return сохраненная смена с идентификатором и версией
+     */
+    <S extends Shift> S save(S shift);
+
+    /**
+     * @param id идентификатор смены
+     * @return смена или пустой результат, если её нет
+     */
+    Optional<Shift> findById(Long id);
+
+    /**
+     * @param id идентификатор удаляемой смены
+     */
+    void deleteById(Long id);
+
+    /**
+     * @return количество смен
+     */
+    long count();
+
+    /**
+     * @return сумма стоимости всех смен (0, если смен нет)
+     */
+    long sumCost();
+
+    /**
+     * @return сумма стоимости неоплаченных смен (0, если таких нет)
+     */
+    long sumUnpaidCost();
+
+    /**
+     * @return количество и суммарная стоимость неоплаченных смен
+     */
+    ItemTotals summarizeUnpaid();
+
+    /**
+     * Помечает все неоплаченные смены как оплаченные и привязывает их к выплате.
+     * 
+     * @param payoutId идентификатор выплаты
+     * @return количество обновленных смен
+     */
+    int settleUnpaid(Long payoutId);
+
+    /**
+     * @return заработок по сменам, по одной строке на работника
+     */
+    List<EarningsBucket> sumByWorker();
+
+    /**
+     * @return заработок по сменам, по одной строке на месяц, в хронологическом порядке
+     */
+    List<MonthlyBucket> sumByMonth();
+}
@@ -0,0 +1,176 @@
+package com.example.memorizer.benchmark.columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Чтение и запись снимков колоночных хранилищ через отображаемые
+ * в память файлы.
+ * 
+ * Снимок - заголовок (сигнатура хранилища и версия формата) и колонки
+ * подряд: массивы примитивов копируются в отображение целиком, строки
+ * записываются как длина в байтах UTF-8 и байты (-1 для null). Файл
+ * сначала пишется рядом под временным именем и затем атомарно заменяет
+ * прежний снимок, поэтому оборванная запись его не портит.
+ */
+final class Snapshots {
+
+    /** Версия формата снимка */
+    static final int FORMAT_VERSION = 1;
+
+    /** Размер заголовка: сигнатура и версия формата */
+    static final int HEADER_SIZE = 8;
+
+    private Snapshots() {
+    }
+
+    /**
+     * Часть снимка с заранее известным размером.
+     * 
+     * @param size   размер в байтах
+     * @param writer запись части в отображение
+     */
+    record Part(long size, Consumer<ByteBuffer> writer) {
+    }
+
+    /**
+     * Записывает снимок.
+     * 
+     * @param path  файл снимка
+     * @param magic сигнатура хранилища
+     * @param parts части снимка по порядку
+     * @throws IOException если файл не удалось записать
+     */
+    static void write(Path path, int magic, Part... parts) throws IOException {
+        long size = HEADER_SIZE;
+        for (Part part : parts) {
+            size += part.size();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large: " + size + " bytes");
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(magic).putInt(FORMAT_VERSION);
+            for (Part part : parts) {
+                part.writer().accept(buffer);
+            }
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Отображает снимок в память для чтения.
+     * 
+     * @param path  файл снимка
+     * @param magic ожидаемая сигнатура хранилища
+     * @return отображение, позиционированное после заголовка
+     * @throws IOException если файл не читается или это не снимок этого хранилища
+     */
+    static ByteBuffer read(Path path, int magic) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != magic) {
+                throw new IOException("Not a snapshot of this store: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + version + ": " + path);
+            }
+            return buffer;
+        }
+    }
+
+    static void putLongs(ByteBuffer buffer, long[] values, int length) {
+        buffer.asLongBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Long.BYTES);
+    }
+
+    static void getLongs(ByteBuffer buffer, long[] values, int length) {
+        buffer.asLongBuffer().get(values, 0, length);
+        buffer.position(buffer.position() + length * Long.BYTES);
+    }
+
+    static void putInts(ByteBuffer buffer, int[] values, int length) {
+        buffer.asIntBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    static void getInts(ByteBuffer buffer, int[] values, int length) {
+        buffer.asIntBuffer().get(values, 0, length);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+    }
+
+    static void putShorts(ByteBuffer buffer, short[] values, int length) {
+        buffer.asShortBuffer().put(values, 0, length);
+        buffer.position(buffer.position() + length * Short.BYTES);
+    }
+
+    static void getShorts(ByteBuffer buffer, short[] values, int length) {
+        buffer.asShortBuffer().get(values, 0, length);
+        buffer.position(buffer.position() + length * Short.BYTES);
+    }
+
+    /**
+     * Кодирует строки в UTF-8 для записи через {@link #putStrings}.
+     * 
+     * @param values строки (null допустимы)
+     * @return байты строк (null для null)
+     */
+    static byte[][] encode(List<String> values) {
+        byte[][] encoded = new byte[values.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            String value = values.get(i);
+            encoded[i] = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        }
+        return encoded;
+    }
+
+    /**
+     * @param encoded байты строк из {@link #encode}
+     * @return размер записи строк в байтах
+     */
+    static long sizeOf(byte[][] encoded) {
+        long size = Integer.BYTES;
+        for (byte[] value : encoded) {
+            size += Integer.BYTES + (value != null ? value.length : 0);
+        }
+        return size;
+    }
+
+    static void putStrings(ByteBuffer buffer, byte[][] encoded) {
+        buffer.putInt(encoded.length);
+        for (byte[] value : encoded) {
+            if (value == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(value.length).put(value);
+            }
+        }
+    }
+
+    static String[] getStrings(ByteBuffer buffer) {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            int length = buffer.getInt();
+            if (length >= 0) {
+                byte[] value = new byte[length];
+                buffer.get(value);
+                values[i] = new String(value, StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+}
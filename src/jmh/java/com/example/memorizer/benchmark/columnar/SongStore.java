@@ -0,0 +1,65 @@
+package com.example.memorizer.benchmark.columnar;
+
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.model.Song;
+
+import java.util.Optional;
+
+/**
+ * Хранилище песен: основные операции записи и агрегаты заработка.
+ * 
+ * Реализуется {@link ColumnarSongStore} (колоночное хранилище в памяти).
+ * Сигнатуры совпадают с методами
+ * {@link com.example.memorizer.repository.SongRepository}.
+ * 
+ * @see ShiftStore
+ */
+public interface SongStore {
+
+    /**
+     * Сохраняет новую или изменяет существующую песню.
+     * 
+     * @param song песня
+     * @return сохраненная песня с идентификатором и версией
+     */
+    <S extends Song> S save(S song);
+
+    /**
+     * @param id идентификатор песни
+     * @return песня или пустой результат, если её нет
+     */
+    Optional<Song> findById(Long id);
+
+    /**
+     * @param id идентификатор удаляемой песни
+     */
+    void deleteById(Long id);
+
+    /**
+     * @return количество песен
+     */
+    long count();
+
+    /**
+     * @return сумма стоимости всех песен (0, если песен нет)
+     */
+    long sumCost();
+
+    /**
+     * @return сумма стоимости неоплаченных песен (0, если таких нет)
+     */
+    long sumUnpaidCost();
+
+    /**
+     * @return количество и суммарная стоимость неоплаченных песен
+     */
+    ItemTotals summarizeUnpaid();
+
+    /**
+     * Помечает все неоплаченные песни как оплаченные и привязывает их к выплате.
+     * 
+     * @param payoutId идентификатор выплаты
+     * @return количество обновленных песен
+     */
+    int settleUnpaid(Long payoutId);
+}
@@ -0,0 +1,63 @@
+package com.example.memorizer.benchmark.columnar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Словарь строк для колонок с повторяющимися значениями (имя работника,
+ * гость): в колонке хранится код строки, сама строка - один раз в словаре.
+ * 
+ * Коды выдаются подряд с нуля и не переиспользуются; null кодируется
+ * как {@link #NULL}. Потокобезопасность обеспечивает хранилище-владелец.
+ */
+final class StringDictionary {
+
+    /** Код значения null */
+    static final int NULL = -1;
+
+    private final List<String> values = new ArrayList<>();
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * @param value строка (может быть null)
+     * @return код строки; новая строка получает следующий свободный код
+     */
+    int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * @param code код строки или {@link #NULL}
+     * @return строка с этим кодом
+     */
+    String decode(int code) {
+        return code == NULL ? null : values.get(code);
+    }
+
+    /**
+     * @return количество строк в словаре
+     */
+    int size() {
+        return values.size();
+    }
+
+    /**
+     * @return строки словаря в порядке кодов
+     */
+    List<String> values() {
+        return Collections.unmodifiableList(values);
+    }
+}
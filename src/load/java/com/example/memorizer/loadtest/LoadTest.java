@@ -0,0 +1,360 @@
+package com.example.memorizer.loadtest;
+
+import com.example.memorizer.MemorizerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочный тест режимов выполнения запросов.
+ *
+ * Для каждого режима ({@code platform} — пул потоков Tomcat,
+ * {@code virtual} — профиль Spring {@code virtual}, только на Java 21+)
+ * запускает приложение на случайном порту с собственной файловой базой H2,
+ * заполняет её через пакетный импорт и нагружает эндпоинты
+ * {@code /api/shifts} и {@code /api/stats/earnings} заданным числом
+ * параллельных клиентов. Печатает пропускную способность и перцентили
+ * задержки и сохраняет их в CSV.
+ *
+ * <p>
+ * Параметры передаются как {@code ключ=значение}:
+ * <ul>
+ * <li>{@code modes} — режимы через запятую (по умолчанию все доступные)</li>
+ * <li>{@code concurrency} — число параллельных клиентов (400)</li>
+ * <li>{@code warmup}, {@code duration} — прогрев и замер, секунды (5 и 20)</li>
+ * <li>{@code shifts}, {@code songs} — объем тестовых данных (20000 и 5000)</li>
+ * <li>{@code tenants} — число арендаторов (1); при большем числе арендаторы
+ * создаются через {@code /api/tenants}, данные делятся между ними поровну,
+ * а каждый запрос замера уходит случайному арендатору в заголовке
+ * {@code X-Tenant-Id}</li>
+ * <li>{@code reports} — {@code true}, чтобы во время замера в фоне непрерывно
+ * заказывались отчеты {@code /api/reports} (по умолчанию {@code false}):
+ * сравнение с обычным прогоном показывает их влияние на задержку</li>
+ * <li>{@code cache} — тип кэша Spring; по умолчанию {@code none}, чтобы
+ * каждый запрос доходил до базы</li>
+ * <li>{@code out} — файл результатов CSV</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    private static final List<String> ENDPOINTS = List.of("/api/shifts?limit=50", "/api/stats/earnings");
+
+    private static final int SEED_CHUNK = 5000;
+
+    private static final List<String> REPORT_TYPES = List.of("worker-yearly", "shift-weekdays", "songs-by-added-by");
+
+    /** Пауза между заказами фоновых отчетов */
+    private static final Duration REPORT_INTERVAL = Duration.ofMillis(200);
+
+    private final Map<String, String> settings;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private LoadTest(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Точка входа.
+     *
+     * @param args параметры вида {@code ключ=значение}
+     * @throws Exception при ошибке запуска приложения или записи результатов
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("modes", Runtime.version().feature() >= 21 ? "platform,virtual" : "platform");
+        settings.put("concurrency", "400");
+        settings.put("warmup", "5");
+        settings.put("duration", "20");
+        settings.put("shifts", "20000");
+        settings.put("songs", "5000");
+        settings.put("tenants", "1");
+        settings.put("reports", "false");
+        settings.put("cache", "none");
+        settings.put("out", "target/load-result.csv");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Ожидался параметр вида ключ=значение: " + arg);
+            }
+            settings.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        List<Result> results = new LoadTest(settings).run();
+        writeCsv(results, Path.of(settings.get("out")));
+        System.exit(0);
+    }
+
+    private List<Result> run() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (String mode : settings.get("modes").split(",")) {
+            boolean virtual = mode.equals("virtual");
+            if (virtual && Runtime.version().feature() < 21) {
+                System.out.println("Режим virtual пропущен: нужна Java 21+, запущена " + Runtime.version());
+                continue;
+            }
+            Path dataDir = Files.createTempDirectory("memorizer-load-");
+            try (ConfigurableApplicationContext context = start(virtual, dataDir)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<String> tenants = tenants();
+                for (String tenant : tenants) {
+                    if (!tenant.equals("default")) {
+                        post(port, "default", "/api/tenants", "application/json", "{\"id\":\"" + tenant + "\"}");
+                    }
+                    seed(port, tenant, tenants.size());
+                }
+                for (String endpoint : ENDPOINTS) {
+                    Result result = measure(mode, URI.create("http://localhost:" + port + endpoint), tenants);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    private ConfigurableApplicationContext start(boolean virtual, Path dataDir) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("load").toAbsolutePath(),
+                "--memorizer.journal.dir=" + dataDir.resolve("journal").toAbsolutePath(),
+                "--spring.cache.type=" + settings.get("cache"),
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=ERROR"));
+        if (virtual) {
+            args.add("--spring.profiles.active=virtual");
+        }
+        return new SpringApplicationBuilder(MemorizerApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private List<String> tenants() {
+        int count = Integer.parseInt(settings.get("tenants"));
+        if (count <= 1) {
+            return List.of("default");
+        }
+        List<String> tenants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tenants.add(String.format(Locale.ROOT, "load-%04d", i));
+        }
+        return tenants;
+    }
+
+    /**
+     * Заполняет данные арендатора его долей смен и песен через пакетный импорт.
+     */
+    private void seed(int port, String tenant, int tenantCount) throws IOException, InterruptedException {
+        int shifts = Math.max(1, Integer.parseInt(settings.get("shifts")) / tenantCount);
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int from = 0; from < shifts; from += SEED_CHUNK) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(from + SEED_CHUNK, shifts); i++) {
+                body.append("{\"workerName\":\"worker-").append(i % 50)
+                        .append("\",\"date\":\"").append(start.minusDays(i / 50 % 3650))
+                        .append("\",\"startTime\":\"").append(LocalTime.of(i / 182500 % 24, 0))
+                        .append("\",\"endTime\":\"18:00\"}\n");
+            }
+            post(port, tenant, "/api/shifts/batch", "application/x-ndjson", body);
+        }
+        int songs = Math.max(1, Integer.parseInt(settings.get("songs")) / tenantCount);
+        for (int from = 0; from < songs; from += SEED_CHUNK) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(from + SEED_CHUNK, songs); i++) {
+                body.append("{\"title\":\"song-").append(i)
+                        .append("\",\"artist\":\"artist\",\"addedBy\":\"guest-").append(i % 100).append("\"}\n");
+            }
+            post(port, tenant, "/api/songs/batch", "application/x-ndjson", body);
+        }
+    }
+
+    private void post(int port, String tenant, String path, String contentType, CharSequence body)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", contentType)
+                .header("X-Tenant-Id", tenant)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Запрос " + path + " завершился кодом " + response.statusCode());
+        }
+    }
+
+    /**
+     * Нагружает эндпоинт: каждый клиент отправляет запросы друг за другом
+     * до конца замера; задержки учитываются только после прогрева.
+     */
+    private Result measure(String mode, URI uri, List<String> tenants) throws Exception {
+        int concurrency = Integer.parseInt(settings.get("concurrency"));
+        long warmupNanos = Duration.ofSeconds(Long.parseLong(settings.get("warmup"))).toNanos();
+        long durationNanos = Duration.ofSeconds(Long.parseLong(settings.get("duration"))).toNanos();
+        List<HttpRequest> requests = tenants.stream()
+                .map(tenant -> HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30))
+                        .header("X-Tenant-Id", tenant).GET().build())
+                .toList();
+
+        long measureFrom = System.nanoTime() + warmupNanos;
+        long measureTo = measureFrom + durationNanos;
+        boolean reports = Boolean.parseBoolean(settings.get("reports"));
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency + 1);
+        try {
+            if (reports) {
+                clients.submit(() -> orderReports(uri, tenants, measureTo));
+            }
+            List<Future<Recorder>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    long now;
+                    while ((now = System.nanoTime()) < measureTo) {
+                        boolean ok;
+                        HttpRequest request = requests.get(ThreadLocalRandom.current().nextInt(requests.size()));
+                        try {
+                            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        if (now >= measureFrom) {
+                            recorder.record(System.nanoTime() - now, ok);
+                        }
+                    }
+                    return recorder;
+                }));
+            }
+            Recorder total = new Recorder();
+            for (Future<Recorder> future : futures) {
+                total.addAll(future.get());
+            }
+            return total.toResult(mode, uri.getPath(), tenants.size(), reports, concurrency, durationNanos);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * До конца замера заказывает отчеты случайных видов и арендаторов.
+     * Конец периода каждый раз новый, поэтому отчеты не берутся из кэша
+     * и действительно строятся; отказы при заполненной очереди отчетов
+     * ожидаемы и не учитываются.
+     */
+    private Void orderReports(URI uri, List<String> tenants, long measureTo) throws InterruptedException {
+        LocalDate to = LocalDate.of(2026, 1, 1);
+        while (System.nanoTime() < measureTo) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String type = REPORT_TYPES.get(random.nextInt(REPORT_TYPES.size()));
+            String query = type.startsWith("songs") ? "type=" + type : "type=" + type + "&to=" + to;
+            to = to.minusDays(1);
+            try {
+                client.send(HttpRequest.newBuilder(uri.resolve("/api/reports?" + query))
+                        .header("X-Tenant-Id", tenants.get(random.nextInt(tenants.size())))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                // Ошибка заказа не влияет на замер
+            }
+            Thread.sleep(REPORT_INTERVAL.toMillis());
+        }
+        return null;
+    }
+
+    private static void writeCsv(List<Result> results, Path out) throws IOException {
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+            writer.println("mode,endpoint,tenants,reports,concurrency,requests,errors,throughput,p50_ms,p99_ms,max_ms");
+            for (Result result : results) {
+                writer.println(String.format(Locale.ROOT, "%s,%s,%d,%b,%d,%d,%d,%.1f,%.2f,%.2f,%.2f",
+                        result.mode(), result.endpoint(), result.tenants(), result.reports(), result.concurrency(),
+                        result.requests(), result.errors(),
+                        result.throughput(), result.p50Millis(), result.p99Millis(), result.maxMillis()));
+            }
+        }
+        System.out.println("Результаты: " + out.toAbsolutePath());
+    }
+
+    /**
+     * Задержки запросов одного клиента.
+     */
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+
+        private int size;
+
+        private long errors;
+
+        void record(long latencyNanos, boolean ok) {
+            if (!ok) {
+                errors++;
+            }
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+        }
+
+        void addAll(Recorder other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(size + other.size, latencies.length * 2));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        Result toResult(String mode, String endpoint, int tenants, boolean reports, int concurrency,
+                long durationNanos) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new Result(mode, endpoint, tenants, reports, concurrency, size, errors,
+                    size / (durationNanos / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    size > 0 ? sorted[size - 1] / 1e6 : 0);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1e6;
+        }
+    }
+
+    /**
+     * Итоги замера одного эндпоинта в одном режиме.
+     */
+    private record Result(String mode, String endpoint, int tenants, boolean reports, int concurrency, long requests,
+            long errors, double throughput, double p50Millis, double p99Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%-8s %-20s %,10d req  %,9.1f req/s  p50 %7.2f ms  p99 %7.2f ms  max %8.2f ms  errors %d",
+                    mode, endpoint, requests, throughput, p50Millis, p99Millis, maxMillis, errors);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.memorizer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Главный класс приложения Work Shift & Song Memorizer.
@@ -14,6 +16,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 2026-01-15
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class MemorizerApplication {
 
 	/**
@@ -0,0 +1,87 @@
+package com.example.memorizer.config;
+
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройка кэшей чтения.
+ * 
+ * Кэши создаются Caffeine по свойствам {@code spring.cache.*}
+ * (размер, время жизни, сбор статистики для метрик {@code cache.*}).
+ * Ключи включают версии данных из {@link DataVersions}, поэтому
+ * значения, вычисленные до изменения, не читаются после него.
+ * Каждый ключ принадлежит текущему арендатору ({@link TenantKey}):
+ * арендаторы не видят кэшированных данных друг друга, а изменение
+ * у одного арендатора сбрасывает только его записи. Имя метода тоже
+ * входит в ключ: страницы одного списка в разных форматах хранятся
+ * в одном кэше и сбрасываются вместе.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Страницы списка смен */
+    public static final String SHIFT_PAGES = "shiftPages";
+
+    /** Страницы списка песен */
+    public static final String SONG_PAGES = "songPages";
+
+    /** Заработок из журнала */
+    public static final String EARNINGS = "earnings";
+
+    /** Детализация заработка */
+    public static final String BREAKDOWN = "breakdown";
+
+    /** История выплат */
+    public static final String PAYOUTS = "payouts";
+
+    /** Отчеты по работникам */
+    public static final String WORKER_REPORTS = "workerReports";
+
+    /** Помесячные отчеты */
+    public static final String MONTHLY_REPORTS = "monthlyReports";
+
+    /**
+     * Ключ кэша, принадлежащий арендатору.
+     * 
+     * @param tenant идентификатор арендатора
+     * @param key    версии данных, метод и его параметры
+     */
+    public record TenantKey(String tenant, Object key) {
+    }
+
+    /**
+     * Ключи данных смен: версия смен, метод и его параметры.
+     */
+    @Bean
+    public KeyGenerator shiftKeys(DataVersions dataVersions) {
+        return (target, method, params) -> new TenantKey(TenantContext.current(), new SimpleKey(
+                dataVersions.get(Table.SHIFTS), method.getName(), SimpleKeyGenerator.generateKey(params)));
+    }
+
+    /**
+     * Ключи данных песен: версия песен, метод и его параметры.
+     */
+    @Bean
+    public KeyGenerator songKeys(DataVersions dataVersions) {
+        return (target, method, params) -> new TenantKey(TenantContext.current(), new SimpleKey(
+                dataVersions.get(Table.SONGS), method.getName(), SimpleKeyGenerator.generateKey(params)));
+    }
+
+    /**
+     * Ключи статистики, зависящей от обоих типов записей: версии смен
+     * и песен, метод и его параметры.
+     */
+    @Bean
+    public KeyGenerator statsKeys(DataVersions dataVersions) {
+        return (target, method, params) -> new TenantKey(TenantContext.current(), new SimpleKey(
+                dataVersions.get(Table.SHIFTS), dataVersions.get(Table.SONGS), method.getName(),
+                SimpleKeyGenerator.generateKey(params)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.memorizer.config;
+
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выравнивает последовательности идентификаторов по уже существующим данным.
+ * 
+ * Таблицы смен и песен раньше использовали IDENTITY-столбцы, а новая
+ * последовательность создается миграцией с начальным значением 1. Чтобы
+ * выдаваемые идентификаторы не пересекались с существующими строками,
+ * при старте (до приема HTTP-запросов) последовательность сдвигается
+ * за максимальный идентификатор с запасом на один блок pooled-оптимизатора.
+ */
+@Slf4j
+@Component
+public class IdSequenceAligner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TenantRoutingDataSource dataSource;
+
+    /** Гарантирует, что миграции схемы уже применены */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Сдвигает последовательности смен и песен общей базы и каждой
+     * выделенной базы арендатора, если они отстают от данных.
+     */
+    @PostConstruct
+    public void align() {
+        TenantContext.run(TenantContext.DEFAULT_TENANT, this::alignDatabase);
+        for (String tenant : dataSource.getDedicatedTenants()) {
+            TenantContext.run(tenant, this::alignDatabase);
+        }
+    }
+
+    private void alignDatabase() {
+        align("shift", "shift_seq", Shift.ID_ALLOCATION_SIZE);
+        align("song", "song_seq", Song.ID_ALLOCATION_SIZE);
+    }
+
+    private void align(String table, String sequence, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        Long currentValue = jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences where lower(sequence_name) = ?",
+                Long.class, sequence);
+        // pooled-оптимизатор выдает диапазон (value - allocationSize, value]
+        if (maxId == null || currentValue == null || currentValue - allocationSize >= maxId) {
+            return;
+        }
+        long restartWith = maxId + allocationSize;
+        log.info("Restarting sequence {} with {} (max {}.id = {})", sequence, restartWith, table, maxId);
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + restartWith);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.memorizer.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Подключает учет SQL-запросов на HTTP-запрос для эндпоинтов {@code /api/**}.
+ * 
+ * Если реестр метрик недоступен (например, в срезах тестов),
+ * перехватчик не регистрируется.
+ */
+@Configuration
+public class MetricsWebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters ->
+                registry.addInterceptor(new QueryCountInterceptor(meters)).addPathPatterns("/api/**"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.memorizer.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы, подготовленные Hibernate в текущем потоке.
+ * 
+ * Подключается свойством
+ * {@code hibernate.session_factory.statement_inspector}; счетчик
+ * сбрасывается и читается {@link QueryCountInterceptor} для каждого
+ * HTTP-запроса. Текст запроса не изменяется.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Обнуляет счетчик текущего потока.
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * @return количество запросов с последнего сброса в текущем потоке
+     */
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.memorizer.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Проверяет при старте, что в базе есть индексы и ограничения уникальности,
+ * объявленные в {@link Table @Table} сущностей.
+ *
+ * Схемой управляют миграции Flyway, а Hibernate в режиме {@code validate}
+ * сверяет только таблицы и столбцы. Без индексов приложение работает,
+ * но запросы списков и выплаты превращаются в полный просмотр таблиц,
+ * поэтому расхождение обнаруживается сразу: приложение не запускается
+ * и сообщает, каких индексов не хватает.
+ *
+ * <p>
+ * Индексы сравниваются по таблице и упорядоченному списку столбцов
+ * с направлениями ({@code DESC}), а не по именам, — так проверка
+ * не зависит от имен, которые база присваивает индексам ограничений.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "memorizer.schema.check-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexCheck {
+
+    @Autowired
+    private DataSource dataSource;
+
+    /** Гарантирует, что миграции уже применены и метамодель построена */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Сверяет объявленные индексы с базой.
+     *
+     * @throws IllegalStateException если хотя бы одного индекса или
+     *                               ограничения уникальности нет в базе
+     */
+    @PostConstruct
+    public void check() throws SQLException {
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                Table table = entity.getJavaType().getAnnotation(Table.class);
+                if (table == null) {
+                    continue;
+                }
+                String tableName = table.name().isEmpty() ? toSnakeCase(entity.getJavaType().getSimpleName()) : table.name();
+                Set<List<String>> existing = readIndexes(metaData, tableName, false);
+                Set<List<String>> unique = readIndexes(metaData, tableName, true);
+                for (Index index : table.indexes()) {
+                    List<String> columns = Arrays.stream(index.columnList().split(","))
+                            .map(SchemaIndexCheck::toIndexColumn)
+                            .toList();
+                    if (!existing.contains(columns)) {
+                        missing.add(index.name() + " " + tableName + columns);
+                    }
+                }
+                for (UniqueConstraint constraint : table.uniqueConstraints()) {
+                    List<String> columns = Arrays.stream(constraint.columnNames()).map(SchemaIndexCheck::toSnakeCase).toList();
+                    if (!unique.contains(columns)) {
+                        missing.add(constraint.name() + " " + tableName + columns);
+                    }
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Схема базы не совпадает с сущностями, нет индексов: " + missing
+                    + ". Проверьте миграции в db/migration");
+        }
+        log.info("Schema indexes verified");
+    }
+
+    /**
+     * Читает индексы таблицы как упорядоченные списки столбцов.
+     */
+    private static Set<List<String>> readIndexes(DatabaseMetaData metaData, String table, boolean uniqueOnly)
+            throws SQLException {
+        Map<String, TreeMap<Short, String>> columnsByIndex = new TreeMap<>();
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+            try (ResultSet rows = metaData.getIndexInfo(null, null, name, uniqueOnly, false)) {
+                while (rows.next()) {
+                    String indexName = rows.getString("INDEX_NAME");
+                    String column = rows.getString("COLUMN_NAME");
+                    if (indexName != null && column != null) {
+                        String direction = "D".equals(rows.getString("ASC_OR_DESC")) ? " desc" : "";
+                        columnsByIndex.computeIfAbsent(indexName, key -> new TreeMap<>())
+                                .put(rows.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT) + direction);
+                    }
+                }
+            }
+            if (!columnsByIndex.isEmpty()) {
+                break;
+            }
+        }
+        Set<List<String>> indexes = new HashSet<>();
+        columnsByIndex.values().forEach(columns -> indexes.add(List.copyOf(columns.values())));
+        return indexes;
+    }
+
+    /**
+     * Переводит элемент {@code columnList} ("свойство [ASC|DESC]")
+     * в столбец индекса: имя столбца и " desc" для убывающего порядка.
+     */
+    static String toIndexColumn(String element) {
+        String[] parts = element.trim().split("\\s+");
+        boolean descending = parts.length > 1 && parts[1].equalsIgnoreCase("DESC");
+        return toSnakeCase(parts[0]) + (descending ? " desc" : "");
+    }
+
+    /**
+     * Переводит имя свойства в имя столбца по правилам
+     * {@code CamelCaseToUnderscoresNamingStrategy}.
+     */
+    static String toSnakeCase(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+}
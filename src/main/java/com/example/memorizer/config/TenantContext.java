@@ -0,0 +1,86 @@
+package com.example.memorizer.config;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Текущий арендатор (заведение) потока выполнения.
+ * 
+ * Устанавливается {@link TenantFilter} на время HTTP-запроса, а фоновыми
+ * задачами - на время обработки каждого арендатора. По нему Hibernate
+ * ограничивает запросы строками арендатора ({@link TenantIdentifierResolver}),
+ * а {@link TenantRoutingDataSource} выбирает базу. Вне запроса и задачи
+ * текущим считается арендатор {@link #DEFAULT_TENANT}.
+ */
+public final class TenantContext {
+
+    /** Арендатор по умолчанию: данные, созданные до появления арендаторов */
+    public static final String DEFAULT_TENANT = "default";
+
+    /** Допустимый идентификатор арендатора */
+    public static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,39}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return идентификатор текущего арендатора
+     */
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    /**
+     * Устанавливает арендатора потока до вызова {@link #clear()}.
+     */
+    static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    /**
+     * Сбрасывает арендатора потока.
+     */
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Выполняет действие от имени арендатора и восстанавливает прежнего.
+     * 
+     * Транзакции действия должны начинаться внутри него: соединение
+     * с базой выбирается при начале транзакции.
+     * 
+     * @param tenant идентификатор арендатора
+     * @param action действие
+     */
+    public static void run(String tenant, Runnable action) {
+        call(tenant, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Вычисляет значение от имени арендатора и восстанавливает прежнего.
+     * 
+     * @param tenant идентификатор арендатора
+     * @param action вычисление
+     * @return результат вычисления
+     */
+    public static <T> T call(String tenant, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
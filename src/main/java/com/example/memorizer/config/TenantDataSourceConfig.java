@@ -0,0 +1,60 @@
+package com.example.memorizer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Источник соединений с маршрутизацией по арендаторам.
+ * 
+ * Общая база настраивается свойствами {@code spring.datasource.*}, её схему
+ * ведет автоконфигурация Flyway. Каждая база из
+ * {@code memorizer.tenants.dedicated} получает собственный пул и те же
+ * миграции при старте, до того как к ней обратится Hibernate.
+ * 
+ * @see TenantRoutingDataSource
+ */
+@Slf4j
+@Configuration
+public class TenantDataSourceConfig {
+
+    @Bean
+    @Primary
+    public TenantRoutingDataSource dataSource(DataSourceProperties properties, FlywayProperties flywayProperties,
+            TenantProperties tenantProperties) {
+        DataSource shared = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Map<String, DataSource> dedicated = new LinkedHashMap<>();
+        tenantProperties.getDedicated().forEach((tenant, url) -> {
+            if (!TenantContext.TENANT_ID.matcher(tenant).matches()) {
+                throw new IllegalStateException("Недопустимый идентификатор арендатора: " + tenant);
+            }
+            DataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations(flywayProperties.getLocations().toArray(String[]::new))
+                    .baselineOnMigrate(flywayProperties.isBaselineOnMigrate())
+                    .baselineVersion(flywayProperties.getBaselineVersion())
+                    .load()
+                    .migrate();
+            log.info("Tenant {} uses its own database {}", tenant, url);
+            dedicated.put(tenant, dataSource);
+        });
+        return new TenantRoutingDataSource(shared, dedicated);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.memorizer.config;
+
+import com.example.memorizer.service.TenantService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Определяет арендатора HTTP-запроса.
+ * 
+ * Арендатор берется из заголовка {@value #HEADER}, а если его нет - из
+ * параметра {@value #PARAMETER} (браузерный {@code EventSource} не умеет
+ * отправлять заголовки). Без того и другого запрос выполняется от имени
+ * {@link TenantContext#DEFAULT_TENANT}. Недопустимый идентификатор
+ * отклоняется с кодом 400, незарегистрированный - с кодом 404.
+ * 
+ * @see TenantWebConfig
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    /** Заголовок с идентификатором арендатора */
+    public static final String HEADER = "X-Tenant-Id";
+
+    /** Параметр запроса с идентификатором арендатора */
+    public static final String PARAMETER = "tenant";
+
+    private final TenantService tenantService;
+
+    public TenantFilter(TenantService tenantService) {
+        this.tenantService = tenantService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenant = request.getHeader(HEADER);
+        if (tenant == null || tenant.isEmpty()) {
+            tenant = request.getParameter(PARAMETER);
+        }
+        if (tenant == null || tenant.isEmpty()) {
+            tenant = TenantContext.DEFAULT_TENANT;
+        } else if (!TenantContext.TENANT_ID.matcher(tenant).matches()) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Недопустимый идентификатор арендатора");
+            return;
+        } else if (!tenantService.exists(tenant)) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Арендатор не найден: " + tenant);
+            return;
+        }
+        try {
+            TenantContext.set(tenant);
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.memorizer.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Передает Hibernate текущего арендатора из {@link TenantContext}.
+ * 
+ * Сессия получает арендатора при открытии, и для сущностей с полем
+ * {@link org.hibernate.annotations.TenantId @TenantId} Hibernate сам
+ * заполняет его при сохранении и добавляет условие по арендатору во все
+ * запросы HQL и Criteria, включая массовые UPDATE и DELETE. Нативные
+ * SQL-запросы фильтруются явно.
+ */
+@Component
+public class TenantIdentifierResolver
+        implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.memorizer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки арендаторов (префикс {@code memorizer.tenants}).
+ * 
+ * @see TenantRoutingDataSource
+ */
+@Data
+@ConfigurationProperties(prefix = "memorizer.tenants")
+public class TenantProperties {
+
+    /**
+     * Арендаторы с собственной базой: идентификатор арендатора - JDBC URL.
+     * Остальные арендаторы хранятся в общей базе {@code spring.datasource}.
+     */
+    private Map<String, String> dedicated = new LinkedHashMap<>();
+}
@@ -0,0 +1,63 @@
+package com.example.memorizer.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Источник соединений, выбирающий базу по текущему арендатору.
+ * 
+ * Арендаторы из {@code memorizer.tenants.dedicated} получают соединения
+ * своей базы, остальные - общей. Базу выбирает момент получения
+ * соединения, то есть начало транзакции, поэтому арендатор должен быть
+ * установлен до неё (см. {@link TenantContext}).
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final DataSource shared;
+
+    private final Map<String, DataSource> dedicated;
+
+    /**
+     * @param shared    общая база
+     * @param dedicated собственные базы арендаторов
+     */
+    public TenantRoutingDataSource(DataSource shared, Map<String, DataSource> dedicated) {
+        this.shared = shared;
+        this.dedicated = Map.copyOf(dedicated);
+        setDefaultTargetDataSource(shared);
+        setTargetDataSources(new HashMap<>(dedicated));
+        afterPropertiesSet();
+    }
+
+    /**
+     * @return арендаторы с собственной базой
+     */
+    public Set<String> getDedicatedTenants() {
+        return dedicated.keySet();
+    }
+
+    /**
+     * Закрывает пулы соединений всех баз.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : dedicated.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (shared instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String tenant = TenantContext.current();
+        return dedicated.containsKey(tenant) ? tenant : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.memorizer.config;
+
+import com.example.memorizer.service.TenantService;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Регистрирует {@link TenantFilter} для всех HTTP-запросов.
+ * 
+ * Фильтр регистрируется бином конфигурации, а не компонентом, поэтому
+ * в срезах тестов {@code @WebMvcTest} его нет и запросы выполняются от
+ * имени арендатора по умолчанию.
+ */
+@Configuration
+public class TenantWebConfig {
+
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter(TenantService tenantService) {
+        FilterRegistrationBean<TenantFilter> registration =
+                new FilterRegistrationBean<>(new TenantFilter(tenantService));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
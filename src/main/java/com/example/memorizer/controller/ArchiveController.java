@@ -0,0 +1,111 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.dto.ArchiveResult;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.model.ArchiveRollup;
+import com.example.memorizer.model.ArchivedShift;
+import com.example.memorizer.model.ArchivedSong;
+import com.example.memorizer.service.ArchiveService;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+/**
+ * REST контроллер архива оплаченных записей.
+ *
+ * Предоставляет API только для чтения архивных смен и песен и их
+ * итогов по годам, а также ручной запуск архивации.
+ * Все эндпоинты доступны по базовому пути {@code /api/archive}.
+ *
+ * GET-ответы содержат ETag по версии архива; архив меняется только
+ * при архивации, поэтому повторные запросы обычно получают 304.
+ *
+ * @see ArchiveService
+ */
+@RestController
+@RequestMapping("/api/archive")
+public class ArchiveController {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    /**
+     * Получает страницу архивных смен.
+     *
+     * @param year       год выплаты (необязательный)
+     * @param workerName имя работника (необязательный)
+     * @param cursor     курсор {@code nextCursor} из предыдущей страницы (необязательный)
+     * @param limit      размер страницы (по умолчанию 50, не более 500)
+     * @param request    текущий запрос (для проверки ETag)
+     * @return страница смен в порядке возрастания идентификатора или null для ответа 304
+     */
+    @GetMapping("/shifts")
+    public KeysetPage<ArchivedShift> getShifts(@RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String workerName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.ARCHIVE))) {
+            return null;
+        }
+        return archiveService.findShifts(year, workerName, cursor, limit);
+    }
+
+    /**
+     * Получает страницу архивных песен.
+     *
+     * @param year    год выплаты (необязательный)
+     * @param addedBy имя заказчика (необязательный)
+     * @param cursor  курсор {@code nextCursor} из предыдущей страницы (необязательный)
+     * @param limit   размер страницы (по умолчанию 50, не более 500)
+     * @param request текущий запрос (для проверки ETag)
+     * @return страница песен в порядке возрастания идентификатора или null для ответа 304
+     */
+    @GetMapping("/songs")
+    public KeysetPage<ArchivedSong> getSongs(@RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String addedBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.ARCHIVE))) {
+            return null;
+        }
+        return archiveService.findSongs(year, addedBy, cursor, limit);
+    }
+
+    /**
+     * Получает итоги архива по годам.
+     *
+     * @param request текущий запрос (для проверки ETag)
+     * @return количество и сумма архивных записей по годам и типам или null для ответа 304
+     */
+    @GetMapping("/summary")
+    public List<ArchiveRollup> getSummary(ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.ARCHIVE))) {
+            return null;
+        }
+        return archiveService.getSummary();
+    }
+
+    /**
+     * Переносит в архив записи, закрытые выплатами старше
+     * {@code memorizer.archive.min-age}, не дожидаясь расписания.
+     *
+     * Повторный вызов безопасен: уже перенесенные записи не затрагиваются.
+     *
+     * @return количество перенесенных смен и песен
+     */
+    @PostMapping("/run")
+    public ArchiveResult archive() {
+        return archiveService.archiveSettled();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.memorizer.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Условные GET-запросы по ETag.
+ *
+ * ETag строится по версиям данных до обращения к сервисам, поэтому
+ * ответ 304 отдается без запросов к базе и без сериализации JSON.
+ * Ответы помечаются {@code Cache-Control: no-cache}: клиент может
+ * хранить их, но перед использованием должен перепроверить ETag.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Проверяет заголовок {@code If-None-Match} и выставляет ETag ответа.
+     *
+     * @param request текущий запрос
+     * @param etag    актуальный ETag ресурса
+     * @return true, если ответ уже подготовлен как 304 и обработчик
+     *         должен вернуть null
+     */
+    static boolean notModified(ServletWebRequest request, String etag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return request.checkNotModified(etag);
+    }
+}
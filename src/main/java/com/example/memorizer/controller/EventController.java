@@ -0,0 +1,40 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.service.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST контроллер потока изменений.
+ * 
+ * Отдает Server-Sent Events с изменениями смен, песен и выплат.
+ * Все эндпоинты доступны по базовому пути {@code /api/events}.
+ * 
+ * @see EventStreamService
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    /**
+     * Подписывается на поток изменений.
+     * 
+     * Каждое событие имеет имя ({@code shift-created}, {@code shift-deleted},
+     * {@code song-created}, {@code song-deleted}, {@code shifts-imported},
+     * {@code songs-imported}, {@code payout-completed}) и JSON-данные
+     * с измененной записью и новым балансом.
+     * 
+     * @return поток событий
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return eventStreamService.subscribe();
+    }
+}
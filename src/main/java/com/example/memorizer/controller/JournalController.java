@@ -0,0 +1,41 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.service.journal.EventJournal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+/**
+ * REST контроллер журнала событий заработка.
+ *
+ * Все эндпоинты доступны по базовому пути {@code /api/journal}.
+ * Доступен, пока журнал включен ({@code memorizer.journal.enabled}).
+ *
+ * @see EventJournal
+ */
+@RestController
+@RequestMapping("/api/journal")
+@ConditionalOnProperty(name = "memorizer.journal.enabled", havingValue = "true", matchIfMissing = true)
+public class JournalController {
+
+    @Autowired
+    private EventJournal journal;
+
+    /**
+     * Получает заработок по журналу событий: текущий или на момент времени.
+     *
+     * @param at момент времени в формате ISO-8601, например
+     *           {@code 2026-03-01T00:00:00Z} (необязательный; без него - текущий)
+     * @return общий заработок и текущий баланс на этот момент
+     */
+    @GetMapping("/earnings")
+    public EarningsDTO getEarnings(@RequestParam(required = false) Instant at) {
+        return at != null ? journal.getEarnings(at) : journal.getEarnings();
+    }
+}
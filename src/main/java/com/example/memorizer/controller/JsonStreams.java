@@ -0,0 +1,65 @@
+package com.example.memorizer.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Потоковое чтение записей из тела запроса.
+ * 
+ * Принимает как JSON-массив, так и NDJSON (по одному объекту на строку)
+ * и не загружает тело запроса в память целиком.
+ */
+final class JsonStreams {
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Возвращает ленивый итератор по записям тела запроса.
+     * 
+     * Ошибки разбора превращаются в ответ 400.
+     * 
+     * @param objectMapper настроенный Jackson ObjectMapper
+     * @param body         тело запроса
+     * @param type         тип записей
+     * @param <T>          тип записей
+     * @return итератор записей
+     */
+    static <T> Iterator<T> read(ObjectMapper objectMapper, InputStream body, Class<T> type) {
+        MappingIterator<T> values;
+        try {
+            values = objectMapper.readerFor(type).readValues(body);
+        } catch (IOException e) {
+            throw badRequest(e);
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return values.hasNextValue();
+                } catch (IOException e) {
+                    throw badRequest(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return values.nextValue();
+                } catch (IOException e) {
+                    throw badRequest(e);
+                }
+            }
+        };
+    }
+
+    private static ResponseStatusException badRequest(IOException e) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неверный формат данных", e);
+    }
+}
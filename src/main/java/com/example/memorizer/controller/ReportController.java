@@ -0,0 +1,66 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.dto.ReportSpec;
+import com.example.memorizer.service.report.ReportJob;
+import com.example.memorizer.service.report.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * REST контроллер фоновых отчетов.
+ * 
+ * Отчет заказывается запросом POST и строится в фоне; клиент опрашивает
+ * задание по идентификатору, пока оно не завершится.
+ * Все эндпоинты доступны по базовому пути {@code /api/reports}.
+ * 
+ * @see ReportService
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    /**
+     * Заказывает отчет.
+     * 
+     * @param type       вид отчета: {@code worker-yearly}, {@code shift-weekdays}
+     *                   или {@code songs-by-added-by}
+     * @param from       первая дата смен в формате {@code YYYY-MM-DD} (необязательный)
+     * @param to         последняя дата смен в формате {@code YYYY-MM-DD} (необязательный)
+     * @param workerName имя работника (необязательный)
+     * @return задание отчета (код 202); готовое задание, если тот же отчет
+     *         по неизменным данным уже заказан
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ReportJob submit(@RequestParam String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String workerName) {
+        return reportService.submit(new ReportSpec(ReportSpec.Type.parse(type), from, to, workerName));
+    }
+
+    /**
+     * Получает состояние задания и, когда оно завершено, результат.
+     * 
+     * @param id идентификатор задания
+     * @return задание; {@code status} показывает, готов ли отчет
+     */
+    @GetMapping("/{id}")
+    public ReportJob getJob(@PathVariable String id) {
+        return reportService.getJob(id);
+    }
+}
@@ -1,11 +1,29 @@
 package com.example.memorizer.controller;
 
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.ShiftFilter;
 import com.example.memorizer.model.Shift;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import com.example.memorizer.service.ExportService;
+import com.example.memorizer.service.IdempotencyStore;
+import com.example.memorizer.service.ExportService.ExportFormat;
 import com.example.memorizer.service.ShiftService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * REST контроллер для управления рабочими сменами.
@@ -23,14 +41,66 @@ public class ShiftController {
     @Autowired
     private ShiftService shiftService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
     /**
-     * Получает список всех рабочих смен.
+     * Получает страницу рабочих смен, от новых к старым.
+     * 
+     * Поддерживает фильтры {@code workerName}, {@code from}, {@code to},
+     * {@code paid} и курсорную пагинацию: для следующей страницы нужно
+     * передать {@code cursor} из поля {@code nextCursor} предыдущего ответа.
      * 
-     * @return список всех смен в формате JSON
+     * Ответ содержит ETag по версии смен; при совпадении с
+     * {@code If-None-Match} возвращается 304 без обращения к базе.
+     * 
+     * @param filter  фильтр смен из параметров запроса
+     * @param cursor  курсор следующей страницы (необязательный)
+     * @param limit   размер страницы (по умолчанию 50, не более 500)
+     * @param request текущий запрос (для проверки ETag)
+     * @return страница смен в формате JSON или null для ответа 304
      */
     @GetMapping
-    public List<Shift> getAllShifts() {
-        return shiftService.getAllShifts();
+    public KeysetPage<Shift> getShifts(ShiftFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS))) {
+            return null;
+        }
+        return shiftService.findShifts(filter, cursor, limit);
+    }
+
+    /**
+     * Получает страницу смен в компактном формате ({@code format=compact}).
+     * 
+     * Фильтры, курсоры, размер страницы и ETag - как у полного списка,
+     * но каждая запись передается массивом значений полей
+     * {@code id}, {@code date}, {@code workerName}, {@code cost} и {@code paid},
+     * а их имена - один раз в {@code columns}.
+     * 
+     * @param filter  фильтр смен из параметров запроса
+     * @param cursor  курсор следующей страницы (необязательный)
+     * @param limit   размер страницы (по умолчанию 50, не более 500)
+     * @param request текущий запрос (для проверки ETag)
+     * @return компактная страница смен или null для ответа 304
+     */
+    @GetMapping(params = "format=compact")
+    public CompactPage getShiftsCompact(ShiftFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS))) {
+            return null;
+        }
+        return shiftService.findShiftsCompact(filter, cursor, limit);
     }
 
     /**
@@ -38,12 +108,60 @@ public class ShiftController {
      * 
      * Стоимость смены рассчитывается автоматически на основе даты.
      * 
-     * @param shift данные новой смены в формате JSON
+     * @param shift          данные новой смены в формате JSON
+     * @param idempotencyKey ключ идемпотентности: повтор с тем же ключом
+     *                       возвращает результат первого запроса (необязательный)
      * @return созданная смена с рассчитанной стоимостью
      */
     @PostMapping
-    public Shift createShift(@RequestBody Shift shift) {
-        return shiftService.createShift(shift);
+    public Shift createShift(@RequestBody Shift shift,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /api/shifts", shift,
+                () -> shiftService.createShift(shift));
+    }
+
+    /**
+     * Выгружает смены в CSV или NDJSON.
+     * 
+     * Записи пишутся в ответ по мере чтения из базы, без загрузки всей
+     * выборки в память. Поддерживает фильтры {@code workerName}, {@code from}, {@code to} и
+     * {@code paid}; смены выгружаются от старых к новым.
+     * 
+     * @param filter   фильтр из параметров запроса
+     * @param format   формат выгрузки: {@code csv} (по умолчанию) или {@code ndjson}
+     * @param response HTTP-ответ, в который пишется выгрузка
+     * @throws IOException при ошибке записи ответа
+     */
+    @GetMapping("/export")
+    public void exportShifts(ShiftFilter filter, @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"shifts." + exportFormat.getExtension() + "\"");
+        Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        exportService.exportShifts(filter, exportFormat, out);
+        out.flush();
+    }
+
+    /**
+     * Пакетно импортирует смены.
+     * 
+     * Принимает JSON-массив или NDJSON-поток (по одному объекту на строку).
+     * Стоимость каждой смены рассчитывается так же, как при создании
+     * одной смены.
+     * 
+     * @param body           тело запроса
+     * @param idempotencyKey ключ идемпотентности: повтор с тем же ключом и тем же
+     *                       телом возвращает результат первого запроса, с другим
+     *                       телом - 422 (необязательный)
+     * @return количество импортированных записей и их суммарная стоимость
+     */
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchImportResult importShifts(InputStream body,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /api/shifts/batch", body,
+                in -> shiftService.importShifts(JsonStreams.read(objectMapper, in, Shift.class)));
     }
 
     /**
@@ -1,11 +1,29 @@
 package com.example.memorizer.controller;
 
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.SongFilter;
 import com.example.memorizer.model.Song;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import com.example.memorizer.service.ExportService;
+import com.example.memorizer.service.IdempotencyStore;
+import com.example.memorizer.service.ExportService.ExportFormat;
 import com.example.memorizer.service.SongService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * REST контроллер для управления песнями вне очереди.
@@ -23,14 +41,66 @@ public class SongController {
     @Autowired
     private SongService songService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
     /**
-     * Получает список всех песен.
+     * Получает страницу песен, от новых к старым.
+     * 
+     * Поддерживает фильтры {@code addedBy}, {@code paid} и курсорную
+     * пагинацию: для следующей страницы нужно передать {@code cursor}
+     * из поля {@code nextCursor} предыдущего ответа.
      * 
-     * @return список всех песен в формате JSON
+     * Ответ содержит ETag по версии песен; при совпадении с
+     * {@code If-None-Match} возвращается 304 без обращения к базе.
+     * 
+     * @param filter  фильтр песен из параметров запроса
+     * @param cursor  курсор следующей страницы (необязательный)
+     * @param limit   размер страницы (по умолчанию 50, не более 500)
+     * @param request текущий запрос (для проверки ETag)
+     * @return страница песен в формате JSON или null для ответа 304
      */
     @GetMapping
-    public List<Song> getAllSongs() {
-        return songService.getAllSongs();
+    public KeysetPage<Song> getSongs(SongFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SONGS))) {
+            return null;
+        }
+        return songService.findSongs(filter, cursor, limit);
+    }
+
+    /**
+     * Получает страницу песен в компактном формате ({@code format=compact}).
+     * 
+     * Фильтры, курсоры, размер страницы и ETag - как у полного списка,
+     * но каждая запись передается массивом значений полей
+     * {@code id}, {@code title}, {@code addedBy}, {@code cost} и {@code paid},
+     * а их имена - один раз в {@code columns}.
+     * 
+     * @param filter  фильтр песен из параметров запроса
+     * @param cursor  курсор следующей страницы (необязательный)
+     * @param limit   размер страницы (по умолчанию 50, не более 500)
+     * @param request текущий запрос (для проверки ETag)
+     * @return компактная страница песен или null для ответа 304
+     */
+    @GetMapping(params = "format=compact")
+    public CompactPage getSongsCompact(SongFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SONGS))) {
+            return null;
+        }
+        return songService.findSongsCompact(filter, cursor, limit);
     }
 
     /**
@@ -38,12 +108,59 @@ public class SongController {
      * 
      * Стоимость песни устанавливается автоматически (1000 ₽).
      * 
-     * @param song данные новой песни в формате JSON
+     * @param song           данные новой песни в формате JSON
+     * @param idempotencyKey ключ идемпотентности: повтор с тем же ключом
+     *                       возвращает результат первого запроса (необязательный)
      * @return созданная песня с установленной стоимостью
      */
     @PostMapping
-    public Song addSong(@RequestBody Song song) {
-        return songService.addSong(song);
+    public Song addSong(@RequestBody Song song,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /api/songs", song,
+                () -> songService.addSong(song));
+    }
+
+    /**
+     * Выгружает песни в CSV или NDJSON.
+     * 
+     * Записи пишутся в ответ по мере чтения из базы, без загрузки всей
+     * выборки в память. Поддерживает фильтры {@code addedBy} и {@code paid}; песни
+     * выгружаются в порядке добавления.
+     * 
+     * @param filter   фильтр из параметров запроса
+     * @param format   формат выгрузки: {@code csv} (по умолчанию) или {@code ndjson}
+     * @param response HTTP-ответ, в который пишется выгрузка
+     * @throws IOException при ошибке записи ответа
+     */
+    @GetMapping("/export")
+    public void exportSongs(SongFilter filter, @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"songs." + exportFormat.getExtension() + "\"");
+        Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        exportService.exportSongs(filter, exportFormat, out);
+        out.flush();
+    }
+
+    /**
+     * Пакетно импортирует песни.
+     * 
+     * Принимает JSON-массив или NDJSON-поток (по одному объекту на строку).
+     * Стоимость каждой песни устанавливается в 1000 ₽.
+     * 
+     * @param body           тело запроса
+     * @param idempotencyKey ключ идемпотентности: повтор с тем же ключом и тем же
+     *                       телом возвращает результат первого запроса, с другим
+     *                       телом - 422 (необязательный)
+     * @return количество импортированных записей и их суммарная стоимость
+     */
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchImportResult importSongs(InputStream body,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /api/songs/batch", body,
+                in -> songService.importSongs(JsonStreams.read(objectMapper, in, Song.class)));
     }
 
     /**
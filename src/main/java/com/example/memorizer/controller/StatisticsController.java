@@ -1,15 +1,35 @@
 package com.example.memorizer.controller;
 
-import com.example.memorizer.model.Shift;
-import com.example.memorizer.model.Song;
-import com.example.memorizer.repository.ShiftRepository;
-import com.example.memorizer.repository.SongRepository;
-import lombok.Data;
+import com.example.memorizer.dto.BreakdownDTO;
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.dto.PayoutScope;
+import com.example.memorizer.dto.ShiftEarningsDTO;
+import com.example.memorizer.dto.ShiftReportDTO;
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.model.PayoutStatus;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import com.example.memorizer.service.EarningsHistoryService;
+import com.example.memorizer.service.EarningsLedgerService;
+import com.example.memorizer.service.IdempotencyStore;
+import com.example.memorizer.service.PayoutService;
+import com.example.memorizer.service.StatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -19,18 +39,36 @@ import java.util.List;
  * выполнения операций выплаты (обнуления текущего баланса).
  * Все эндпоинты доступны по базовому пути {@code /api/stats}.
  * 
- * @see ShiftRepository
- * @see SongRepository
+ * GET-ответы содержат ETag по версиям смен и песен (и итогов журнала
+ * для заработка); при совпадении с {@code If-None-Match} возвращается
+ * 304 без обращения к базе.
+ * 
+ * @see EarningsLedgerService
+ * @see EarningsHistoryService
+ * @see PayoutService
+ * @see StatisticsService
  */
 @RestController
 @RequestMapping("/api/stats")
 public class StatisticsController {
 
     @Autowired
-    private ShiftRepository shiftRepository;
+    private EarningsLedgerService ledgerService;
+
+    @Autowired
+    private EarningsHistoryService historyService;
+
+    @Autowired
+    private PayoutService payoutService;
+
+    @Autowired
+    private StatisticsService statisticsService;
 
     @Autowired
-    private SongRepository songRepository;
+    private DataVersions dataVersions;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
 
     /**
      * Получает статистику по заработку.
@@ -41,79 +79,174 @@ public class StatisticsController {
      * <li>currentBalance - текущий баланс (только неоплаченные записи)</li>
      * </ul>
      * 
-     * @return объект {@link EarningsDTO} с информацией о заработке
+     * Значения берутся из журнала заработка и не требуют чтения
+     * всех смен и песен. Запрос с параметрами {@code asOf}, {@code from}
+     * или {@code to} обрабатывает {@link #getShiftEarnings}.
+     * 
+     * @param request текущий запрос (для проверки ETag)
+     * @return объект {@link EarningsDTO} с информацией о заработке или null для ответа 304
+     */
+    @GetMapping(path = "/earnings", params = { "!asOf", "!from", "!to" })
+    public EarningsDTO getEarnings(ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS, Table.SONGS, Table.LEDGER))) {
+            return null;
+        }
+        return ledgerService.getEarnings();
+    }
+
+    /**
+     * Получает заработок по сменам с датой не позже {@code asOf} или в периоде.
+     * 
+     * Возвращает стоимость этих смен и стоимость тех из них, что не оплачены
+     * на сегодня. Это не баланс на дату: песни не учитываются (у них нет даты),
+     * а признак оплаты - текущий. Суммы берутся из индекса префиксных сумм по дням.
+     * 
+     * @param asOf    последняя дата смен в формате {@code YYYY-MM-DD}
+     * @param from    первая дата периода в формате {@code YYYY-MM-DD}
+     * @param to      последняя дата периода в формате {@code YYYY-MM-DD}
+     * @param request текущий запрос (для проверки ETag)
+     * @return объект {@link ShiftEarningsDTO} или null для ответа 304
+     * @see EarningsHistoryService
      */
     @GetMapping("/earnings")
-    public EarningsDTO getEarnings() {
-        List<Shift> shifts = shiftRepository.findAll();
-        List<Song> songs = songRepository.findAll();
-
-        // Lifetime earnings (all items, paid and unpaid)
-        long lifetimeShiftEarnings = shifts.stream()
-                .mapToInt(shift -> shift.getCost() != null ? shift.getCost() : 0)
-                .sum();
-
-        long lifetimeSongEarnings = songs.stream()
-                .mapToInt(song -> song.getCost() != null ? song.getCost() : 0)
-                .sum();
-
-        // Current balance (unpaid items only)
-        long currentShiftBalance = shifts.stream()
-                .filter(shift -> !shift.isPaid())
-                .mapToInt(shift -> shift.getCost() != null ? shift.getCost() : 0)
-                .sum();
-
-        long currentSongBalance = songs.stream()
-                .filter(song -> !song.isPaid())
-                .mapToInt(song -> song.getCost() != null ? song.getCost() : 0)
-                .sum();
-
-        long lifetimeTotal = lifetimeShiftEarnings + lifetimeSongEarnings;
-        long currentTotal = currentShiftBalance + currentSongBalance;
-
-        return new EarningsDTO(lifetimeTotal, currentTotal);
+    public ShiftEarningsDTO getShiftEarnings(
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate asOf,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+            ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS))) {
+            return null;
+        }
+        return asOf != null ? historyService.getEarningsAsOf(asOf) : historyService.getEarningsBetween(from, to);
     }
 
     /**
-     * Выполняет выплату зарплаты.
+     * Получает детализацию заработка.
+     * 
+     * Суммы считаются агрегатными запросами в базе данных, без загрузки
+     * отдельных записей.
      * 
-     * Помечает все неоплаченные смены и песни как оплаченные (paid = true).
-     * После этой операции текущий баланс обнуляется, но общий заработок
-     * за всё время остается неизменным.
+     * @param by признак группировки: {@code worker} (по работникам),
+     *           {@code month} (по месяцам) или {@code payout} (по выплатам)
+     * @param request текущий запрос (для проверки ETag)
+     * @return объект {@link BreakdownDTO} с итогами и строками детализации или null для ответа 304
      */
-    @org.springframework.web.bind.annotation.PostMapping("/payout")
-    public void payout() {
-        List<Shift> shifts = shiftRepository.findAll();
-        for (Shift shift : shifts) {
-            if (!shift.isPaid()) {
-                shift.setPaid(true);
-                shiftRepository.save(shift);
-            }
+    @GetMapping("/breakdown")
+    public BreakdownDTO getBreakdown(@RequestParam(defaultValue = "worker") String by, ServletWebRequest request) {
+        StatisticsService.BreakdownGroup groupBy = StatisticsService.BreakdownGroup.parse(by);
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS, Table.SONGS))) {
+            return null;
         }
+        return statisticsService.getBreakdown(groupBy);
+    }
 
-        List<Song> songs = songRepository.findAll();
-        for (Song song : songs) {
-            if (!song.isPaid()) {
-                song.setPaid(true);
-                songRepository.save(song);
-            }
+    /**
+     * Получает отчет по работникам за период.
+     * 
+     * Строится по итогам смен по работникам и месяцам и учитывает
+     * архивные смены.
+     * 
+     * @param from    первый месяц периода в формате {@code YYYY-MM} (необязательный)
+     * @param to      последний месяц периода в формате {@code YYYY-MM} (необязательный)
+     * @param request текущий запрос (для проверки ETag)
+     * @return объект {@link ShiftReportDTO} со строкой на каждого работника или null для ответа 304
+     */
+    @GetMapping("/workers")
+    public ShiftReportDTO getWorkerReport(@RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS))) {
+            return null;
         }
+        return statisticsService.getWorkerReport(from, to);
     }
 
     /**
-     * DTO для передачи информации о заработке.
+     * Получает помесячный отчет за период.
      * 
-     * Содержит два поля:
-     * <ul>
-     * <li>lifetimeEarnings - общий заработок за всё время</li>
-     * <li>currentBalance - текущий баланс (с последней выплаты)</li>
-     * </ul>
+     * @param worker  имя работника (необязательный, по умолчанию все работники)
+     * @param from    первый месяц периода в формате {@code YYYY-MM} (необязательный)
+     * @param to      последний месяц периода в формате {@code YYYY-MM} (необязательный)
+     * @param request текущий запрос (для проверки ETag)
+     * @return объект {@link ShiftReportDTO} со строкой на каждый месяц или null для ответа 304
      */
-    @Data
-    public static class EarningsDTO {
-        /** Общий заработок за всё время (в рублях) */
-        private final long lifetimeEarnings; // Всего за всё время
-        /** Текущий баланс с последней выплаты (в рублях) */
-        private final long currentBalance; // Текущий баланс (с последней выплаты)
+    @GetMapping("/monthly")
+    public ShiftReportDTO getMonthlyReport(@RequestParam(required = false) String worker,
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS))) {
+            return null;
+        }
+        return statisticsService.getMonthlyReport(worker, from, to);
+    }
+
+    /**
+     * Выполняет выплату зарплаты.
+     * 
+     * Без параметров помечает все неоплаченные смены и песни как
+     * оплаченные (paid = true) одной транзакцией. После этой операции
+     * текущий баланс обнуляется, но общий заработок за всё время остается
+     * неизменным.
+     * 
+     * С параметрами области ({@code workerName}, {@code from}, {@code to},
+     * {@code maxAmount}) закрывает только подходящие записи, порциями
+     * в отдельных транзакциях в фоновом потоке: ответ 202 приходит сразу
+     * с начатой выплатой, а её ход доступен через
+     * {@code GET /api/stats/payouts/{id}}.
+     * 
+     * Повтор запроса с тем же {@code Idempotency-Key} и той же областью
+     * возвращает ту же выплату, а не пустую повторную; тот же ключ
+     * с другой областью отклоняется с кодом 422.
+     * 
+     * @param scope          область выплаты (все поля необязательны)
+     * @param idempotencyKey ключ идемпотентности: повтор с тем же ключом
+     *                       возвращает результат первого запроса (необязательный)
+     * @return выполненная выплата с выплаченной суммой (200) или начатая
+     *         выплата по области (202)
+     */
+    @PostMapping("/payout")
+    public ResponseEntity<PayoutBatch> payout(PayoutScope scope,
+            @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        PayoutBatch batch = idempotencyStore.execute(idempotencyKey, "POST /api/stats/payout", scope,
+                () -> scope.isEmpty() ? payoutService.payout() : payoutService.payout(scope));
+        HttpStatus status = batch.getStatus() == PayoutStatus.IN_PROGRESS ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(batch);
+    }
+
+    /**
+     * Получает выплату с закрытыми на данный момент количествами и суммами.
+     * 
+     * @param id идентификатор выплаты
+     * @return выплата; {@code status} показывает, завершена ли она
+     */
+    @GetMapping("/payouts/{id}")
+    public PayoutBatch getPayout(@PathVariable Long id) {
+        return payoutService.getPayout(id);
+    }
+
+    /**
+     * Продолжает прерванную выплату по области.
+     * 
+     * Прерванные выплаты продолжаются и автоматически при старте приложения.
+     * 
+     * @param id идентификатор выплаты
+     * @return завершенная выплата
+     */
+    @PostMapping("/payouts/{id}/resume")
+    public PayoutBatch resumePayout(@PathVariable Long id) {
+        return payoutService.resume(id);
+    }
+
+    /**
+     * Получает историю последних выплат.
+     * 
+     * @param request текущий запрос (для проверки ETag)
+     * @return список последних выплат, начиная с самой новой, или null для ответа 304
+     */
+    @GetMapping("/payouts")
+    public List<PayoutBatch> getRecentPayouts(ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(Table.SHIFTS, Table.SONGS))) {
+            return null;
+        }
+        return payoutService.getRecentPayouts();
     }
 }
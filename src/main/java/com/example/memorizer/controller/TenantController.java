@@ -0,0 +1,53 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.model.Tenant;
+import com.example.memorizer.service.TenantService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST контроллер реестра арендаторов (рабочих пространств).
+ * 
+ * Все эндпоинты доступны по базовому пути {@code /api/tenants}.
+ * Остальные эндпоинты работают с данными арендатора из заголовка
+ * {@code X-Tenant-Id}.
+ * 
+ * @see TenantService
+ */
+@RestController
+@RequestMapping("/api/tenants")
+public class TenantController {
+
+    @Autowired
+    private TenantService tenantService;
+
+    /**
+     * Получает список арендаторов.
+     * 
+     * @return арендаторы в порядке идентификаторов
+     */
+    @GetMapping
+    public List<Tenant> getTenants() {
+        return tenantService.findAll();
+    }
+
+    /**
+     * Регистрирует арендатора.
+     * 
+     * @param tenant идентификатор и название арендатора
+     * @return зарегистрированный арендатор (код 201)
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Tenant createTenant(@RequestBody Tenant tenant) {
+        return tenantService.create(tenant.getId(), tenant.getName());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * DTO с результатом переноса оплаченных записей в архив.
+ */
+@Data
+public class ArchiveResult {
+    /** Перенесены записи, закрытые выплатами раньше этого момента */
+    private final Instant cutoff;
+    /** Количество перенесенных смен */
+    private final long shifts;
+    /** Количество перенесенных песен */
+    private final long songs;
+}
@@ -0,0 +1,14 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+/**
+ * DTO с результатом пакетного импорта.
+ */
+@Data
+public class BatchImportResult {
+    /** Количество импортированных записей */
+    private final long imported;
+    /** Суммарная стоимость импортированных записей в рублях */
+    private final long totalCost;
+}
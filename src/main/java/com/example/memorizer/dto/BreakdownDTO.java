@@ -0,0 +1,42 @@
+package com.example.memorizer.dto;
+
+import com.example.memorizer.model.ItemType;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO для передачи детализации заработка.
+ * 
+ * Содержит общие итоги и строки, сгруппированные по выбранному
+ * признаку ({@code groupBy}). Все суммы посчитаны агрегатными
+ * запросами на стороне базы данных.
+ */
+@Data
+public class BreakdownDTO {
+    /** Признак группировки: worker, month или payout */
+    private final String groupBy;
+    /** Общий заработок за всё время (в рублях) */
+    private final long lifetimeEarnings;
+    /** Текущий баланс (в рублях) */
+    private final long currentBalance;
+    /** Строки детализации */
+    private final List<Row> rows;
+
+    /**
+     * Строка детализации: одна группа записей одного типа.
+     */
+    @Data
+    public static class Row {
+        /** Тип записей группы */
+        private final ItemType itemType;
+        /** Ключ группы: имя работника, месяц (YYYY-MM) или id выплаты (null - записи без выплаты) */
+        private final String key;
+        /** Количество записей */
+        private final long count;
+        /** Общая стоимость записей в рублях */
+        private final long total;
+        /** Стоимость неоплаченных записей в рублях */
+        private final long unpaid;
+    }
+}
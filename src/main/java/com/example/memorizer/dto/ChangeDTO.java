@@ -0,0 +1,14 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+/**
+ * DTO изменения, передаваемого клиентам через поток событий.
+ */
+@Data
+public class ChangeDTO {
+    /** Данные изменения (смена, песня, выплата или итоги импорта) */
+    private final Object data;
+    /** Заработок после изменения */
+    private final EarningsDTO earnings;
+}
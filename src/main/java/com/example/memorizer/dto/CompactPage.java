@@ -0,0 +1,42 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница списка в компактном формате ({@code format=compact}):
+ * имена столбцов передаются один раз, а каждая запись - массивом
+ * значений в том же порядке.
+ * 
+ * <pre>
+ * {"columns":["id","date","workerName","cost","paid"],
+ *  "rows":[[7,"2026-01-09","Я",4000,false]],"nextCursor":"2026-01-09:7"}
+ * </pre>
+ * 
+ * Без повторения имен полей в каждой записи ответ меньше, а Jackson
+ * пишет массивы без обхода свойств объекта.
+ */
+@Data
+public class CompactPage {
+    /** Имена столбцов строк */
+    private final List<String> columns;
+    /** Записи страницы: значения в порядке {@link #columns} */
+    private final List<Object[]> rows;
+    /** Курсор следующей страницы (null, если страница последняя) */
+    private final String nextCursor;
+
+    /**
+     * Переводит страницу записей в компактный формат.
+     * 
+     * @param columns имена столбцов
+     * @param page    страница записей
+     * @param toRow   значения записи в порядке столбцов
+     * @param <T>     тип записей
+     * @return компактная страница с тем же курсором
+     */
+    public static <T> CompactPage of(List<String> columns, KeysetPage<T> page, Function<T, Object[]> toRow) {
+        return new CompactPage(columns, page.getItems().stream().map(toRow).toList(), page.getNextCursor());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.memorizer.dto;
+
+/**
+ * Проекция агрегатного запроса с группировкой по дню.
+ * 
+ * Заполняется Spring Data по псевдонимам {@code epochDay}, {@code total}
+ * и {@code unpaid} в SQL запросе.
+ */
+public interface DayTotals {
+    /** @return номер дня от 1970-01-01 ({@link java.time.LocalDate#toEpochDay()}) */
+    long getEpochDay();
+
+    /** @return суммарная стоимость записей за день в рублях */
+    long getTotal();
+
+    /** @return стоимость неоплаченных записей за день в рублях */
+    long getUnpaid();
+}
@@ -0,0 +1,22 @@
+package com.example.memorizer.dto;
+
+/**
+ * Проекция агрегатного запроса с группировкой.
+ * 
+ * Одна строка описывает группу записей (работника, заказчика песен или
+ * выплату): количество записей, общую стоимость и стоимость неоплаченных.
+ * Заполняется Spring Data по псевдонимам в JPQL запросе.
+ */
+public interface EarningsBucket {
+    /** @return ключ группы (имя работника, заказчика или идентификатор выплаты) */
+    String getKey();
+
+    /** @return количество записей в группе */
+    long getCount();
+
+    /** @return общая стоимость записей группы в рублях */
+    long getTotal();
+
+    /** @return стоимость неоплаченных записей группы в рублях */
+    long getUnpaid();
+}
@@ -0,0 +1,20 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+/**
+ * DTO для передачи информации о заработке.
+ * 
+ * Содержит два поля:
+ * <ul>
+ * <li>lifetimeEarnings - общий заработок за всё время</li>
+ * <li>currentBalance - текущий баланс (с последней выплаты)</li>
+ * </ul>
+ */
+@Data
+public class EarningsDTO {
+    /** Общий заработок за всё время (в рублях) */
+    private final long lifetimeEarnings; // Всего за всё время
+    /** Текущий баланс с последней выплаты (в рублях) */
+    private final long currentBalance; // Текущий баланс (с последней выплаты)
+}
@@ -0,0 +1,15 @@
+package com.example.memorizer.dto;
+
+/**
+ * Проекция диапазона идентификаторов таблицы.
+ * 
+ * Заполняется Spring Data по псевдонимам {@code lowId} и {@code highId}
+ * в JPQL запросе.
+ */
+public interface IdRange {
+    /** @return наименьший идентификатор (null, если записей нет) */
+    Long getLowId();
+
+    /** @return наибольший идентификатор (null, если записей нет) */
+    Long getHighId();
+}
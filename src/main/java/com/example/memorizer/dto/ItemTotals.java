@@ -0,0 +1,15 @@
+package com.example.memorizer.dto;
+
+/**
+ * Проекция агрегатного запроса: количество записей и их суммарная стоимость.
+ * 
+ * Заполняется Spring Data по псевдонимам {@code count} и {@code amount}
+ * в JPQL запросе, без загрузки самих сущностей.
+ */
+public interface ItemTotals {
+    /** @return количество записей */
+    long getCount();
+
+    /** @return суммарная стоимость записей в рублях */
+    long getAmount();
+}
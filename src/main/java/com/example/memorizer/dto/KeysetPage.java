@@ -0,0 +1,42 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница результатов с курсорной (keyset) пагинацией.
+ * 
+ * Вместо номера страницы клиент передает курсор {@code nextCursor}
+ * из предыдущего ответа, поэтому стоимость запроса не зависит от того,
+ * насколько далеко клиент пролистал историю.
+ * 
+ * @param <T> тип элементов страницы
+ */
+@Data
+public class KeysetPage<T> {
+    /** Элементы текущей страницы */
+    private final List<T> items;
+    /** Курсор следующей страницы (null, если страница последняя) */
+    private final String nextCursor;
+
+    /**
+     * Собирает страницу из выборки, прочитанной с запасом в одну запись:
+     * если запись сверх размера страницы есть, курсор указывает на
+     * последнюю запись страницы, иначе страница последняя.
+     * 
+     * @param rows     выборка не более чем из {@code pageSize + 1} записей
+     * @param pageSize размер страницы
+     * @param cursorOf курсор по последней записи страницы
+     * @param <T>      тип элементов страницы
+     * @return страница и курсор следующей страницы
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int pageSize, Function<T, String> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(pageSize - 1)));
+    }
+}
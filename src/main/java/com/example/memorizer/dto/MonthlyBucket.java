@@ -0,0 +1,23 @@
+package com.example.memorizer.dto;
+
+/**
+ * Проекция агрегатного запроса с группировкой по месяцам.
+ * 
+ * Заполняется Spring Data по псевдонимам в JPQL запросе.
+ */
+public interface MonthlyBucket {
+    /** @return год */
+    int getYear();
+
+    /** @return номер месяца (1-12) */
+    int getMonth();
+
+    /** @return количество записей за месяц */
+    long getCount();
+
+    /** @return общая стоимость записей за месяц в рублях */
+    long getTotal();
+
+    /** @return стоимость неоплаченных записей за месяц в рублях */
+    long getUnpaid();
+}
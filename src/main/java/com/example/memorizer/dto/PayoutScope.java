@@ -0,0 +1,39 @@
+package com.example.memorizer.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Область выплаты: какие неоплаченные записи она закрывает.
+ * 
+ * Все поля необязательны; незаполненное поле не ограничивает выплату.
+ * Песни не привязаны к работнику и дате, поэтому выплата по работнику
+ * или по датам закрывает только смены.
+ * 
+ * @param workerName имя работника
+ * @param from       первая дата смен (включительно)
+ * @param to         последняя дата смен (включительно)
+ * @param maxAmount  предельная сумма выплаты в рублях: записи закрываются
+ *                   от самых старых, пока сумма не превышает предел
+ */
+public record PayoutScope(
+        String workerName,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        Long maxAmount) {
+
+    /**
+     * @return true, если область не ограничена (выплата всех записей)
+     */
+    public boolean isEmpty() {
+        return workerName == null && from == null && to == null && maxAmount == null;
+    }
+
+    /**
+     * @return true, если выплата закрывает и песни
+     */
+    public boolean includesSongs() {
+        return workerName == null && from == null && to == null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO результата отчета, построенного фоновым заданием.
+ * 
+ * Учитываются и архивные записи (как оплаченные).
+ */
+@Data
+public class ReportDTO {
+    /** Количество записей в отчете */
+    private final long count;
+    /** Стоимость записей в рублях */
+    private final long total;
+    /** Стоимость неоплаченных записей в рублях */
+    private final long unpaid;
+    /** Строки отчета */
+    private final List<Row> rows;
+
+    /**
+     * Строка отчета: записи с одним ключом.
+     */
+    @Data
+    public static class Row {
+        /** Ключ строки (формат зависит от вида отчета) */
+        private final String key;
+        /** Количество записей */
+        private final long count;
+        /** Стоимость записей в рублях */
+        private final long total;
+        /** Стоимость неоплаченных записей в рублях */
+        private final long unpaid;
+    }
+}
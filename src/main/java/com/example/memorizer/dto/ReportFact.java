@@ -0,0 +1,24 @@
+package com.example.memorizer.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Проекция записи для отчетов: только поля, по которым строятся
+ * их строки.
+ * 
+ * Заполняется Spring Data по псевдонимам {@code date}, {@code name},
+ * {@code cost} и {@code paid} в JPQL запросе; у песен нет даты.
+ */
+public interface ReportFact {
+    /** @return дата смены (null для песен и смен без даты) */
+    LocalDate getDate();
+
+    /** @return имя работника смены или того, кто заказал песню */
+    String getName();
+
+    /** @return стоимость в рублях */
+    Integer getCost();
+
+    /** @return признак оплаты */
+    boolean isPaid();
+}
@@ -0,0 +1,74 @@
+package com.example.memorizer.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Описание отчета, заказываемого через {@code POST /api/reports}.
+ * 
+ * Одинаковые описания дают одинаковый отчет: готовый результат
+ * переиспользуется, пока данные не изменились.
+ * 
+ * @param type       вид отчета
+ * @param from       первая дата смен (включительно, null — без ограничения)
+ * @param to         последняя дата смен (включительно, null — без ограничения)
+ * @param workerName имя работника (null — все работники)
+ */
+public record ReportSpec(Type type, LocalDate from, LocalDate to, String workerName) {
+
+    /**
+     * Вид отчета.
+     */
+    public enum Type {
+        /** Смены по годам и работникам; ключ строки - {@code YYYY/имя} */
+        WORKER_YEARLY("worker-yearly", false),
+        /** Смены по дням недели; ключ строки - {@code MONDAY} ... {@code SUNDAY} */
+        SHIFT_WEEKDAYS("shift-weekdays", false),
+        /** Песни по тому, кто их заказал; ключ строки - {@code addedBy} */
+        SONGS_BY_ADDED_BY("songs-by-added-by", true);
+
+        private final String name;
+
+        private final boolean songs;
+
+        Type(String name, boolean songs) {
+            this.name = name;
+            this.songs = songs;
+        }
+
+        /**
+         * @return имя вида отчета в API
+         */
+        @JsonValue
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return true для отчетов по песням, false - по сменам
+         */
+        public boolean isSongs() {
+            return songs;
+        }
+
+        /**
+         * Разбирает вид отчета из параметра запроса без учета регистра.
+         * 
+         * @param value значение параметра
+         * @return вид отчета
+         * @throws ResponseStatusException 400, если значение неизвестно
+         */
+        public static Type parse(String value) {
+            for (Type type : values()) {
+                if (type.name.equals(value.toLowerCase(Locale.ROOT))) {
+                    return type;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестный вид отчета: " + value);
+        }
+    }
+}
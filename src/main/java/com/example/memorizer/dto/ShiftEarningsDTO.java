@@ -0,0 +1,25 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * DTO заработка по сменам с датой в периоде.
+ * 
+ * В отличие от {@link EarningsDTO}, это не баланс на дату: учитываются
+ * только смены (у песен нет даты), а неоплаченная часть считается по
+ * признаку оплаты на сегодня. Баланс на момент времени с учетом песен
+ * и выплат отдает журнал событий ({@code GET /api/journal/earnings?at=}).
+ */
+@Data
+public class ShiftEarningsDTO {
+    /** Первая дата смен периода (включительно; null - без ограничения) */
+    private final LocalDate from;
+    /** Последняя дата смен периода (включительно; null - без ограничения) */
+    private final LocalDate to;
+    /** Стоимость смен с датой в периоде (в рублях) */
+    private final long shiftsTotal;
+    /** Стоимость тех из них, что не оплачены на сегодня (в рублях) */
+    private final long shiftsUnpaidNow;
+}
@@ -0,0 +1,22 @@
+package com.example.memorizer.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Фильтр для выборки рабочих смен.
+ * 
+ * Все поля необязательны; незаполненное поле не ограничивает выборку.
+ * 
+ * @param workerName имя работника
+ * @param from       первая дата диапазона (включительно)
+ * @param to         последняя дата диапазона (включительно)
+ * @param paid       флаг оплаты
+ */
+public record ShiftFilter(
+        String workerName,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        Boolean paid) {
+}
@@ -0,0 +1,42 @@
+package com.example.memorizer.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO отчета по сменам за период.
+ * 
+ * Строится по итогам смен по работникам и месяцам, без чтения самих
+ * смен. Учитываются и архивные смены.
+ */
+@Data
+public class ShiftReportDTO {
+    /** Признак группировки: worker или month */
+    private final String groupBy;
+    /** Первый месяц периода (YYYY-MM, null — с начала истории) */
+    private final String from;
+    /** Последний месяц периода (YYYY-MM, null — до конца истории) */
+    private final String to;
+    /** Стоимость смен за период в рублях */
+    private final long total;
+    /** Стоимость неоплаченных смен за период в рублях */
+    private final long unpaid;
+    /** Строки отчета */
+    private final List<Row> rows;
+
+    /**
+     * Строка отчета: смены одного работника или одного месяца.
+     */
+    @Data
+    public static class Row {
+        /** Ключ строки: имя работника или месяц (YYYY-MM) */
+        private final String key;
+        /** Количество смен */
+        private final long count;
+        /** Стоимость смен в рублях */
+        private final long total;
+        /** Стоимость неоплаченных смен в рублях (к выплате) */
+        private final long unpaid;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.memorizer.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Проекция смены для списка: только поля, которые показывает
+ * интерфейс, без времени начала и окончания, выплаты и версии.
+ * 
+ * Заполняется Spring Data по псевдонимам в JPQL запросе, поэтому база
+ * читает и передает только эти столбцы, а Hibernate не создает сущности
+ * и не отслеживает их в контексте.
+ */
+public interface ShiftSummary {
+    /** Столбцы строки компактного ответа, в порядке {@link #toRow()} */
+    List<String> COLUMNS = List.of("id", "date", "workerName", "cost", "paid");
+
+    /** @return идентификатор смены */
+    Long getId();
+
+    /** @return дата смены */
+    LocalDate getDate();
+
+    /** @return имя работника */
+    String getWorkerName();
+
+    /** @return стоимость смены в рублях */
+    Integer getCost();
+
+    /** @return признак оплаты */
+    boolean isPaid();
+
+    /**
+     * @return значения полей в порядке {@link #COLUMNS}
+     */
+    default Object[] toRow() {
+        return new Object[] {getId(), getDate(), getWorkerName(), getCost(), isPaid()};
+    }
+}
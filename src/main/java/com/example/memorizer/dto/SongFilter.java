@@ -0,0 +1,12 @@
+package com.example.memorizer.dto;
+
+/**
+ * Фильтр для выборки песен вне очереди.
+ * 
+ * Все поля необязательны; незаполненное поле не ограничивает выборку.
+ * 
+ * @param addedBy имя человека, заказавшего песню
+ * @param paid    флаг оплаты
+ */
+public record SongFilter(String addedBy, Boolean paid) {
+}
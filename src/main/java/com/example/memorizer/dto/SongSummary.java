@@ -0,0 +1,36 @@
+package com.example.memorizer.dto;
+
+import java.util.List;
+
+/**
+ * Проекция песни для списка: только поля, которые показывает
+ * интерфейс, без исполнителя, выплаты и версии.
+ * 
+ * Заполняется Spring Data по псевдонимам в JPQL запросе.
+ */
+public interface SongSummary {
+    /** Столбцы строки компактного ответа, в порядке {@link #toRow()} */
+    List<String> COLUMNS = List.of("id", "title", "addedBy", "cost", "paid");
+
+    /** @return идентификатор песни */
+    Long getId();
+
+    /** @return название песни */
+    String getTitle();
+
+    /** @return кто заказал песню */
+    String getAddedBy();
+
+    /** @return стоимость песни в рублях */
+    Integer getCost();
+
+    /** @return признак оплаты */
+    boolean isPaid();
+
+    /**
+     * @return значения полей в порядке {@link #COLUMNS}
+     */
+    default Object[] toRow() {
+        return new Object[] {getId(), getTitle(), getAddedBy(), getCost(), isPaid()};
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.memorizer.dto;
+
+/**
+ * Проекция агрегатного запроса с группировкой по году.
+ * 
+ * Заполняется Spring Data по псевдонимам {@code year}, {@code count}
+ * и {@code amount} в JPQL запросе.
+ */
+public interface YearTotals {
+    /** @return год */
+    int getYear();
+
+    /** @return количество записей */
+    long getCount();
+
+    /** @return суммарная стоимость записей в рублях */
+    long getAmount();
+}
@@ -0,0 +1,21 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.dto.EarningsDTO;
+
+/**
+ * Итоги журнала заработка пересчитаны и изменились.
+ * 
+ * @param earnings заработок после пересчета
+ */
+public record LedgerReconciledEvent(EarningsDTO earnings) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "ledger-reconciled";
+    }
+
+    @Override
+    public Object payload() {
+        return earnings;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.memorizer.event;
+
+/**
+ * Доменное событие приложения.
+ * 
+ * Публикуется сервисами через {@link org.springframework.context.ApplicationEventPublisher}
+ * внутри транзакции операции записи; слушатели, которым важна только
+ * зафиксированная информация, подписываются через
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ */
+public interface MemorizerEvent {
+
+    /**
+     * @return имя события для клиентов (например, {@code shift-created})
+     */
+    String type();
+
+    /**
+     * @return данные события, передаваемые клиентам
+     */
+    Object payload();
+}
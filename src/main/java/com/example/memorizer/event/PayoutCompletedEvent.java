@@ -0,0 +1,21 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.model.PayoutBatch;
+
+/**
+ * Выплата выполнена.
+ * 
+ * @param batch сохраненная выплата
+ */
+public record PayoutCompletedEvent(PayoutBatch batch) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "payout-completed";
+    }
+
+    @Override
+    public Object payload() {
+        return batch;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.model.PayoutBatch;
+
+/**
+ * Очередная порция выплаты по области закрыта.
+ * 
+ * @param batch выплата с количествами и суммами, закрытыми на данный момент
+ */
+public record PayoutProgressEvent(PayoutBatch batch) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "payout-progress";
+    }
+
+    @Override
+    public Object payload() {
+        return batch;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.dto.ArchiveResult;
+
+/**
+ * Оплаченные записи перенесены в архив.
+ * 
+ * Публикуется один раз за запуск архивации, если что-то было перенесено.
+ * 
+ * @param result количество перенесенных смен и песен
+ */
+public record SettledArchivedEvent(ArchiveResult result) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "archived";
+    }
+
+    @Override
+    public Object payload() {
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.model.Shift;
+
+/**
+ * Смена создана.
+ * 
+ * @param shift сохраненная смена
+ */
+public record ShiftCreatedEvent(Shift shift) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "shift-created";
+    }
+
+    @Override
+    public Object payload() {
+        return shift;
+    }
+}
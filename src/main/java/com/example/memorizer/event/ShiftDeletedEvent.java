@@ -0,0 +1,21 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.model.Shift;
+
+/**
+ * Смена удалена.
+ * 
+ * @param shift удаленная смена (в состоянии на момент удаления)
+ */
+public record ShiftDeletedEvent(Shift shift) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "shift-deleted";
+    }
+
+    @Override
+    public Object payload() {
+        return shift;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.model.Shift;
+
+import java.util.List;
+
+/**
+ * Порция смен импортирована пакетно.
+ * 
+ * Публикуется один раз на порцию импорта; клиентам передаются только
+ * итоги порции, а не сами смены.
+ * 
+ * @param shifts    сохраненные смены порции
+ * @param totalCost их суммарная стоимость
+ */
+public record ShiftsImportedEvent(List<Shift> shifts, long totalCost) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "shifts-imported";
+    }
+
+    @Override
+    public Object payload() {
+        return new BatchImportResult(shifts.size(), totalCost);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.model.Song;
+
+/**
+ * Песня добавлена.
+ * 
+ * @param song сохраненная песня
+ */
+public record SongCreatedEvent(Song song) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "song-created";
+    }
+
+    @Override
+    public Object payload() {
+        return song;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.model.Song;
+
+/**
+ * Песня удалена.
+ * 
+ * @param song удаленная песня (в состоянии на момент удаления)
+ */
+public record SongDeletedEvent(Song song) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "song-deleted";
+    }
+
+    @Override
+    public Object payload() {
+        return song;
+    }
+}
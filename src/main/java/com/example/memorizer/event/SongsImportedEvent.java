@@ -0,0 +1,28 @@
+package com.example.memorizer.event;
+
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.model.Song;
+
+import java.util.List;
+
+/**
+ * Порция песен импортирована пакетно.
+ * 
+ * Публикуется один раз на порцию импорта; клиентам передаются только
+ * итоги порции, а не сами песни.
+ * 
+ * @param songs     сохраненные песни порции
+ * @param totalCost их суммарная стоимость
+ */
+public record SongsImportedEvent(List<Song> songs, long totalCost) implements MemorizerEvent {
+
+    @Override
+    public String type() {
+        return "songs-imported";
+    }
+
+    @Override
+    public Object payload() {
+        return new BatchImportResult(songs.size(), totalCost);
+    }
+}
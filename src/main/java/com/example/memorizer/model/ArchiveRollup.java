@@ -0,0 +1,67 @@
+package com.example.memorizer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.io.Serializable;
+
+/**
+ * Сущность "Итоги архива".
+ *
+ * Количество и сумма записей одного типа, перенесенных в архив за один
+ * год выплат. Итоги пополняются в той же транзакции, что и перенос
+ * записей, поэтому общий заработок считается как сумма оперативной
+ * таблицы и итогов архива без чтения архивных строк.
+ *
+ * @see com.example.memorizer.service.ArchiveService
+ * @see com.example.memorizer.service.EarningsLedgerService#reconcile()
+ */
+@Entity
+@IdClass(ArchiveRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveRollup {
+    /** Арендатор (рабочее пространство), которому принадлежит строка итогов */
+    @Id
+    @TenantId
+    @JsonIgnore
+    @Column(length = 40)
+    private String tenantId;
+
+    /** Тип архивных записей */
+    @Id
+    @Enumerated(EnumType.STRING)
+    private ItemType itemType;
+
+    /** Год выплат */
+    @Id
+    private int archiveYear;
+
+    /** Количество архивных записей */
+    private long rowCount;
+
+    /** Суммарная стоимость архивных записей в рублях */
+    private long amount;
+
+    /**
+     * Составной ключ итогов: арендатор, тип записей и год.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String tenantId;
+        private ItemType itemType;
+        private int archiveYear;
+    }
+}
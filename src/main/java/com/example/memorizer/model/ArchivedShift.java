@@ -0,0 +1,82 @@
+package com.example.memorizer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Сущность "Архивная смена".
+ *
+ * Оплаченная смена, перенесенная из оперативной таблицы в архив после
+ * того, как выплата, которой она закрыта, стала старше
+ * {@code memorizer.archive.min-age}. Архивные записи только читаются.
+ *
+ * <p>
+ * Архив разбит по году выплаты ({@code archiveYear}): этот столбец
+ * открывает все индексы архива, поэтому записи одного года читаются
+ * непрерывным диапазоном.
+ *
+ * @see com.example.memorizer.service.ArchiveService
+ */
+@Entity
+@Immutable
+@Table(name = "shift_archive", indexes = {
+        @Index(name = "idx_shift_archive_year_id", columnList = "tenantId, archiveYear, id"),
+        @Index(name = "idx_shift_archive_year_worker_id", columnList = "tenantId, archiveYear, workerName, id")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedShift {
+    /** Идентификатор смены (тот же, что был в оперативной таблице) */
+    @Id
+    private Long id;
+
+    /** Год выплаты, которой закрыта смена */
+    private int archiveYear;
+
+    /** Имя работника */
+    private String workerName;
+
+    /** Дата смены */
+    private LocalDate date;
+
+    /** Время начала смены */
+    private LocalTime startTime;
+
+    /** Время окончания смены */
+    private LocalTime endTime;
+
+    /** Стоимость смены в рублях */
+    private Integer cost;
+
+    /** Идентификатор выплаты, которой закрыта смена (null — выплата до учета выплат) */
+    private Long payoutId;
+
+    /** Арендатор (рабочее пространство), которому принадлежит смена */
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, length = 40)
+    private String tenantId;
+
+    public ArchivedShift(Long id, int archiveYear, String workerName, LocalDate date, LocalTime startTime,
+            LocalTime endTime, Integer cost, Long payoutId) {
+        this.id = id;
+        this.archiveYear = archiveYear;
+        this.workerName = workerName;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.cost = cost;
+        this.payoutId = payoutId;
+    }
+}
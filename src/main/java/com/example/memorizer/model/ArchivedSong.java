@@ -0,0 +1,71 @@
+package com.example.memorizer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.TenantId;
+
+/**
+ * Сущность "Архивная песня".
+ *
+ * Оплаченная песня, перенесенная из оперативной таблицы в архив вместе
+ * со сменами той же выплаты. Архивные записи только читаются и разбиты
+ * по году выплаты ({@code archiveYear}).
+ *
+ * @see ArchivedShift
+ * @see com.example.memorizer.service.ArchiveService
+ */
+@Entity
+@Immutable
+@Table(name = "song_archive", indexes = {
+        @Index(name = "idx_song_archive_year_id", columnList = "tenantId, archiveYear, id"),
+        @Index(name = "idx_song_archive_year_added_by_id", columnList = "tenantId, archiveYear, addedBy, id")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedSong {
+    /** Идентификатор песни (тот же, что был в оперативной таблице) */
+    @Id
+    private Long id;
+
+    /** Год выплаты, которой закрыта песня */
+    private int archiveYear;
+
+    /** Название песни */
+    private String title;
+
+    /** Исполнитель песни */
+    private String artist;
+
+    /** Имя человека, который заказал песню */
+    private String addedBy;
+
+    /** Стоимость песни в рублях */
+    private Integer cost;
+
+    /** Идентификатор выплаты, которой закрыта песня (null — выплата до учета выплат) */
+    private Long payoutId;
+
+    /** Арендатор (рабочее пространство), которому принадлежит песня */
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, length = 40)
+    private String tenantId;
+
+    public ArchivedSong(Long id, int archiveYear, String title, String artist, String addedBy, Integer cost,
+            Long payoutId) {
+        this.id = id;
+        this.archiveYear = archiveYear;
+        this.title = title;
+        this.artist = artist;
+        this.addedBy = addedBy;
+        this.cost = cost;
+        this.payoutId = payoutId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.memorizer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.io.Serializable;
+
+/**
+ * Сущность "Журнал заработка".
+ * 
+ * Хранит накопительные итоги арендатора по одному типу записей: общий заработок
+ * за всё время и сумму неоплаченных записей. Итоги обновляются
+ * инкрементально в той же транзакции, что и изменение смен/песен,
+ * поэтому статистика не требует чтения всех строк.
+ * 
+ * <p>
+ * Строка журнала также служит точкой синхронизации: все операции записи
+ * сначала блокируют строку своего типа, а затем меняют данные.
+ * 
+ * @see com.example.memorizer.service.EarningsLedgerService
+ */
+@Entity
+@IdClass(EarningsLedger.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EarningsLedger {
+    /** Арендатор (рабочее пространство), которому принадлежит строка журнала */
+    @Id
+    @TenantId
+    @JsonIgnore
+    @Column(length = 40)
+    private String tenantId;
+
+    /** Тип записей, к которому относятся итоги */
+    @Id
+    @Enumerated(EnumType.STRING)
+    private ItemType itemType;
+
+    /** Общий заработок за всё время в рублях */
+    private long lifetimeTotal;
+
+    /** Сумма неоплаченных записей в рублях */
+    private long unpaidTotal;
+
+    /**
+     * Составной ключ журнала: арендатор и тип записей.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String tenantId;
+        private ItemType itemType;
+    }
+}
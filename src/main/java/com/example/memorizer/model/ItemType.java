@@ -0,0 +1,16 @@
+package com.example.memorizer.model;
+
+/**
+ * Тип оплачиваемой записи.
+ * 
+ * Используется для разделения итогов по сменам и песням
+ * в журнале заработка.
+ * 
+ * @see EarningsLedger
+ */
+public enum ItemType {
+    /** Рабочая смена ({@link Shift}) */
+    SHIFT,
+    /** Песня вне очереди ({@link Song}) */
+    SONG
+}
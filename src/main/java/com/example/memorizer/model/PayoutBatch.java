@@ -0,0 +1,107 @@
+package com.example.memorizer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Сущность "Выплата".
+ * 
+ * Фиксирует одну выполненную выплату зарплаты: когда она произошла,
+ * на какую сумму и сколько смен и песен было ею закрыто. Каждая
+ * оплаченная запись ссылается на свою выплату через поле {@code payoutId}.
+ * 
+ * <p>
+ * Выплата по области ({@link com.example.memorizer.dto.PayoutScope}) сохраняет свою область и
+ * закрывает записи порциями: до последней порции она находится в состоянии
+ * {@link PayoutStatus#IN_PROGRESS}, а количества и суммы показывают,
+ * сколько уже закрыто.
+ * 
+ * @see com.example.memorizer.service.PayoutService#payout()
+ * @see com.example.memorizer.service.PayoutService#payout(com.example.memorizer.dto.PayoutScope)
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_payout_batch_status", columnList = "tenantId, status, id"))
+@Data
+@NoArgsConstructor
+public class PayoutBatch {
+    /** Уникальный идентификатор выплаты */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Момент выполнения выплаты */
+    private Instant createdAt;
+
+    /** Общая выплаченная сумма в рублях */
+    private long amount;
+
+    /** Количество закрытых смен */
+    private long shiftCount;
+
+    /** Сумма за закрытые смены в рублях */
+    private long shiftAmount;
+
+    /** Количество закрытых песен */
+    private long songCount;
+
+    /** Сумма за закрытые песни в рублях */
+    private long songAmount;
+
+    /** Состояние выплаты */
+    @Enumerated(EnumType.STRING)
+    private PayoutStatus status = PayoutStatus.COMPLETED;
+
+    /** Работник, смены которого закрывает выплата (null — все) */
+    private String workerName;
+
+    /** Первая дата смен выплаты (null — без ограничения) */
+    private LocalDate periodFrom;
+
+    /** Последняя дата смен выплаты (null — без ограничения) */
+    private LocalDate periodTo;
+
+    /** Предельная сумма выплаты в рублях (null — без ограничения) */
+    private Long maxAmount;
+
+    /** Арендатор (рабочее пространство), которому принадлежит выплата */
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, length = 40)
+    private String tenantId;
+
+    /**
+     * Создает завершенную выплату без ограничения области.
+     * 
+     * @param id          идентификатор выплаты
+     * @param createdAt   момент выполнения выплаты
+     * @param amount      общая выплаченная сумма
+     * @param shiftCount  количество закрытых смен
+     * @param shiftAmount сумма за закрытые смены
+     * @param songCount   количество закрытых песен
+     * @param songAmount  сумма за закрытые песни
+     */
+    public PayoutBatch(Long id, Instant createdAt, long amount, long shiftCount, long shiftAmount,
+            long songCount, long songAmount) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.amount = amount;
+        this.shiftCount = shiftCount;
+        this.shiftAmount = shiftAmount;
+        this.songCount = songCount;
+        this.songAmount = songAmount;
+    }
+}
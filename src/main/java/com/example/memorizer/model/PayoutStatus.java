@@ -0,0 +1,13 @@
+package com.example.memorizer.model;
+
+/**
+ * Состояние выплаты.
+ * 
+ * @see PayoutBatch
+ */
+public enum PayoutStatus {
+    /** Выплата закрывает записи порциями и ещё не завершена */
+    IN_PROGRESS,
+    /** Все записи выплаты закрыты */
+    COMPLETED
+}
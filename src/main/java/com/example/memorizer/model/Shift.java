@@ -1,12 +1,19 @@
 package com.example.memorizer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -25,16 +32,44 @@ import java.time.LocalTime;
  * <li>1-12 января (праздники): 3000 ₽</li>
  * </ul>
  * 
+ * <p>
+ * У одного работника не может быть двух смен с одинаковыми датой и
+ * временем начала, поэтому повторная отправка той же смены отклоняется.
+ * 
+ * <p>
+ * Смена принадлежит одному арендатору: Hibernate заполняет
+ * {@code tenantId} при вставке и добавляет его в условия всех запросов,
+ * поэтому каждый индекс начинается с этого столбца.
+ * 
  * @see ShiftService#createShift(Shift)
  */
 @Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_shift_worker_date_start",
+                columnNames = {"tenantId", "workerName", "date", "startTime"})
+}, indexes = {
+        @Index(name = "idx_shift_date_id", columnList = "tenantId, date, id"),
+        @Index(name = "idx_shift_keyset", columnList = "tenantId, date DESC, id DESC"),
+        @Index(name = "idx_shift_worker_date", columnList = "tenantId, workerName, date"),
+        @Index(name = "idx_shift_paid_date", columnList = "tenantId, paid, date"),
+        @Index(name = "idx_shift_payout_id", columnList = "tenantId, payoutId, id")
+})
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Shift {
-    /** Уникальный идентификатор смены */
+    /** Количество идентификаторов, резервируемых за одно обращение к последовательности */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Уникальный идентификатор смены.
+     * 
+     * Берется из последовательности блоками по {@value #ID_ALLOCATION_SIZE}
+     * значений (оптимизатор pooled), что позволяет Hibernate объединять
+     * вставки в JDBC-пакеты.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shift_seq")
+    @SequenceGenerator(name = "shift_seq", sequenceName = "shift_seq", allocationSize = Shift.ID_ALLOCATION_SIZE)
     private Long id;
 
     /** Имя работника */
@@ -55,4 +90,36 @@ public class Shift {
     /** Флаг оплаты смены (true - оплачено, false - не оплачено) */
     @jakarta.persistence.Column(columnDefinition = "boolean default false")
     private boolean paid = false;
+
+    /** Идентификатор выплаты, которой закрыта смена (null, если смена не оплачена) */
+    private Long payoutId;
+
+    /**
+     * Версия записи для оптимистичной блокировки.
+     * 
+     * Увеличивается при каждом изменении, в том числе массовыми
+     * UPDATE выплаты; для существующих строк начинается с 0.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    /** Арендатор (рабочее пространство), которому принадлежит смена */
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, length = 40)
+    private String tenantId;
+
+    public Shift(Long id, String workerName, LocalDate date, LocalTime startTime, LocalTime endTime, Integer cost,
+            boolean paid, Long payoutId, Long version) {
+        this.id = id;
+        this.workerName = workerName;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.cost = cost;
+        this.paid = paid;
+        this.payoutId = payoutId;
+        this.version = version;
+    }
 }
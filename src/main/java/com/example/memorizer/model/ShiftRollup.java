@@ -0,0 +1,80 @@
+package com.example.memorizer.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.io.Serializable;
+
+/**
+ * Сущность "Итоги смен за месяц".
+ * 
+ * Количество и стоимость смен одного работника за один месяц даты смены,
+ * отдельно для оплаченных и неоплаченных. Итоги обновляются в той же
+ * транзакции, что и создание, удаление и выплата смен, поэтому отчеты
+ * по работникам и месяцам не читают сами смены.
+ * 
+ * <p>
+ * Смены, перенесенные в архив, остаются в итогах как оплаченные.
+ * Смены без имени работника учитываются под пустым именем.
+ * 
+ * @see com.example.memorizer.service.ShiftRollupService
+ */
+@Entity
+@IdClass(ShiftRollup.Key.class)
+@Table(indexes = @Index(name = "idx_shift_rollup_period", columnList = "tenantId, periodYear, periodMonth"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShiftRollup {
+    /** Арендатор (рабочее пространство), которому принадлежит строка итогов */
+    @Id
+    @TenantId
+    @JsonIgnore
+    @Column(length = 40)
+    private String tenantId;
+
+    /** Имя работника */
+    @Id
+    private String workerName;
+
+    /** Год даты смены */
+    @Id
+    private int periodYear;
+
+    /** Месяц даты смены (1-12) */
+    @Id
+    private int periodMonth;
+
+    /** Признак оплаты */
+    @Id
+    private boolean paid;
+
+    /** Количество смен */
+    private long shiftCount;
+
+    /** Суммарная стоимость смен в рублях */
+    private long amount;
+
+    /**
+     * Составной ключ итогов: арендатор, работник, месяц и признак оплаты.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String tenantId;
+        private String workerName;
+        private int periodYear;
+        private int periodMonth;
+        private boolean paid;
+    }
+}
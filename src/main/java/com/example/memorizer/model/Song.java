@@ -1,12 +1,18 @@
 package com.example.memorizer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
 /**
  * Сущность "Песня вне очереди".
@@ -17,13 +23,28 @@ import lombok.AllArgsConstructor;
  * @see SongService#addSong(Song)
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_song_keyset", columnList = "tenantId, id DESC"),
+        @Index(name = "idx_song_added_by_id", columnList = "tenantId, addedBy, id"),
+        @Index(name = "idx_song_paid_id", columnList = "tenantId, paid, id"),
+        @Index(name = "idx_song_payout_id", columnList = "tenantId, payoutId, id")
+})
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Song {
-    /** Уникальный идентификатор песни */
+    /** Количество идентификаторов, резервируемых за одно обращение к последовательности */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Уникальный идентификатор песни.
+     * 
+     * Берется из последовательности блоками по {@value #ID_ALLOCATION_SIZE}
+     * значений (оптимизатор pooled), что позволяет Hibernate объединять
+     * вставки в JDBC-пакеты.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "song_seq")
+    @SequenceGenerator(name = "song_seq", sequenceName = "song_seq", allocationSize = Song.ID_ALLOCATION_SIZE)
     private Long id;
 
     /** Название песни */
@@ -39,4 +60,35 @@ public class Song {
     /** Флаг оплаты песни (true - оплачено, false - не оплачено) */
     @jakarta.persistence.Column(columnDefinition = "boolean default false")
     private boolean paid = false;
+
+    /** Идентификатор выплаты, которой закрыта песня (null, если песня не оплачена) */
+    private Long payoutId;
+
+    /**
+     * Версия записи для оптимистичной блокировки.
+     * 
+     * Увеличивается при каждом изменении, в том числе массовыми
+     * UPDATE выплаты; для существующих строк начинается с 0.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    /** Арендатор (рабочее пространство), которому принадлежит песня */
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, length = 40)
+    private String tenantId;
+
+    public Song(Long id, String title, String artist, String addedBy, Integer cost, boolean paid, Long payoutId,
+            Long version) {
+        this.id = id;
+        this.title = title;
+        this.artist = artist;
+        this.addedBy = addedBy;
+        this.cost = cost;
+        this.paid = paid;
+        this.payoutId = payoutId;
+        this.version = version;
+    }
 }
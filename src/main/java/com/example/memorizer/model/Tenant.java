@@ -0,0 +1,36 @@
+package com.example.memorizer.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Сущность "Арендатор" (рабочее пространство).
+ * 
+ * Реестр арендаторов хранится в общей базе. Все остальные сущности
+ * принадлежат одному арендатору и видны только в его запросах;
+ * сам реестр арендаторам не принадлежит.
+ * 
+ * @see com.example.memorizer.service.TenantService
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tenant {
+    /** Идентификатор арендатора: строчные латинские буквы, цифры и дефис */
+    @Id
+    @Column(length = 40)
+    private String id;
+
+    /** Отображаемое название */
+    private String name;
+
+    /** Момент регистрации арендатора */
+    private Instant createdAt;
+}
@@ -0,0 +1,57 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.model.ArchiveRollup;
+import com.example.memorizer.model.ItemType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностями {@link ArchiveRollup}.
+ * 
+ * @see ArchiveRollup
+ */
+@Repository
+public interface ArchiveRollupRepository extends JpaRepository<ArchiveRollup, ArchiveRollup.Key> {
+
+    /**
+     * Считает общую стоимость архивных записей одного типа.
+     * 
+     * @param itemType тип записей
+     * @return сумма по всем годам (0, если архив пуст)
+     */
+    @Query("select coalesce(sum(r.amount), 0) from ArchiveRollup r where r.itemType = :itemType")
+    long sumAmount(@Param("itemType") ItemType itemType);
+
+    /**
+     * Считает общую стоимость всех архивных записей.
+     * 
+     * @return сумма по всем типам и годам (0, если архив пуст)
+     */
+    @Query("select coalesce(sum(r.amount), 0) from ArchiveRollup r")
+    long sumAmount();
+
+    /**
+     * Атомарно прибавляет перенесенные записи к итогам года.
+     * 
+     * @param itemType    тип записей
+     * @param archiveYear год выплат
+     * @param count       количество записей
+     * @param amount      суммарная стоимость записей
+     * @return количество обновленных строк (0, если итогов за год ещё нет)
+     */
+    @Modifying
+    @Query("update ArchiveRollup r set r.rowCount = r.rowCount + :count, r.amount = r.amount + :amount "
+            + "where r.itemType = :itemType and r.archiveYear = :archiveYear")
+    int add(@Param("itemType") ItemType itemType, @Param("archiveYear") int archiveYear,
+            @Param("count") long count, @Param("amount") long amount);
+
+    /**
+     * @return итоги архива по годам и типам записей
+     */
+    List<ArchiveRollup> findAllByOrderByArchiveYearAscItemTypeAsc();
+}
@@ -0,0 +1,100 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.dto.IdRange;
+import com.example.memorizer.dto.ReportFact;
+import com.example.memorizer.dto.YearTotals;
+import com.example.memorizer.model.ArchivedShift;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностями {@link ArchivedShift}.
+ * 
+ * Переносит оплаченные смены в архив одним INSERT ... SELECT на стороне
+ * базы данных и читает архив страницами по возрастанию идентификатора.
+ * 
+ * @see ArchivedShift
+ */
+@Repository
+public interface ArchivedShiftRepository extends JpaRepository<ArchivedShift, Long> {
+
+    /**
+     * Копирует смены в архив; год архива — год выплаты, которой закрыта смена,
+     * а для смены без выплаты — год самой смены. Смены остаются за своим
+     * арендатором.
+     * 
+     * @param ids идентификаторы оплаченных смен
+     * @return количество скопированных записей
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "insert into shift_archive "
+            + "(tenant_id, id, archive_year, worker_name, date, start_time, end_time, cost, payout_id) "
+            + "select s.tenant_id, s.id, coalesce(extract(year from p.created_at), extract(year from s.date)), "
+            + "s.worker_name, s.date, s.start_time, s.end_time, s.cost, s.payout_id "
+            + "from shift s left join payout_batch p on p.id = s.payout_id "
+            + "where s.id in (:ids)")
+    int copyFromShifts(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Считает количество и стоимость архивных смен по годам.
+     * 
+     * @param ids идентификаторы архивных смен
+     * @return по одной строке на каждый год
+     */
+    @Query("select a.archiveYear as year, count(a) as count, coalesce(sum(a.cost), 0) as amount "
+            + "from ArchivedShift a where a.id in :ids group by a.archiveYear")
+    List<YearTotals> sumByYear(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Читает страницу архива после заданного идентификатора.
+     * 
+     * Незаполненный параметр не ограничивает выборку.
+     * 
+     * @param year       год выплаты
+     * @param workerName имя работника
+     * @param afterId    идентификатор последней прочитанной смены
+     * @param limit      размер страницы
+     * @return смены в порядке возрастания идентификатора
+     */
+    @Query("select a from ArchivedShift a "
+            + "where (:year is null or a.archiveYear = :year) "
+            + "and (:workerName is null or a.workerName = :workerName) "
+            + "and a.id > :afterId order by a.id")
+    List<ArchivedShift> findPage(@Param("year") Integer year, @Param("workerName") String workerName,
+            @Param("afterId") long afterId, Limit limit);
+
+    /**
+     * @return наименьший и наибольший идентификаторы архивных смен
+     */
+    @Query("select min(a.id) as lowId, max(a.id) as highId from ArchivedShift a")
+    IdRange findIdRange();
+
+    /**
+     * Читает поля архивных смен для отчета из диапазона идентификаторов;
+     * архивные смены оплачены.
+     * 
+     * Незаполненный параметр не ограничивает выборку.
+     * 
+     * @param lowId      первый идентификатор диапазона (включительно)
+     * @param highId     последний идентификатор диапазона (включительно)
+     * @param from       первая дата смен (включительно)
+     * @param to         последняя дата смен (включительно)
+     * @param workerName имя работника
+     * @return поля смен диапазона
+     */
+    @Query("select a.date as date, a.workerName as name, a.cost as cost, true as paid from ArchivedShift a "
+            + "where a.id between :lowId and :highId "
+            + "and (:from is null or a.date >= :from) "
+            + "and (:to is null or a.date <= :to) "
+            + "and (:workerName is null or a.workerName = :workerName)")
+    List<ReportFact> findReportFacts(@Param("lowId") long lowId, @Param("highId") long highId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to, @Param("workerName") String workerName);
+}
@@ -0,0 +1,87 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.dto.IdRange;
+import com.example.memorizer.dto.ReportFact;
+import com.example.memorizer.dto.YearTotals;
+import com.example.memorizer.model.ArchivedSong;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностями {@link ArchivedSong}.
+ * 
+ * @see ArchivedSong
+ * @see ArchivedShiftRepository
+ */
+@Repository
+public interface ArchivedSongRepository extends JpaRepository<ArchivedSong, Long> {
+
+    /**
+     * Копирует песни в архив; год архива — год выплаты, которой закрыта песня,
+     * а для песни без выплаты (у песни нет своей даты) — год переноса. Песни
+     * остаются за своим арендатором.
+     * 
+     * @param ids идентификаторы оплаченных песен
+     * @return количество скопированных записей
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "insert into song_archive "
+            + "(tenant_id, id, archive_year, title, artist, added_by, cost, payout_id) "
+            + "select s.tenant_id, s.id, coalesce(extract(year from p.created_at), extract(year from current_date)), "
+            + "s.title, s.artist, s.added_by, s.cost, s.payout_id "
+            + "from song s left join payout_batch p on p.id = s.payout_id where s.id in (:ids)")
+    int copyFromSongs(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Считает количество и стоимость архивных песен по годам.
+     * 
+     * @param ids идентификаторы архивных песен
+     * @return по одной строке на каждый год
+     */
+    @Query("select a.archiveYear as year, count(a) as count, coalesce(sum(a.cost), 0) as amount "
+            + "from ArchivedSong a where a.id in :ids group by a.archiveYear")
+    List<YearTotals> sumByYear(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Читает страницу архива после заданного идентификатора.
+     * 
+     * Незаполненный параметр не ограничивает выборку.
+     * 
+     * @param year    год выплаты
+     * @param addedBy имя заказчика
+     * @param afterId идентификатор последней прочитанной песни
+     * @param limit   размер страницы
+     * @return песни в порядке возрастания идентификатора
+     */
+    @Query("select a from ArchivedSong a "
+            + "where (:year is null or a.archiveYear = :year) "
+            + "and (:addedBy is null or a.addedBy = :addedBy) "
+            + "and a.id > :afterId order by a.id")
+    List<ArchivedSong> findPage(@Param("year") Integer year, @Param("addedBy") String addedBy,
+            @Param("afterId") long afterId, Limit limit);
+
+    /**
+     * @return наименьший и наибольший идентификаторы архивных песен
+     */
+    @Query("select min(a.id) as lowId, max(a.id) as highId from ArchivedSong a")
+    IdRange findIdRange();
+
+    /**
+     * Читает поля архивных песен для отчета из диапазона идентификаторов;
+     * архивные песни оплачены.
+     * 
+     * @param lowId  первый идентификатор диапазона (включительно)
+     * @param highId последний идентификатор диапазона (включительно)
+     * @return поля песен диапазона
+     */
+    @Query("select a.addedBy as name, a.cost as cost, true as paid from ArchivedSong a "
+            + "where a.id between :lowId and :highId")
+    List<ReportFact> findReportFacts(@Param("lowId") long lowId, @Param("highId") long highId);
+}
@@ -0,0 +1,50 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.model.EarningsLedger;
+import com.example.memorizer.model.ItemType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Репозиторий для работы с сущностями {@link EarningsLedger}.
+ * 
+ * Помимо стандартных операций CRUD предоставляет атомарное изменение
+ * итогов на стороне базы данных и блокировку строки журнала.
+ * 
+ * @see EarningsLedger
+ */
+@Repository
+public interface EarningsLedgerRepository extends JpaRepository<EarningsLedger, EarningsLedger.Key> {
+
+    /**
+     * Находит строку журнала и блокирует её до конца транзакции.
+     * 
+     * @param itemType тип записей
+     * @return строка журнала, если она существует
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from EarningsLedger l where l.itemType = :itemType")
+    Optional<EarningsLedger> lockByItemType(@Param("itemType") ItemType itemType);
+
+    /**
+     * Атомарно прибавляет приращения к итогам журнала.
+     * 
+     * @param itemType      тип записей
+     * @param lifetimeDelta изменение общего заработка
+     * @param unpaidDelta   изменение суммы неоплаченных записей
+     * @return количество обновленных строк (0, если строки ещё нет)
+     */
+    @Modifying
+    @Query("update EarningsLedger l set l.lifetimeTotal = l.lifetimeTotal + :lifetimeDelta, "
+            + "l.unpaidTotal = l.unpaidTotal + :unpaidDelta where l.itemType = :itemType")
+    int applyDelta(@Param("itemType") ItemType itemType,
+            @Param("lifetimeDelta") long lifetimeDelta,
+            @Param("unpaidDelta") long unpaidDelta);
+}
@@ -0,0 +1,50 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.model.PayoutStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Репозиторий для работы с сущностями {@link PayoutBatch}.
+ * 
+ * Предоставляет стандартные операции CRUD для истории выплат.
+ * 
+ * @see PayoutBatch
+ */
+@Repository
+public interface PayoutBatchRepository extends JpaRepository<PayoutBatch, Long> {
+
+    /**
+     * Находит выплату текущего арендатора.
+     * 
+     * Объявлен запросом HQL: загрузку по ключу Hibernate не ограничивает
+     * текущим арендатором.
+     * 
+     * @param id идентификатор выплаты
+     * @return выплата, если она есть у текущего арендатора
+     */
+    @Override
+    @Query("select b from PayoutBatch b where b.id = :id")
+    Optional<PayoutBatch> findById(@Param("id") Long id);
+
+    /**
+     * Находит последние выплаты, начиная с самой новой.
+     * 
+     * @return не более 20 последних выплат
+     */
+    List<PayoutBatch> findTop20ByOrderByIdDesc();
+
+    /**
+     * Находит выплаты в заданном состоянии, начиная с самой старой.
+     * 
+     * @param status состояние выплаты
+     * @return выплаты в порядке возрастания идентификатора
+     */
+    List<PayoutBatch> findByStatusOrderByIdAsc(PayoutStatus status);
+}
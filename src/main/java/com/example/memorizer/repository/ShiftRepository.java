@@ -1,9 +1,31 @@
 package com.example.memorizer.repository;
 
 import com.example.memorizer.model.Shift;
+import com.example.memorizer.dto.DayTotals;
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.IdRange;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.dto.ReportFact;
+import com.example.memorizer.dto.ShiftSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 /**
  * Репозиторий для работы с сущностями {@link Shift}.
@@ -11,8 +33,259 @@ import org.springframework.stereotype.Repository;
  * Предоставляет стандартные операции CRUD для рабочих смен.
  * Наследуется от {@link JpaRepository}, что автоматически добавляет
  * методы для создания, чтения, обновления и удаления записей.
+ * Фильтрация и пагинация выполняются через {@link JpaSpecificationExecutor}
+ * и спецификации из {@link ShiftSpecifications}.
  * 
  * @see Shift
  */
-public interface ShiftRepository extends JpaRepository<Shift, Long> {
+public interface ShiftRepository extends JpaRepository<Shift, Long>, JpaSpecificationExecutor<Shift> {
+
+    /** Размер порции чтения при экспорте */
+    int EXPORT_FETCH_SIZE = 1000;
+
+    // Поиск и удаление по идентификатору выполняются запросами HQL:
+    // загрузку по ключу Hibernate не ограничивает текущим арендатором
+
+    @Override
+    @Query("select s from Shift s where s.id = :id")
+    Optional<Shift> findById(@Param("id") Long id);
+
+    @Override
+    @Modifying
+    @Query("delete from Shift s where s.id = :id")
+    void deleteById(@Param("id") Long id);
+
+    /**
+     * Считает общую стоимость всех смен на стороне базы данных.
+     * 
+     * @return сумма стоимости всех смен (0, если смен нет)
+     */
+    @Query("select coalesce(sum(s.cost), 0) from Shift s")
+    long sumCost();
+
+    /**
+     * Считает стоимость неоплаченных смен на стороне базы данных.
+     * 
+     * @return сумма стоимости неоплаченных смен (0, если таких нет)
+     */
+    @Query("select coalesce(sum(s.cost), 0) from Shift s where s.paid = false")
+    long sumUnpaidCost();
+
+    /**
+     * Считает количество и стоимость неоплаченных смен одним запросом.
+     * 
+     * @return количество и суммарная стоимость неоплаченных смен
+     */
+    @Query("select count(s) as count, coalesce(sum(s.cost), 0) as amount from Shift s where s.paid = false")
+    ItemTotals summarizeUnpaid();
+
+    /**
+     * Помечает все неоплаченные смены как оплаченные одним UPDATE запросом
+     * и привязывает их к выплате. Версии записей увеличиваются, чтобы
+     * параллельные изменения этих записей не прошли оптимистичную проверку.
+     * 
+     * @param payoutId идентификатор выплаты
+     * @return количество обновленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Shift s set s.paid = true, s.payoutId = :payoutId, s.version = s.version + 1 where s.paid = false")
+    int settleUnpaid(@Param("payoutId") Long payoutId);
+
+    /**
+     * Находит очередную порцию неоплаченных смен для выплаты по области,
+     * начиная с самых старых.
+     * 
+     * @param workerName имя работника (null — все работники)
+     * @param from       первая дата смен (null — без ограничения)
+     * @param to         последняя дата смен (null — без ограничения)
+     * @param limit      размер порции
+     * @return неоплаченные смены в порядке (date, id)
+     */
+    @Query("select s from Shift s where s.paid = false "
+            + "and (:workerName is null or s.workerName = :workerName) "
+            + "and (:from is null or s.date >= :from) "
+            + "and (:to is null or s.date <= :to) "
+            + "order by s.date, s.id")
+    List<Shift> findUnpaidForPayout(@Param("workerName") String workerName, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, Limit limit);
+
+    /**
+     * Помечает заданные неоплаченные смены как оплаченные и привязывает
+     * их к выплате.
+     * 
+     * @param payoutId идентификатор выплаты
+     * @param ids      идентификаторы смен
+     * @return количество обновленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Shift s set s.paid = true, s.payoutId = :payoutId, s.version = s.version + 1 "
+            + "where s.id in :ids and s.paid = false")
+    int settleByIds(@Param("payoutId") Long payoutId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Находит идентификаторы оплаченных смен, закрытых выплатами старше
+     * заданного момента, в порядке возрастания.
+     * 
+     * Смена, оплаченная без выплаты ({@code payoutId} пуст), закрыта
+     * старой выплатой, сделанной до учета выплат, и подходит всегда.
+     * 
+     * @param cutoff момент, раньше которого должна быть выполнена выплата
+     * @param limit  максимальное количество идентификаторов
+     * @return идентификаторы кандидатов на перенос в архив
+     */
+    @Query("select s.id from Shift s where s.paid = true and (s.payoutId is null or s.payoutId in "
+            + "(select p.id from PayoutBatch p where p.createdAt < :cutoff)) order by s.id")
+    List<Long> findSettledBefore(@Param("cutoff") Instant cutoff, Limit limit);
+
+    /**
+     * Считает заработок по сменам с группировкой по работникам.
+     * 
+     * @return по одной строке на каждого работника
+     */
+    @Query("select s.workerName as key, count(s) as count, coalesce(sum(s.cost), 0) as total, "
+            + "coalesce(sum(case when s.paid = false then s.cost else 0 end), 0) as unpaid "
+            + "from Shift s group by s.workerName order by s.workerName")
+    List<EarningsBucket> sumByWorker();
+
+    /**
+     * Считает заработок по сменам с группировкой по месяцам даты смены.
+     * 
+     * @return по одной строке на каждый месяц, в хронологическом порядке
+     */
+    @Query("select year(s.date) as year, month(s.date) as month, count(s) as count, "
+            + "coalesce(sum(s.cost), 0) as total, "
+            + "coalesce(sum(case when s.paid = false then s.cost else 0 end), 0) as unpaid "
+            + "from Shift s group by year(s.date), month(s.date) order by year(s.date), month(s.date)")
+    List<MonthlyBucket> sumByMonth();
+
+    /**
+     * Считает заработок по сменам арендатора с группировкой по дате смены,
+     * вместе с архивными сменами (они учитываются как оплаченные).
+     * 
+     * Обе таблицы читаются одним запросом, поэтому параллельная архивация
+     * не может учесть смену дважды или потерять её.
+     * 
+     * @param tenantId арендатор: нативный запрос Hibernate не фильтрует
+     * @return по одной строке на каждый день со сменами, в хронологическом порядке
+     */
+    @Query(nativeQuery = true, value = "select datediff(day, date '1970-01-01', x.date) as epochDay, "
+            + "coalesce(sum(x.cost), 0) as total, "
+            + "coalesce(sum(case when x.paid then 0 else x.cost end), 0) as unpaid "
+            + "from (select date, coalesce(paid, false) paid, cost from shift where tenant_id = :tenantId "
+            + "union all select date, true, cost from shift_archive where tenant_id = :tenantId) x "
+            + "where x.date is not null group by x.date order by x.date")
+    List<DayTotals> sumByDay(@Param("tenantId") String tenantId);
+
+    /**
+     * Считает заработок по сменам с группировкой по выплатам.
+     * 
+     * @return по одной строке на каждую выплату (ключ null - неоплаченные смены)
+     */
+    @Query("select str(s.payoutId) as key, count(s) as count, coalesce(sum(s.cost), 0) as total, "
+            + "coalesce(sum(case when s.paid = false then s.cost else 0 end), 0) as unpaid "
+            + "from Shift s group by s.payoutId order by s.payoutId")
+    List<EarningsBucket> sumByPayout();
+
+    /**
+     * @return наименьший и наибольший идентификаторы смен
+     */
+    @Query("select min(s.id) as lowId, max(s.id) as highId from Shift s")
+    IdRange findIdRange();
+
+    /**
+     * Читает поля смен для отчета из диапазона идентификаторов.
+     * 
+     * Незаполненный параметр не ограничивает выборку.
+     * 
+     * @param lowId      первый идентификатор диапазона (включительно)
+     * @param highId     последний идентификатор диапазона (включительно)
+     * @param from       первая дата смен (включительно)
+     * @param to         последняя дата смен (включительно)
+     * @param workerName имя работника
+     * @return поля смен диапазона
+     */
+    @Query("select s.date as date, s.workerName as name, s.cost as cost, s.paid as paid from Shift s "
+            + "where s.id between :lowId and :highId "
+            + "and (:from is null or s.date >= :from) "
+            + "and (:to is null or s.date <= :to) "
+            + "and (:workerName is null or s.workerName = :workerName)")
+    List<ReportFact> findReportFacts(@Param("lowId") long lowId, @Param("highId") long highId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to, @Param("workerName") String workerName);
+
+    /**
+     * Читает первую страницу проекций смен для списка, от новых к старым.
+     * 
+     * Выбирает только столбцы {@link ShiftSummary}. Незаполненный
+     * параметр не ограничивает выборку. Порядок повторяет индекс
+     * {@code idx_shift_keyset}, поэтому страница читается без сортировки.
+     * 
+     * @param workerName имя работника
+     * @param from       первая дата диапазона (включительно)
+     * @param to         последняя дата диапазона (включительно)
+     * @param paid       флаг оплаты
+     * @param limit      количество записей
+     * @return проекции смен в порядке (date, id) по убыванию
+     */
+    @Query("select s.id as id, s.date as date, s.workerName as workerName, s.cost as cost, s.paid as paid "
+            + "from Shift s "
+            + "where (:workerName is null or s.workerName = :workerName) "
+            + "and (:from is null or s.date >= :from) "
+            + "and (:to is null or s.date <= :to) "
+            + "and (:paid is null or s.paid = :paid) "
+            + "order by s.tenantId, s.date desc, s.id desc")
+    List<ShiftSummary> findSummaries(@Param("workerName") String workerName, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("paid") Boolean paid, Limit limit);
+
+    /**
+     * Читает следующую страницу проекций смен: строго после курсора
+     * в порядке (date, id) по убыванию.
+     * 
+     * @param date       дата последней смены предыдущей страницы
+     * @param id         идентификатор последней смены предыдущей страницы
+     * @param workerName имя работника
+     * @param from       первая дата диапазона (включительно)
+     * @param to         последняя дата диапазона (включительно)
+     * @param paid       флаг оплаты
+     * @param limit      количество записей
+     * @return проекции смен в порядке (date, id) по убыванию
+     * @see ShiftSpecifications#after(LocalDate, long)
+     */
+    @Query("select s.id as id, s.date as date, s.workerName as workerName, s.cost as cost, s.paid as paid "
+            + "from Shift s "
+            + "where s.date <= :date and (s.date < :date or (s.date = :date and s.id < :id)) "
+            + "and (:workerName is null or s.workerName = :workerName) "
+            + "and (:from is null or s.date >= :from) "
+            + "and (:to is null or s.date <= :to) "
+            + "and (:paid is null or s.paid = :paid) "
+            + "order by s.tenantId, s.date desc, s.id desc")
+    List<ShiftSummary> findSummariesAfter(@Param("date") LocalDate date, @Param("id") long id,
+            @Param("workerName") String workerName, @Param("from") LocalDate from, @Param("to") LocalDate to,
+            @Param("paid") Boolean paid, Limit limit);
+
+    /**
+     * Потоково читает смены для экспорта, от старых к новым.
+     * 
+     * Строки читаются курсором порциями по {@value #EXPORT_FETCH_SIZE},
+     * поэтому объем памяти не зависит от размера выборки. Поток должен
+     * читаться внутри транзакции и закрываться после использования.
+     * Незаполненный параметр не ограничивает выборку.
+     * 
+     * @param workerName имя работника
+     * @param from       первая дата диапазона (включительно)
+     * @param to         последняя дата диапазона (включительно)
+     * @param paid       флаг оплаты
+     * @return поток смен в порядке (date, id)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Shift s "
+            + "where (:workerName is null or s.workerName = :workerName) "
+            + "and (:from is null or s.date >= :from) "
+            + "and (:to is null or s.date <= :to) "
+            + "and (:paid is null or s.paid = :paid) "
+            + "order by s.date, s.id")
+    Stream<Shift> streamForExport(@Param("workerName") String workerName, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("paid") Boolean paid);
 }
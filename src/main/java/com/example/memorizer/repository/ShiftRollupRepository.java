@@ -0,0 +1,121 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.model.ShiftRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностями {@link ShiftRollup}.
+ * 
+ * Помимо атомарного изменения итогов строит отчеты по работникам и
+ * месяцам. Период отчета задается числами вида {@code YYYYMM}
+ * (включительно). Строки, обнулившиеся после удаления смен, в отчеты
+ * не попадают и убираются при пересборке итогов.
+ * 
+ * @see ShiftRollup
+ */
+@Repository
+public interface ShiftRollupRepository extends JpaRepository<ShiftRollup, ShiftRollup.Key> {
+
+    /**
+     * Атомарно прибавляет приращения к итогам работника за месяц.
+     * 
+     * @param workerName имя работника
+     * @param year       год
+     * @param month      месяц
+     * @param paid       признак оплаты
+     * @param count      изменение количества смен
+     * @param amount     изменение стоимости
+     * @return количество обновленных строк (0, если итогов ещё нет)
+     */
+    @Modifying
+    @Query("update ShiftRollup r set r.shiftCount = r.shiftCount + :count, r.amount = r.amount + :amount "
+            + "where r.workerName = :workerName and r.periodYear = :year and r.periodMonth = :month "
+            + "and r.paid = :paid")
+    int add(@Param("workerName") String workerName, @Param("year") int year, @Param("month") int month,
+            @Param("paid") boolean paid, @Param("count") long count, @Param("amount") long amount);
+
+    /**
+     * Переносит неоплаченные итоги арендатора в оплаченные (выплата всех смен).
+     * 
+     * @param tenantId арендатор: нативный запрос Hibernate не фильтрует
+     * @return количество затронутых строк оплаченных итогов
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "merge into shift_rollup t using "
+            + "(select tenant_id, worker_name, period_year, period_month, shift_count, amount "
+            + "from shift_rollup where tenant_id = :tenantId and paid = false) u "
+            + "on t.tenant_id = u.tenant_id and t.worker_name = u.worker_name and t.period_year = u.period_year "
+            + "and t.period_month = u.period_month and t.paid = true "
+            + "when matched then update set shift_count = t.shift_count + u.shift_count, amount = t.amount + u.amount "
+            + "when not matched then insert (tenant_id, worker_name, period_year, period_month, paid, shift_count, "
+            + "amount) values (u.tenant_id, u.worker_name, u.period_year, u.period_month, true, u.shift_count, "
+            + "u.amount)")
+    int mergeUnpaidIntoPaid(@Param("tenantId") String tenantId);
+
+    /**
+     * Удаляет неоплаченные итоги (после их переноса в оплаченные).
+     * 
+     * @return количество удаленных строк
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ShiftRollup r where r.paid = false")
+    int deleteUnpaid();
+
+    /**
+     * Заново заполняет итоги арендатора по оперативной и архивной таблицам смен.
+     * Перед вызовом итоги арендатора должны быть удалены
+     * ({@code deleteAllInBatch} удаляет только строки текущего арендатора).
+     * 
+     * @param tenantId арендатор: нативный запрос Hibernate не фильтрует
+     * @return количество вставленных строк
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "insert into shift_rollup "
+            + "(tenant_id, worker_name, period_year, period_month, paid, shift_count, amount) "
+            + "select :tenantId, coalesce(x.worker_name, ''), extract(year from x.date), extract(month from x.date), "
+            + "x.paid, count(*), coalesce(sum(x.cost), 0) "
+            + "from (select worker_name, date, coalesce(paid, false) paid, cost from shift where tenant_id = :tenantId "
+            + "union all select worker_name, date, true, cost from shift_archive where tenant_id = :tenantId) x "
+            + "where x.date is not null "
+            + "group by coalesce(x.worker_name, ''), extract(year from x.date), extract(month from x.date), x.paid")
+    int insertFromShifts(@Param("tenantId") String tenantId);
+
+
+    /**
+     * Строит отчет по работникам за период.
+     * 
+     * @param from первый месяц периода ({@code YYYYMM})
+     * @param to   последний месяц периода ({@code YYYYMM})
+     * @return по одной строке на каждого работника
+     */
+    @Query("select r.workerName as key, sum(r.shiftCount) as count, sum(r.amount) as total, "
+            + "sum(case when r.paid = false then r.amount else 0 end) as unpaid from ShiftRollup r "
+            + "where r.periodYear * 100 + r.periodMonth between :from and :to "
+            + "group by r.workerName having sum(r.shiftCount) > 0 order by r.workerName")
+    List<EarningsBucket> sumByWorker(@Param("from") int from, @Param("to") int to);
+
+    /**
+     * Строит помесячный отчет за период.
+     * 
+     * @param workerName имя работника (null — все работники)
+     * @param from       первый месяц периода ({@code YYYYMM})
+     * @param to         последний месяц периода ({@code YYYYMM})
+     * @return по одной строке на каждый месяц, в хронологическом порядке
+     */
+    @Query("select r.periodYear as year, r.periodMonth as month, sum(r.shiftCount) as count, "
+            + "sum(r.amount) as total, sum(case when r.paid = false then r.amount else 0 end) as unpaid "
+            + "from ShiftRollup r where (:workerName is null or r.workerName = :workerName) "
+            + "and r.periodYear * 100 + r.periodMonth between :from and :to "
+            + "group by r.periodYear, r.periodMonth having sum(r.shiftCount) > 0 "
+            + "order by r.periodYear, r.periodMonth")
+    List<MonthlyBucket> sumByMonth(@Param("workerName") String workerName, @Param("from") int from,
+            @Param("to") int to);
+}
@@ -0,0 +1,74 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.dto.ShiftFilter;
+import com.example.memorizer.model.Shift;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Спецификации (условия выборки) для {@link ShiftRepository}.
+ * 
+ * Смены листаются от новых к старым по паре (date, id), которой
+ * соответствует индекс {@code idx_shift_keyset}.
+ * 
+ * @see Shift
+ */
+public final class ShiftSpecifications {
+
+    /**
+     * Порядок keyset-пагинации смен: сначала новые.
+     * 
+     * Арендатор в запросе один, поэтому tenantId порядок не меняет, но
+     * H2 читает строки готовыми по индексу {@code idx_shift_keyset},
+     * только если порядок повторяет все его столбцы; иначе каждая
+     * страница сортирует все смены арендатора.
+     */
+    public static final Sort KEYSET_ORDER = Sort.by(
+            Sort.Order.asc("tenantId"), Sort.Order.desc("date"), Sort.Order.desc("id"));
+
+    private ShiftSpecifications() {
+    }
+
+    /**
+     * Строит условие по фильтру. Незаполненные поля фильтра игнорируются.
+     * 
+     * @param filter фильтр смен
+     * @return условие выборки
+     */
+    public static Specification<Shift> matching(ShiftFilter filter) {
+        Specification<Shift> spec = Specification.where(null);
+        if (filter == null) {
+            return spec;
+        }
+        if (filter.workerName() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("workerName"), filter.workerName()));
+        }
+        if (filter.from() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), filter.from()));
+        }
+        if (filter.to() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("date"), filter.to()));
+        }
+        if (filter.paid() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("paid"), filter.paid()));
+        }
+        return spec;
+    }
+
+    /**
+     * Условие "строго после курсора" в порядке {@link #KEYSET_ORDER}.
+     * 
+     * @param date дата последней смены предыдущей страницы
+     * @param id   идентификатор последней смены предыдущей страницы
+     * @return условие выборки
+     */
+    public static Specification<Shift> after(LocalDate date, long id) {
+        // Избыточное условие date <= :date позволяет базе сузить диапазон индекса
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("date"), date),
+                cb.or(cb.lessThan(root.get("date"), date),
+                        cb.and(cb.equal(root.get("date"), date), cb.lessThan(root.get("id"), id))));
+    }
+}
@@ -1,18 +1,207 @@
 package com.example.memorizer.repository;
 
 import com.example.memorizer.model.Song;
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.IdRange;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.ReportFact;
+import com.example.memorizer.dto.SongSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Репозиторий для работы с сущностями {@link Song}.
  * 
  * Предоставляет стандартные операции CRUD для песен вне очереди.
  * Наследуется от {@link JpaRepository}, что автоматически добавляет
  * методы для создания, чтения, обновления и удаления записей.
+ * Фильтрация и пагинация выполняются через {@link JpaSpecificationExecutor}
+ * и спецификации из {@link SongSpecifications}.
  * 
  * @see Song
  */
 @Repository
-public interface SongRepository extends JpaRepository<Song, Long> {
+public interface SongRepository extends JpaRepository<Song, Long>, JpaSpecificationExecutor<Song> {
+
+    // Поиск и удаление по идентификатору выполняются запросами HQL:
+    // загрузку по ключу Hibernate не ограничивает текущим арендатором
+
+    @Override
+    @Query("select s from Song s where s.id = :id")
+    Optional<Song> findById(@Param("id") Long id);
+
+    @Override
+    @Modifying
+    @Query("delete from Song s where s.id = :id")
+    void deleteById(@Param("id") Long id);
+
+    /**
+     * Считает общую стоимость всех песен на стороне базы данных.
+     * 
+     * @return сумма стоимости всех песен (0, если песен нет)
+     */
+    @Query("select coalesce(sum(s.cost), 0) from Song s")
+    long sumCost();
+
+    /**
+     * Считает стоимость неоплаченных песен на стороне базы данных.
+     * 
+     * @return сумма стоимости неоплаченных песен (0, если таких нет)
+     */
+    @Query("select coalesce(sum(s.cost), 0) from Song s where s.paid = false")
+    long sumUnpaidCost();
+
+    /**
+     * Считает количество и стоимость неоплаченных песен одним запросом.
+     * 
+     * @return количество и суммарная стоимость неоплаченных песен
+     */
+    @Query("select count(s) as count, coalesce(sum(s.cost), 0) as amount from Song s where s.paid = false")
+    ItemTotals summarizeUnpaid();
+
+    /**
+     * Помечает все неоплаченные песни как оплаченные одним UPDATE запросом
+     * и привязывает их к выплате. Версии записей увеличиваются, чтобы
+     * параллельные изменения этих записей не прошли оптимистичную проверку.
+     * 
+     * @param payoutId идентификатор выплаты
+     * @return количество обновленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Song s set s.paid = true, s.payoutId = :payoutId, s.version = s.version + 1 where s.paid = false")
+    int settleUnpaid(@Param("payoutId") Long payoutId);
+
+    /**
+     * Находит очередную порцию неоплаченных песен для выплаты,
+     * начиная с самых старых.
+     * 
+     * @param limit размер порции
+     * @return неоплаченные песни в порядке возрастания идентификатора
+     */
+    @Query("select s from Song s where s.paid = false order by s.id")
+    List<Song> findUnpaidForPayout(Limit limit);
+
+    /**
+     * Помечает заданные неоплаченные песни как оплаченные и привязывает
+     * их к выплате.
+     * 
+     * @param payoutId идентификатор выплаты
+     * @param ids      идентификаторы песен
+     * @return количество обновленных записей
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Song s set s.paid = true, s.payoutId = :payoutId, s.version = s.version + 1 "
+            + "where s.id in :ids and s.paid = false")
+    int settleByIds(@Param("payoutId") Long payoutId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Находит, какие из заданных идентификаторов уже есть в таблице песен.
+     * 
+     * @param ids идентификаторы песен
+     * @return идентификаторы существующих песен
+     */
+    @Query("select s.id from Song s where s.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Находит идентификаторы оплаченных песен, закрытых выплатами старше
+     * заданного момента, в порядке возрастания.
+     * 
+     * Песня, оплаченная без выплаты ({@code payoutId} пуст), закрыта
+     * старой выплатой, сделанной до учета выплат, и подходит всегда.
+     * 
+     * @param cutoff момент, раньше которого должна быть выполнена выплата
+     * @param limit  максимальное количество идентификаторов
+     * @return идентификаторы кандидатов на перенос в архив
+     */
+    @Query("select s.id from Song s where s.paid = true and (s.payoutId is null or s.payoutId in "
+            + "(select p.id from PayoutBatch p where p.createdAt < :cutoff)) order by s.id")
+    List<Long> findSettledBefore(@Param("cutoff") Instant cutoff, Limit limit);
+
+    /**
+     * Считает заработок по песням с группировкой по выплатам.
+     * 
+     * @return по одной строке на каждую выплату (ключ null - неоплаченные песни)
+     */
+    @Query("select str(s.payoutId) as key, count(s) as count, coalesce(sum(s.cost), 0) as total, "
+            + "coalesce(sum(case when s.paid = false then s.cost else 0 end), 0) as unpaid "
+            + "from Song s group by s.payoutId order by s.payoutId")
+    List<EarningsBucket> sumByPayout();
+
+    /**
+     * @return наименьший и наибольший идентификаторы песен
+     */
+    @Query("select min(s.id) as lowId, max(s.id) as highId from Song s")
+    IdRange findIdRange();
+
+    /**
+     * Читает поля песен для отчета из диапазона идентификаторов.
+     * 
+     * @param lowId  первый идентификатор диапазона (включительно)
+     * @param highId последний идентификатор диапазона (включительно)
+     * @return поля песен диапазона
+     */
+    @Query("select s.addedBy as name, s.cost as cost, s.paid as paid from Song s "
+            + "where s.id between :lowId and :highId")
+    List<ReportFact> findReportFacts(@Param("lowId") long lowId, @Param("highId") long highId);
+
+    /**
+     * Читает страницу проекций песен для списка: строго до идентификатора
+     * курсора, от новых к старым.
+     * 
+     * Выбирает только столбцы {@link SongSummary}. Незаполненный
+     * параметр не ограничивает выборку. Порядок повторяет индекс
+     * {@code idx_song_keyset}, поэтому страница читается без сортировки.
+     * 
+     * @param before  идентификатор последней песни предыдущей страницы
+     *                ({@link Long#MAX_VALUE} для первой страницы)
+     * @param addedBy кто заказал песню
+     * @param paid    флаг оплаты
+     * @param limit   количество записей
+     * @return проекции песен по убыванию идентификатора
+     */
+    @Query("select s.id as id, s.title as title, s.addedBy as addedBy, s.cost as cost, s.paid as paid "
+            + "from Song s "
+            + "where s.id < :before "
+            + "and (:addedBy is null or s.addedBy = :addedBy) "
+            + "and (:paid is null or s.paid = :paid) "
+            + "order by s.tenantId, s.id desc")
+    List<SongSummary> findSummaries(@Param("before") long before, @Param("addedBy") String addedBy,
+            @Param("paid") Boolean paid, Limit limit);
+
+    /**
+     * Потоково читает песни для экспорта в порядке добавления.
+     * 
+     * Строки читаются курсором порциями по
+     * {@value ShiftRepository#EXPORT_FETCH_SIZE}. Поток должен читаться
+     * внутри транзакции и закрываться после использования.
+     * Незаполненный параметр не ограничивает выборку.
+     * 
+     * @param addedBy имя человека, заказавшего песню
+     * @param paid    флаг оплаты
+     * @return поток песен в порядке id
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ShiftRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Song s "
+            + "where (:addedBy is null or s.addedBy = :addedBy) "
+            + "and (:paid is null or s.paid = :paid) "
+            + "order by s.id")
+    Stream<Song> streamForExport(@Param("addedBy") String addedBy, @Param("paid") Boolean paid);
 }
@@ -0,0 +1,58 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.dto.SongFilter;
+import com.example.memorizer.model.Song;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Спецификации (условия выборки) для {@link SongRepository}.
+ * 
+ * Песни листаются от новых к старым по идентификатору.
+ * 
+ * @see Song
+ */
+public final class SongSpecifications {
+
+    /**
+     * Порядок keyset-пагинации песен: сначала новые.
+     * 
+     * tenantId, как и у смен ({@link ShiftSpecifications#KEYSET_ORDER}),
+     * нужен, чтобы H2 читал страницу по индексу {@code idx_song_keyset}
+     * без сортировки.
+     */
+    public static final Sort KEYSET_ORDER = Sort.by(Sort.Order.asc("tenantId"), Sort.Order.desc("id"));
+
+    private SongSpecifications() {
+    }
+
+    /**
+     * Строит условие по фильтру. Незаполненные поля фильтра игнорируются.
+     * 
+     * @param filter фильтр песен
+     * @return условие выборки
+     */
+    public static Specification<Song> matching(SongFilter filter) {
+        Specification<Song> spec = Specification.where(null);
+        if (filter == null) {
+            return spec;
+        }
+        if (filter.addedBy() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("addedBy"), filter.addedBy()));
+        }
+        if (filter.paid() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("paid"), filter.paid()));
+        }
+        return spec;
+    }
+
+    /**
+     * Условие "строго после курсора" в порядке {@link #KEYSET_ORDER}.
+     * 
+     * @param id идентификатор последней песни предыдущей страницы
+     * @return условие выборки
+     */
+    public static Specification<Song> after(long id) {
+        return (root, query, cb) -> cb.lessThan(root.get("id"), id);
+    }
+}
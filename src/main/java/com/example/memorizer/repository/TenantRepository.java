@@ -0,0 +1,24 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.model.Tenant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностями {@link Tenant}.
+ * 
+ * Реестр хранится в общей базе, поэтому обращаться к нему нужно
+ * от имени арендатора по умолчанию.
+ * 
+ * @see com.example.memorizer.service.TenantService
+ */
+@Repository
+public interface TenantRepository extends JpaRepository<Tenant, String> {
+
+    /**
+     * @return все арендаторы в порядке идентификаторов
+     */
+    List<Tenant> findAllByOrderByIdAsc();
+}
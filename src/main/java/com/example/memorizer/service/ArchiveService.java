@@ -0,0 +1,245 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.ArchiveResult;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.YearTotals;
+import com.example.memorizer.event.SettledArchivedEvent;
+import com.example.memorizer.model.ArchiveRollup;
+import com.example.memorizer.model.ArchivedShift;
+import com.example.memorizer.model.ArchivedSong;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.repository.ArchiveRollupRepository;
+import com.example.memorizer.repository.ArchivedShiftRepository;
+import com.example.memorizer.repository.ArchivedSongRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Сервис архивации оплаченных записей.
+ *
+ * Смены и песни, закрытые выплатой старше {@code memorizer.archive.min-age},
+ * переносятся из оперативных таблиц в архив ({@link ArchivedShift},
+ * {@link ArchivedSong}), разбитый по году выплаты. Оплаченные записи без
+ * выплаты ({@code payoutId} пуст) закрыты старыми выплатами, сделанными
+ * до учета выплат, и переносятся при первом же запуске. Оперативные
+ * таблицы при этом содержат только неоплаченные и недавно оплаченные
+ * записи, и их размер не растет с годами работы.
+ *
+ * <p>
+ * Записи переносятся порциями по {@code memorizer.archive.chunk-size},
+ * каждая — в отдельной транзакции: копирование INSERT ... SELECT,
+ * пополнение итогов архива ({@link ArchiveRollup}) и удаление из
+ * оперативной таблицы. На время порции блокируются строки журнала
+ * заработка, поэтому пересчет журнала видит каждую запись ровно в одном
+ * месте: в оперативной таблице или в итогах архива.
+ *
+ * <p>
+ * Архивация запускается по расписанию {@code memorizer.archive.cron}
+ * или вручную через API. Архивные записи доступны только для чтения.
+ *
+ * @see EarningsLedgerService#reconcile()
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+
+    /** Максимальный размер страницы архива */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ArchivedShiftRepository archivedShiftRepository;
+
+    @Autowired
+    private ArchivedSongRepository archivedSongRepository;
+
+    @Autowired
+    private ArchiveRollupRepository rollupRepository;
+
+    @Autowired
+    private EarningsLedgerService ledgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Value("${memorizer.archive.min-age:365d}")
+    private Duration minAge;
+
+    @Value("${memorizer.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Переносит в архив закрытые записи всех арендаторов по очереди.
+     */
+    @Scheduled(cron = "${memorizer.archive.cron:0 30 4 * * *}")
+    public void archiveSettledAll() {
+        tenantService.forEachTenant(tenant -> archiveSettled());
+    }
+
+    /**
+     * Переносит в архив записи текущего арендатора, закрытые выплатами
+     * старше {@code memorizer.archive.min-age}.
+     *
+     * Общий заработок не меняется: перенесенные суммы учитываются
+     * в итогах архива. Если что-то перенесено, публикуется
+     * {@link SettledArchivedEvent}.
+     *
+     * @return количество перенесенных смен и песен
+     */
+    public ArchiveResult archiveSettled() {
+        Instant cutoff = Instant.now().minus(minAge);
+        long shifts = archiveAll(() -> archiveShiftChunk(cutoff));
+        long songs = archiveAll(() -> archiveSongChunk(cutoff));
+
+        ArchiveResult result = new ArchiveResult(cutoff, shifts, songs);
+        if (shifts > 0 || songs > 0) {
+            log.info("Archived {} shifts and {} songs settled before {}", shifts, songs, cutoff);
+            eventPublisher.publishEvent(new SettledArchivedEvent(result));
+        }
+        return result;
+    }
+
+    /**
+     * Получает страницу архивных смен.
+     *
+     * @param year       год выплаты (null — все годы)
+     * @param workerName имя работника (null — все работники)
+     * @param cursor     курсор из предыдущей страницы (null — с начала)
+     * @param limit      размер страницы (не более {@value #MAX_PAGE_SIZE})
+     * @return страница смен в порядке возрастания идентификатора
+     * @throws ResponseStatusException 400, если курсор некорректен
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ArchivedShift> findShifts(Integer year, String workerName, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        return page(archivedShiftRepository.findPage(year, workerName, parseCursor(cursor), Limit.of(pageSize + 1)),
+                pageSize, ArchivedShift::getId);
+    }
+
+    /**
+     * Получает страницу архивных песен.
+     *
+     * @param year    год выплаты (null — все годы)
+     * @param addedBy имя заказчика (null — все заказчики)
+     * @param cursor  курсор из предыдущей страницы (null — с начала)
+     * @param limit   размер страницы (не более {@value #MAX_PAGE_SIZE})
+     * @return страница песен в порядке возрастания идентификатора
+     * @throws ResponseStatusException 400, если курсор некорректен
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ArchivedSong> findSongs(Integer year, String addedBy, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        return page(archivedSongRepository.findPage(year, addedBy, parseCursor(cursor), Limit.of(pageSize + 1)),
+                pageSize, ArchivedSong::getId);
+    }
+
+    /**
+     * Получает итоги архива.
+     *
+     * @return количество и сумма архивных записей по годам и типам
+     */
+    @Transactional(readOnly = true)
+    public List<ArchiveRollup> getSummary() {
+        return rollupRepository.findAllByOrderByArchiveYearAscItemTypeAsc();
+    }
+
+    /**
+     * Повторяет перенос порций, каждую в своей транзакции, пока находятся
+     * полные порции.
+     */
+    private long archiveAll(IntSupplier chunk) {
+        long total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> chunk.getAsInt());
+            total += moved;
+        } while (moved == chunkSize);
+        return total;
+    }
+
+    private int archiveShiftChunk(Instant cutoff) {
+        ledgerService.lockAll();
+        List<Long> ids = shiftRepository.findSettledBefore(cutoff, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedShiftRepository.copyFromShifts(ids);
+        addToRollup(ItemType.SHIFT, archivedShiftRepository.sumByYear(ids));
+        shiftRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    private int archiveSongChunk(Instant cutoff) {
+        ledgerService.lockAll();
+        List<Long> ids = songRepository.findSettledBefore(cutoff, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedSongRepository.copyFromSongs(ids);
+        addToRollup(ItemType.SONG, archivedSongRepository.sumByYear(ids));
+        songRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    private void addToRollup(ItemType itemType, List<YearTotals> totals) {
+        for (YearTotals year : totals) {
+            // Строки журнала заблокированы, поэтому параллельной вставки итогов за год быть не может
+            if (rollupRepository.add(itemType, year.getYear(), year.getCount(), year.getAmount()) == 0) {
+                rollupRepository.save(new ArchiveRollup(TenantContext.current(), itemType, year.getYear(),
+                        year.getCount(), year.getAmount()));
+            }
+        }
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неверный курсор: " + cursor);
+        }
+    }
+
+    private static <T> KeysetPage<T> page(List<T> rows, int pageSize, Function<T, Long> id) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new KeysetPage<>(items, String.valueOf(id.apply(items.get(pageSize - 1))));
+    }
+}
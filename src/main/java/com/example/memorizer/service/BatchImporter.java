@@ -0,0 +1,52 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.BatchImportResult;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Разбивает поток импортируемых записей на порции фиксированного размера.
+ * 
+ * Каждая порция сохраняется отдельной транзакцией, поэтому объем памяти
+ * и время удержания блокировок ограничены размером порции, а не всего
+ * импорта. Уже сохраненные порции остаются в базе, если последующая
+ * порция завершилась ошибкой.
+ */
+final class BatchImporter {
+
+    /** Размер порции импорта (кратен размеру JDBC-пакета) */
+    static final int CHUNK_SIZE = 1000;
+
+    private BatchImporter() {
+    }
+
+    /**
+     * Читает записи из источника и передает их порциями в обработчик.
+     * 
+     * @param source       источник записей (читается лениво)
+     * @param persistChunk обработчик порции; возвращает суммарную стоимость порции
+     * @param <T>          тип записей
+     * @return количество импортированных записей и их суммарная стоимость
+     */
+    static <T> BatchImportResult importInChunks(Iterator<T> source, ToLongFunction<List<T>> persistChunk) {
+        long imported = 0;
+        long totalCost = 0;
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (source.hasNext()) {
+            chunk.add(source.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                totalCost += persistChunk.applyAsLong(chunk);
+                imported += chunk.size();
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            totalCost += persistChunk.applyAsLong(chunk);
+            imported += chunk.size();
+        }
+        return new BatchImportResult(imported, totalCost);
+    }
+}
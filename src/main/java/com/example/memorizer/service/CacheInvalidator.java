@@ -0,0 +1,116 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.CacheConfig;
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.event.LedgerReconciledEvent;
+import com.example.memorizer.event.MemorizerEvent;
+import com.example.memorizer.event.PayoutCompletedEvent;
+import com.example.memorizer.event.PayoutProgressEvent;
+import com.example.memorizer.event.SettledArchivedEvent;
+import com.example.memorizer.event.ShiftCreatedEvent;
+import com.example.memorizer.event.ShiftDeletedEvent;
+import com.example.memorizer.event.ShiftsImportedEvent;
+import com.example.memorizer.event.SongCreatedEvent;
+import com.example.memorizer.event.SongDeletedEvent;
+import com.example.memorizer.event.SongsImportedEvent;
+import com.example.memorizer.service.DataVersions.Table;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+/**
+ * Сбрасывает кэши чтения по доменным событиям.
+ * 
+ * После фиксации изменения сначала увеличивается версия таблицы в
+ * {@link DataVersions}, которая входит в ключи кэшей (см. {@link CacheConfig}):
+ * значение, вычисленное параллельным запросом по данным до изменения,
+ * попадает под устаревший ключ и больше не читается. Затем из затронутых
+ * кэшей удаляются записи арендатора, чтобы освободить память; записи
+ * других арендаторов остаются.
+ * 
+ * <ul>
+ * <li>смены: списки смен, заработок, детализация, отчеты по работникам и месяцам</li>
+ * <li>песни: списки песен, заработок, детализация</li>
+ * <li>выплата и каждая её порция: все кэши (меняются признаки оплаты обоих типов)</li>
+ * <li>пересчет журнала: только заработок</li>
+ * <li>архивация: списки смен и песен, детализация (заработок не меняется)</li>
+ * </ul>
+ */
+@Component
+public class CacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    /**
+     * Сбрасывает кэши, затронутые зафиксированным изменением.
+     * 
+     * Выполняется раньше остальных слушателей, чтобы рассылка событий
+     * клиентам уже читала актуальный заработок.
+     * 
+     * @param event доменное событие
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvent(MemorizerEvent event) {
+        if (event instanceof ShiftCreatedEvent || event instanceof ShiftDeletedEvent
+                || event instanceof ShiftsImportedEvent) {
+            invalidate(Table.SHIFTS, CacheConfig.SHIFT_PAGES, CacheConfig.WORKER_REPORTS, CacheConfig.MONTHLY_REPORTS);
+        } else if (event instanceof SongCreatedEvent || event instanceof SongDeletedEvent
+                || event instanceof SongsImportedEvent) {
+            invalidate(Table.SONGS, CacheConfig.SONG_PAGES);
+        } else if (event instanceof PayoutCompletedEvent || event instanceof PayoutProgressEvent) {
+            dataVersions.bump(Table.SHIFTS, Table.SONGS);
+            clear(CacheConfig.SHIFT_PAGES, CacheConfig.SONG_PAGES, CacheConfig.EARNINGS,
+                    CacheConfig.BREAKDOWN, CacheConfig.PAYOUTS, CacheConfig.WORKER_REPORTS, CacheConfig.MONTHLY_REPORTS);
+        } else if (event instanceof SettledArchivedEvent) {
+            dataVersions.bump(Table.SHIFTS, Table.SONGS, Table.ARCHIVE);
+            clear(CacheConfig.SHIFT_PAGES, CacheConfig.SONG_PAGES, CacheConfig.BREAKDOWN);
+        } else if (event instanceof LedgerReconciledEvent) {
+            dataVersions.bump(Table.LEDGER);
+            clear(CacheConfig.EARNINGS);
+        }
+    }
+
+    private void invalidate(Table table, String... tableCaches) {
+        dataVersions.bump(table);
+        clear(tableCaches);
+        clear(CacheConfig.EARNINGS, CacheConfig.BREAKDOWN);
+    }
+
+    /**
+     * Удаляет из кэшей записи текущего арендатора.
+     */
+    private void clear(String... cacheNames) {
+        String tenant = TenantContext.current();
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            Map<?, ?> entries = entries(cache.getNativeCache());
+            if (entries != null) {
+                entries.keySet().removeIf(key -> !(key instanceof CacheConfig.TenantKey tenantKey)
+                        || tenantKey.tenant().equals(tenant));
+            } else {
+                cache.clear();
+            }
+        }
+    }
+
+    private static Map<?, ?> entries(Object nativeCache) {
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return caffeine.asMap();
+        }
+        return nativeCache instanceof Map<?, ?> map ? map : null;
+    }
+}
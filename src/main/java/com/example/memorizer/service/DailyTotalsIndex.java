@@ -0,0 +1,101 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.DayTotals;
+
+import java.util.List;
+
+/**
+ * Префиксные суммы заработка по дням: два дерева Фенвика (общая стоимость
+ * смен и стоимость неоплаченных) над непрерывным диапазоном дней.
+ *
+ * Сумма с начала диапазона по любой день и изменение итогов одного дня
+ * выполняются за O(log N), где N - длина диапазона в днях; сумма за
+ * период - разность двух префиксных сумм. Дни до начала диапазона
+ * считаются пустыми, дни после конца входят в сумму целиком.
+ *
+ * <p>
+ * Не потокобезопасен: доступ синхронизирует {@link EarningsHistoryService}.
+ */
+final class DailyTotalsIndex {
+
+    /** Номер первого дня диапазона ({@link java.time.LocalDate#toEpochDay()}) */
+    private final long firstDay;
+
+    /** Деревья Фенвика с нумерацией узлов с 1 */
+    private final long[] total;
+    private final long[] unpaid;
+
+    /**
+     * Строит индекс за O(N) по итогам дней.
+     *
+     * @param firstDay первый день диапазона
+     * @param days     длина диапазона в днях
+     * @param rows     итоги дней внутри диапазона
+     */
+    DailyTotalsIndex(long firstDay, int days, List<DayTotals> rows) {
+        this.firstDay = firstDay;
+        this.total = new long[days + 1];
+        this.unpaid = new long[days + 1];
+        for (DayTotals row : rows) {
+            int node = (int) (row.getEpochDay() - firstDay) + 1;
+            total[node] += row.getTotal();
+            unpaid[node] += row.getUnpaid();
+        }
+        for (int node = 1; node <= days; node++) {
+            int parent = node + (node & -node);
+            if (parent <= days) {
+                total[parent] += total[node];
+                unpaid[parent] += unpaid[node];
+            }
+        }
+    }
+
+    /**
+     * @param epochDay номер дня
+     * @return true, если день входит в диапазон индекса
+     */
+    boolean covers(long epochDay) {
+        return epochDay >= firstDay && epochDay - firstDay < total.length - 1;
+    }
+
+    /**
+     * Изменяет итоги дня внутри диапазона.
+     *
+     * @param epochDay    номер дня
+     * @param totalDelta  изменение общей стоимости
+     * @param unpaidDelta изменение стоимости неоплаченных
+     */
+    void add(long epochDay, long totalDelta, long unpaidDelta) {
+        for (int node = (int) (epochDay - firstDay) + 1; node < total.length; node += node & -node) {
+            total[node] += totalDelta;
+            unpaid[node] += unpaidDelta;
+        }
+    }
+
+    /**
+     * @param epochDay номер последнего дня (включительно)
+     * @return общая стоимость и стоимость неоплаченных по этот день
+     */
+    long[] sumThrough(long epochDay) {
+        long[] sum = new long[2];
+        if (epochDay < firstDay) {
+            return sum;
+        }
+        for (int node = (int) Math.min(epochDay - firstDay + 1, total.length - 1); node > 0; node -= node & -node) {
+            sum[0] += total[node];
+            sum[1] += unpaid[node];
+        }
+        return sum;
+    }
+
+    /**
+     * @param fromDay номер первого дня (включительно)
+     * @param toDay   номер последнего дня (включительно)
+     * @return общая стоимость и стоимость неоплаченных за период
+     */
+    long[] sum(long fromDay, long toDay) {
+        long[] through = sumThrough(toDay);
+        long[] before = sumThrough(fromDay - 1);
+        return new long[] {through[0] - before[0], through[1] - before[1]};
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счетчики версий данных.
+ *
+ * Версия таблицы увеличивается после фиксации каждого её изменения
+ * (см. {@link CacheInvalidator}). Версии входят в ключи кэшей чтения
+ * и в ETag ответов API: пока версия не изменилась, ранее отданный
+ * ответ остается актуальным.
+ *
+ * <p>
+ * Счетчики хранятся в памяти, поэтому ETag дополнительно содержит
+ * метку запуска приложения и не совпадает с ETag предыдущего запуска.
+ *
+ * <p>
+ * Версии ведутся отдельно для каждого арендатора ({@link TenantContext}),
+ * и ETag содержит идентификатор арендатора: изменение у одного
+ * арендатора не сбрасывает кэши и ETag остальных.
+ */
+@Component
+public class DataVersions {
+
+    /**
+     * Версионируемые данные.
+     */
+    public enum Table {
+        /** Смены */
+        SHIFTS,
+        /** Песни */
+        SONGS,
+        /** Итоги журнала заработка (меняются при пересчете) */
+        LEDGER,
+        /** Архив оплаченных записей */
+        ARCHIVE
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /** Версии таблиц по арендаторам, в порядке {@link Table#ordinal()} */
+    private final Map<String, AtomicLongArray> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param table таблица
+     * @return текущая версия таблицы текущего арендатора
+     */
+    public long get(Table table) {
+        return versions().get(table.ordinal());
+    }
+
+    /**
+     * Увеличивает версии таблиц текущего арендатора после фиксации их изменения.
+     *
+     * @param tables измененные таблицы
+     */
+    public void bump(Table... tables) {
+        AtomicLongArray tenantVersions = versions();
+        for (Table table : tables) {
+            tenantVersions.incrementAndGet(table.ordinal());
+        }
+    }
+
+    /**
+     * Строит сильный ETag по текущим версиям таблиц.
+     *
+     * @param tables таблицы, от которых зависит ответ
+     * @return ETag в кавычках, например {@code "lx2k9q-default-12-3"}
+     */
+    public String etag(Table... tables) {
+        StringBuilder etag = new StringBuilder("\"").append(epoch).append('-').append(TenantContext.current());
+        for (Table table : tables) {
+            etag.append('-').append(get(table));
+        }
+        return etag.append('"').toString();
+    }
+
+    private AtomicLongArray versions() {
+        return versions.computeIfAbsent(TenantContext.current(),
+                tenant -> new AtomicLongArray(Table.values().length));
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.DayTotals;
+import com.example.memorizer.dto.ShiftEarningsDTO;
+import com.example.memorizer.event.LedgerReconciledEvent;
+import com.example.memorizer.event.MemorizerEvent;
+import com.example.memorizer.event.PayoutCompletedEvent;
+import com.example.memorizer.event.PayoutProgressEvent;
+import com.example.memorizer.event.ShiftCreatedEvent;
+import com.example.memorizer.event.ShiftDeletedEvent;
+import com.example.memorizer.event.ShiftsImportedEvent;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.repository.ShiftRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Сервис заработка по сменам на дату и за период.
+ *
+ * Запросы отвечают по индексу префиксных сумм по дате смены
+ * ({@link DailyTotalsIndex}), который строится для арендатора при первом
+ * запросе одним агрегатным запросом по сменам и архиву, а затем
+ * поддерживается инкрементально: создание, удаление и импорт смен
+ * после фиксации транзакции меняют итоги своих дней. Поэтому запрос
+ * стоит O(log N) по числу дней, а не чтение всех смен.
+ *
+ * <p>
+ * Выплата и пересчет журнала заработка сбрасывают индекс арендатора,
+ * и он строится заново при следующем запросе; так же сбрасывается индекс,
+ * если смена попала за пределы его диапазона. Архивация индекс не меняет:
+ * архивные смены учитываются в нем как оплаченные.
+ *
+ * <p>
+ * Учитываются только смены: у песен нет даты. Суммы по датам смен,
+ * признак оплаты - текущий, поэтому ответ - не баланс на дату
+ * (см. {@link ShiftEarningsDTO}).
+ */
+@Slf4j
+@Service
+public class EarningsHistoryService {
+
+    /** Запас дней после сегодняшнего дня в диапазоне нового индекса */
+    static final int HEADROOM_DAYS = 366;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    /** Индексы арендаторов */
+    private final Map<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Индекс арендатора и счетчики изменений.
+     */
+    private static final class TenantIndex {
+
+        /** Изменения в ещё не завершенных транзакциях */
+        final AtomicInteger pending = new AtomicInteger();
+
+        /** Количество примененных изменений; доступ под this */
+        long changes;
+
+        /** Индекс или null, если его нужно построить; доступ под this */
+        DailyTotalsIndex index;
+    }
+
+    /**
+     * Считает заработок по сменам с датой не позже заданной.
+     *
+     * @param asOf дата (включительно)
+     * @return стоимость этих смен и стоимость неоплаченных на сегодня среди них
+     */
+    public ShiftEarningsDTO getEarningsAsOf(LocalDate asOf) {
+        long[] sum = read(index -> index.sumThrough(asOf.toEpochDay()));
+        return new ShiftEarningsDTO(null, asOf, sum[0], sum[1]);
+    }
+
+    /**
+     * Считает заработок по сменам за период дат.
+     *
+     * @param from первая дата (включительно, null - без ограничения)
+     * @param to   последняя дата (включительно, null - без ограничения)
+     * @return стоимость смен периода и стоимость неоплаченных на сегодня среди них
+     * @throws ResponseStatusException 400, если начало периода позже конца
+     */
+    public ShiftEarningsDTO getEarningsBetween(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Начало периода позже конца: " + from + " > " + to);
+        }
+        long toDay = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+        long[] sum = read(index -> from != null ? index.sum(from.toEpochDay(), toDay) : index.sumThrough(toDay));
+        return new ShiftEarningsDTO(from, to, sum[0], sum[1]);
+    }
+
+    /**
+     * Учитывает изменение смен или признаков оплаты.
+     *
+     * В транзакции изменение применяется после её фиксации, вне
+     * транзакции - сразу.
+     *
+     * @param event доменное событие
+     */
+    @EventListener
+    public void onEvent(MemorizerEvent event) {
+        if (!(event instanceof ShiftCreatedEvent || event instanceof ShiftDeletedEvent
+                || event instanceof ShiftsImportedEvent || event instanceof PayoutCompletedEvent
+                || event instanceof PayoutProgressEvent || event instanceof LedgerReconciledEvent)) {
+            return;
+        }
+        TenantIndex tenant = indexes.computeIfAbsent(TenantContext.current(), key -> new TenantIndex());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(tenant, event);
+            return;
+        }
+        tenant.pending.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(tenant, event);
+                    }
+                } finally {
+                    tenant.pending.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Отвечает по индексу текущего арендатора, при необходимости строя его.
+     *
+     * Построенный индекс сохраняется, только если за время построения
+     * не было ни примененных, ни незавершенных изменений: иначе неизвестно,
+     * вошли ли они в прочитанные итоги. Такой индекс используется для
+     * одного ответа.
+     */
+    private long[] read(Function<DailyTotalsIndex, long[]> query) {
+        String tenantId = TenantContext.current();
+        TenantIndex tenant = indexes.computeIfAbsent(tenantId, key -> new TenantIndex());
+        long changes;
+        synchronized (tenant) {
+            if (tenant.index != null) {
+                return query.apply(tenant.index);
+            }
+            changes = tenant.changes;
+        }
+        long started = System.nanoTime();
+        DailyTotalsIndex index = build(shiftRepository.sumByDay(tenantId));
+        synchronized (tenant) {
+            if (tenant.changes == changes && tenant.pending.get() == 0) {
+                tenant.index = index;
+                log.debug("Built earnings history index of tenant {} in {} ms", tenantId,
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+            return query.apply(index);
+        }
+    }
+
+    private static void apply(TenantIndex tenant, MemorizerEvent event) {
+        synchronized (tenant) {
+            tenant.changes++;
+            if (tenant.index == null) {
+                return;
+            }
+            if (event instanceof ShiftCreatedEvent created) {
+                add(tenant, created.shift(), 1);
+            } else if (event instanceof ShiftDeletedEvent deleted) {
+                add(tenant, deleted.shift(), -1);
+            } else if (event instanceof ShiftsImportedEvent imported) {
+                for (Shift shift : imported.shifts()) {
+                    add(tenant, shift, 1);
+                }
+            } else {
+                tenant.index = null;
+            }
+        }
+    }
+
+    private static void add(TenantIndex tenant, Shift shift, int sign) {
+        if (tenant.index == null || shift.getDate() == null) {
+            return;
+        }
+        long day = shift.getDate().toEpochDay();
+        if (!tenant.index.covers(day)) {
+            tenant.index = null;
+            return;
+        }
+        long cost = shift.getCost() != null ? sign * shift.getCost() : 0;
+        tenant.index.add(day, cost, shift.isPaid() ? 0 : cost);
+    }
+
+    /**
+     * Строит индекс от первого дня со сменами (или сегодняшнего) до
+     * последнего дня со сменами (или сегодняшнего) с запасом
+     * {@value #HEADROOM_DAYS} дней.
+     *
+     * @param rows итоги дней в хронологическом порядке
+     */
+    static DailyTotalsIndex build(List<DayTotals> rows) {
+        long today = LocalDate.now().toEpochDay();
+        long first = today;
+        long last = today;
+        if (!rows.isEmpty()) {
+            first = Math.min(first, rows.get(0).getEpochDay());
+            last = Math.max(last, rows.get(rows.size() - 1).getEpochDay());
+        }
+        return new DailyTotalsIndex(first, Math.toIntExact(last + HEADROOM_DAYS - first + 1), rows);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.CacheConfig;
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.event.LedgerReconciledEvent;
+import com.example.memorizer.model.EarningsLedger;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.repository.ArchiveRollupRepository;
+import com.example.memorizer.repository.EarningsLedgerRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import com.example.memorizer.service.journal.EventJournal;
+import com.example.memorizer.service.journal.JournalEntry.Kind;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Сервис журнала заработка.
+ *
+ * Поддерживает накопительные итоги ({@link EarningsLedger}) по сменам и
+ * песням каждого арендатора, благодаря чему статистика заработка отдается
+ * за постоянное время без чтения всех записей.
+ *
+ * <p>
+ * Все методы изменения итогов должны вызываться внутри транзакции операции
+ * записи и <b>до</b> изменения самих смен/песен: обновление строки журнала
+ * блокирует её, и параллельные выплаты и пересчеты видят согласованное
+ * состояние.
+ *
+ * <p>
+ * Каждое изменение итогов после фиксации транзакции записывается
+ * в журнал событий {@link EventJournal} (если он включен), а пересчет
+ * сверяет с итогами и его балансы.
+ *
+ * <p>
+ * Пересчет итогов по исходным таблицам выполняется при старте приложения
+ * и периодически по расписанию {@code memorizer.ledger.reconcile-cron}.
+ *
+ * @see EarningsLedger
+ */
+@Slf4j
+@Service
+public class EarningsLedgerService {
+
+    @Autowired
+    private EarningsLedgerRepository ledgerRepository;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ArchiveRollupRepository rollupRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** Журнал событий (null, если выключен) */
+    @Autowired(required = false)
+    private EventJournal journal;
+
+    /**
+     * Получает статистику по заработку из журнала.
+     *
+     * Результат кэшируется до следующего изменения записей или пересчета.
+     *
+     * @return объект {@link EarningsDTO} с общим заработком и текущим балансом
+     */
+    @Cacheable(cacheNames = CacheConfig.EARNINGS, keyGenerator = "statsKeys")
+    @Transactional(readOnly = true)
+    public EarningsDTO getEarnings() {
+        long lifetimeTotal = 0;
+        long currentTotal = 0;
+        for (EarningsLedger ledger : ledgerRepository.findAll()) {
+            lifetimeTotal += ledger.getLifetimeTotal();
+            currentTotal += ledger.getUnpaidTotal();
+        }
+        return new EarningsDTO(lifetimeTotal, currentTotal);
+    }
+
+    /**
+     * Учитывает новую неоплаченную запись.
+     *
+     * @param itemType тип записи
+     * @param cost     стоимость записи (null считается нулем)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(ItemType itemType, Integer cost) {
+        long amount = cost != null ? cost : 0;
+        change(created(itemType), itemType, amount, amount);
+    }
+
+    /**
+     * Учитывает порцию новых неоплаченных записей одним обновлением.
+     *
+     * @param itemType тип записей
+     * @param amount   суммарная стоимость записей
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreatedTotal(ItemType itemType, long amount) {
+        change(created(itemType), itemType, amount, amount);
+    }
+
+    /**
+     * Учитывает удаление записи.
+     *
+     * @param itemType тип записи
+     * @param cost     стоимость записи (null считается нулем)
+     * @param paid     была ли запись оплачена
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(ItemType itemType, Integer cost, boolean paid) {
+        long amount = cost != null ? cost : 0;
+        change(Kind.ITEM_DELETED, itemType, -amount, paid ? 0 : -amount);
+    }
+
+    /**
+     * Учитывает выплату: уменьшает сумму неоплаченных записей.
+     *
+     * @param itemType тип записей
+     * @param amount   выплаченная сумма
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayout(ItemType itemType, long amount) {
+        change(Kind.PAYOUT_EXECUTED, itemType, 0, -amount);
+    }
+
+    /**
+     * Блокирует строки журнала всех типов до конца текущей транзакции.
+     *
+     * Пока блокировка удерживается, ни одна операция создания или удаления
+     * записей не может завершиться, поэтому вызывающий код видит
+     * неизменный набор неоплаченных записей.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockAll() {
+        for (ItemType itemType : ItemType.values()) {
+            lockOrCreate(itemType);
+        }
+    }
+
+    /**
+     * Пересчитывает журналы всех арендаторов, каждый в своей транзакции.
+     *
+     * Выполняется при старте приложения и по расписанию.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${memorizer.ledger.reconcile-cron:0 0 4 * * *}")
+    public void reconcileAll() {
+        tenantService.forEachTenant(tenant -> transactionTemplate.executeWithoutResult(status -> reconcile()));
+    }
+
+    /**
+     * Пересчитывает итоги журнала текущего арендатора по исходным таблицам.
+     *
+     * Строки журнала
+     * блокируются до подсчета сумм, поэтому параллельные операции записи
+     * применят свои приращения уже поверх пересчитанных значений.
+     * Общий заработок включает записи, перенесенные в архив: он берется
+     * из итогов архива, а не из архивных строк.
+     * Если итоги изменились, публикуется {@link LedgerReconciledEvent}.
+     * Балансы журнала событий приводятся к пересчитанным итогам.
+     */
+    @Transactional
+    public void reconcile() {
+        Optional<EarningsLedger> shiftLedger = ledgerRepository.lockByItemType(ItemType.SHIFT);
+        Optional<EarningsLedger> songLedger = ledgerRepository.lockByItemType(ItemType.SONG);
+        long shiftTotal = shiftRepository.sumCost() + rollupRepository.sumAmount(ItemType.SHIFT);
+        long shiftUnpaid = shiftRepository.sumUnpaidCost();
+        long songTotal = songRepository.sumCost() + rollupRepository.sumAmount(ItemType.SONG);
+        long songUnpaid = songRepository.sumUnpaidCost();
+        boolean changed = store(ItemType.SHIFT, shiftLedger, shiftTotal, shiftUnpaid)
+                | store(ItemType.SONG, songLedger, songTotal, songUnpaid);
+        if (journal != null) {
+            journal.align(shiftTotal + songTotal, shiftUnpaid + songUnpaid);
+        }
+        if (changed) {
+            eventPublisher.publishEvent(new LedgerReconciledEvent(getEarnings()));
+        }
+    }
+
+    /**
+     * Сохраняет пересчитанные итоги.
+     *
+     * @return true, если строки журнала не было или её итоги расходились с фактическими
+     */
+    private boolean store(ItemType itemType, Optional<EarningsLedger> stored, long lifetimeTotal, long unpaidTotal) {
+        if (stored.isEmpty()) {
+            ledgerRepository.save(new EarningsLedger(TenantContext.current(), itemType, lifetimeTotal,
+                    unpaidTotal));
+            return true;
+        }
+        EarningsLedger ledger = stored.get();
+        if (ledger.getLifetimeTotal() == lifetimeTotal && ledger.getUnpaidTotal() == unpaidTotal) {
+            return false;
+        }
+        log.warn("Ledger drift for {}: stored {}/{}, actual {}/{}", itemType,
+                ledger.getLifetimeTotal(), ledger.getUnpaidTotal(), lifetimeTotal, unpaidTotal);
+        ledger.setLifetimeTotal(lifetimeTotal);
+        ledger.setUnpaidTotal(unpaidTotal);
+        ledgerRepository.save(ledger);
+        return true;
+    }
+
+    private EarningsLedger lockOrCreate(ItemType itemType) {
+        return ledgerRepository.lockByItemType(itemType)
+                .orElseGet(() -> ledgerRepository.saveAndFlush(
+                        new EarningsLedger(TenantContext.current(), itemType, 0, 0)));
+    }
+
+    private static Kind created(ItemType itemType) {
+        return itemType == ItemType.SHIFT ? Kind.SHIFT_CREATED : Kind.SONG_ADDED;
+    }
+
+    private void change(Kind kind, ItemType itemType, long lifetimeDelta, long unpaidDelta) {
+        applyDelta(itemType, lifetimeDelta, unpaidDelta);
+        if (journal != null) {
+            journal.record(kind, itemType, lifetimeDelta, unpaidDelta);
+        }
+    }
+
+    private void applyDelta(ItemType itemType, long lifetimeDelta, long unpaidDelta) {
+        if (ledgerRepository.applyDelta(itemType, lifetimeDelta, unpaidDelta) == 0) {
+            // Строки журнала ещё нет: создаем её по исходным таблицам
+            reconcile();
+            ledgerRepository.applyDelta(itemType, lifetimeDelta, unpaidDelta);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.ChangeDTO;
+import com.example.memorizer.event.MemorizerEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Сервис рассылки изменений клиентам через Server-Sent Events.
+ * 
+ * Получает доменные события ({@link MemorizerEvent}) после фиксации
+ * транзакции и отправляет их всем подписчикам вместе с новым балансом,
+ * чтобы клиенты применяли изменения без повторной загрузки списков.
+ * 
+ * <p>
+ * Отправка выполняется в отдельном потоке: медленный клиент не задерживает
+ * операцию записи, а порядок событий сохраняется.
+ * 
+ * <p>
+ * Подписчик получает события только своего арендатора: арендатор
+ * запоминается при подписке и при публикации события.
+ */
+@Slf4j
+@Service
+public class EventStreamService {
+
+    /** Время жизни подписки; после него браузер переподключается сам */
+    static final Duration SUBSCRIPTION_TIMEOUT = Duration.ofMinutes(30);
+
+    /** Подписчики по арендаторам */
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    private Executor executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private EarningsLedgerService ledgerService;
+
+    /**
+     * Регистрирует нового подписчика текущего арендатора.
+     * 
+     * @return поток событий подписчика
+     */
+    public SseEmitter subscribe() {
+        List<SseEmitter> tenantEmitters = emitters.computeIfAbsent(TenantContext.current(),
+                tenant -> new CopyOnWriteArrayList<>());
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT.toMillis());
+        emitter.onCompletion(() -> tenantEmitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> tenantEmitters.remove(emitter));
+        tenantEmitters.add(emitter);
+        return emitter;
+    }
+
+    /**
+     * Рассылает зафиксированное изменение подписчикам арендатора,
+     * в транзакции которого оно сделано.
+     * 
+     * Событие, опубликованное вне транзакции, рассылается сразу.
+     * 
+     * @param event доменное событие
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEvent(MemorizerEvent event) {
+        String tenant = TenantContext.current();
+        List<SseEmitter> tenantEmitters = emitters.get(tenant);
+        if (tenantEmitters == null || tenantEmitters.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            ChangeDTO change = new ChangeDTO(event.payload(), TenantContext.call(tenant, ledgerService::getEarnings));
+            broadcast(tenantEmitters, () -> SseEmitter.event().name(event.type()).data(change));
+        });
+    }
+
+    /**
+     * Периодически отправляет комментарий-пинг, чтобы прокси не закрывали
+     * простаивающие соединения, а отключившиеся клиенты обнаруживались.
+     */
+    @Scheduled(fixedRate = 30_000)
+    public void heartbeat() {
+        if (getSubscriberCount() > 0) {
+            executor.execute(() -> emitters.values().forEach(
+                    tenantEmitters -> broadcast(tenantEmitters, () -> SseEmitter.event().comment("ping"))));
+        }
+    }
+
+    /**
+     * @return количество активных подписчиков всех арендаторов
+     */
+    public int getSubscriberCount() {
+        return emitters.values().stream().mapToInt(List::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+        emitters.values().forEach(tenantEmitters -> tenantEmitters.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Отправляет событие каждому подписчику арендатора; построитель события
+     * одноразовый, поэтому создается заново для каждого отправления.
+     */
+    private static void broadcast(List<SseEmitter> tenantEmitters, Supplier<SseEmitter.SseEventBuilder> event) {
+        for (SseEmitter emitter : tenantEmitters) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping event stream subscriber: {}", e.getMessage());
+                tenantEmitters.remove(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.ShiftFilter;
+import com.example.memorizer.dto.SongFilter;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки смен и песен.
+ *
+ * Записи читаются из базы курсором и сразу пишутся в выходной поток,
+ * поэтому объем памяти не зависит от размера выгрузки: каждая
+ * выгруженная запись отсоединяется от контекста персистентности.
+ *
+ * @see ShiftRepository#streamForExport
+ * @see SongRepository#streamForExport
+ */
+@Service
+public class ExportService {
+
+    /**
+     * Формат выгрузки.
+     */
+    public enum ExportFormat {
+        /** CSV с заголовком, разделитель - запятая */
+        CSV("text/csv"),
+        /** Один JSON-объект на строку */
+        NDJSON(MediaType.APPLICATION_NDJSON_VALUE);
+
+        private final String contentType;
+
+        ExportFormat(String contentType) {
+            this.contentType = contentType;
+        }
+
+        /**
+         * @return MIME-тип выгрузки (UTF-8)
+         */
+        public String getContentType() {
+            return contentType + ";charset=UTF-8";
+        }
+
+        /**
+         * @return расширение файла выгрузки
+         */
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Разбирает формат из параметра запроса без учета регистра.
+         *
+         * @param value значение параметра
+         * @return формат выгрузки
+         * @throws ResponseStatusException 400, если значение неизвестно
+         */
+        public static ExportFormat parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестный формат: " + value);
+            }
+        }
+    }
+
+    private static final String SHIFT_HEADER = "id,workerName,date,startTime,endTime,cost,paid,payoutId";
+
+    private static final String SONG_HEADER = "id,title,artist,addedBy,cost,paid,payoutId";
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Выгружает смены, от старых к новым.
+     *
+     * @param filter фильтр смен (может быть null)
+     * @param format формат выгрузки
+     * @param out    выходной поток (не закрывается)
+     * @throws IOException при ошибке записи
+     */
+    @Transactional(readOnly = true)
+    public void exportShifts(ShiftFilter filter, ExportFormat format, Writer out) throws IOException {
+        ShiftFilter f = filter != null ? filter : new ShiftFilter(null, null, null, null);
+        try (Stream<Shift> rows = shiftRepository.streamForExport(f.workerName(), f.from(), f.to(), f.paid())) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(rows.iterator(), out, SHIFT_HEADER, shift -> new Object[] {
+                        shift.getId(), shift.getWorkerName(), shift.getDate(), shift.getStartTime(),
+                        shift.getEndTime(), shift.getCost(), shift.isPaid(), shift.getPayoutId() });
+            } else {
+                writeNdjson(rows.iterator(), out);
+            }
+        }
+    }
+
+    /**
+     * Выгружает песни в порядке добавления.
+     *
+     * @param filter фильтр песен (может быть null)
+     * @param format формат выгрузки
+     * @param out    выходной поток (не закрывается)
+     * @throws IOException при ошибке записи
+     */
+    @Transactional(readOnly = true)
+    public void exportSongs(SongFilter filter, ExportFormat format, Writer out) throws IOException {
+        SongFilter f = filter != null ? filter : new SongFilter(null, null);
+        try (Stream<Song> rows = songRepository.streamForExport(f.addedBy(), f.paid())) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(rows.iterator(), out, SONG_HEADER, song -> new Object[] {
+                        song.getId(), song.getTitle(), song.getArtist(), song.getAddedBy(),
+                        song.getCost(), song.isPaid(), song.getPayoutId() });
+            } else {
+                writeNdjson(rows.iterator(), out);
+            }
+        }
+    }
+
+    private <T> void writeCsv(Iterator<T> rows, Writer out, String header,
+            Function<T, Object[]> columns) throws IOException {
+        out.write(header);
+        out.write('\n');
+        while (rows.hasNext()) {
+            T row = rows.next();
+            Object[] values = columns.apply(row);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeCsvValue(values[i], out);
+            }
+            out.write('\n');
+            entityManager.detach(row);
+        }
+        out.flush();
+    }
+
+    private void writeNdjson(Iterator<?> rows, Writer out) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            Object row = rows.next();
+            generator.writeObject(row);
+            generator.writeRaw('\n');
+            entityManager.detach(row);
+        }
+        generator.flush();
+    }
+
+    /**
+     * Пишет значение CSV-ячейки, экранируя его по RFC 4180 при необходимости.
+     */
+    private static void writeCsvValue(Object value, Writer out) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        out.write(text.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
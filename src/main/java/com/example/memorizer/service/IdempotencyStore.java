@@ -0,0 +1,212 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Хранилище ключей идемпотентности для POST-запросов.
+ *
+ * Клиент передает в заголовке {@value #HEADER} случайный ключ, одинаковый
+ * для всех повторов одной операции. Первый запрос с ключом выполняет
+ * операцию и сохраняет её результат; повторы с тем же ключом получают
+ * сохраненный результат без повторного выполнения, а одновременные
+ * повторы дожидаются завершения первого запроса.
+ *
+ * <p>
+ * Повтор сверяется с первым запросом по отпечатку тела: ключ, уже
+ * использованный с другим телом, отклоняется. Потоковое тело
+ * (пакетный импорт) не загружается в память: отпечаток — контрольная
+ * сумма его байтов, снятая по ходу чтения.
+ *
+ * <p>
+ * Ключи хранятся в памяти в ограниченном кэше Caffeine и удаляются по
+ * истечении {@code memorizer.idempotency.ttl} или при превышении
+ * {@code memorizer.idempotency.max-keys}. Если операция завершилась
+ * ошибкой, ключ освобождается и запрос можно повторить.
+ */
+@Component
+public class IdempotencyStore {
+
+    /** Заголовок запроса с ключом идемпотентности */
+    public static final String HEADER = "Idempotency-Key";
+
+    /** Максимальная длина ключа */
+    static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${memorizer.idempotency.max-keys:10000}")
+    private long maxKeys;
+
+    @Value("${memorizer.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    private Cache<String, Entry> entries;
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Выполняет операцию не более одного раза для данного ключа.
+     *
+     * @param key     ключ идемпотентности (null — выполнить без проверки)
+     * @param scope   операция, к которой относится ключ (например, {@code POST /api/shifts})
+     * @param request тело запроса для сверки повторов (может быть null)
+     * @param action  операция
+     * @param <T>     тип результата
+     * @return результат операции или сохраненный результат первого запроса
+     * @throws ResponseStatusException 400, если ключ длиннее {@value #MAX_KEY_LENGTH} символов;
+     *                                 422, если ключ уже использован с другим телом запроса
+     */
+    public <T> T execute(String key, String scope, Object request, Supplier<T> action) {
+        if (!checkKey(key)) {
+            return action.get();
+        }
+        String storeKey = storeKey(scope, key);
+        // Отпечаток снимается до выполнения: операция может изменить объект запроса
+        int fingerprint = Objects.hashCode(request);
+        Entry entry = new Entry(CompletableFuture.completedFuture(fingerprint), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(storeKey, entry);
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+        return run(storeKey, entry, action);
+    }
+
+    /**
+     * Выполняет операцию над потоковым телом запроса не более одного раза
+     * для данного ключа.
+     *
+     * Отпечаток тела — контрольная сумма CRC32C его байтов. Первый запрос
+     * снимает её по ходу чтения и дочитывает тело, если операция прочла
+     * его не до конца; повтор прочитывает тело без разбора, только чтобы
+     * сверить сумму.
+     *
+     * @param key    ключ идемпотентности (null — выполнить без проверки)
+     * @param scope  операция, к которой относится ключ (например, {@code POST /api/shifts/batch})
+     * @param body   тело запроса
+     * @param action операция над телом запроса
+     * @param <T>    тип результата
+     * @return результат операции или сохраненный результат первого запроса
+     * @throws ResponseStatusException 400, если ключ длиннее {@value #MAX_KEY_LENGTH} символов
+     *                                 или тело не удалось прочитать;
+     *                                 422, если ключ уже использован с другим телом запроса
+     */
+    public <T> T execute(String key, String scope, InputStream body, Function<InputStream, T> action) {
+        if (!checkKey(key)) {
+            return action.apply(body);
+        }
+        String storeKey = storeKey(scope, key);
+        Entry entry = new Entry(new CompletableFuture<>(), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(storeKey, entry);
+        if (existing != null) {
+            CheckedInputStream checked = new CheckedInputStream(body, new CRC32C());
+            drain(checked);
+            return replay(existing, (int) checked.getChecksum().getValue());
+        }
+
+        CheckedInputStream checked = new CheckedInputStream(body, new CRC32C());
+        return run(storeKey, entry, () -> {
+            // Jackson закрывает поток, дочитав его; остаток нужен для отпечатка
+            T result = action.apply(StreamUtils.nonClosing(checked));
+            drain(checked);
+            entry.fingerprint().complete((int) checked.getChecksum().getValue());
+            return result;
+        });
+    }
+
+    /**
+     * @return количество хранимых ключей
+     */
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * @return true, если ключ задан и операцию нужно выполнять через хранилище
+     */
+    private static boolean checkKey(String key) {
+        if (key == null || key.isBlank()) {
+            return false;
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Слишком длинный " + HEADER);
+        }
+        return true;
+    }
+
+    private static String storeKey(String scope, String key) {
+        // Ключи разных арендаторов не пересекаются
+        return TenantContext.current() + '\n' + scope + '\n' + key;
+    }
+
+    private <T> T run(String storeKey, Entry entry, Supplier<T> action) {
+        try {
+            T result = action.get();
+            entry.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.asMap().remove(storeKey, entry);
+            entry.fingerprint().completeExceptionally(e);
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T replay(Entry existing, int fingerprint) {
+        if (join(existing.fingerprint()) != fingerprint) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " уже использован с другим запросом");
+        }
+        return (T) join(existing.result());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static void drain(InputStream body) {
+        try {
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Не удалось прочитать тело запроса", e);
+        }
+    }
+
+    /**
+     * Запись хранилища.
+     *
+     * @param fingerprint отпечаток тела первого запроса; у потокового тела
+     *                    известен только после его чтения
+     * @param result      результат первого запроса
+     */
+    private record Entry(CompletableFuture<Integer> fingerprint, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.model.PayoutBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+
+/**
+ * Бизнес-метрики приложения.
+ * 
+ * <ul>
+ * <li>{@code memorizer.items.created} - количество созданных записей (тег {@code type})</li>
+ * <li>{@code memorizer.items.amount} - их суммарная стоимость в рублях</li>
+ * <li>{@code memorizer.payout.amount} - выплаченная сумма в рублях (тег {@code type})</li>
+ * <li>{@code memorizer.payouts} - количество выплат</li>
+ * </ul>
+ * 
+ * Внутри транзакции значения учитываются только после её фиксации,
+ * поэтому откаченные операции в метрики не попадают.
+ */
+@Component
+public class MemorizerMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Учитывает созданные записи.
+     * 
+     * @param itemType тип записей
+     * @param count    количество записей
+     * @param amount   их суммарная стоимость
+     */
+    public void itemsCreated(ItemType itemType, long count, long amount) {
+        afterCommit(() -> {
+            counter("memorizer.items.created", itemType, null).increment(count);
+            counter("memorizer.items.amount", itemType, "rubles").increment(amount);
+        });
+    }
+
+    /**
+     * Учитывает выполненную выплату.
+     * 
+     * @param batch сохраненная выплата
+     */
+    public void paidOut(PayoutBatch batch) {
+        afterCommit(() -> {
+            meterRegistry.counter("memorizer.payouts").increment();
+            counter("memorizer.payout.amount", ItemType.SHIFT, "rubles").increment(batch.getShiftAmount());
+            counter("memorizer.payout.amount", ItemType.SONG, "rubles").increment(batch.getSongAmount());
+        });
+    }
+
+    private Counter counter(String name, ItemType itemType, String baseUnit) {
+        return Counter.builder(name)
+                .baseUnit(baseUnit)
+                .tag("type", itemType.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.CacheConfig;
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.PayoutScope;
+import com.example.memorizer.event.PayoutCompletedEvent;
+import com.example.memorizer.event.PayoutProgressEvent;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.model.PayoutStatus;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.repository.PayoutBatchRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Сервис выплат зарплаты.
+ * 
+ * Закрывает все неоплаченные смены и песни набором UPDATE запросов
+ * в одной транзакции, фиксирует выплату ({@link PayoutBatch}) и
+ * синхронно обновляет журнал заработка.
+ * 
+ * <p>
+ * На время выплаты блокируются строки журнала заработка. Операции
+ * создания и удаления записей обновляют журнал до изменения самих
+ * записей, поэтому они не могут пересечься с выплатой: запись либо
+ * полностью попадает в выплату, либо создается после неё.
+ * 
+ * <p>
+ * Выплата по области ({@link PayoutScope}: работник, даты, предельная
+ * сумма) закрывает записи порциями по {@code memorizer.payout.chunk-size},
+ * каждая — в отдельной транзакции со своей блокировкой журнала. Время
+ * блокировки и объем транзакции не зависят от размера задолженности,
+ * а после каждой порции клиенты получают {@link PayoutProgressEvent}.
+ * Выплата сохраняется до первой порции в состоянии
+ * {@link PayoutStatus#IN_PROGRESS} и закрывается в фоновом потоке:
+ * вызывающий сразу получает её идентификатор и следит за ходом через
+ * {@link #getPayout(Long)}. Прерванная выплата продолжается при старте
+ * приложения или вручную ({@link #resume(Long)}).
+ * 
+ * @see EarningsLedgerService
+ * @see PayoutBatch
+ */
+@Slf4j
+@Service
+public class PayoutService {
+
+    /**
+     * Итог закрытия порции.
+     */
+    private enum Progress {
+        /** Порция заполнена целиком: возможно, есть ещё записи */
+        MORE,
+        /** Подходящих записей больше нет */
+        DONE,
+        /** Следующая запись не укладывается в предельную сумму */
+        CAP_REACHED
+    }
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private PayoutBatchRepository payoutBatchRepository;
+
+    @Autowired
+    private EarningsLedgerService ledgerService;
+
+    @Autowired
+    private ShiftRollupService rollupService;
+
+    @Autowired
+    private MemorizerMetrics metrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${memorizer.payout.chunk-size:5000}")
+    private int chunkSize;
+
+    /** Фоновое закрытие выплат по области, по одной за раз */
+    private Executor executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Выполняет выплату зарплаты.
+     * 
+     * Помечает все неоплаченные смены и песни как оплаченные (paid = true)
+     * и привязывает их к новой выплате. После этой операции текущий баланс
+     * обнуляется, но общий заработок за всё время остается неизменным.
+     * 
+     * <p>
+     * Если неоплаченных записей нет, выплата не сохраняется и возвращается
+     * пустой объект без идентификатора.
+     * 
+     * @return выполненная выплата с суммой и количеством закрытых записей
+     */
+    @Transactional
+    public PayoutBatch payout() {
+        ledgerService.lockAll();
+
+        ItemTotals shiftTotals = shiftRepository.summarizeUnpaid();
+        ItemTotals songTotals = songRepository.summarizeUnpaid();
+
+        PayoutBatch batch = new PayoutBatch();
+        batch.setCreatedAt(Instant.now());
+        batch.setShiftCount(shiftTotals.getCount());
+        batch.setShiftAmount(shiftTotals.getAmount());
+        batch.setSongCount(songTotals.getCount());
+        batch.setSongAmount(songTotals.getAmount());
+        batch.setAmount(shiftTotals.getAmount() + songTotals.getAmount());
+        if (batch.getShiftCount() == 0 && batch.getSongCount() == 0) {
+            return batch;
+        }
+
+        batch = payoutBatchRepository.save(batch);
+        shiftRepository.settleUnpaid(batch.getId());
+        songRepository.settleUnpaid(batch.getId());
+
+        ledgerService.recordPayout(ItemType.SHIFT, batch.getShiftAmount());
+        ledgerService.recordPayout(ItemType.SONG, batch.getSongAmount());
+        rollupService.recordPayout();
+        metrics.paidOut(batch);
+        eventPublisher.publishEvent(new PayoutCompletedEvent(batch));
+        return batch;
+    }
+
+    /**
+     * Начинает выплату по области и закрывает её порциями в фоновом потоке.
+     * 
+     * Смены закрываются от самых старых (по дате), затем — если область
+     * не ограничена работником и датами — песни. При заданной предельной
+     * сумме выплата останавливается на первой записи, которая в неё не
+     * укладывается. Записи, созданные во время выплаты и попадающие
+     * в область, могут войти в её последние порции.
+     * 
+     * <p>
+     * Если фоновое закрытие прервется ошибкой, выплата остается
+     * {@link PayoutStatus#IN_PROGRESS} и продолжается при следующем старте
+     * или через {@link #resume(Long)}.
+     * 
+     * @param scope область выплаты
+     * @return начатая выплата в состоянии {@link PayoutStatus#IN_PROGRESS};
+     *         если подходящих записей нет, выплата не сохраняется
+     *         и возвращается пустой завершенный объект без идентификатора
+     * @throws ResponseStatusException 400, если начало периода позже конца
+     *                                 или предельная сумма не положительна
+     */
+    public PayoutBatch payout(PayoutScope scope) {
+        if (scope.from() != null && scope.to() != null && scope.from().isAfter(scope.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Начало периода позже конца: " + scope.from() + " > " + scope.to());
+        }
+        if (scope.maxAmount() != null && scope.maxAmount() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Предельная сумма должна быть положительной: " + scope.maxAmount());
+        }
+
+        PayoutBatch batch = new PayoutBatch();
+        batch.setCreatedAt(Instant.now());
+        batch.setStatus(PayoutStatus.IN_PROGRESS);
+        batch.setWorkerName(scope.workerName());
+        batch.setPeriodFrom(scope.from());
+        batch.setPeriodTo(scope.to());
+        batch.setMaxAmount(scope.maxAmount());
+        if (!hasUnpaid(scope)) {
+            batch.setStatus(PayoutStatus.COMPLETED);
+            return batch;
+        }
+
+        PayoutBatch saved = payoutBatchRepository.save(batch);
+        settleAsync(saved);
+        return saved;
+    }
+
+    /**
+     * Продолжает прерванную выплату по области.
+     * 
+     * Уже закрытые порции не повторяются: каждая следующая порция
+     * выбирает только ещё неоплаченные записи.
+     * 
+     * @param id идентификатор выплаты
+     * @return завершенная выплата
+     * @throws ResponseStatusException 404, если выплата не найдена
+     */
+    public PayoutBatch resume(Long id) {
+        PayoutBatch batch = getPayout(id);
+        return batch.getStatus() == PayoutStatus.COMPLETED ? batch : settle(batch);
+    }
+
+    /**
+     * Продолжает выплаты всех арендаторов, прерванные остановкой приложения.
+     * 
+     * Выплаты только ставятся в очередь фонового потока, поэтому старт
+     * приложения не ждет их закрытия.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        tenantService.forEachTenant(tenant -> {
+            for (PayoutBatch batch : payoutBatchRepository.findByStatusOrderByIdAsc(PayoutStatus.IN_PROGRESS)) {
+                log.info("Resuming interrupted payout {} of tenant {}: {} shifts and {} songs settled so far",
+                        batch.getId(), tenant, batch.getShiftCount(), batch.getSongCount());
+                settleAsync(batch);
+            }
+        });
+    }
+
+    /**
+     * Получает выплату, в том числе незавершенную, с закрытыми на данный
+     * момент количествами и суммами.
+     * 
+     * @param id идентификатор выплаты
+     * @return выплата
+     * @throws ResponseStatusException 404, если выплата не найдена
+     */
+    @Transactional(readOnly = true)
+    public PayoutBatch getPayout(Long id) {
+        return payoutBatchRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Выплата не найдена: " + id));
+    }
+
+    /**
+     * Получает историю последних выплат.
+     * 
+     * Результат кэшируется до следующей выплаты.
+     * 
+     * @return не более 20 последних выплат, начиная с самой новой
+     */
+    @Cacheable(cacheNames = CacheConfig.PAYOUTS, keyGenerator = "statsKeys")
+    public List<PayoutBatch> getRecentPayouts() {
+        return payoutBatchRepository.findTop20ByOrderByIdDesc();
+    }
+
+    /**
+     * Закрывает выплату в фоновом потоке от имени текущего арендатора.
+     * Ошибка записывается в журнал, выплата остается незавершенной.
+     */
+    private void settleAsync(PayoutBatch batch) {
+        String tenant = TenantContext.current();
+        executor.execute(() -> TenantContext.run(tenant, () -> {
+            try {
+                settle(batch);
+            } catch (RuntimeException e) {
+                log.error("Payout {} of tenant {} failed and stays in progress until resumed",
+                        batch.getId(), tenant, e);
+            }
+        }));
+    }
+
+    /**
+     * @return true, если в области есть хотя бы одна неоплаченная запись
+     */
+    private boolean hasUnpaid(PayoutScope scope) {
+        return !shiftRepository.findUnpaidForPayout(scope.workerName(), scope.from(), scope.to(), Limit.of(1))
+                .isEmpty()
+                || scope.includesSongs() && !songRepository.findUnpaidForPayout(Limit.of(1)).isEmpty();
+    }
+
+    /**
+     * Закрывает порции смен, затем песен, каждую в своей транзакции,
+     * и завершает выплату.
+     */
+    private PayoutBatch settle(PayoutBatch batch) {
+        Long id = batch.getId();
+        Progress progress;
+        do {
+            progress = transactionTemplate.execute(status -> settleShiftChunk(id));
+        } while (progress == Progress.MORE);
+
+        boolean includesSongs = batch.getWorkerName() == null && batch.getPeriodFrom() == null
+                && batch.getPeriodTo() == null;
+        if (progress == Progress.DONE && includesSongs) {
+            do {
+                progress = transactionTemplate.execute(status -> settleSongChunk(id));
+            } while (progress == Progress.MORE);
+        }
+        return transactionTemplate.execute(status -> complete(id));
+    }
+
+    private Progress settleShiftChunk(Long id) {
+        ledgerService.lockAll();
+        PayoutBatch batch = payoutBatchRepository.findById(id).orElse(null);
+        if (batch == null || batch.getStatus() == PayoutStatus.COMPLETED) {
+            return Progress.DONE;
+        }
+        List<Shift> candidates = shiftRepository.findUnpaidForPayout(batch.getWorkerName(), batch.getPeriodFrom(),
+                batch.getPeriodTo(), Limit.of(chunkSize));
+        List<Shift> shifts = withinCap(candidates, batch, Shift::getCost);
+        if (!shifts.isEmpty()) {
+            long amount = total(shifts, Shift::getCost);
+            shiftRepository.settleByIds(id, shifts.stream().map(Shift::getId).toList());
+            ledgerService.recordPayout(ItemType.SHIFT, amount);
+            rollupService.recordSettled(shifts);
+
+            batch.setShiftCount(batch.getShiftCount() + shifts.size());
+            batch.setShiftAmount(batch.getShiftAmount() + amount);
+            batch.setAmount(batch.getAmount() + amount);
+            eventPublisher.publishEvent(new PayoutProgressEvent(payoutBatchRepository.save(batch)));
+        }
+        return progress(candidates, shifts);
+    }
+
+    private Progress settleSongChunk(Long id) {
+        ledgerService.lockAll();
+        PayoutBatch batch = payoutBatchRepository.findById(id).orElse(null);
+        if (batch == null || batch.getStatus() == PayoutStatus.COMPLETED) {
+            return Progress.DONE;
+        }
+        List<Song> candidates = songRepository.findUnpaidForPayout(Limit.of(chunkSize));
+        List<Song> songs = withinCap(candidates, batch, Song::getCost);
+        if (!songs.isEmpty()) {
+            long amount = total(songs, Song::getCost);
+            songRepository.settleByIds(id, songs.stream().map(Song::getId).toList());
+            ledgerService.recordPayout(ItemType.SONG, amount);
+
+            batch.setSongCount(batch.getSongCount() + songs.size());
+            batch.setSongAmount(batch.getSongAmount() + amount);
+            batch.setAmount(batch.getAmount() + amount);
+            eventPublisher.publishEvent(new PayoutProgressEvent(payoutBatchRepository.save(batch)));
+        }
+        return progress(candidates, songs);
+    }
+
+    private PayoutBatch complete(Long id) {
+        ledgerService.lockAll();
+        PayoutBatch batch = payoutBatchRepository.findById(id).orElseGet(PayoutBatch::new);
+        if (batch.getStatus() == PayoutStatus.COMPLETED) {
+            return batch;
+        }
+        batch.setStatus(PayoutStatus.COMPLETED);
+        if (batch.getShiftCount() == 0 && batch.getSongCount() == 0) {
+            // Закрывать было нечего: как и полная выплата, пустую не сохраняем
+            payoutBatchRepository.delete(batch);
+            batch.setId(null);
+            return batch;
+        }
+        batch = payoutBatchRepository.save(batch);
+        log.info("Payout {} completed: {} shifts and {} songs, {} rubles",
+                batch.getId(), batch.getShiftCount(), batch.getSongCount(), batch.getAmount());
+        metrics.paidOut(batch);
+        eventPublisher.publishEvent(new PayoutCompletedEvent(batch));
+        return batch;
+    }
+
+    /**
+     * Отбирает начало порции, укладывающееся в остаток предельной суммы выплаты.
+     */
+    private static <T> List<T> withinCap(List<T> candidates, PayoutBatch batch, Function<T, Integer> cost) {
+        if (batch.getMaxAmount() == null) {
+            return candidates;
+        }
+        long remaining = batch.getMaxAmount() - batch.getAmount();
+        int count = 0;
+        while (count < candidates.size() && amount(cost.apply(candidates.get(count))) <= remaining) {
+            remaining -= amount(cost.apply(candidates.get(count)));
+            count++;
+        }
+        return candidates.subList(0, count);
+    }
+
+    private Progress progress(List<?> candidates, List<?> settled) {
+        if (settled.size() < candidates.size()) {
+            return Progress.CAP_REACHED;
+        }
+        return candidates.size() == chunkSize ? Progress.MORE : Progress.DONE;
+    }
+
+    private static <T> long total(List<T> items, Function<T, Integer> cost) {
+        long total = 0;
+        for (T item : items) {
+            total += amount(cost.apply(item));
+        }
+        return total;
+    }
+
+    private static long amount(Integer cost) {
+        return cost != null ? cost : 0;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.ShiftRollup;
+import com.example.memorizer.repository.ShiftRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сервис итогов смен по работникам и месяцам ({@link ShiftRollup}).
+ * Итоги ведутся отдельно для каждого арендатора.
+ *
+ * Итоги обновляются инкрементально в транзакции операции записи, поэтому
+ * отчеты по работникам и месяцам читают несколько сотен строк итогов,
+ * а не все смены. Методы изменения вызываются <b>после</b> обновления
+ * журнала заработка: строка журнала к этому моменту заблокирована,
+ * и параллельные операции не могут одновременно создать одну и ту же
+ * строку итогов.
+ *
+ * <p>
+ * Порции смен (импорт, выплата части смен) меняют итоги одним пакетом
+ * JDBC: по оператору {@code merge} на работника и месяц, без чтения
+ * строк итогов в контекст JPA.
+ *
+ * <p>
+ * Архивация смен итоги не меняет: архивные смены остаются в них как
+ * оплаченные. Итоги пересобираются по таблицам смен и архива по
+ * расписанию {@code memorizer.ledger.reconcile-cron}.
+ *
+ * @see EarningsLedgerService
+ */
+@Slf4j
+@Service
+public class ShiftRollupService {
+
+    /** Имя, под которым учитываются смены без работника */
+    static final String NO_WORKER = "";
+
+    /** Прибавляет приращения к строке итогов или создает её */
+    public static final String MERGE_SQL = "merge into shift_rollup t using (select cast(? as varchar(40)) tenant_id, "
+            + "cast(? as varchar(255)) worker_name, cast(? as integer) period_year, cast(? as integer) period_month, "
+            + "cast(? as boolean) paid, cast(? as bigint) shift_count, cast(? as bigint) amount) u "
+            + "on t.tenant_id = u.tenant_id and t.worker_name = u.worker_name and t.period_year = u.period_year "
+            + "and t.period_month = u.period_month and t.paid = u.paid "
+            + "when matched then update set shift_count = t.shift_count + u.shift_count, amount = t.amount + u.amount "
+            + "when not matched then insert (tenant_id, worker_name, period_year, period_month, paid, shift_count, "
+            + "amount) values (u.tenant_id, u.worker_name, u.period_year, u.period_month, u.paid, u.shift_count, "
+            + "u.amount)";
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EarningsLedgerService ledgerService;
+
+    @Autowired
+    private TenantService tenantService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Учитывает новую смену.
+     *
+     * @param shift сохраняемая смена с рассчитанной стоимостью
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Shift shift) {
+        apply(shift, 1);
+    }
+
+    /**
+     * Учитывает порцию новых смен: по одному обновлению на работника и месяц,
+     * все обновления - одним пакетом.
+     *
+     * @param shifts сохраняемые смены с рассчитанной стоимостью
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreatedAll(Collection<Shift> shifts) {
+        addAll(totals(shifts));
+    }
+
+    /**
+     * Учитывает удаление смены.
+     *
+     * @param shift удаляемая смена
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Shift shift) {
+        apply(shift, -1);
+    }
+
+    /**
+     * Учитывает выплату всех неоплаченных смен: неоплаченные итоги
+     * переносятся в оплаченные.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayout() {
+        rollupRepository.mergeUnpaidIntoPaid(TenantContext.current());
+        rollupRepository.deleteUnpaid();
+    }
+
+    /**
+     * Учитывает выплату части неоплаченных смен: их итоги переносятся
+     * из неоплаченных в оплаченные.
+     *
+     * @param shifts закрываемые смены (ещё с признаком неоплаченных)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSettled(Collection<Shift> shifts) {
+        Map<ShiftRollup.Key, long[]> deltas = new LinkedHashMap<>();
+        totals(shifts).forEach((key, delta) -> {
+            deltas.put(key, new long[] { -delta[0], -delta[1] });
+            deltas.put(new ShiftRollup.Key(key.getTenantId(), key.getWorkerName(), key.getPeriodYear(),
+                    key.getPeriodMonth(), true), delta);
+        });
+        addAll(deltas);
+    }
+
+    /**
+     * Пересобирает итоги всех арендаторов, каждого в своей транзакции.
+     */
+    @Scheduled(cron = "${memorizer.ledger.reconcile-cron:0 0 4 * * *}")
+    public void rebuildAll() {
+        tenantService.forEachTenant(tenant -> transactionTemplate.executeWithoutResult(status -> rebuild()));
+    }
+
+    /**
+     * Пересобирает итоги текущего арендатора по таблицам смен и архива.
+     *
+     * Строки журнала заработка блокируются на время пересборки, поэтому
+     * параллельные операции записи дождутся её окончания и применят свои
+     * приращения уже к новым итогам.
+     */
+    @Transactional
+    public void rebuild() {
+        ledgerService.lockAll();
+        rollupRepository.deleteAllInBatch();
+        int rows = rollupRepository.insertFromShifts(TenantContext.current());
+        log.info("Rebuilt shift rollup of tenant {}: {} rows", TenantContext.current(), rows);
+    }
+
+    /**
+     * Группирует смены по строкам итогов: количество и стоимость на ключ.
+     */
+    private static Map<ShiftRollup.Key, long[]> totals(Collection<Shift> shifts) {
+        Map<ShiftRollup.Key, long[]> totals = new LinkedHashMap<>();
+        for (Shift shift : shifts) {
+            if (shift.getDate() != null) {
+                long[] total = totals.computeIfAbsent(key(shift), key -> new long[2]);
+                total[0]++;
+                total[1] += cost(shift);
+            }
+        }
+        return totals;
+    }
+
+    private void apply(Shift shift, int sign) {
+        if (shift.getDate() != null) {
+            add(key(shift), sign, sign * cost(shift));
+        }
+    }
+
+    private void add(ShiftRollup.Key key, long count, long amount) {
+        if (rollupRepository.add(key.getWorkerName(), key.getPeriodYear(), key.getPeriodMonth(), key.isPaid(),
+                count, amount) == 0) {
+            rollupRepository.save(new ShiftRollup(key.getTenantId(), key.getWorkerName(), key.getPeriodYear(),
+                    key.getPeriodMonth(), key.isPaid(), count, amount));
+        }
+    }
+
+    /**
+     * Прибавляет приращения к строкам итогов одним пакетом.
+     */
+    private void addAll(Map<ShiftRollup.Key, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(MERGE_SQL, deltas.entrySet(), deltas.size(), (statement, delta) -> {
+            ShiftRollup.Key key = delta.getKey();
+            statement.setString(1, key.getTenantId());
+            statement.setString(2, key.getWorkerName());
+            statement.setInt(3, key.getPeriodYear());
+            statement.setInt(4, key.getPeriodMonth());
+            statement.setBoolean(5, key.isPaid());
+            statement.setLong(6, delta.getValue()[0]);
+            statement.setLong(7, delta.getValue()[1]);
+        });
+    }
+
+    private static ShiftRollup.Key key(Shift shift) {
+        String workerName = shift.getWorkerName() != null ? shift.getWorkerName() : NO_WORKER;
+        return new ShiftRollup.Key(TenantContext.current(), workerName, shift.getDate().getYear(),
+                shift.getDate().getMonthValue(), shift.isPaid());
+    }
+
+    private static long cost(Shift shift) {
+        return shift.getCost() != null ? shift.getCost() : 0;
+    }
+}
@@ -1,20 +1,47 @@
 package com.example.memorizer.service;
 
+import com.example.memorizer.config.CacheConfig;
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.ShiftFilter;
+import com.example.memorizer.dto.ShiftSummary;
+import com.example.memorizer.event.ShiftCreatedEvent;
+import com.example.memorizer.event.ShiftDeletedEvent;
+import com.example.memorizer.event.ShiftsImportedEvent;
+import com.example.memorizer.model.ItemType;
 import com.example.memorizer.model.Shift;
 import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.ShiftSpecifications;
+import com.example.memorizer.service.tariff.TariffEngine;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Сервис для управления рабочими сменами.
  * 
  * Содержит бизнес-логику для работы со сменами, включая
- * автоматический расчет стоимости в зависимости от дня недели.
+ * автоматический расчет стоимости по правилам тарификации.
  * 
  * @see Shift
  * @see ShiftRepository
+ * @see TariffEngine
  */
 @Service
 public class ShiftService {
@@ -22,50 +49,240 @@ public class ShiftService {
     @Autowired
     private ShiftRepository shiftRepository;
 
+    @Autowired
+    private EarningsLedgerService ledgerService;
+
+    @Autowired
+    private ShiftRollupService rollupService;
+
+    @Autowired
+    private TariffEngine tariffEngine;
+
+    @Autowired
+    private MemorizerMetrics metrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /** Размер страницы по умолчанию */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /** Максимально допустимый размер страницы */
+    public static final int MAX_PAGE_SIZE = 500;
+
     /**
-     * Получает список всех рабочих смен.
+     * Получает страницу рабочих смен, от новых к старым.
+     * 
+     * Использует keyset-пагинацию по паре (date, id): курсор указывает
+     * на последнюю смену предыдущей страницы, поэтому запрос не пропускает
+     * строки через OFFSET и читает страницу по индексу {@code idx_shift_keyset}
+     * (tenant_id, date desc, id desc) без сортировки.
+     * 
+     * Страницы кэшируются до следующего изменения смен или выплаты.
      * 
-     * @return список всех смен из базы данных
+     * @param filter фильтр смен (может быть null)
+     * @param cursor курсор из предыдущего ответа (null для первой страницы)
+     * @param limit  размер страницы (ограничивается {@link #MAX_PAGE_SIZE})
+     * @return страница смен и курсор следующей страницы
+     * @throws ResponseStatusException 400, если курсор имеет неверный формат
      */
-    public List<Shift> getAllShifts() {
-        return shiftRepository.findAll();
+    @Cacheable(cacheNames = CacheConfig.SHIFT_PAGES, keyGenerator = "shiftKeys")
+    @Transactional(readOnly = true)
+    public KeysetPage<Shift> findShifts(ShiftFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Specification<Shift> spec = ShiftSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor after = parseCursor(cursor);
+            spec = spec.and(ShiftSpecifications.after(after.date(), after.id()));
+        }
+
+        // limit() до sortBy(): в Spring Data JPA 3.2 limit() повторно добавляет
+        // уже заданный порядок, а H2 на большой выборке падает на дублях ORDER BY
+        List<Shift> rows = shiftRepository.findBy(spec,
+                query -> query.limit(pageSize + 1).sortBy(ShiftSpecifications.KEYSET_ORDER).all());
+        return KeysetPage.of(rows, pageSize, last -> last.getDate() + ":" + last.getId());
+    }
+
+    /**
+     * Получает страницу смен в компактном формате: только поля
+     * {@link ShiftSummary}, по записи на массив значений.
+     * 
+     * Фильтр, порядок, курсоры и кэширование - как у
+     * {@link #findShifts(ShiftFilter, String, int)}, но база возвращает
+     * только нужные столбцы, без создания сущностей.
+     * 
+     * @param filter фильтр смен (может быть null)
+     * @param cursor курсор из предыдущего ответа (null для первой страницы)
+     * @param limit  размер страницы (ограничивается {@link #MAX_PAGE_SIZE})
+     * @return компактная страница смен и курсор следующей страницы
+     * @throws ResponseStatusException 400, если курсор имеет неверный формат
+     */
+    @Cacheable(cacheNames = CacheConfig.SHIFT_PAGES, keyGenerator = "shiftKeys")
+    @Transactional(readOnly = true)
+    public CompactPage findShiftsCompact(ShiftFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ShiftFilter f = filter != null ? filter : new ShiftFilter(null, null, null, null);
+        Limit rowLimit = Limit.of(pageSize + 1);
+        List<ShiftSummary> rows;
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor after = parseCursor(cursor);
+            rows = shiftRepository.findSummariesAfter(after.date(), after.id(),
+                    f.workerName(), f.from(), f.to(), f.paid(), rowLimit);
+        } else {
+            rows = shiftRepository.findSummaries(f.workerName(), f.from(), f.to(), f.paid(), rowLimit);
+        }
+        return CompactPage.of(ShiftSummary.COLUMNS,
+                KeysetPage.of(rows, pageSize, last -> last.getDate() + ":" + last.getId()), ShiftSummary::toRow);
+    }
+
+    /**
+     * Курсор страницы смен: дата и идентификатор последней смены.
+     */
+    private record Cursor(LocalDate date, long id) {
+    }
+
+    private static Cursor parseCursor(String cursor) {
+        int separator = cursor.indexOf(':');
+        try {
+            return new Cursor(LocalDate.parse(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (IndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неверный курсор: " + cursor);
+        }
     }
 
     /**
      * Создает новую рабочую смену с автоматическим расчетом стоимости.
      * 
      * <p>
-     * Логика расчета стоимости:
+     * Стоимость определяется движком тарификации {@link TariffEngine}
+     * по предрасчитанному календарю. Правила по умолчанию:
      * <ul>
      * <li>1-12 января (праздники): 3000 ₽</li>
      * <li>Пятница/Суббота: 4000 ₽</li>
      * <li>Остальные дни: 3000 ₽</li>
      * </ul>
      * 
+     * Стоимость смены сразу учитывается в журнале заработка и итогах по
+     * работникам ({@link ShiftRollupService}), а после
+     * фиксации транзакции клиенты получают событие {@link ShiftCreatedEvent}.
+     * Идентификатор, версия, флаг оплаты и выплата из входных данных
+     * игнорируются: новая смена всегда неоплачена.
+     * 
      * @param shift объект смены для сохранения (без заполненного поля cost)
      * @return сохраненная смена с рассчитанной стоимостью
+     * @throws ResponseStatusException 400, если у смены не указана дата;
+     *                                 409, если у работника уже есть смена
+     *                                 с той же датой и временем начала
      */
+    @Transactional
     public Shift createShift(Shift shift) {
-        java.time.LocalDate date = shift.getDate();
-        java.time.DayOfWeek day = date.getDayOfWeek();
-
-        // Holiday logic: Jan 1 to Jan 12 is always 3000
-        if (date.getMonthValue() == 1 && date.getDayOfMonth() >= 1 && date.getDayOfMonth() <= 12) {
-            shift.setCost(3000);
-        } else if (day == java.time.DayOfWeek.FRIDAY || day == java.time.DayOfWeek.SATURDAY) {
-            shift.setCost(4000);
-        } else {
-            shift.setCost(3000);
+        requireDate(shift);
+        shift.setId(null);
+        shift.setVersion(null);
+        shift.setPaid(false);
+        shift.setPayoutId(null);
+        shift.setCost(tariffEngine.price(shift.getDate(), shift.getWorkerName()));
+        ledgerService.recordCreated(ItemType.SHIFT, shift.getCost());
+        rollupService.recordCreated(shift);
+        metrics.itemsCreated(ItemType.SHIFT, 1, shift.getCost());
+        Shift saved;
+        try {
+            saved = shiftRepository.saveAndFlush(shift);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateShift(e);
         }
-        return shiftRepository.save(shift);
+        eventPublisher.publishEvent(new ShiftCreatedEvent(saved));
+        return saved;
     }
 
     /**
      * Удаляет рабочую смену по идентификатору.
      * 
+     * Стоимость удаленной смены вычитается из журнала заработка.
+     * Если смены с таким идентификатором нет, ничего не происходит.
+     * 
      * @param id уникальный идентификатор смены
+     * @throws ResponseStatusException 409, если смену одновременно изменила
+     *                                 другая транзакция (например, выплата)
      */
+    @Transactional
     public void deleteShift(Long id) {
-        shiftRepository.deleteById(id);
+        shiftRepository.findById(id).ifPresent(shift -> {
+            ledgerService.recordDeleted(ItemType.SHIFT, shift.getCost(), shift.isPaid());
+            rollupService.recordDeleted(shift);
+            try {
+                shiftRepository.delete(shift);
+                shiftRepository.flush();
+            } catch (OptimisticLockingFailureException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Смена изменена другой операцией (например, выплатой), повторите запрос", e);
+            }
+            eventPublisher.publishEvent(new ShiftDeletedEvent(shift));
+        });
+    }
+
+    /**
+     * Импортирует поток смен пакетными вставками.
+     * 
+     * Смены читаются из источника лениво и сохраняются порциями по
+     * {@link BatchImporter#CHUNK_SIZE}, каждая в отдельной транзакции.
+     * Стоимость рассчитывается так же, как в {@link #createShift(Shift)},
+     * а журнал заработка обновляется одним приращением на порцию.
+     * Идентификатор и признак оплаты из входных данных игнорируются.
+     * 
+     * @param shifts источник смен
+     * @return количество импортированных смен и их суммарная стоимость
+     * @throws ResponseStatusException 400, если у смены не указана дата;
+     *                                 409, если смена порции уже существует
+     *                                 (порция не сохраняется)
+     */
+    public BatchImportResult importShifts(Iterator<Shift> shifts) {
+        return BatchImporter.importInChunks(shifts,
+                chunk -> transactionTemplate.execute(status -> saveChunk(chunk)));
+    }
+
+    private long saveChunk(List<Shift> chunk) {
+        long total = 0;
+        for (Shift shift : chunk) {
+            requireDate(shift);
+            shift.setId(null);
+            shift.setVersion(null);
+            shift.setPaid(false);
+            shift.setPayoutId(null);
+            shift.setCost(tariffEngine.price(shift.getDate(), shift.getWorkerName()));
+            total += shift.getCost();
+        }
+        ledgerService.recordCreatedTotal(ItemType.SHIFT, total);
+        rollupService.recordCreatedAll(chunk);
+        metrics.itemsCreated(ItemType.SHIFT, chunk.size(), total);
+        try {
+            shiftRepository.saveAll(chunk);
+            shiftRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateShift(e);
+        }
+        eventPublisher.publishEvent(new ShiftsImportedEvent(chunk, total));
+        // Контекст живет весь запрос (open-in-view): без очистки каждый
+        // следующий flush проверял бы все ранее сохраненные записи
+        entityManager.clear();
+        return total;
+    }
+
+    private static void requireDate(Shift shift) {
+        if (shift.getDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Не указана дата смены");
+        }
+    }
+
+    private static ResponseStatusException duplicateShift(DataIntegrityViolationException e) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Смена с такими работником, датой и временем начала уже существует", e);
     }
 }
@@ -1,10 +1,32 @@
 package com.example.memorizer.service;
 
+import com.example.memorizer.config.CacheConfig;
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.SongFilter;
+import com.example.memorizer.dto.SongSummary;
+import com.example.memorizer.event.SongCreatedEvent;
+import com.example.memorizer.event.SongDeletedEvent;
+import com.example.memorizer.event.SongsImportedEvent;
+import com.example.memorizer.model.ItemType;
 import com.example.memorizer.model.Song;
 import com.example.memorizer.repository.SongRepository;
+import com.example.memorizer.repository.SongSpecifications;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -22,34 +44,188 @@ public class SongService {
     @Autowired
     private SongRepository songRepository;
 
+    @Autowired
+    private EarningsLedgerService ledgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MemorizerMetrics metrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /** Очередь отложенной записи (null, если режим выключен) */
+    @Autowired(required = false)
+    private SongWriteBehindQueue writeBehindQueue;
+
+    /**
+     * Получает страницу песен, от новых к старым.
+     * 
+     * Использует keyset-пагинацию по идентификатору: курсор содержит
+     * идентификатор последней песни предыдущей страницы. Страницы
+     * кэшируются до следующего изменения песен или выплаты.
+     * 
+     * @param filter фильтр песен (может быть null)
+     * @param cursor курсор из предыдущего ответа (null для первой страницы)
+     * @param limit  размер страницы (ограничивается {@link ShiftService#MAX_PAGE_SIZE})
+     * @return страница песен и курсор следующей страницы
+     * @throws ResponseStatusException 400, если курсор имеет неверный формат
+     */
+    @Cacheable(cacheNames = CacheConfig.SONG_PAGES, keyGenerator = "songKeys")
+    @Transactional(readOnly = true)
+    public KeysetPage<Song> findSongs(SongFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, ShiftService.MAX_PAGE_SIZE));
+        Specification<Song> spec = SongSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                spec = spec.and(SongSpecifications.after(Long.parseLong(cursor)));
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неверный курсор: " + cursor);
+            }
+        }
+
+        // limit() до sortBy(): в Spring Data JPA 3.2 limit() повторно добавляет
+        // уже заданный порядок, а H2 на большой выборке падает на дублях ORDER BY
+        List<Song> rows = songRepository.findBy(spec,
+                query -> query.limit(pageSize + 1).sortBy(SongSpecifications.KEYSET_ORDER).all());
+        return KeysetPage.of(rows, pageSize, last -> String.valueOf(last.getId()));
+    }
+
     /**
-     * Получает список всех песен.
+     * Получает страницу песен в компактном формате: только поля
+     * {@link SongSummary}, по записи на массив значений.
      * 
-     * @return список всех песен из базы данных
+     * Фильтр, порядок, курсоры и кэширование - как у
+     * {@link #findSongs(SongFilter, String, int)}, но база возвращает
+     * только нужные столбцы, без создания сущностей.
+     * 
+     * @param filter фильтр песен (может быть null)
+     * @param cursor курсор из предыдущего ответа (null для первой страницы)
+     * @param limit  размер страницы (ограничивается {@link ShiftService#MAX_PAGE_SIZE})
+     * @return компактная страница песен и курсор следующей страницы
+     * @throws ResponseStatusException 400, если курсор имеет неверный формат
      */
-    public List<Song> getAllSongs() {
-        return songRepository.findAll();
+    @Cacheable(cacheNames = CacheConfig.SONG_PAGES, keyGenerator = "songKeys")
+    @Transactional(readOnly = true)
+    public CompactPage findSongsCompact(SongFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, ShiftService.MAX_PAGE_SIZE));
+        SongFilter f = filter != null ? filter : new SongFilter(null, null);
+        long before = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                before = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неверный курсор: " + cursor);
+            }
+        }
+
+        List<SongSummary> rows = songRepository.findSummaries(before, f.addedBy(), f.paid(),
+                Limit.of(pageSize + 1));
+        return CompactPage.of(SongSummary.COLUMNS,
+                KeysetPage.of(rows, pageSize, last -> String.valueOf(last.getId())), SongSummary::toRow);
     }
 
     /**
      * Добавляет новую песню с автоматическим расчетом стоимости.
      * 
-     * Стоимость каждой песни автоматически устанавливается в 1000 ₽.
+     * Стоимость каждой песни автоматически устанавливается в 1000 ₽
+     * и сразу учитывается в журнале заработка. Идентификатор, версия, флаг
+     * оплаты и выплата из входных данных игнорируются: новая песня всегда
+     * неоплачена.
+     * 
+     * <p>
+     * В режиме отложенной записи ({@code memorizer.songs.write-behind.enabled})
+     * песня только ставится в очередь {@link SongWriteBehindQueue}: ответ
+     * уже содержит идентификатор, а в базе и журнале заработка песня
+     * появляется с сохранением очередной порции.
      * 
      * @param song объект песни для сохранения (без заполненного поля cost)
-     * @return сохраненная песня с установленной стоимостью
+     * @return сохраненная (или принятая в очередь) песня с установленной стоимостью
+     * @throws ResponseStatusException 503, если очередь отложенной записи переполнена
      */
     public Song addSong(Song song) {
+        song.setId(null);
+        song.setVersion(null);
+        song.setPaid(false);
+        song.setPayoutId(null);
         song.setCost(1000);
-        return songRepository.save(song);
+        if (writeBehindQueue != null) {
+            return writeBehindQueue.enqueue(song);
+        }
+        return transactionTemplate.execute(status -> saveSong(song));
+    }
+
+    private Song saveSong(Song song) {
+        ledgerService.recordCreated(ItemType.SONG, song.getCost());
+        metrics.itemsCreated(ItemType.SONG, 1, song.getCost());
+        Song saved = songRepository.save(song);
+        eventPublisher.publishEvent(new SongCreatedEvent(saved));
+        return saved;
     }
 
     /**
      * Удаляет песню по идентификатору.
      * 
+     * Стоимость удаленной песни вычитается из журнала заработка.
+     * Если песни с таким идентификатором нет, ничего не происходит.
+     * 
      * @param id уникальный идентификатор песни
+     * @throws ResponseStatusException 409, если песню одновременно изменила
+     *                                 другая транзакция (например, выплата)
      */
+    @Transactional
     public void deleteSong(Long id) {
-        songRepository.deleteById(id);
+        songRepository.findById(id).ifPresent(song -> {
+            ledgerService.recordDeleted(ItemType.SONG, song.getCost(), song.isPaid());
+            try {
+                songRepository.delete(song);
+                songRepository.flush();
+            } catch (OptimisticLockingFailureException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Песня изменена другой операцией (например, выплатой), повторите запрос", e);
+            }
+            eventPublisher.publishEvent(new SongDeletedEvent(song));
+        });
+    }
+
+    /**
+     * Импортирует поток песен пакетными вставками.
+     * 
+     * Песни сохраняются порциями по {@link BatchImporter#CHUNK_SIZE},
+     * каждая в отдельной транзакции, со стоимостью 1000 ₽. Журнал
+     * заработка обновляется одним приращением на порцию.
+     * Идентификатор и признак оплаты из входных данных игнорируются.
+     * 
+     * @param songs источник песен
+     * @return количество импортированных песен и их суммарная стоимость
+     */
+    public BatchImportResult importSongs(Iterator<Song> songs) {
+        return BatchImporter.importInChunks(songs,
+                chunk -> transactionTemplate.execute(status -> saveChunk(chunk)));
+    }
+
+    private long saveChunk(List<Song> chunk) {
+        for (Song song : chunk) {
+            song.setId(null);
+            song.setVersion(null);
+            song.setPaid(false);
+            song.setPayoutId(null);
+            song.setCost(1000);
+        }
+        long total = 1000L * chunk.size();
+        ledgerService.recordCreatedTotal(ItemType.SONG, total);
+        metrics.itemsCreated(ItemType.SONG, chunk.size(), total);
+        songRepository.saveAll(chunk);
+        eventPublisher.publishEvent(new SongsImportedEvent(chunk, total));
+        // Контекст живет весь запрос (open-in-view): без очистки каждый
+        // следующий flush проверял бы все ранее сохраненные записи
+        entityManager.flush();
+        entityManager.clear();
+        return total;
     }
 }
@@ -0,0 +1,468 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.IdSequenceAligner;
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.event.SongCreatedEvent;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.repository.SongRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отложенная запись песен (write-behind).
+ *
+ * Включается свойством {@code memorizer.songs.write-behind.enabled}.
+ * {@link SongService#addSong(Song)} тогда не ждет транзакции в базе:
+ * песня получает идентификатор, записывается в журнал предзаписи
+ * (write-ahead log, файл {@code memorizer.songs.write-behind.wal})
+ * и ставится в очередь. Фоновый поток забирает из очереди всё
+ * накопившееся, но не более {@code batch-size} песен, и сохраняет их
+ * одной транзакцией: пакетная вставка, одно приращение журнала
+ * заработка и {@link SongCreatedEvent} на каждую песню.
+ *
+ * <p>
+ * Идентификаторы берутся из последовательности {@code song_seq} теми же
+ * блоками, что и у pooled-оптимизатора Hibernate: значение
+ * последовательности закрепляет за собой диапазон (value - size, value],
+ * поэтому песни из очереди и песни, сохраненные Hibernate, не получают
+ * одинаковых идентификаторов.
+ *
+ * <p>
+ * Очередь ограничена {@code capacity} песнями: если места нет дольше
+ * {@code offer-timeout}, запрос отклоняется с 503. Журнал предзаписи
+ * очищается, когда все записанные в него песни сохранены в базе; после
+ * аварийной остановки несохраненные песни досохраняются при старте.
+ * Пока песня в очереди, её нельзя удалить или выплатить, а журнал
+ * заработка её ещё не учитывает.
+ *
+ * <p>
+ * Песня запоминается вместе с арендатором запроса: запись журнала
+ * предзаписи содержит арендатора, а порция сохраняется отдельной
+ * транзакцией для каждого арендатора. Блоки идентификаторов тоже
+ * свои у каждого арендатора, поскольку у арендатора может быть
+ * собственная база со своей последовательностью.
+ *
+ * <p>
+ * Метрики: {@code memorizer.songs.queue.depth} (длина очереди),
+ * {@code memorizer.songs.flush} (время сохранения порции) и
+ * {@code memorizer.songs.queue.rejected} (отклоненные из-за переполнения).
+ *
+ * @see SongService#addSong(Song)
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "memorizer.songs.write-behind.enabled", havingValue = "true")
+public class SongWriteBehindQueue {
+
+    private static final String INSERT_SQL = "insert into song "
+            + "(id, title, artist, added_by, cost, paid, version, tenant_id) values (?, ?, ?, ?, ?, false, 0, ?)";
+
+    /** Пауза перед повторным сохранением порции после ошибки */
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private EarningsLedgerService ledgerService;
+
+    @Autowired
+    private MemorizerMetrics metrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IdSequenceAligner idSequenceAligner;
+
+    @Value("${memorizer.songs.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${memorizer.songs.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${memorizer.songs.write-behind.offer-timeout:1s}")
+    private Duration offerTimeout;
+
+    @Value("${memorizer.songs.write-behind.wal:./data/song-wal.ndjson}")
+    private Path walPath;
+
+    private final BlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+
+    /** Свободные места в очереди: песня занимает место до сохранения в базе */
+    private Semaphore slots;
+
+    private final Object walLock = new Object();
+
+    /** Журнал предзаписи; доступ под {@link #walLock} */
+    private FileChannel wal;
+
+    /** Количество песен в журнале, ещё не сохраненных в базе; доступ под {@link #walLock} */
+    private long unflushed;
+
+    /** Следующий свободный и последний идентификатор текущего блока арендатора; доступ под this */
+    private final Map<String, long[]> idBlocks = new HashMap<>();
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    private Timer flushTimer;
+
+    private Counter rejected;
+
+    /**
+     * Досохраняет песни из журнала предзаписи и запускает фоновое сохранение.
+     *
+     * @throws IOException если журнал предзаписи недоступен
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        slots = new Semaphore(capacity);
+        Gauge.builder("memorizer.songs.queue.depth", queue, Queue::size)
+                .description("Songs accepted but not yet stored")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("memorizer.songs.flush")
+                .description("Time to store one batch of queued songs")
+                .register(meterRegistry);
+        rejected = Counter.builder("memorizer.songs.queue.rejected")
+                .description("Songs rejected because the queue was full")
+                .register(meterRegistry);
+
+        if (walPath.getParent() != null) {
+            Files.createDirectories(walPath.getParent());
+        }
+        recover();
+        wal = FileChannel.open(walPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        wal.truncate(0);
+
+        running = true;
+        worker = new Thread(this::run, "song-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Write-behind song queue started: capacity {}, batch size {}, log {}", capacity, batchSize, walPath);
+    }
+
+    /**
+     * Сохраняет оставшиеся в очереди песни и останавливает фоновый поток.
+     *
+     * @throws InterruptedException если остановку прервали
+     * @throws IOException          если журнал предзаписи не удалось закрыть
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        synchronized (walLock) {
+            if (wal != null) {
+                wal.close();
+            }
+        }
+    }
+
+    /**
+     * Принимает песню текущего арендатора к отложенному сохранению.
+     *
+     * Возвращается сразу после записи в журнал предзаписи: песня уже
+     * имеет идентификатор и будет сохранена, даже если приложение
+     * остановится аварийно.
+     *
+     * @param song песня с рассчитанной стоимостью
+     * @return та же песня с присвоенным идентификатором
+     * @throws ResponseStatusException 503, если очередь переполнена
+     *                                 или остановлена
+     */
+    public Song enqueue(Song song) {
+        if (!running) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Очередь песен остановлена");
+        }
+        if (!acquireSlot()) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Очередь песен переполнена");
+        }
+        String tenant = TenantContext.current();
+        boolean logged = false;
+        try {
+            song.setId(nextId(tenant));
+            song.setVersion(0L);
+            song.setPaid(false);
+            song.setPayoutId(null);
+            song.setTenantId(tenant);
+            append(new Queued(tenant, song));
+            logged = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать песню в журнал предзаписи", e);
+        } finally {
+            if (!logged) {
+                slots.release();
+            }
+        }
+        queue.add(new Queued(tenant, song));
+        return song;
+    }
+
+    /**
+     * @return количество принятых, но ещё не сохраненных песен
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private boolean acquireSlot() {
+        try {
+            return slots.tryAcquire(offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private synchronized long nextId(String tenant) {
+        long[] block = idBlocks.computeIfAbsent(tenant, key -> new long[] {1, 0});
+        if (block[0] > block[1]) {
+            block[1] = jdbcTemplate.queryForObject("select next value for song_seq", Long.class);
+            block[0] = Math.max(1, block[1] - Song.ID_ALLOCATION_SIZE + 1);
+        }
+        return block[0]++;
+    }
+
+    private void append(Queued queued) throws IOException {
+        ByteBuffer record = ByteBuffer.wrap((objectMapper.writeValueAsString(queued) + '\n')
+                .getBytes(StandardCharsets.UTF_8));
+        synchronized (walLock) {
+            while (record.hasRemaining()) {
+                wal.write(record);
+            }
+            unflushed++;
+        }
+        // Вне блокировки: параллельные запросы дожидаются одного сброса на диск
+        wal.force(false);
+    }
+
+    private void run() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Queued first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (Map.Entry<String, List<Song>> tenantBatch : byTenant(batch).entrySet()) {
+                    flushWithRetry(tenantBatch.getKey(), tenantBatch.getValue());
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flushWithRetry(String tenant, List<Song> batch) throws InterruptedException {
+        while (true) {
+            try {
+                TenantContext.run(tenant, () -> flush(batch));
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    // Песни остаются в журнале предзаписи и будут сохранены при следующем старте
+                    log.error("Failed to store {} queued songs during shutdown", batch.size(), e);
+                    return;
+                }
+                log.error("Failed to store {} queued songs, retrying in {}", batch.size(), RETRY_DELAY, e);
+                Thread.sleep(RETRY_DELAY.toMillis());
+            }
+        }
+    }
+
+    private void flush(List<Song> batch) {
+        long start = System.nanoTime();
+        transactionTemplate.execute(status -> insert(batch, true));
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        slots.release(batch.size());
+        synchronized (walLock) {
+            unflushed -= batch.size();
+            if (unflushed == 0) {
+                truncateWal();
+            }
+        }
+    }
+
+    private void truncateWal() {
+        try {
+            wal.truncate(0);
+        } catch (IOException e) {
+            // Не страшно: при старте уже сохраненные песни из журнала пропускаются
+            log.warn("Failed to truncate write-ahead log {}", walPath, e);
+        }
+    }
+
+    /**
+     * Сохраняет порцию песен текущего арендатора в текущей транзакции.
+     *
+     * @param publish публиковать ли {@link SongCreatedEvent} (при старте
+     *                клиентов ещё нет)
+     * @return суммарная стоимость порции
+     */
+    private long insert(List<Song> songs, boolean publish) {
+        long total = 0;
+        for (Song song : songs) {
+            total += song.getCost();
+        }
+        ledgerService.recordCreatedTotal(ItemType.SONG, total);
+        metrics.itemsCreated(ItemType.SONG, songs.size(), total);
+        String tenant = TenantContext.current();
+        jdbcTemplate.batchUpdate(INSERT_SQL, songs, songs.size(), (statement, song) -> {
+            statement.setLong(1, song.getId());
+            statement.setString(2, song.getTitle());
+            statement.setString(3, song.getArtist());
+            statement.setString(4, song.getAddedBy());
+            statement.setInt(5, song.getCost());
+            statement.setString(6, tenant);
+        });
+        if (publish) {
+            for (Song song : songs) {
+                eventPublisher.publishEvent(new SongCreatedEvent(song));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Досохраняет песни, оставшиеся в журнале предзаписи после аварийной
+     * остановки. Уже сохраненные песни пропускаются, поврежденная
+     * последняя запись (оборванная при остановке) игнорируется.
+     */
+    private void recover() throws IOException {
+        if (!Files.exists(walPath)) {
+            return;
+        }
+        List<Queued> logged = new ArrayList<>();
+        for (String line : Files.readAllLines(walPath, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                logged.add(readRecord(line));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable write-ahead log record: {}", line);
+            }
+        }
+
+        int recovered = 0;
+        for (Map.Entry<String, List<Song>> tenantSongs : byTenant(logged).entrySet()) {
+            recovered += TenantContext.call(tenantSongs.getKey(), () -> recover(tenantSongs.getValue()));
+        }
+        if (!logged.isEmpty()) {
+            log.info("Recovered {} of {} songs from write-ahead log {}", recovered, logged.size(), walPath);
+            // Идентификаторы из журнала могли опередить последовательность
+            idSequenceAligner.align();
+        }
+    }
+
+    /**
+     * Досохраняет недостающие в базе песни текущего арендатора.
+     *
+     * @return количество досохраненных песен
+     */
+    private int recover(List<Song> logged) {
+        int recovered = 0;
+        for (int from = 0; from < logged.size(); from += batchSize) {
+            List<Song> chunk = logged.subList(from, Math.min(from + batchSize, logged.size()));
+            Set<Long> stored = new HashSet<>(songRepository.findExistingIds(chunk.stream().map(Song::getId).toList()));
+            List<Song> missing = chunk.stream().filter(song -> !stored.contains(song.getId())).toList();
+            if (!missing.isEmpty()) {
+                transactionTemplate.execute(status -> insert(missing, false));
+                recovered += missing.size();
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * Читает запись журнала предзаписи. Записи без арендатора (сделанные
+     * до появления арендаторов) относятся к арендатору по умолчанию.
+     */
+    private Queued readRecord(String line) throws JsonProcessingException {
+        JsonNode record = objectMapper.readTree(line);
+        Queued queued = record.has("song")
+                ? objectMapper.treeToValue(record, Queued.class)
+                : new Queued(TenantContext.DEFAULT_TENANT, objectMapper.treeToValue(record, Song.class));
+        queued.song().setTenantId(queued.tenant());
+        return queued;
+    }
+
+    /**
+     * Группирует песни по арендаторам, сохраняя порядок.
+     */
+    private static Map<String, List<Song>> byTenant(List<Queued> songs) {
+        Map<String, List<Song>> byTenant = new LinkedHashMap<>();
+        for (Queued queued : songs) {
+            byTenant.computeIfAbsent(queued.tenant(), tenant -> new ArrayList<>()).add(queued.song());
+        }
+        return byTenant;
+    }
+
+    /**
+     * Принятая песня и её арендатор; в этом виде записывается в журнал предзаписи.
+     */
+    record Queued(String tenant, Song song) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.CacheConfig;
+import com.example.memorizer.dto.BreakdownDTO;
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.dto.ShiftReportDTO;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.repository.ArchiveRollupRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.ShiftRollupRepository;
+import com.example.memorizer.repository.SongRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Сервис отчетов по заработку.
+ * 
+ * Строит детализацию заработка агрегатными запросами на стороне базы
+ * данных: в память загружаются только итоговые суммы по группам,
+ * а не сами смены и песни.
+ * 
+ * @see ShiftRepository
+ * @see SongRepository
+ */
+@Service
+public class StatisticsService {
+
+    /**
+     * Признак группировки детализации.
+     */
+    public enum BreakdownGroup {
+        /** По работникам (только смены) */
+        WORKER,
+        /** По месяцам даты смены (только смены) */
+        MONTH,
+        /** По выплатам (смены и песни) */
+        PAYOUT;
+
+        /**
+         * Разбирает признак группировки из параметра запроса без учета регистра.
+         * 
+         * @param value значение параметра
+         * @return признак группировки
+         * @throws ResponseStatusException 400, если значение неизвестно
+         */
+        public static BreakdownGroup parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестная группировка: " + value);
+            }
+        }
+    }
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ArchiveRollupRepository rollupRepository;
+
+    @Autowired
+    private ShiftRollupRepository shiftRollupRepository;
+
+    /**
+     * Строит детализацию заработка.
+     * 
+     * Результат кэшируется до следующего изменения записей.
+     * 
+     * @param groupBy признак группировки
+     * @return общие итоги и строки детализации
+     */
+    @Cacheable(cacheNames = CacheConfig.BREAKDOWN, keyGenerator = "statsKeys")
+    @Transactional(readOnly = true)
+    public BreakdownDTO getBreakdown(BreakdownGroup groupBy) {
+        List<BreakdownDTO.Row> rows = new ArrayList<>();
+        switch (groupBy) {
+            case WORKER -> addRows(rows, ItemType.SHIFT, shiftRepository.sumByWorker());
+            case MONTH -> shiftRepository.sumByMonth().forEach(bucket -> rows.add(new BreakdownDTO.Row(
+                    ItemType.SHIFT, String.format("%04d-%02d", bucket.getYear(), bucket.getMonth()),
+                    bucket.getCount(), bucket.getTotal(), bucket.getUnpaid())));
+            case PAYOUT -> {
+                addRows(rows, ItemType.SHIFT, shiftRepository.sumByPayout());
+                addRows(rows, ItemType.SONG, songRepository.sumByPayout());
+            }
+        }
+
+        // Строки детализации строятся по оперативным таблицам, а общий итог
+        // включает архив, чтобы совпадать с /api/stats/earnings
+        long lifetimeTotal = shiftRepository.sumCost() + songRepository.sumCost() + rollupRepository.sumAmount();
+        long currentTotal = shiftRepository.sumUnpaidCost() + songRepository.sumUnpaidCost();
+        return new BreakdownDTO(groupBy.name().toLowerCase(Locale.ROOT), lifetimeTotal, currentTotal, rows);
+    }
+
+    /**
+     * Строит отчет по работникам за период.
+     * 
+     * Читает только итоги смен по работникам и месяцам, поэтому время
+     * ответа не зависит от числа смен. Результат кэшируется до следующего
+     * изменения смен.
+     * 
+     * @param from первый месяц периода (null — с начала истории)
+     * @param to   последний месяц периода (null — до конца истории)
+     * @return строка на каждого работника со сменами в периоде
+     * @throws ResponseStatusException 400, если начало периода позже конца
+     */
+    @Cacheable(cacheNames = CacheConfig.WORKER_REPORTS, keyGenerator = "statsKeys")
+    @Transactional(readOnly = true)
+    public ShiftReportDTO getWorkerReport(YearMonth from, YearMonth to) {
+        List<ShiftReportDTO.Row> rows = new ArrayList<>();
+        for (EarningsBucket bucket : shiftRollupRepository.sumByWorker(periodStart(from, to), periodEnd(to))) {
+            rows.add(new ShiftReportDTO.Row(bucket.getKey(), bucket.getCount(), bucket.getTotal(),
+                    bucket.getUnpaid()));
+        }
+        return report("worker", from, to, rows);
+    }
+
+    /**
+     * Строит помесячный отчет за период.
+     * 
+     * Как и {@link #getWorkerReport}, читает только итоги смен.
+     * 
+     * @param workerName имя работника (null — все работники)
+     * @param from       первый месяц периода (null — с начала истории)
+     * @param to         последний месяц периода (null — до конца истории)
+     * @return строка на каждый месяц со сменами, в хронологическом порядке
+     * @throws ResponseStatusException 400, если начало периода позже конца
+     */
+    @Cacheable(cacheNames = CacheConfig.MONTHLY_REPORTS, keyGenerator = "statsKeys")
+    @Transactional(readOnly = true)
+    public ShiftReportDTO getMonthlyReport(String workerName, YearMonth from, YearMonth to) {
+        List<ShiftReportDTO.Row> rows = new ArrayList<>();
+        for (MonthlyBucket bucket : shiftRollupRepository.sumByMonth(workerName, periodStart(from, to), periodEnd(to))) {
+            rows.add(new ShiftReportDTO.Row(String.format("%04d-%02d", bucket.getYear(), bucket.getMonth()),
+                    bucket.getCount(), bucket.getTotal(), bucket.getUnpaid()));
+        }
+        return report("month", from, to, rows);
+    }
+
+    private static int periodStart(YearMonth from, YearMonth to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Начало периода позже конца: " + from + " > " + to);
+        }
+        return from != null ? from.getYear() * 100 + from.getMonthValue() : 0;
+    }
+
+    private static int periodEnd(YearMonth to) {
+        return to != null ? to.getYear() * 100 + to.getMonthValue() : Integer.MAX_VALUE;
+    }
+
+    private static ShiftReportDTO report(String groupBy, YearMonth from, YearMonth to, List<ShiftReportDTO.Row> rows) {
+        long total = 0;
+        long unpaid = 0;
+        for (ShiftReportDTO.Row row : rows) {
+            total += row.getTotal();
+            unpaid += row.getUnpaid();
+        }
+        return new ShiftReportDTO(groupBy, from != null ? from.toString() : null, to != null ? to.toString() : null,
+                total, unpaid, rows);
+    }
+
+    private static void addRows(List<BreakdownDTO.Row> rows, ItemType itemType, List<EarningsBucket> buckets) {
+        for (EarningsBucket bucket : buckets) {
+            rows.add(new BreakdownDTO.Row(itemType, bucket.getKey(),
+                    bucket.getCount(), bucket.getTotal(), bucket.getUnpaid()));
+        }
+    }
+}
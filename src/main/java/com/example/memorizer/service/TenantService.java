@@ -0,0 +1,150 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.config.TenantRoutingDataSource;
+import com.example.memorizer.model.Tenant;
+import com.example.memorizer.repository.TenantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Сервис реестра арендаторов (рабочих пространств).
+ * 
+ * Идентификаторы арендаторов держатся в памяти, поэтому проверка
+ * арендатора на каждом HTTP-запросе не обращается к базе. Арендаторы
+ * с выделенной базой ({@code memorizer.tenants.dedicated}) заносятся
+ * в реестр автоматически.
+ * 
+ * <p>
+ * Фоновые задачи (пересчет журнала, пересборка итогов, архивация)
+ * обходят арендаторов через {@link #forEachTenant(Consumer)}: каждый
+ * арендатор обрабатывается в своих транзакциях и читает только свои строки.
+ * 
+ * @see TenantContext
+ */
+@Slf4j
+@Service
+public class TenantService {
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private TenantRoutingDataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** Идентификаторы зарегистрированных арендаторов (загружаются при первом обращении) */
+    private volatile Set<String> tenantIds;
+
+    /**
+     * Проверяет, зарегистрирован ли арендатор.
+     * 
+     * @param tenantId идентификатор арендатора
+     * @return true, если арендатор есть в реестре
+     */
+    public boolean exists(String tenantId) {
+        return tenantIds().contains(tenantId);
+    }
+
+    /**
+     * @return все арендаторы в порядке идентификаторов
+     */
+    public List<Tenant> findAll() {
+        return inRegistry(tenantRepository::findAllByOrderByIdAsc);
+    }
+
+    /**
+     * Регистрирует нового арендатора.
+     * 
+     * @param id   идентификатор: строчные латинские буквы, цифры и дефис, до 40 символов
+     * @param name отображаемое название (необязательное)
+     * @return зарегистрированный арендатор
+     * @throws ResponseStatusException 400 при недопустимом идентификаторе,
+     *                                 409 если арендатор уже зарегистрирован
+     */
+    public synchronized Tenant create(String id, String name) {
+        if (id == null || !TenantContext.TENANT_ID.matcher(id).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Идентификатор арендатора: строчные латинские буквы, цифры и дефис, до 40 символов");
+        }
+        if (exists(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Арендатор уже существует: " + id);
+        }
+        Tenant tenant = inRegistry(() -> tenantRepository.save(
+                new Tenant(id, name != null && !name.isBlank() ? name : id, Instant.now())));
+        Set<String> ids = new HashSet<>(tenantIds());
+        ids.add(id);
+        tenantIds = Set.copyOf(ids);
+        log.info("Registered tenant {}", id);
+        return tenant;
+    }
+
+    /**
+     * Выполняет действие от имени каждого арендатора по очереди.
+     * 
+     * Ошибка одного арендатора записывается в журнал и не мешает
+     * обработке остальных. Транзакции действие открывает само.
+     * 
+     * @param action действие, получающее идентификатор арендатора
+     */
+    public void forEachTenant(Consumer<String> action) {
+        for (String tenantId : new TreeSet<>(tenantIds())) {
+            try {
+                TenantContext.run(tenantId, () -> action.accept(tenantId));
+            } catch (RuntimeException e) {
+                log.error("Background job failed for tenant {}", tenantId, e);
+            }
+        }
+    }
+
+    private Set<String> tenantIds() {
+        Set<String> ids = tenantIds;
+        if (ids == null) {
+            synchronized (this) {
+                ids = tenantIds;
+                if (ids == null) {
+                    ids = tenantIds = load();
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Читает реестр и добавляет в него недостающих арендаторов с выделенной базой.
+     */
+    private Set<String> load() {
+        return inRegistry(() -> {
+            Set<String> ids = new HashSet<>();
+            tenantRepository.findAll().forEach(tenant -> ids.add(tenant.getId()));
+            for (String tenantId : dataSource.getDedicatedTenants()) {
+                if (ids.add(tenantId)) {
+                    tenantRepository.save(new Tenant(tenantId, tenantId, Instant.now()));
+                }
+            }
+            return Set.copyOf(ids);
+        });
+    }
+
+    /**
+     * Выполняет обращение к реестру в общей базе в транзакции.
+     */
+    private <T> T inRegistry(Supplier<T> action) {
+        return TenantContext.call(TenantContext.DEFAULT_TENANT,
+                () -> transactionTemplate.execute(status -> action.get()));
+    }
+}
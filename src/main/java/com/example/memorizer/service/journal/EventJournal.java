@@ -0,0 +1,292 @@
+package com.example.memorizer.service.journal;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.service.journal.JournalEntry.Kind;
+import com.example.memorizer.service.journal.JournalSegments.Position;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Журнал событий заработка: только добавляемая история изменений
+ * балансов всех арендаторов в отображаемых в память сегментах
+ * ({@link JournalSegments}).
+ *
+ * Записи добавляет {@link com.example.memorizer.service.EarningsLedgerService}
+ * при каждом изменении журнала заработка; запись попадает в журнал после
+ * фиксации транзакции, поэтому откаченные изменения в историю не входят.
+ * Текущие балансы держатся в памяти и обновляются при добавлении записи.
+ *
+ * <p>
+ * Каждые {@code memorizer.journal.snapshot-every} записей и при остановке
+ * приложения балансы сохраняются в снимок ({@link JournalSnapshots}).
+ * При старте загружается последний снимок и применяются только записи
+ * после него, поэтому время восстановления не зависит от длины журнала.
+ * Баланс на момент времени считается так же: от последнего снимка до
+ * этого момента.
+ *
+ * <p>
+ * Запись, не дошедшая до журнала (сбой между фиксацией и добавлением,
+ * обрыв файла при аварии), исправляется при пересчете журнала заработка:
+ * {@link #align(long, long)} добавляет корректировку до фактических итогов.
+ * Первый пересчет после включения журнала так же переносит в него
+ * накопленные балансы.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "memorizer.journal.enabled", havingValue = "true", matchIfMissing = true)
+public class EventJournal {
+
+    @Value("${memorizer.journal.dir:./data/journal}")
+    private Path dir;
+
+    @Value("${memorizer.journal.segment-size:16MB}")
+    private DataSize segmentSize;
+
+    @Value("${memorizer.journal.snapshot-every:10000}")
+    private int snapshotEvery;
+
+    private JournalSegments segments;
+
+    /** Балансы арендаторов после последней записи: общий заработок и текущий баланс; доступ под this */
+    private final Map<String, long[]> balances = new HashMap<>();
+
+    /** Снимки по возрастанию номера записи; доступ под this */
+    private final List<JournalSnapshots.Ref> snapshots = new ArrayList<>();
+
+    /** Номер и момент последней записи, позиция следующей; доступ под this */
+    private long lastSeq;
+    private long lastTimestamp;
+    private Position end;
+
+    /** Записей после последнего снимка; доступ под this */
+    private long sinceSnapshot;
+
+    /** Изменения арендаторов в ещё не завершенных транзакциях */
+    private final Map<String, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Восстанавливает балансы: последний снимок и записи после него.
+     *
+     * @throws IOException если журнал не удалось прочитать
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        long started = System.nanoTime();
+        segments = new JournalSegments(dir, (int) segmentSize.toBytes());
+        snapshots.addAll(JournalSnapshots.list(dir));
+        Position from = segments.start();
+        if (!snapshots.isEmpty()) {
+            JournalSnapshots.Ref latest = snapshots.get(snapshots.size() - 1);
+            JournalSnapshots.Snapshot snapshot = JournalSnapshots.read(latest);
+            balances.putAll(snapshot.balances());
+            lastSeq = latest.seq();
+            lastTimestamp = latest.timestamp();
+            from = snapshot.next();
+        }
+        long[] replayed = new long[1];
+        end = segments.read(from, null, entry -> {
+            apply(entry);
+            replayed[0]++;
+            return true;
+        });
+        segments.openForAppend(end);
+        sinceSnapshot = replayed[0];
+        log.info("Event journal recovered in {} ms: {} entries after snapshot, last entry {}",
+                (System.nanoTime() - started) / 1_000_000, replayed[0], lastSeq);
+    }
+
+    /**
+     * Сохраняет снимок и закрывает журнал.
+     *
+     * @throws IOException если снимок не удалось записать
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (sinceSnapshot > 0) {
+            snapshot();
+        }
+        segments.close();
+    }
+
+    /**
+     * Записывает изменение заработка текущего арендатора.
+     *
+     * В транзакции запись добавляется после её фиксации, вне транзакции -
+     * сразу. Изменение без сумм не записывается.
+     *
+     * @param kind          вид события
+     * @param itemType      тип записей (null для корректировки)
+     * @param lifetimeDelta изменение общего заработка
+     * @param unpaidDelta   изменение текущего баланса
+     */
+    public void record(Kind kind, ItemType itemType, long lifetimeDelta, long unpaidDelta) {
+        if (lifetimeDelta == 0 && unpaidDelta == 0) {
+            return;
+        }
+        String tenant = TenantContext.current();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(tenant, kind, itemType, lifetimeDelta, unpaidDelta);
+            return;
+        }
+        AtomicInteger tenantPending = pending.computeIfAbsent(tenant, key -> new AtomicInteger());
+        tenantPending.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        append(tenant, kind, itemType, lifetimeDelta, unpaidDelta);
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Failed to append {} of tenant {} to the event journal", kind, tenant, e);
+                } finally {
+                    tenantPending.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Приводит балансы журнала текущего арендатора к итогам журнала
+     * заработка, добавляя корректировку на разницу.
+     *
+     * Вызывается при пересчете, пока строки журнала заработка
+     * заблокированы: если у арендатора нет незавершенных изменений,
+     * журнал событий содержит все зафиксированные изменения и разница
+     * означает потерянные записи. Иначе сверка откладывается до
+     * следующего пересчета.
+     *
+     * @param lifetimeTotal фактический общий заработок
+     * @param unpaidTotal   фактический текущий баланс
+     */
+    public void align(long lifetimeTotal, long unpaidTotal) {
+        String tenant = TenantContext.current();
+        AtomicInteger tenantPending = pending.get(tenant);
+        if (tenantPending != null && tenantPending.get() > 0) {
+            log.debug("Skipping journal alignment of tenant {}: changes in flight", tenant);
+            return;
+        }
+        EarningsDTO journaled = getEarnings();
+        if (journaled.getLifetimeEarnings() != lifetimeTotal || journaled.getCurrentBalance() != unpaidTotal) {
+            log.info("Aligning event journal of tenant {}: journaled {}/{}, actual {}/{}", tenant,
+                    journaled.getLifetimeEarnings(), journaled.getCurrentBalance(), lifetimeTotal, unpaidTotal);
+            record(Kind.LEDGER_ADJUSTED, null, lifetimeTotal - journaled.getLifetimeEarnings(),
+                    unpaidTotal - journaled.getCurrentBalance());
+        }
+    }
+
+    /**
+     * @return заработок текущего арендатора по журналу
+     */
+    public synchronized EarningsDTO getEarnings() {
+        long[] balance = balances.getOrDefault(TenantContext.current(), new long[2]);
+        return new EarningsDTO(balance[0], balance[1]);
+    }
+
+    /**
+     * Считает заработок текущего арендатора на момент времени: берет
+     * последний снимок не позже этого момента и применяет записи после
+     * него вплоть до момента.
+     *
+     * @param at момент времени
+     * @return общий заработок и текущий баланс на этот момент
+     */
+    public EarningsDTO getEarnings(Instant at) {
+        String tenant = TenantContext.current();
+        long atMillis = at.toEpochMilli();
+        JournalSnapshots.Ref base = null;
+        Position to;
+        synchronized (this) {
+            if (lastTimestamp <= atMillis) {
+                return getEarnings();
+            }
+            for (int i = snapshots.size() - 1; i >= 0 && base == null; i--) {
+                if (snapshots.get(i).timestamp() <= atMillis) {
+                    base = snapshots.get(i);
+                }
+            }
+            to = end;
+        }
+        try {
+            long[] balance = new long[2];
+            Position from = segments.start();
+            if (base != null) {
+                JournalSnapshots.Snapshot snapshot = JournalSnapshots.read(base);
+                balance = snapshot.balances().getOrDefault(tenant, balance);
+                from = snapshot.next();
+            }
+            long[] total = balance.clone();
+            segments.read(from, to, entry -> {
+                if (entry.timestamp() > atMillis) {
+                    return false;
+                }
+                if (entry.tenant().equals(tenant)) {
+                    total[0] += entry.lifetimeDelta();
+                    total[1] += entry.unpaidDelta();
+                }
+                return true;
+            });
+            return new EarningsDTO(total[0], total[1]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the event journal", e);
+        }
+    }
+
+    /**
+     * @return номер последней записи журнала
+     */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    private synchronized void append(String tenant, Kind kind, ItemType itemType, long lifetimeDelta,
+            long unpaidDelta) {
+        JournalEntry entry = new JournalEntry(lastSeq + 1, Math.max(lastTimestamp, System.currentTimeMillis()),
+                tenant, kind, itemType, lifetimeDelta, unpaidDelta);
+        try {
+            end = segments.append(entry);
+            apply(entry);
+            if (++sinceSnapshot >= snapshotEvery) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to the event journal", e);
+        }
+    }
+
+    private void apply(JournalEntry entry) {
+        long[] balance = balances.computeIfAbsent(entry.tenant(), key -> new long[2]);
+        balance[0] += entry.lifetimeDelta();
+        balance[1] += entry.unpaidDelta();
+        lastSeq = entry.seq();
+        lastTimestamp = entry.timestamp();
+    }
+
+    private void snapshot() throws IOException {
+        segments.force();
+        Map<String, long[]> copy = new HashMap<>(balances.size() * 2);
+        balances.forEach((tenant, balance) -> copy.put(tenant, balance.clone()));
+        snapshots.add(JournalSnapshots.write(dir, lastSeq, lastTimestamp, new JournalSnapshots.Snapshot(end, copy)));
+        sinceSnapshot = 0;
+    }
+}
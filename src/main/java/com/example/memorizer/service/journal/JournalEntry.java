@@ -0,0 +1,80 @@
+package com.example.memorizer.service.journal;
+
+import com.example.memorizer.model.ItemType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Запись журнала событий: одно изменение заработка арендатора.
+ *
+ * @param seq           порядковый номер записи (с 1, без пропусков)
+ * @param timestamp     момент фиксации изменения, миллисекунды эпохи
+ * @param tenant        арендатор
+ * @param kind          вид события
+ * @param itemType      тип записей (null для корректировки)
+ * @param lifetimeDelta изменение общего заработка
+ * @param unpaidDelta   изменение текущего баланса
+ */
+public record JournalEntry(long seq, long timestamp, String tenant, Kind kind, ItemType itemType,
+        long lifetimeDelta, long unpaidDelta) {
+
+    /** Размер полей записи без идентификатора арендатора */
+    static final int FIXED_SIZE = Long.BYTES * 4 + 2 + Short.BYTES;
+
+    /**
+     * Вид события.
+     */
+    public enum Kind {
+        /** Создана смена или импортирована порция смен */
+        SHIFT_CREATED,
+        /** Добавлена песня или импортирована порция песен */
+        SONG_ADDED,
+        /** Удалена смена или песня */
+        ITEM_DELETED,
+        /** Выплата (или её порция) закрыла записи */
+        PAYOUT_EXECUTED,
+        /** Пересчет журнала заработка исправил расхождение */
+        LEDGER_ADJUSTED
+    }
+
+    /**
+     * @return момент фиксации изменения
+     */
+    public Instant instant() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+
+    /**
+     * @return размер записи в байтах
+     */
+    int size() {
+        return FIXED_SIZE + tenant.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        byte[] tenantBytes = tenant.getBytes(StandardCharsets.UTF_8);
+        buffer.putLong(seq)
+                .putLong(timestamp)
+                .put((byte) kind.ordinal())
+                .put((byte) (itemType != null ? itemType.ordinal() : -1))
+                .putLong(lifetimeDelta)
+                .putLong(unpaidDelta)
+                .putShort((short) tenantBytes.length)
+                .put(tenantBytes);
+    }
+
+    static JournalEntry readFrom(ByteBuffer buffer) {
+        long seq = buffer.getLong();
+        long timestamp = buffer.getLong();
+        Kind kind = Kind.values()[buffer.get()];
+        byte itemType = buffer.get();
+        long lifetimeDelta = buffer.getLong();
+        long unpaidDelta = buffer.getLong();
+        byte[] tenantBytes = new byte[buffer.getShort()];
+        buffer.get(tenantBytes);
+        return new JournalEntry(seq, timestamp, new String(tenantBytes, StandardCharsets.UTF_8), kind,
+                itemType >= 0 ? ItemType.values()[itemType] : null, lifetimeDelta, unpaidDelta);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.memorizer.service.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Файлы журнала событий: последовательность сегментов фиксированного
+ * размера, отображаемых в память.
+ *
+ * Сегмент называется по номеру своей первой записи. Запись в сегменте -
+ * длина тела, тело ({@link JournalEntry}) и его CRC32; длина пишется
+ * последней, поэтому оборванная запись выглядит как конец данных
+ * (нулевая длина) или не проходит проверку контрольной суммы. Новый
+ * сегмент создается, когда в текущем не хватает места для записи.
+ *
+ * <p>
+ * Добавление записей не потокобезопасно и выполняется под блокировкой
+ * {@link EventJournal}; чтение до заранее известной позиции может идти
+ * параллельно с добавлением.
+ */
+@Slf4j
+final class JournalSegments implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{20})\\.seg");
+
+    /** Длина тела перед ним и CRC32 после него */
+    private static final int RECORD_OVERHEAD = Integer.BYTES * 2;
+
+    /**
+     * Позиция в журнале.
+     *
+     * @param segment номер первой записи сегмента
+     * @param offset  смещение в сегменте, байты
+     */
+    record Position(long segment, int offset) {
+
+        boolean isBefore(Position other) {
+            return segment < other.segment || segment == other.segment && offset < other.offset;
+        }
+    }
+
+    private final Path dir;
+
+    private final int segmentSize;
+
+    /** Файлы сегментов по номеру первой записи */
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    /** Сегмент, в который добавляются записи */
+    private FileChannel tailChannel;
+
+    private MappedByteBuffer tail;
+
+    private long tailSegment;
+
+    /**
+     * @param dir         каталог журнала (создается при необходимости)
+     * @param segmentSize размер сегмента, байты
+     * @throws IOException если каталог не удалось прочитать
+     */
+    JournalSegments(Path dir, int segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "journal-*.seg")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return позиция первой записи журнала
+     */
+    Position start() {
+        return new Position(segments.isEmpty() ? 1 : segments.firstKey(), 0);
+    }
+
+    /**
+     * Читает записи от позиции до конца данных или до позиции {@code to}.
+     *
+     * @param from    позиция первой читаемой записи
+     * @param to      позиция, на которой чтение останавливается (null - до конца данных)
+     * @param visitor получает записи по порядку; false прекращает чтение
+     * @return позиция после последней прочитанной записи
+     * @throws IOException если сегмент не удалось прочитать
+     */
+    Position read(Position from, Position to, Predicate<JournalEntry> visitor) throws IOException {
+        Position position = from;
+        for (Map.Entry<Long, Path> segment : segments.tailMap(from.segment(), true).entrySet()) {
+            if (to != null && to.segment() < segment.getKey()) {
+                break;
+            }
+            int offset = segment.getKey() == from.segment() ? from.offset() : 0;
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.position(offset);
+                position = new Position(segment.getKey(), offset);
+                while (to == null || position.isBefore(to)) {
+                    JournalEntry entry = next(buffer);
+                    if (entry == null) {
+                        break;
+                    }
+                    position = new Position(segment.getKey(), buffer.position());
+                    if (!visitor.test(entry)) {
+                        return position;
+                    }
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Открывает сегмент для добавления с позиции после последней целой
+     * записи; остаток сегмента за ней обнуляется.
+     *
+     * @param end позиция, найденная {@link #read}
+     * @throws IOException если сегмент не удалось открыть
+     */
+    void openForAppend(Position end) throws IOException {
+        if (!segments.containsKey(end.segment())) {
+            return;
+        }
+        openTail(end.segment());
+        tail.position(end.offset());
+        for (int i = end.offset(); i < tail.limit(); i++) {
+            if (tail.get(i) != 0) {
+                tail.put(i, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Добавляет запись.
+     *
+     * @param entry запись
+     * @return позиция после записи
+     * @throws IOException если не удалось создать новый сегмент
+     */
+    Position append(JournalEntry entry) throws IOException {
+        int size = entry.size();
+        if (tail == null || tail.remaining() < size + RECORD_OVERHEAD) {
+            if (tail != null) {
+                closeTail();
+            }
+            openTail(entry.seq());
+        }
+        int start = tail.position();
+        tail.position(start + Integer.BYTES);
+        entry.writeTo(tail);
+        CRC32 crc = new CRC32();
+        crc.update(tail.duplicate().position(start + Integer.BYTES).limit(start + Integer.BYTES + size));
+        tail.putInt((int) crc.getValue());
+        tail.putInt(start, size);
+        return new Position(tailSegment, tail.position());
+    }
+
+    /**
+     * Сбрасывает добавленные записи на диск.
+     */
+    void force() {
+        if (tail != null) {
+            tail.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (tail != null) {
+            closeTail();
+        }
+    }
+
+    /**
+     * Читает запись в текущей позиции буфера.
+     *
+     * @return запись или null в конце данных и на оборванной записи
+     */
+    private static JournalEntry next(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_OVERHEAD) {
+            return null;
+        }
+        int start = buffer.position();
+        int size = buffer.getInt(start);
+        if (size < JournalEntry.FIXED_SIZE || size > buffer.remaining() - RECORD_OVERHEAD) {
+            if (size != 0) {
+                log.warn("Journal record at offset {} has invalid length {}, treating it as the end", start, size);
+            }
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(start + Integer.BYTES).limit(start + Integer.BYTES + size));
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES + size)) {
+            log.warn("Journal record at offset {} is torn, treating it as the end", start);
+            return null;
+        }
+        buffer.position(start + Integer.BYTES);
+        JournalEntry entry = JournalEntry.readFrom(buffer);
+        buffer.position(start + Integer.BYTES + size + Integer.BYTES);
+        return entry;
+    }
+
+    private void openTail(long firstSeq) throws IOException {
+        Path file = segments.getOrDefault(firstSeq, dir.resolve(String.format("journal-%020d.seg", firstSeq)));
+        tailChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        tail = tailChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, tailChannel.size()));
+        tailSegment = firstSeq;
+        segments.put(firstSeq, file);
+    }
+
+    private void closeTail() throws IOException {
+        tail.force();
+        tailChannel.close();
+        tail = null;
+        tailChannel = null;
+    }
+}
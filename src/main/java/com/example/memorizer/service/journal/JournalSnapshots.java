@@ -0,0 +1,150 @@
+package com.example.memorizer.service.journal;
+
+import com.example.memorizer.service.journal.JournalSegments.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Снимки балансов журнала событий.
+ *
+ * Снимок хранит балансы всех арендаторов после записи с номером
+ * {@code seq} и позицию следующей записи, поэтому восстановление и
+ * запросы на момент времени читают только записи после снимка. Номер
+ * и момент последней записи входят в имя файла: список снимков строится
+ * без чтения их содержимого. Файл пишется через отображение в память под
+ * временным именем и атомарно переименовывается.
+ */
+final class JournalSnapshots {
+
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{20})-(\\d{20})\\.snap");
+
+    /** Сигнатура файла снимка ("MJSN") */
+    private static final int MAGIC = 0x4D4A534E;
+
+    /** Версия формата снимка */
+    private static final int FORMAT_VERSION = 1;
+
+    private JournalSnapshots() {
+    }
+
+    /**
+     * Снимок в каталоге журнала.
+     *
+     * @param seq       номер последней учтенной записи
+     * @param timestamp момент последней учтенной записи, миллисекунды эпохи
+     * @param path      файл снимка
+     */
+    record Ref(long seq, long timestamp, Path path) {
+    }
+
+    /**
+     * Содержимое снимка.
+     *
+     * @param next     позиция записи, следующей за снимком
+     * @param balances балансы арендаторов: общий заработок и текущий баланс
+     */
+    record Snapshot(Position next, Map<String, long[]> balances) {
+    }
+
+    /**
+     * @param dir каталог журнала
+     * @return снимки по возрастанию номера записи
+     * @throws IOException если каталог не удалось прочитать
+     */
+    static List<Ref> list(Path dir) throws IOException {
+        List<Ref> refs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "snapshot-*.snap")) {
+            for (Path file : files) {
+                Matcher matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    refs.add(new Ref(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)), file));
+                }
+            }
+        }
+        refs.sort(Comparator.comparingLong(Ref::seq));
+        return refs;
+    }
+
+    /**
+     * Записывает снимок.
+     *
+     * @param dir       каталог журнала
+     * @param seq       номер последней учтенной записи
+     * @param timestamp момент последней учтенной записи
+     * @param snapshot  содержимое снимка
+     * @return записанный снимок
+     * @throws IOException если файл не удалось записать
+     */
+    static Ref write(Path dir, long seq, long timestamp, Snapshot snapshot) throws IOException {
+        List<String> tenants = new ArrayList<>(snapshot.balances().keySet());
+        byte[][] encoded = new byte[tenants.size()][];
+        long size = Integer.BYTES * 4 + Long.BYTES;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = tenants.get(i).getBytes(StandardCharsets.UTF_8);
+            size += Short.BYTES + encoded[i].length + Long.BYTES * 2;
+        }
+
+        Path path = dir.resolve(String.format("snapshot-%020d-%020d.snap", seq, timestamp));
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION)
+                    .putLong(snapshot.next().segment()).putInt(snapshot.next().offset())
+                    .putInt(encoded.length);
+            for (int i = 0; i < encoded.length; i++) {
+                long[] balance = snapshot.balances().get(tenants.get(i));
+                buffer.putShort((short) encoded[i].length).put(encoded[i]).putLong(balance[0]).putLong(balance[1]);
+            }
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Ref(seq, timestamp, path);
+    }
+
+    /**
+     * Читает снимок.
+     *
+     * @param ref снимок
+     * @return содержимое снимка
+     * @throws IOException если файл не читается или это не снимок журнала
+     */
+    static Snapshot read(Ref ref) throws IOException {
+        try (FileChannel channel = FileChannel.open(ref.path(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < Integer.BYTES * 2 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a journal snapshot: " + ref.path());
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + version + ": " + ref.path());
+            }
+            Position next = new Position(buffer.getLong(), buffer.getInt());
+            int tenants = buffer.getInt();
+            Map<String, long[]> balances = new HashMap<>(tenants * 2);
+            for (int i = 0; i < tenants; i++) {
+                byte[] tenant = new byte[buffer.getShort()];
+                buffer.get(tenant);
+                balances.put(new String(tenant, StandardCharsets.UTF_8),
+                        new long[] {buffer.getLong(), buffer.getLong()});
+            }
+            return new Snapshot(next, balances);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.memorizer.service.report;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.ReportFact;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Параллельная агрегация записей таблицы по ключам строк отчета.
+ *
+ * Диапазон идентификаторов делится пополам, пока не станет не длиннее
+ * порции; каждая порция читается своим запросом и сворачивается
+ * в количество, стоимость и стоимость неоплаченных по ключу, затем
+ * частичные итоги объединяются. Выполняется в отдельном
+ * {@link java.util.concurrent.ForkJoinPool} отчетов: число одновременных
+ * запросов к базе не превышает его параллелизма.
+ */
+final class ReportAggregation extends RecursiveTask<Map<String, long[]>> {
+
+    /**
+     * Чтение порции записей.
+     */
+    @FunctionalInterface
+    interface ChunkReader {
+
+        /**
+         * @param lowId  первый идентификатор порции (включительно)
+         * @param highId последний идентификатор порции (включительно)
+         * @return записи порции
+         */
+        List<ReportFact> read(long lowId, long highId);
+    }
+
+    private final String tenantId;
+
+    private final ChunkReader reader;
+
+    /** Ключ строки отчета для записи; null - запись не входит в отчет */
+    private final Function<ReportFact, String> key;
+
+    private final long lowId;
+
+    private final long highId;
+
+    private final int chunkSize;
+
+    ReportAggregation(String tenantId, ChunkReader reader, Function<ReportFact, String> key, long lowId,
+            long highId, int chunkSize) {
+        this.tenantId = tenantId;
+        this.reader = reader;
+        this.key = key;
+        this.lowId = lowId;
+        this.highId = highId;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected Map<String, long[]> compute() {
+        if (highId - lowId < chunkSize) {
+            return TenantContext.call(tenantId, () -> aggregate(reader.read(lowId, highId)));
+        }
+        long middle = lowId + (highId - lowId) / 2;
+        ReportAggregation left = new ReportAggregation(tenantId, reader, key, lowId, middle, chunkSize);
+        ReportAggregation right = new ReportAggregation(tenantId, reader, key, middle + 1, highId, chunkSize);
+        left.fork();
+        Map<String, long[]> totals = right.compute();
+        merge(totals, left.join());
+        return totals;
+    }
+
+    /**
+     * Прибавляет частичные итоги к итогам.
+     *
+     * @param totals  итоги: количество, стоимость и стоимость неоплаченных по ключу
+     * @param partial частичные итоги
+     */
+    static void merge(Map<String, long[]> totals, Map<String, long[]> partial) {
+        partial.forEach((rowKey, values) -> totals.merge(rowKey, values, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            a[2] += b[2];
+            return a;
+        }));
+    }
+
+    private Map<String, long[]> aggregate(List<ReportFact> facts) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (ReportFact fact : facts) {
+            String rowKey = key.apply(fact);
+            if (rowKey == null) {
+                continue;
+            }
+            long cost = fact.getCost() != null ? fact.getCost() : 0;
+            long[] values = totals.computeIfAbsent(rowKey, k -> new long[3]);
+            values[0]++;
+            values[1] += cost;
+            if (!fact.isPaid()) {
+                values[2] += cost;
+            }
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.memorizer.service.report;
+
+import com.example.memorizer.dto.ReportDTO;
+import com.example.memorizer.dto.ReportSpec;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Задание построения отчета.
+ *
+ * Идентификатор задания - отпечаток описания отчета, арендатора и версий
+ * данных ({@link ReportService}), поэтому повторный заказ того же отчета
+ * по неизменным данным возвращает то же задание. Состояние меняет поток
+ * построения, читают его запросы опроса.
+ */
+@Getter
+public class ReportJob {
+
+    /**
+     * Состояние задания.
+     */
+    public enum Status {
+        /** Задание ждет в очереди */
+        QUEUED,
+        /** Отчет строится */
+        RUNNING,
+        /** Отчет построен, результат в {@code result} */
+        COMPLETED,
+        /** Построение завершилось ошибкой, описание в {@code error} */
+        FAILED
+    }
+
+    private final String id;
+
+    private final ReportSpec spec;
+
+    @JsonIgnore
+    @Getter(AccessLevel.PACKAGE)
+    private final String tenantId;
+
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile Instant startedAt;
+
+    private volatile Instant finishedAt;
+
+    private volatile String error;
+
+    private volatile ReportDTO result;
+
+    /** Завершение задания: результат или ошибка */
+    @JsonIgnore
+    @Getter(AccessLevel.PACKAGE)
+    private final CompletableFuture<ReportDTO> completion = new CompletableFuture<>();
+
+    /**
+     * @param id       идентификатор задания
+     * @param spec     описание отчета
+     * @param tenantId арендатор, заказавший отчет
+     */
+    public ReportJob(String id, ReportSpec spec, String tenantId) {
+        this.id = id;
+        this.spec = spec;
+        this.tenantId = tenantId;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void completed(ReportDTO report) {
+        result = report;
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+        completion.complete(report);
+    }
+
+    void failed(Throwable cause) {
+        error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+        completion.completeExceptionally(cause);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.memorizer.service.report;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.IdRange;
+import com.example.memorizer.dto.ReportDTO;
+import com.example.memorizer.dto.ReportFact;
+import com.example.memorizer.dto.ReportSpec;
+import com.example.memorizer.repository.ArchivedShiftRepository;
+import com.example.memorizer.repository.ArchivedSongRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Сервис фоновых отчетов.
+ *
+ * Тяжелые отчеты (по годам и работникам, по дням недели, по заказчикам
+ * песен) читают все записи арендатора вместе с архивом, поэтому строятся
+ * не в потоке запроса: {@link #submit} ставит задание в очередь и сразу
+ * возвращает его, а клиент опрашивает состояние через {@link #getJob}.
+ *
+ * <p>
+ * Задания выполняют {@code memorizer.reports.threads} потоков
+ * с пониженным приоритетом; очередь ограничена
+ * {@code memorizer.reports.queue-capacity}, при её переполнении заказ
+ * отклоняется с кодом 503. Записи читаются порциями по
+ * {@code memorizer.reports.chunk-size} идентификаторов и сворачиваются
+ * параллельно в отдельном {@link ForkJoinPool} с параллелизмом
+ * {@code memorizer.reports.parallelism} ({@link ReportAggregation}).
+ * Так отчеты занимают не больше этого числа соединений с базой
+ * и не используют ни потоки Tomcat, ни общий пул fork-join,
+ * и задержка интерактивных запросов от них не зависит.
+ *
+ * <p>
+ * Идентификатор задания - SHA-256 от арендатора, описания отчета и
+ * версий затронутых таблиц ({@link DataVersions}): повторный заказ того
+ * же отчета, пока данные не менялись, возвращает готовое или ещё
+ * строящееся задание, а после изменения данных строится новый отчет.
+ * Задания хранятся в памяти, не больше {@code memorizer.reports.max-jobs},
+ * и удаляются через {@code memorizer.reports.ttl} после заказа.
+ * Задание, завершившееся ошибкой, при повторном заказе строится заново.
+ */
+@Slf4j
+@Service
+public class ReportService {
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ArchivedShiftRepository archivedShiftRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ArchivedSongRepository archivedSongRepository;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${memorizer.reports.threads:1}")
+    private int threads;
+
+    @Value("${memorizer.reports.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${memorizer.reports.parallelism:2}")
+    private int parallelism;
+
+    @Value("${memorizer.reports.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${memorizer.reports.max-jobs:1000}")
+    private long maxJobs;
+
+    @Value("${memorizer.reports.ttl:1h}")
+    private Duration ttl;
+
+    private ThreadPoolExecutor executor;
+
+    private ForkJoinPool aggregationPool;
+
+    private Cache<String, ReportJob> jobs;
+
+    /**
+     * Источник записей отчета: таблица, её диапазон идентификаторов
+     * и чтение порции.
+     */
+    private record Source(Supplier<IdRange> range, ReportAggregation.ChunkReader reader) {
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        aggregationPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("report-aggregation-" + thread.getPoolIndex());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, null, false);
+        jobs = Caffeine.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(ttl)
+                .build();
+        Gauge.builder("memorizer.reports.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Report jobs waiting for a worker thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        aggregationPool.shutdownNow();
+    }
+
+    /**
+     * Заказывает отчет текущего арендатора.
+     *
+     * @param spec описание отчета
+     * @return новое задание или задание того же отчета по неизменным данным
+     * @throws ResponseStatusException 400, если описание некорректно;
+     *                                 503, если очередь отчетов заполнена
+     */
+    public ReportJob submit(ReportSpec spec) {
+        validate(spec);
+        String tenantId = TenantContext.current();
+        String id = fingerprint(tenantId, spec, dataVersions.etag(tables(spec.type())));
+        ReportJob[] created = new ReportJob[1];
+        ReportJob job = jobs.asMap().compute(id, (key, existing) -> {
+            if (existing != null && existing.getStatus() != ReportJob.Status.FAILED) {
+                return existing;
+            }
+            created[0] = new ReportJob(id, spec, tenantId);
+            return created[0];
+        });
+        if (created[0] != null) {
+            try {
+                executor.execute(() -> run(created[0]));
+            } catch (RejectedExecutionException e) {
+                jobs.asMap().remove(id, created[0]);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Очередь отчетов заполнена");
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Получает задание текущего арендатора.
+     *
+     * @param id идентификатор задания
+     * @return задание с текущим состоянием
+     * @throws ResponseStatusException 404, если задания нет или оно удалено по сроку
+     */
+    public ReportJob getJob(String id) {
+        ReportJob job = jobs.getIfPresent(id);
+        if (job == null || !job.getTenantId().equals(TenantContext.current())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Отчет не найден: " + id);
+        }
+        return job;
+    }
+
+    private void run(ReportJob job) {
+        job.started();
+        long started = System.nanoTime();
+        try {
+            ReportDTO report = TenantContext.call(job.getTenantId(), () -> build(job.getSpec()));
+            job.completed(report);
+            log.info("Report {} of tenant {} built in {} ms: {} records", job.getSpec().type().getName(),
+                    job.getTenantId(), (System.nanoTime() - started) / 1_000_000, report.getCount());
+        } catch (RuntimeException e) {
+            log.warn("Report {} of tenant {} failed", job.getSpec().type().getName(), job.getTenantId(), e);
+            job.failed(e);
+        }
+    }
+
+    /**
+     * Строит отчет текущего арендатора по всем источникам его вида.
+     */
+    ReportDTO build(ReportSpec spec) {
+        String tenantId = TenantContext.current();
+        Function<ReportFact, String> key = key(spec.type());
+        Map<String, long[]> totals = new HashMap<>();
+        for (Source source : sources(spec)) {
+            IdRange range = source.range().get();
+            if (range == null || range.getLowId() == null) {
+                continue;
+            }
+            ReportAggregation.merge(totals, aggregationPool.invoke(new ReportAggregation(tenantId, source.reader(),
+                    key, range.getLowId(), range.getHighId(), chunkSize)));
+        }
+
+        List<ReportDTO.Row> rows = new ArrayList<>(totals.size());
+        long count = 0;
+        long total = 0;
+        long unpaid = 0;
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            long[] values = entry.getValue();
+            rows.add(new ReportDTO.Row(entry.getKey(), values[0], values[1], values[2]));
+            count += values[0];
+            total += values[1];
+            unpaid += values[2];
+        }
+        rows.sort(Comparator.comparing(ReportDTO.Row::getKey, rowOrder(spec.type())));
+        return new ReportDTO(count, total, unpaid, rows);
+    }
+
+    private List<Source> sources(ReportSpec spec) {
+        if (spec.type().isSongs()) {
+            return List.of(
+                    new Source(songRepository::findIdRange, songRepository::findReportFacts),
+                    new Source(archivedSongRepository::findIdRange, archivedSongRepository::findReportFacts));
+        }
+        return List.of(
+                new Source(shiftRepository::findIdRange, (lowId, highId) -> shiftRepository.findReportFacts(
+                        lowId, highId, spec.from(), spec.to(), spec.workerName())),
+                new Source(archivedShiftRepository::findIdRange,
+                        (lowId, highId) -> archivedShiftRepository.findReportFacts(
+                                lowId, highId, spec.from(), spec.to(), spec.workerName())));
+    }
+
+    private static Function<ReportFact, String> key(ReportSpec.Type type) {
+        return switch (type) {
+            case WORKER_YEARLY -> fact -> fact.getDate() == null ? null
+                    : fact.getDate().getYear() + "/" + (fact.getName() != null ? fact.getName() : "");
+            case SHIFT_WEEKDAYS -> fact -> fact.getDate() == null ? null : fact.getDate().getDayOfWeek().name();
+            case SONGS_BY_ADDED_BY -> fact -> fact.getName() != null ? fact.getName() : "";
+        };
+    }
+
+    private static Comparator<String> rowOrder(ReportSpec.Type type) {
+        return type == ReportSpec.Type.SHIFT_WEEKDAYS
+                ? Comparator.comparing(DayOfWeek::valueOf)
+                : Comparator.naturalOrder();
+    }
+
+    private static Table[] tables(ReportSpec.Type type) {
+        return type.isSongs()
+                ? new Table[] {Table.SONGS, Table.ARCHIVE}
+                : new Table[] {Table.SHIFTS, Table.ARCHIVE};
+    }
+
+    private static void validate(ReportSpec spec) {
+        if (spec.type().isSongs() && (spec.from() != null || spec.to() != null || spec.workerName() != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Отчет по песням не ограничивается датами и работником");
+        }
+        if (spec.from() != null && spec.to() != null && spec.from().isAfter(spec.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Начало периода позже конца: " + spec.from() + " > " + spec.to());
+        }
+    }
+
+    private static String fingerprint(String tenantId, ReportSpec spec, String versions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((tenantId + '\n' + spec + '\n' + versions).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.memorizer.service.tariff;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Предрасчитанный календарь стоимости смен.
+ * 
+ * При создании правила тарификации вычисляются один раз для каждого дня
+ * окна и сохраняются в массив, поэтому определение стоимости смены внутри
+ * окна сводится к одному обращению к массиву по номеру дня. Даты вне окна
+ * вычисляются по тем же правилам напрямую.
+ * 
+ * <p>
+ * Экземпляры неизменяемы и безопасны для использования из нескольких потоков.
+ * 
+ * @see TariffEngine
+ */
+public final class TariffCalendar {
+
+    private final List<TariffRule> rules;
+    private final int defaultRate;
+    private final long firstEpochDay;
+    private final int[] rates;
+
+    private TariffCalendar(List<TariffRule> rules, int defaultRate, long firstEpochDay, int[] rates) {
+        this.rules = rules;
+        this.defaultRate = defaultRate;
+        this.firstEpochDay = firstEpochDay;
+        this.rates = rates;
+    }
+
+    /**
+     * Сворачивает правила в таблицу стоимости на каждый день окна.
+     * 
+     * @param rules       правила в порядке убывания приоритета
+     * @param defaultRate стоимость, если ни одно правило не сработало
+     * @param from        первый день окна (включительно)
+     * @param to          последний день окна (включительно)
+     * @return предрасчитанный календарь
+     */
+    public static TariffCalendar compile(List<TariffRule> rules, int defaultRate, LocalDate from, LocalDate to) {
+        List<TariffRule> ruleList = List.copyOf(rules);
+        long firstEpochDay = from.toEpochDay();
+        int[] rates = new int[Math.toIntExact(to.toEpochDay() - firstEpochDay + 1)];
+        LocalDate date = from;
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = evaluate(ruleList, defaultRate, date);
+            date = date.plusDays(1);
+        }
+        return new TariffCalendar(ruleList, defaultRate, firstEpochDay, rates);
+    }
+
+    /**
+     * Возвращает стоимость смены на дату.
+     * 
+     * @param date дата смены
+     * @return стоимость в рублях
+     */
+    public int rateFor(LocalDate date) {
+        long index = date.toEpochDay() - firstEpochDay;
+        if (index >= 0 && index < rates.length) {
+            return rates[(int) index];
+        }
+        return evaluate(rules, defaultRate, date);
+    }
+
+    /**
+     * @return первый день предрасчитанного окна
+     */
+    public LocalDate getFirstDay() {
+        return LocalDate.ofEpochDay(firstEpochDay);
+    }
+
+    /**
+     * @return последний день предрасчитанного окна
+     */
+    public LocalDate getLastDay() {
+        return LocalDate.ofEpochDay(firstEpochDay + rates.length - 1);
+    }
+
+    private static int evaluate(List<TariffRule> rules, int defaultRate, LocalDate date) {
+        for (TariffRule rule : rules) {
+            OptionalInt rate = rule.rateFor(date);
+            if (rate.isPresent()) {
+                return rate.getAsInt();
+            }
+        }
+        return defaultRate;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.memorizer.service.tariff;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Движок тарификации смен.
+ * 
+ * При старте сворачивает правила из {@link TariffProperties} и бины
+ * {@link TariffRule} в предрасчитанные календари ({@link TariffCalendar}):
+ * общий и по одному на каждого работника с индивидуальными ставками.
+ * Стоимость смены затем определяется одним обращением к массиву, что
+ * позволяет тарифицировать большие пакеты смен без повторного
+ * вычисления правил для каждой строки.
+ * 
+ * @see TariffProperties
+ * @see TariffCalendar
+ */
+@Component
+public class TariffEngine {
+
+    private final TariffCalendar defaultCalendar;
+    private final Map<String, TariffCalendar> workerCalendars;
+
+    /**
+     * Создает движок только по настройкам, без дополнительных правил.
+     * 
+     * @param properties настройки тарификации
+     */
+    public TariffEngine(TariffProperties properties) {
+        this(properties, Collections.emptyList());
+    }
+
+    @Autowired
+    public TariffEngine(TariffProperties properties, ObjectProvider<TariffRule> customRules) {
+        this(properties, customRules.orderedStream().toList());
+    }
+
+    private TariffEngine(TariffProperties properties, List<TariffRule> customRules) {
+        int currentYear = LocalDate.now().getYear();
+        LocalDate from = LocalDate.of(currentYear - properties.getWindowYearsBack(), 1, 1);
+        LocalDate to = LocalDate.of(currentYear + properties.getWindowYearsAhead(), 12, 31);
+
+        List<TariffRule> commonRules = new ArrayList<>(customRules);
+        for (TariffProperties.DateRangeOverride override : properties.getOverrides()) {
+            commonRules.add(dateRange(LocalDate.parse(override.getFrom()), LocalDate.parse(override.getTo()),
+                    override.getRate()));
+        }
+        for (TariffProperties.Holiday holiday : properties.getHolidays()) {
+            commonRules.add(holiday(MonthDay.parse("--" + holiday.getFrom()), MonthDay.parse("--" + holiday.getTo()),
+                    holiday.getRate()));
+        }
+
+        this.defaultCalendar = compile(commonRules, properties.getWeekdayRates(), properties.getDefaultRate(),
+                from, to);
+
+        Map<String, TariffCalendar> calendars = new HashMap<>();
+        properties.getWorkers().forEach((workerName, rates) -> calendars.put(workerName, compile(commonRules,
+                rates.getWeekdayRates().isEmpty() ? properties.getWeekdayRates() : rates.getWeekdayRates(),
+                rates.getDefaultRate() != null ? rates.getDefaultRate() : properties.getDefaultRate(),
+                from, to)));
+        this.workerCalendars = Map.copyOf(calendars);
+    }
+
+    /**
+     * Определяет стоимость смены.
+     * 
+     * @param date       дата смены
+     * @param workerName имя работника (может быть null)
+     * @return стоимость смены в рублях
+     */
+    public int price(LocalDate date, String workerName) {
+        return calendarFor(workerName).rateFor(date);
+    }
+
+    /**
+     * Возвращает календарь работника: индивидуальный, если для работника
+     * настроены ставки, иначе общий.
+     * 
+     * @param workerName имя работника (может быть null)
+     * @return предрасчитанный календарь
+     */
+    public TariffCalendar calendarFor(String workerName) {
+        if (workerName == null) {
+            return defaultCalendar;
+        }
+        return workerCalendars.getOrDefault(workerName, defaultCalendar);
+    }
+
+    private static TariffCalendar compile(List<TariffRule> commonRules, Map<DayOfWeek, Integer> weekdayRates,
+            int defaultRate, LocalDate from, LocalDate to) {
+        List<TariffRule> rules = new ArrayList<>(commonRules);
+        rules.add(weekday(weekdayRates));
+        return TariffCalendar.compile(rules, defaultRate, from, to);
+    }
+
+    private static TariffRule dateRange(LocalDate from, LocalDate to, int rate) {
+        return date -> !date.isBefore(from) && !date.isAfter(to) ? OptionalInt.of(rate) : OptionalInt.empty();
+    }
+
+    private static TariffRule holiday(MonthDay from, MonthDay to, int rate) {
+        return date -> {
+            MonthDay day = MonthDay.from(date);
+            return !day.isBefore(from) && !day.isAfter(to) ? OptionalInt.of(rate) : OptionalInt.empty();
+        };
+    }
+
+    private static TariffRule weekday(Map<DayOfWeek, Integer> weekdayRates) {
+        Map<DayOfWeek, Integer> rates = Map.copyOf(weekdayRates);
+        return date -> {
+            Integer rate = rates.get(date.getDayOfWeek());
+            return rate != null ? OptionalInt.of(rate) : OptionalInt.empty();
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.memorizer.service.tariff;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки тарификации смен (префикс {@code memorizer.tariff}).
+ * 
+ * Значения по умолчанию соответствуют исходным правилам:
+ * <ul>
+ * <li>1-12 января (праздники): 3000 ₽</li>
+ * <li>Пятница/Суббота: 4000 ₽</li>
+ * <li>Остальные дни: 3000 ₽</li>
+ * </ul>
+ * 
+ * Приоритет правил: переопределения по диапазону дат, затем праздники,
+ * затем ставки по дням недели, затем базовая ставка.
+ * 
+ * @see TariffEngine
+ */
+@Data
+@ConfigurationProperties(prefix = "memorizer.tariff")
+public class TariffProperties {
+
+    /** Базовая стоимость смены в рублях */
+    private int defaultRate = 3000;
+
+    /** Стоимость смены по дням недели (перекрывает базовую) */
+    private Map<DayOfWeek, Integer> weekdayRates = new EnumMap<>(Map.of(
+            DayOfWeek.FRIDAY, 4000,
+            DayOfWeek.SATURDAY, 4000));
+
+    /** Ежегодные праздничные периоды (перекрывают ставки по дням недели) */
+    private List<Holiday> holidays = new ArrayList<>(List.of(new Holiday("01-01", "01-12", 3000)));
+
+    /** Разовые переопределения стоимости на диапазон дат (высший приоритет) */
+    private List<DateRangeOverride> overrides = new ArrayList<>();
+
+    /** Индивидуальные ставки работников по имени */
+    private Map<String, WorkerRates> workers = new LinkedHashMap<>();
+
+    /** Сколько лет до текущего года предрасчитывать в календаре */
+    private int windowYearsBack = 10;
+
+    /** Сколько лет после текущего года предрасчитывать в календаре */
+    private int windowYearsAhead = 5;
+
+    /**
+     * Ежегодный праздничный период.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Holiday {
+        /** Первый день периода в формате MM-dd (включительно) */
+        private String from;
+        /** Последний день периода в формате MM-dd (включительно) */
+        private String to;
+        /** Стоимость смены в рублях */
+        private int rate;
+    }
+
+    /**
+     * Переопределение стоимости на диапазон дат.
+     */
+    @Data
+    public static class DateRangeOverride {
+        /** Первая дата диапазона в формате yyyy-MM-dd (включительно) */
+        private String from;
+        /** Последняя дата диапазона в формате yyyy-MM-dd (включительно) */
+        private String to;
+        /** Стоимость смены в рублях */
+        private int rate;
+    }
+
+    /**
+     * Индивидуальные ставки работника. Заменяют базовую ставку и ставки
+     * по дням недели; праздники и переопределения действуют как обычно.
+     */
+    @Data
+    public static class WorkerRates {
+        /** Базовая стоимость смены работника (null - общая базовая ставка) */
+        private Integer defaultRate;
+        /** Стоимость смены работника по дням недели (пусто - общие ставки) */
+        private Map<DayOfWeek, Integer> weekdayRates = new EnumMap<>(DayOfWeek.class);
+    }
+}
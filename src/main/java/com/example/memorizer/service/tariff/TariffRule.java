@@ -0,0 +1,32 @@
+package com.example.memorizer.service.tariff;
+
+import java.time.LocalDate;
+import java.util.OptionalInt;
+
+/**
+ * Правило тарификации смен.
+ * 
+ * Правило либо назначает стоимость смены на указанную дату, либо
+ * пропускает дату, передавая решение следующему правилу. Правила
+ * проверяются по приоритету; первое сработавшее определяет стоимость.
+ * 
+ * <p>
+ * Помимо правил из конфигурации ({@link TariffProperties}), движок
+ * подхватывает все бины этого типа и ставит их перед настроенными
+ * правилами (в порядке {@link org.springframework.core.annotation.Order}).
+ * Правила должны зависеть только от даты, чтобы их можно было заранее
+ * свернуть в таблицу {@link TariffCalendar}.
+ * 
+ * @see TariffEngine
+ */
+@FunctionalInterface
+public interface TariffRule {
+
+    /**
+     * Определяет стоимость смены на дату.
+     * 
+     * @param date дата смены
+     * @return стоимость в рублях или пустое значение, если правило не применяется
+     */
+    OptionalInt rateFor(LocalDate date);
+}
@@ -0,0 +1,56 @@
+-- Baseline schema, equivalent to what hibernate.ddl-auto=update produced.
+-- Every statement is idempotent: on a database created by earlier releases
+-- (baselined at version 0) it only adds what is missing, on an empty
+-- database it creates the full schema.
+
+create sequence if not exists shift_seq start with 1 increment by 50;
+create sequence if not exists song_seq start with 1 increment by 50;
+
+create table if not exists shift (
+    id bigint not null,
+    worker_name varchar(255),
+    date date,
+    start_time time(6),
+    end_time time(6),
+    cost integer,
+    paid boolean default false,
+    payout_id bigint,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table if not exists song (
+    id bigint not null,
+    title varchar(255),
+    artist varchar(255),
+    added_by varchar(255),
+    cost integer,
+    paid boolean default false,
+    payout_id bigint,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table if not exists earnings_ledger (
+    item_type varchar(255) not null check (item_type in ('SHIFT', 'SONG')),
+    lifetime_total bigint not null,
+    unpaid_total bigint not null,
+    primary key (item_type)
+);
+
+create table if not exists payout_batch (
+    id bigint generated by default as identity,
+    created_at timestamp(6) with time zone,
+    amount bigint not null,
+    shift_count bigint not null,
+    shift_amount bigint not null,
+    song_count bigint not null,
+    song_amount bigint not null,
+    primary key (id)
+);
+
+-- Columns added after the first release
+alter table shift add column if not exists payout_id bigint;
+alter table shift add column if not exists version bigint default 0 not null;
+alter table song add column if not exists payout_id bigint;
+alter table song add column if not exists version bigint default 0 not null;
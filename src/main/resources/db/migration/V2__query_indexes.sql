@@ -0,0 +1,21 @@
+-- Composite indexes for the list, export, breakdown and payout queries.
+--
+-- H2 has no partial (filtered) indexes, so "unpaid only" indexes are
+-- emulated by putting the paid flag first: the payout UPDATE and the
+-- unpaid sums seek to paid = false and read only the unpaid range.
+
+-- Keyset pagination and date ranges: order by date, id
+create index if not exists idx_shift_date_id on shift (date, id);
+-- Per-worker lists, breakdowns and date ranges
+create index if not exists idx_shift_worker_date on shift (worker_name, date);
+-- Unpaid shifts by date (payout, unpaid totals)
+create index if not exists idx_shift_paid_date on shift (paid, date);
+
+-- Per-guest song lists in id order
+create index if not exists idx_song_added_by_id on song (added_by, id);
+-- Unpaid songs in id order (payout, unpaid totals)
+create index if not exists idx_song_paid_id on song (paid, id);
+
+-- One shift per worker, date and start time
+alter table shift add constraint if not exists uk_shift_worker_date_start
+    unique (worker_name, date, start_time);
@@ -0,0 +1,47 @@
+-- Archive of settled shifts and songs.
+--
+-- Rows paid by a payout older than memorizer.archive.min-age are moved out
+-- of the hot tables. archive_year is the year of the settling payout and
+-- leads every archive index, so each year is a contiguous range that can be
+-- read (or dropped) on its own. archive_rollup keeps the per-year totals
+-- that the earnings ledger adds back to the lifetime sums.
+
+create table if not exists shift_archive (
+    id bigint not null,
+    archive_year integer not null,
+    worker_name varchar(255),
+    date date,
+    start_time time(6),
+    end_time time(6),
+    cost integer,
+    payout_id bigint not null,
+    primary key (id)
+);
+
+create table if not exists song_archive (
+    id bigint not null,
+    archive_year integer not null,
+    title varchar(255),
+    artist varchar(255),
+    added_by varchar(255),
+    cost integer,
+    payout_id bigint not null,
+    primary key (id)
+);
+
+create table if not exists archive_rollup (
+    item_type varchar(255) not null check (item_type in ('SHIFT', 'SONG')),
+    archive_year integer not null,
+    row_count bigint not null,
+    amount bigint not null,
+    primary key (item_type, archive_year)
+);
+
+create index if not exists idx_shift_archive_year_id on shift_archive (archive_year, id);
+create index if not exists idx_shift_archive_year_worker_id on shift_archive (archive_year, worker_name, id);
+create index if not exists idx_song_archive_year_id on song_archive (archive_year, id);
+create index if not exists idx_song_archive_year_added_by_id on song_archive (archive_year, added_by, id);
+
+-- Settled rows by payout: archive candidates and the per-payout breakdown
+create index if not exists idx_shift_payout_id on shift (payout_id, id);
+create index if not exists idx_song_payout_id on song (payout_id, id);
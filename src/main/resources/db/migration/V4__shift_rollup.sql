@@ -0,0 +1,29 @@
+-- Per-worker, per-month shift totals split by paid status.
+--
+-- Maintained incrementally by ShiftRollupService on every shift insert,
+-- delete and payout, and rebuilt nightly. Archived shifts stay counted
+-- (as paid), so reports cover the whole history without reading either
+-- the hot or the archive table. Shifts without a worker are stored
+-- under an empty name.
+
+create table if not exists shift_rollup (
+    worker_name varchar(255) not null,
+    period_year integer not null,
+    period_month integer not null,
+    paid boolean not null,
+    shift_count bigint not null,
+    amount bigint not null,
+    primary key (worker_name, period_year, period_month, paid)
+);
+
+-- Monthly reports across all workers read a period range
+create index if not exists idx_shift_rollup_period on shift_rollup (period_year, period_month);
+
+insert into shift_rollup (worker_name, period_year, period_month, paid, shift_count, amount)
+select coalesce(x.worker_name, ''), extract(year from x.date), extract(month from x.date), x.paid,
+       count(*), coalesce(sum(x.cost), 0)
+from (select worker_name, date, coalesce(paid, false) paid, cost from shift
+      union all
+      select worker_name, date, true, cost from shift_archive) x
+where x.date is not null
+group by coalesce(x.worker_name, ''), extract(year from x.date), extract(month from x.date), x.paid;
@@ -0,0 +1,16 @@
+-- Scoped payouts settled in chunks.
+--
+-- A payout now records the scope it was asked for (worker, date range,
+-- amount cap) and its status. Chunked payouts stay IN_PROGRESS until the
+-- last chunk commits, so a payout interrupted by a crash is found and
+-- resumed at startup. Payouts made before this migration are complete.
+
+alter table payout_batch add column if not exists status varchar(255) default 'COMPLETED' not null
+    check (status in ('IN_PROGRESS', 'COMPLETED'));
+alter table payout_batch add column if not exists worker_name varchar(255);
+alter table payout_batch add column if not exists period_from date;
+alter table payout_batch add column if not exists period_to date;
+alter table payout_batch add column if not exists max_amount bigint;
+
+-- Startup looks up unfinished payouts
+create index if not exists idx_payout_batch_status on payout_batch (status, id);
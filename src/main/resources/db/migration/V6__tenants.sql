@@ -0,0 +1,79 @@
+-- Multi-tenant workspaces.
+--
+-- Every row belongs to one tenant (workspace). Hibernate adds
+-- tenant_id = ? to every query, so tenant_id leads every index and every
+-- composite primary key: a tenant's lists, sums and payouts read only its
+-- own contiguous index range, however many other tenants share the table.
+-- Rows created before this migration belong to the 'default' tenant.
+-- The column default is dropped afterwards, so an insert that forgets the
+-- tenant fails instead of landing in the default workspace.
+
+create table if not exists tenant (
+    id varchar(40) not null,
+    name varchar(255),
+    created_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+merge into tenant (id, name, created_at) key (id) values ('default', 'default', current_timestamp);
+
+alter table shift add column if not exists tenant_id varchar(40) default 'default' not null;
+alter table song add column if not exists tenant_id varchar(40) default 'default' not null;
+alter table earnings_ledger add column if not exists tenant_id varchar(40) default 'default' not null;
+alter table payout_batch add column if not exists tenant_id varchar(40) default 'default' not null;
+alter table shift_archive add column if not exists tenant_id varchar(40) default 'default' not null;
+alter table song_archive add column if not exists tenant_id varchar(40) default 'default' not null;
+alter table archive_rollup add column if not exists tenant_id varchar(40) default 'default' not null;
+alter table shift_rollup add column if not exists tenant_id varchar(40) default 'default' not null;
+
+alter table shift alter column tenant_id drop default;
+alter table song alter column tenant_id drop default;
+alter table earnings_ledger alter column tenant_id drop default;
+alter table payout_batch alter column tenant_id drop default;
+alter table shift_archive alter column tenant_id drop default;
+alter table song_archive alter column tenant_id drop default;
+alter table archive_rollup alter column tenant_id drop default;
+alter table shift_rollup alter column tenant_id drop default;
+
+-- Per-tenant totals: one ledger, rollup and archive rollup row set per tenant
+alter table earnings_ledger drop primary key;
+alter table earnings_ledger add primary key (tenant_id, item_type);
+alter table archive_rollup drop primary key;
+alter table archive_rollup add primary key (tenant_id, item_type, archive_year);
+alter table shift_rollup drop primary key;
+alter table shift_rollup add primary key (tenant_id, worker_name, period_year, period_month, paid);
+
+-- One shift per tenant, worker, date and start time
+alter table shift drop constraint if exists uk_shift_worker_date_start;
+alter table shift add constraint uk_shift_worker_date_start unique (tenant_id, worker_name, date, start_time);
+
+drop index if exists idx_shift_date_id;
+drop index if exists idx_shift_worker_date;
+drop index if exists idx_shift_paid_date;
+drop index if exists idx_shift_payout_id;
+create index idx_shift_date_id on shift (tenant_id, date, id);
+create index idx_shift_worker_date on shift (tenant_id, worker_name, date);
+create index idx_shift_paid_date on shift (tenant_id, paid, date);
+create index idx_shift_payout_id on shift (tenant_id, payout_id, id);
+
+drop index if exists idx_song_added_by_id;
+drop index if exists idx_song_paid_id;
+drop index if exists idx_song_payout_id;
+create index idx_song_added_by_id on song (tenant_id, added_by, id);
+create index idx_song_paid_id on song (tenant_id, paid, id);
+create index idx_song_payout_id on song (tenant_id, payout_id, id);
+
+drop index if exists idx_payout_batch_status;
+create index idx_payout_batch_status on payout_batch (tenant_id, status, id);
+
+drop index if exists idx_shift_archive_year_id;
+drop index if exists idx_shift_archive_year_worker_id;
+drop index if exists idx_song_archive_year_id;
+drop index if exists idx_song_archive_year_added_by_id;
+create index idx_shift_archive_year_id on shift_archive (tenant_id, archive_year, id);
+create index idx_shift_archive_year_worker_id on shift_archive (tenant_id, archive_year, worker_name, id);
+create index idx_song_archive_year_id on song_archive (tenant_id, archive_year, id);
+create index idx_song_archive_year_added_by_id on song_archive (tenant_id, archive_year, added_by, id);
+
+drop index if exists idx_shift_rollup_period;
+create index idx_shift_rollup_period on shift_rollup (tenant_id, period_year, period_month);
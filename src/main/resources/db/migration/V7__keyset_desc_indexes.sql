@@ -0,0 +1,10 @@
+-- Descending keyset indexes for the list endpoints.
+--
+-- Lists page from newest to oldest (date desc, id desc for shifts,
+-- id desc for songs). H2 reads an index only forwards and uses it for
+-- ORDER BY only when the order repeats the index columns with the same
+-- directions, tenant_id included. The ascending (tenant_id, date, id)
+-- index from V6 made every first page sort all rows of the tenant; it
+-- stays for date ranges and the export, which read in ascending order.
+create index idx_shift_keyset on shift (tenant_id, date desc, id desc);
+create index idx_song_keyset on song (tenant_id, id desc);
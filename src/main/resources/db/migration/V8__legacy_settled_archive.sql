@@ -0,0 +1,8 @@
+-- Archive of rows paid before payout batches existed.
+--
+-- The first versions marked a row paid without recording a payout, so the
+-- oldest settled rows have paid = true and payout_id null. The archive
+-- treats them as settled by a legacy payout: they are moved like any other
+-- paid row and keep a null payout_id in the archive.
+alter table shift_archive alter column payout_id set null;
+alter table song_archive alter column payout_id set null;
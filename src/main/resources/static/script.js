@@ -4,39 +4,67 @@ document.addEventListener('DOMContentLoaded', () => {
 
     loadData();
     updateStats();
+    connectEvents();
 
     document.getElementById('main-form').addEventListener('submit', async (e) => {
         e.preventDefault();
-
-        const date = document.getElementById('entryDate').value;
-        const type = document.querySelector('input[name="entryType"]:checked').value;
-
-        if (type === 'shift') {
-            const shift = {
-                workerName: 'Я',
-                date: date,
-                startTime: '00:00',
-                endTime: '23:59'
-            };
-            await createShift(shift);
-        } else {
-            const song = {
-                title: `Песня (${date})`,
-                artist: 'Вне очереди',
-                addedBy: 'Гость'
-            };
-            await addSong(song);
+        // Ignore double-clicks while the previous submit is in flight
+        const submitBtn = e.target.querySelector('[type="submit"]');
+        if (submitBtn.disabled) return;
+        submitBtn.disabled = true;
+        try {
+            await submitEntry();
+        } finally {
+            submitBtn.disabled = false;
         }
-
-        loadData();
-        updateStats();
     });
 });
 
+// Workspace (tenant): ?tenant=<id> in the page URL switches it and is remembered
+const TENANT = new URLSearchParams(location.search).get('tenant')
+    || localStorage.getItem('tenant') || 'default';
+localStorage.setItem('tenant', TENANT);
+
+// Worker the shifts are logged for: ?worker=<name>, remembered like the workspace
+const WORKER_NAME = new URLSearchParams(location.search).get('worker')
+    || localStorage.getItem('workerName') || 'Я';
+localStorage.setItem('workerName', WORKER_NAME);
+
+// fetch() scoped to the current workspace
+function api(url, options = {}) {
+    return fetch(url, { ...options, headers: { ...options.headers, 'X-Tenant-Id': TENANT } });
+}
+
+async function submitEntry() {
+    const date = document.getElementById('entryDate').value;
+    const type = document.querySelector('input[name="entryType"]:checked').value;
+
+    if (type === 'shift') {
+        const shift = {
+            workerName: WORKER_NAME,
+            date: date,
+            startTime: '00:00',
+            endTime: '23:59'
+        };
+        await createShift(shift);
+    } else {
+        const song = {
+            title: `Песня (${date})`,
+            artist: 'Вне очереди',
+            addedBy: 'Гость'
+        };
+        await addSong(song);
+    }
+
+    refreshIfDisconnected();
+}
+
 async function updateStats() {
-    const response = await fetch('/api/stats/earnings');
-    const data = await response.json();
+    const response = await api('/api/stats/earnings');
+    applyEarnings(await response.json());
+}
 
+function applyEarnings(data) {
     // Lifetime = all items (paid + unpaid)
     document.getElementById('lifetime-earnings').innerText = `${data.lifetimeEarnings} ₽`;
 
@@ -44,55 +72,85 @@ async function updateStats() {
     document.getElementById('current-balance').innerText = `${data.currentBalance} ₽`;
 }
 
+const PAGE_SIZE = 50;
+
+// Keyset cursors of the next pages (null = no more items)
+let shiftCursor = null;
+let songCursor = null;
+
 async function loadData() {
     const mainList = document.getElementById('main-list');
     mainList.innerHTML = '';
 
-    // Load shifts
-    const shiftsResponse = await fetch('/api/shifts');
-    const shifts = await shiftsResponse.json();
-
-    // Load songs
-    const songsResponse = await fetch('/api/songs');
-    const songs = await songsResponse.json();
-
-    // Combine and sort by ID (simplified timestamp approximation)
-    let allItems = [
-        ...shifts.map(s => ({ ...s, type: 'shift', displayDate: s.date })),
-        ...songs.map(s => ({ ...s, type: 'song', displayDate: 'Сегодня' })) // Song doesn't have date field in entity logic yet, but we just added them. Wait, Song entity has NO DATE field.
-    ];
-
-    // NOTE: Song entity doesn't have a date field in the original plan. 
-    // To properly sort, we might need to add date to Song, but for now we'll just list them.
-    // The user requirement "enter date" for song implies Song SHOULD have a date.
-    // However, I didn't add Date to Song entity yet. 
-    // I will proceed with just listing them, but the user "enters date". If I don't save the date for the song, it's weird.
-    // I should probably add Date to Song entity implicitly or just ignore it for now as per user request to "count".
-    // Let's list shifts first then songs, or just mix them.
-
-    // To fix this properly, I'll just render them.
-
-    shifts.forEach(shift => {
-        const li = createListItem(
-            '📅 Смена',
-            `${shift.date} (${getDayOfWeek(shift.date)})`,
-            shift.cost,
-            () => deleteShift(shift.id),
-            'var(--accent-primary)'
-        );
-        mainList.appendChild(li);
-    });
+    const [shiftPage, songPage] = await Promise.all([
+        fetchPage('/api/shifts', null),
+        fetchPage('/api/songs', null)
+    ]);
+    renderPages(shiftPage, songPage);
+}
 
-    songs.forEach(song => {
-        const li = createListItem(
-            '🎵 Песня',
-            `Вне очереди`,
-            song.cost,
-            () => deleteSong(song.id),
-            'var(--accent-secondary)'
-        );
-        mainList.appendChild(li);
-    });
+async function loadMore() {
+    const [shiftPage, songPage] = await Promise.all([
+        shiftCursor ? fetchPage('/api/shifts', shiftCursor) : Promise.resolve({ items: [], nextCursor: null }),
+        songCursor ? fetchPage('/api/songs', songCursor) : Promise.resolve({ items: [], nextCursor: null })
+    ]);
+    renderPages(shiftPage, songPage);
+}
+
+async function fetchPage(url, cursor) {
+    // Compact format: column names once, each item as an array of values
+    const params = new URLSearchParams({ limit: PAGE_SIZE, format: 'compact' });
+    if (cursor) {
+        params.set('cursor', cursor);
+    }
+    const response = await api(`${url}?${params}`);
+    const page = await response.json();
+    const items = page.rows.map(row => Object.fromEntries(page.columns.map((column, i) => [column, row[i]])));
+    return { items, nextCursor: page.nextCursor };
+}
+
+function renderPages(shiftPage, songPage) {
+    const mainList = document.getElementById('main-list');
+    shiftCursor = shiftPage.nextCursor;
+    songCursor = songPage.nextCursor;
+
+    // New pages go after the already loaded items of the same kind
+    const firstSong = mainList.querySelector('[data-kind="song"]');
+    shiftPage.items.forEach(shift => mainList.insertBefore(createShiftItem(shift), firstSong));
+    songPage.items.forEach(song => mainList.appendChild(createSongItem(song)));
+
+    updateLoadMore();
+}
+
+function updateLoadMore() {
+    document.getElementById('load-more-btn').hidden = !shiftCursor && !songCursor;
+}
+
+function createShiftItem(shift) {
+    const li = createListItem(
+        '📅 Смена',
+        `${shift.date} (${getDayOfWeek(shift.date)})`,
+        shift.cost,
+        () => deleteShift(shift.id),
+        'var(--accent-primary)'
+    );
+    li.dataset.kind = 'shift';
+    li.dataset.id = shift.id;
+    li.dataset.date = shift.date;
+    return li;
+}
+
+function createSongItem(song) {
+    const li = createListItem(
+        '🎵 Песня',
+        `Вне очереди`,
+        song.cost,
+        () => deleteSong(song.id),
+        'var(--accent-secondary)'
+    );
+    li.dataset.kind = 'song';
+    li.dataset.id = song.id;
+    return li;
 }
 
 function createListItem(title, subtitle, cost, onDelete, color) {
@@ -119,42 +177,160 @@ function getDayOfWeek(dateString) {
 }
 
 async function createShift(shift) {
-    await fetch('/api/shifts', {
-        method: 'POST',
-        headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify(shift)
-    });
+    const response = await postIdempotent('/api/shifts', shift);
+    if (response.status === 409) {
+        alert('Смена на эту дату уже записана');
+    }
 }
 
 async function addSong(song) {
-    await fetch('/api/songs', {
-        method: 'POST',
-        headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify(song)
-    });
+    await postIdempotent('/api/songs', song);
+}
+
+// POST with an Idempotency-Key: retries after network errors or 5xx reuse
+// the key, so the server applies the operation at most once
+async function postIdempotent(url, body) {
+    const headers = { 'Idempotency-Key': crypto.randomUUID() };
+    if (body !== undefined) {
+        headers['Content-Type'] = 'application/json';
+    }
+    for (let attempt = 1; ; attempt++) {
+        try {
+            const response = await api(url, {
+                method: 'POST',
+                headers,
+                body: body !== undefined ? JSON.stringify(body) : undefined
+            });
+            if (response.status < 500 || attempt === 3) {
+                return response;
+            }
+        } catch (e) {
+            if (attempt === 3) throw e;
+        }
+        await new Promise(resolve => setTimeout(resolve, 500 * attempt));
+    }
 }
 
 async function deleteShift(id) {
     if (confirm('Удалить смену?')) {
-        await fetch(`/api/shifts/${id}`, { method: 'DELETE' });
-        loadData();
-        updateStats();
+        await api(`/api/shifts/${id}`, { method: 'DELETE' });
+        refreshIfDisconnected();
     }
 }
 
 async function deleteSong(id) {
     if (confirm('Удалить эту песню?')) {
-        await fetch(`/api/songs/${id}`, { method: 'DELETE' });
+        await api(`/api/songs/${id}`, { method: 'DELETE' });
+        refreshIfDisconnected();
+    }
+}
+
+// Live updates: the server pushes every committed change to /api/events,
+// so the page applies diffs instead of refetching the lists
+let eventsConnected = false;
+let reloadTimer = null;
+
+function connectEvents() {
+    if (!window.EventSource) {
+        return;
+    }
+    const source = new EventSource(`/api/events?tenant=${encodeURIComponent(TENANT)}`);
+    let wasDisconnected = false;
+
+    source.onopen = () => {
+        eventsConnected = true;
+        if (wasDisconnected) {
+            // Changes made while disconnected were missed: resync once
+            loadData();
+            updateStats();
+        }
+    };
+    source.onerror = () => {
+        eventsConnected = false;
+        wasDisconnected = true;
+    };
+
+    on(source, 'shift-created', shift => insertShift(shift));
+    on(source, 'shift-deleted', shift => removeItem('shift', shift.id));
+    on(source, 'song-created', song => insertSong(song));
+    on(source, 'song-deleted', song => removeItem('song', song.id));
+    on(source, 'shifts-imported', () => scheduleReload());
+    on(source, 'songs-imported', () => scheduleReload());
+    on(source, 'payout-progress', () => scheduleReload());
+    on(source, 'payout-completed', () => {});
+    on(source, 'ledger-reconciled', () => {});
+    on(source, 'archived', () => scheduleReload());
+}
+
+function on(source, type, apply) {
+    source.addEventListener(type, event => {
+        const change = JSON.parse(event.data);
+        apply(change.data);
+        applyEarnings(change.earnings);
+    });
+}
+
+function refreshIfDisconnected() {
+    if (!eventsConnected) {
         loadData();
         updateStats();
     }
 }
 
+function scheduleReload() {
+    // Imports arrive in many chunks: reload once after they settle
+    clearTimeout(reloadTimer);
+    reloadTimer = setTimeout(loadData, 500);
+}
+
+function findItem(kind, id) {
+    return document.querySelector(`#main-list [data-kind="${kind}"][data-id="${id}"]`);
+}
+
+function removeItem(kind, id) {
+    const li = findItem(kind, id);
+    if (li) {
+        li.remove();
+    }
+}
+
+function insertShift(shift) {
+    if (findItem('shift', shift.id)) {
+        return;
+    }
+    // Shifts are ordered by (date, id) descending
+    const mainList = document.getElementById('main-list');
+    const next = Array.from(mainList.querySelectorAll('[data-kind="shift"]')).find(li =>
+        li.dataset.date < shift.date || (li.dataset.date === shift.date && Number(li.dataset.id) < shift.id));
+    if (next) {
+        mainList.insertBefore(createShiftItem(shift), next);
+    } else if (!shiftCursor) {
+        // Older than everything loaded: only show it if there are no more pages
+        mainList.insertBefore(createShiftItem(shift), mainList.querySelector('[data-kind="song"]'));
+    }
+}
+
+function insertSong(song) {
+    if (findItem('song', song.id)) {
+        return;
+    }
+    // Songs are ordered by id descending
+    const mainList = document.getElementById('main-list');
+    const next = Array.from(mainList.querySelectorAll('[data-kind="song"]')).find(li =>
+        Number(li.dataset.id) < song.id);
+    if (next) {
+        mainList.insertBefore(createSongItem(song), next);
+    } else if (!songCursor) {
+        mainList.appendChild(createSongItem(song));
+    }
+}
+
+document.getElementById('load-more-btn').addEventListener('click', loadMore);
+
 document.getElementById('payout-btn').addEventListener('click', async () => {
     if (confirm('Вы уверены, что хотите забрать зарплату? Это обнулит текущий счетчик.')) {
-        await fetch('/api/stats/payout', { method: 'POST' });
-        loadData();
-        updateStats();
+        await postIdempotent('/api/stats/payout');
+        refreshIfDisconnected();
 
         // Confetti effect or simple alert
         alert('💰 Зарплата выдана! Банк обнулен.');
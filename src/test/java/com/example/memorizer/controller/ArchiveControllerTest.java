@@ -0,0 +1,116 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.dto.ArchiveResult;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.model.ArchiveRollup;
+import com.example.memorizer.model.ArchivedShift;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.service.ArchiveService;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link ArchiveController}.
+ *
+ * Тестируют REST API чтения архива и ручного запуска архивации.
+ */
+@WebMvcTest(ArchiveController.class)
+@Import(DataVersions.class)
+@DisplayName("ArchiveController Integration Tests")
+class ArchiveControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ArchiveService archiveService;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Test
+    @DisplayName("GET /api/archive/shifts должен передать фильтры и курсор в сервис")
+    void getShifts_ShouldReturnArchivePage() throws Exception {
+        // Arrange
+        ArchivedShift shift = new ArchivedShift(7L, 2024, "Я", LocalDate.of(2024, 3, 1),
+                LocalTime.of(10, 0), LocalTime.of(18, 0), 3000, 2L);
+        when(archiveService.findShifts(2024, "Я", "5", 1)).thenReturn(new KeysetPage<>(List.of(shift), "7"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/archive/shifts")
+                .param("year", "2024").param("workerName", "Я").param("cursor", "5").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].archiveYear", is(2024)))
+                .andExpect(jsonPath("$.nextCursor", is("7")));
+    }
+
+    @Test
+    @DisplayName("Смена, оплаченная до учета выплат, должна отдаваться с пустым payoutId")
+    void getShifts_LegacyPayout_ShouldReturnNullPayoutId() throws Exception {
+        // Arrange
+        ArchivedShift shift = new ArchivedShift(3L, 2023, "Я", LocalDate.of(2023, 5, 1),
+                LocalTime.of(10, 0), LocalTime.of(18, 0), 3000, null);
+        when(archiveService.findShifts(null, null, null, 50)).thenReturn(new KeysetPage<>(List.of(shift), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/archive/shifts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].archiveYear", is(2023)))
+                .andExpect(jsonPath("$.items[0].payoutId").value(nullValue()));
+    }
+
+    @Test
+    @DisplayName("Итоги архива должны отдавать 304, пока архив не изменился")
+    void getSummary_SameArchiveVersion_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(archiveService.getSummary())
+                .thenReturn(List.of(new ArchiveRollup("default", ItemType.SHIFT, 2024, 10, 30000)));
+        String etag = mockMvc.perform(get("/api/archive/summary"))
+                .andExpect(jsonPath("$[0].amount", is(30000)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        dataVersions.bump(Table.SHIFTS);
+        mockMvc.perform(get("/api/archive/summary").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        dataVersions.bump(Table.ARCHIVE);
+        mockMvc.perform(get("/api/archive/summary").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(archiveService, times(2)).getSummary();
+    }
+
+    @Test
+    @DisplayName("POST /api/archive/run должен запустить архивацию")
+    void archive_ShouldReturnMovedCounts() throws Exception {
+        // Arrange
+        when(archiveService.archiveSettled()).thenReturn(new ArchiveResult(Instant.parse("2025-01-01T00:00:00Z"), 120, 8));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/archive/run"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shifts", is(120)))
+                .andExpect(jsonPath("$.songs", is(8)));
+    }
+}
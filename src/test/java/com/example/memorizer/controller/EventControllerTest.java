@@ -0,0 +1,100 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.event.ShiftCreatedEvent;
+import com.example.memorizer.event.SongDeletedEvent;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.service.EarningsLedgerService;
+import com.example.memorizer.service.EventStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link EventController}.
+ * 
+ * Проверяют подписку на поток событий и формат отправляемых изменений.
+ */
+@WebMvcTest(EventController.class)
+@Import(EventStreamService.class)
+@DisplayName("EventController Integration Tests")
+class EventControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @MockBean
+    private EarningsLedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        // Рассылка в потоке теста, чтобы проверять ответ сразу
+        ReflectionTestUtils.setField(eventStreamService, "executor", (Executor) Runnable::run);
+        // Контекст общий для тестов: убираем подписчиков предыдущих тестов
+        ((Map<?, ?>) ReflectionTestUtils.getField(eventStreamService, "emitters")).clear();
+    }
+
+    @Test
+    @DisplayName("GET /api/events должен открыть поток событий")
+    void subscribe_ShouldStartEventStream() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/events"))
+                .andExpect(request().asyncStarted());
+        assertEquals(1, eventStreamService.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("Созданная смена должна отправляться подписчикам вместе с балансом")
+    void onEvent_ShouldSendChangeWithEarnings() throws Exception {
+        // Arrange
+        when(ledgerService.getEarnings()).thenReturn(new EarningsDTO(7000, 4000));
+        MvcResult result = mockMvc.perform(get("/api/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Shift shift = new Shift();
+        shift.setId(5L);
+        shift.setDate(LocalDate.of(2026, 3, 6));
+        shift.setCost(4000);
+
+        // Act
+        eventStreamService.onEvent(new ShiftCreatedEvent(shift));
+
+        // Assert
+        String body = result.getResponse().getContentAsString();
+        assertThat(body, containsString("event:shift-created"));
+        assertThat(body, containsString("\"id\":5"));
+        assertThat(body, containsString("\"currentBalance\":4000"));
+    }
+
+    @Test
+    @DisplayName("Без подписчиков баланс не должен запрашиваться")
+    void onEvent_WithoutSubscribers_ShouldSkipEarnings() {
+        // Act
+        eventStreamService.onEvent(new SongDeletedEvent(new Song()));
+
+        // Assert
+        verifyNoInteractions(ledgerService);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.service.journal.EventJournal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link JournalController}.
+ *
+ * Тестируют REST API заработка по журналу событий.
+ */
+@WebMvcTest(JournalController.class)
+@DisplayName("JournalController Integration Tests")
+class JournalControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EventJournal journal;
+
+    @Test
+    @DisplayName("GET /api/journal/earnings без момента должен вернуть текущий заработок")
+    void getEarnings_WithoutInstant_ShouldReturnCurrent() throws Exception {
+        // Arrange
+        when(journal.getEarnings()).thenReturn(new EarningsDTO(19000, 9000));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/journal/earnings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lifetimeEarnings", is(19000)))
+                .andExpect(jsonPath("$.currentBalance", is(9000)));
+    }
+
+    @Test
+    @DisplayName("GET /api/journal/earnings?at= должен передать момент времени в журнал")
+    void getEarnings_AtInstant_ShouldReplayJournal() throws Exception {
+        // Arrange
+        Instant at = Instant.parse("2026-03-01T00:00:00Z");
+        when(journal.getEarnings(at)).thenReturn(new EarningsDTO(15000, 5000));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/journal/earnings").param("at", "2026-03-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currentBalance", is(5000)));
+        verify(journal, never()).getEarnings();
+    }
+}
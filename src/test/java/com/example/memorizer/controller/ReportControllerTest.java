@@ -0,0 +1,85 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.dto.ReportSpec;
+import com.example.memorizer.service.report.ReportJob;
+import com.example.memorizer.service.report.ReportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link ReportController}.
+ *
+ * Тестируют REST API заказа фоновых отчетов и опроса заданий.
+ */
+@WebMvcTest(ReportController.class)
+@DisplayName("ReportController Integration Tests")
+class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportService reportService;
+
+    @Test
+    @DisplayName("POST /api/reports должен поставить отчет в очередь и вернуть 202")
+    void submit_ShouldReturnAccepted() throws Exception {
+        // Arrange
+        ReportSpec spec = new ReportSpec(ReportSpec.Type.WORKER_YEARLY, LocalDate.of(2026, 1, 1), null, "Я");
+        when(reportService.submit(spec)).thenReturn(new ReportJob("a1b2", spec, "default"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/reports")
+                .param("type", "Worker-Yearly")
+                .param("from", "2026-01-01")
+                .param("workerName", "Я"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is("a1b2")))
+                .andExpect(jsonPath("$.status", is("QUEUED")))
+                .andExpect(jsonPath("$.spec.type", is("worker-yearly")))
+                .andExpect(jsonPath("$.spec.from", is("2026-01-01")))
+                .andExpect(jsonPath("$.result", nullValue()))
+                .andExpect(jsonPath("$.tenantId").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("POST /api/reports с неизвестным видом отчета должен вернуть 400")
+    void submit_UnknownType_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/reports").param("type", "everything"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    @DisplayName("GET /api/reports/{id} должен вернуть задание или 404")
+    void getJob_ShouldReturnJobOrNotFound() throws Exception {
+        // Arrange
+        ReportSpec spec = new ReportSpec(ReportSpec.Type.SONGS_BY_ADDED_BY, null, null, null);
+        when(reportService.getJob("a1b2")).thenReturn(new ReportJob("a1b2", spec, "default"));
+        when(reportService.getJob("missing"))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Отчет не найден: missing"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/reports/a1b2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.spec.type", is("songs-by-added-by")));
+        mockMvc.perform(get("/api/reports/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,6 +1,14 @@
 package com.example.memorizer.controller;
 
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.ShiftFilter;
 import com.example.memorizer.model.Shift;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.IdempotencyStore;
+import com.example.memorizer.service.ExportService;
+import com.example.memorizer.service.ExportService.ExportFormat;
 import com.example.memorizer.service.ShiftService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,17 +17,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,6 +49,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Тестируют REST API эндпоинты для управления сменами.
  */
 @WebMvcTest(ShiftController.class)
+@Import({DataVersions.class, IdempotencyStore.class})
 @DisplayName("ShiftController Integration Tests")
 class ShiftControllerTest {
 
@@ -39,6 +59,9 @@ class ShiftControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockBean
+    private ExportService exportService;
+
     @MockBean
     private ShiftService shiftService;
 
@@ -57,8 +80,8 @@ class ShiftControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/shifts должен вернуть список всех смен")
-    void getAllShifts_ShouldReturnListOfShifts() throws Exception {
+    @DisplayName("GET /api/shifts должен вернуть страницу смен")
+    void getShifts_ShouldReturnPageOfShifts() throws Exception {
         // Arrange
         Shift shift2 = new Shift();
         shift2.setId(2L);
@@ -67,20 +90,87 @@ class ShiftControllerTest {
         shift2.setCost(4000);
 
         List<Shift> shifts = Arrays.asList(testShift, shift2);
-        when(shiftService.getAllShifts()).thenReturn(shifts);
+        when(shiftService.findShifts(any(), isNull(), eq(50)))
+                .thenReturn(new KeysetPage<>(shifts, "2025-01-24:2"));
 
         // Act & Assert
         mockMvc.perform(get("/api/shifts"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].id", is(1)))
-                .andExpect(jsonPath("$[0].workerName", is("Тестовый работник")))
-                .andExpect(jsonPath("$[0].cost", is(3000)))
-                .andExpect(jsonPath("$[1].id", is(2)))
-                .andExpect(jsonPath("$[1].cost", is(4000)));
-
-        verify(shiftService, times(1)).getAllShifts();
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is(1)))
+                .andExpect(jsonPath("$.items[0].workerName", is("Тестовый работник")))
+                .andExpect(jsonPath("$.items[0].cost", is(3000)))
+                .andExpect(jsonPath("$.items[1].id", is(2)))
+                .andExpect(jsonPath("$.items[1].cost", is(4000)))
+                .andExpect(jsonPath("$.nextCursor", is("2025-01-24:2")));
+
+        verify(shiftService, times(1)).findShifts(any(), isNull(), eq(50));
+    }
+
+    @Test
+    @DisplayName("GET /api/shifts?format=compact должен вернуть столбцы и записи массивами")
+    void getShifts_Compact_ShouldReturnRowsAsArrays() throws Exception {
+        // Arrange
+        when(shiftService.findShiftsCompact(any(), isNull(), eq(50))).thenReturn(new CompactPage(
+                List.of("id", "date", "workerName", "cost", "paid"),
+                List.<Object[]>of(new Object[] {1L, LocalDate.of(2025, 1, 20), "Тестовый работник", 3000, false}),
+                "2025-01-20:1"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shifts").param("format", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.columns[1]", is("date")))
+                .andExpect(jsonPath("$.rows", hasSize(1)))
+                .andExpect(jsonPath("$.rows[0][0]", is(1)))
+                .andExpect(jsonPath("$.rows[0][1]", is("2025-01-20")))
+                .andExpect(jsonPath("$.rows[0][3]", is(3000)))
+                .andExpect(jsonPath("$.nextCursor", is("2025-01-20:1")));
+
+        verify(shiftService, never()).findShifts(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/shifts с актуальным ETag должен вернуть 304 без обращения к сервису")
+    void getShifts_WithMatchingEtag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(shiftService.findShifts(any(), isNull(), eq(50)))
+                .thenReturn(new KeysetPage<>(List.of(testShift), null));
+        String etag = mockMvc.perform(get("/api/shifts"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shifts").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        verify(shiftService, times(1)).findShifts(any(), isNull(), eq(50));
+    }
+
+    @Test
+    @DisplayName("GET /api/shifts должен передать фильтры и курсор в сервис")
+    void getShifts_ShouldPassFiltersAndCursor() throws Exception {
+        // Arrange
+        ShiftFilter expected = new ShiftFilter("Я", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), false);
+        when(shiftService.findShifts(expected, "2025-01-20:7", 10))
+                .thenReturn(new KeysetPage<>(List.of(testShift), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shifts")
+                .param("workerName", "Я")
+                .param("from", "2025-01-01")
+                .param("to", "2025-01-31")
+                .param("paid", "false")
+                .param("cursor", "2025-01-20:7")
+                .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(shiftService, times(1)).findShifts(expected, "2025-01-20:7", 10);
     }
 
     @Test
@@ -116,6 +206,18 @@ class ShiftControllerTest {
         verify(shiftService, times(1)).deleteShift(shiftId);
     }
 
+    @Test
+    @DisplayName("DELETE /api/shifts/{id} должен вернуть 409, если запись одновременно изменила выплата")
+    void deleteShift_ConcurrentPayout_ShouldReturnConflict() throws Exception {
+        // Arrange
+        doThrow(new ResponseStatusException(HttpStatus.CONFLICT, "изменена другой операцией"))
+                .when(shiftService).deleteShift(1L);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/shifts/{id}", 1L))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("POST /api/shifts с валидными данными должен вернуть 200")
     void createShift_WithValidData_ShouldReturn200() throws Exception {
@@ -138,4 +240,127 @@ class ShiftControllerTest {
 
         verify(shiftService, times(1)).createShift(any(Shift.class));
     }
+
+    @Test
+    @DisplayName("POST /api/shifts/batch должен принимать NDJSON-поток")
+    void importShifts_Ndjson_ShouldImportAllRows() throws Exception {
+        // Arrange
+        List<Shift> received = new ArrayList<>();
+        when(shiftService.importShifts(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Shift>>getArgument(0).forEachRemaining(received::add);
+            return new BatchImportResult(received.size(), 7000);
+        });
+        String body = """
+                {"workerName":"Анна","date":"2026-03-06"}
+                {"workerName":"Иван","date":"2026-03-09"}
+                """;
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.totalCost", is(7000)));
+
+        assertEquals("Анна", received.get(0).getWorkerName());
+        assertEquals(LocalDate.of(2026, 3, 9), received.get(1).getDate());
+    }
+
+    @Test
+    @DisplayName("POST /api/shifts/batch должен принимать JSON-массив")
+    void importShifts_JsonArray_ShouldImportAllRows() throws Exception {
+        // Arrange
+        List<Shift> received = new ArrayList<>();
+        when(shiftService.importShifts(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Shift>>getArgument(0).forEachRemaining(received::add);
+            return new BatchImportResult(received.size(), 3000);
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"workerName\":\"Анна\",\"date\":\"2026-03-09\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+
+        assertEquals(1, received.size());
+        assertEquals("Анна", received.get(0).getWorkerName());
+    }
+
+    @Test
+    @DisplayName("POST /api/shifts/batch с тем же Idempotency-Key и другим телом должен вернуть 422")
+    void importShifts_SameKeyDifferentBody_ShouldReturnUnprocessable() throws Exception {
+        // Arrange
+        when(shiftService.importShifts(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Shift>>getArgument(0).forEachRemaining(shift -> { });
+            return new BatchImportResult(1, 3000);
+        });
+        mockMvc.perform(post("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(IdempotencyStore.HEADER, "import-1")
+                .content("{\"workerName\":\"Анна\",\"date\":\"2026-03-09\"}"))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(IdempotencyStore.HEADER, "import-1")
+                .content("{\"workerName\":\"Иван\",\"date\":\"2026-03-09\"}"))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(IdempotencyStore.HEADER, "import-1")
+                .content("{\"workerName\":\"Анна\",\"date\":\"2026-03-09\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+
+        verify(shiftService, times(1)).importShifts(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/shifts/batch с некорректным JSON должен вернуть 400")
+    void importShifts_MalformedJson_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        when(shiftService.importShifts(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Shift>>getArgument(0).forEachRemaining(shift -> { });
+            return new BatchImportResult(0, 0);
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"date\":\"не дата\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/shifts/export должен выгрузить смены в CSV с фильтром по датам")
+    void exportShifts_Csv_ShouldStreamWithDateFilter() throws Exception {
+        // Arrange
+        ShiftFilter expectedFilter = new ShiftFilter(null, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), null);
+        doAnswer(invocation -> {
+            invocation.<Writer>getArgument(2).write("id,workerName\n1,Анна\n");
+            return null;
+        }).when(exportService).exportShifts(eq(expectedFilter), eq(ExportFormat.CSV), any());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shifts/export")
+                .param("from", "2025-01-01")
+                .param("to", "2025-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"shifts.csv\""))
+                .andExpect(content().string("id,workerName\n1,Анна\n"));
+    }
+
+    @Test
+    @DisplayName("GET /api/shifts/export с неизвестным форматом должен вернуть 400")
+    void exportShifts_UnknownFormat_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/shifts/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
 }
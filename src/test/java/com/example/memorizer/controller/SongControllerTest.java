@@ -1,6 +1,13 @@
 package com.example.memorizer.controller;
 
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.SongFilter;
 import com.example.memorizer.model.Song;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.IdempotencyStore;
+import com.example.memorizer.service.ExportService;
+import com.example.memorizer.service.ExportService.ExportFormat;
 import com.example.memorizer.service.SongService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,15 +16,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,6 +44,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Тестируют REST API эндпоинты для управления песнями.
  */
 @WebMvcTest(SongController.class)
+@Import({DataVersions.class, IdempotencyStore.class})
 @DisplayName("SongController Integration Tests")
 class SongControllerTest {
 
@@ -37,6 +54,9 @@ class SongControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @MockBean
+    private ExportService exportService;
+
     @MockBean
     private SongService songService;
 
@@ -54,8 +74,8 @@ class SongControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/songs должен вернуть список всех песен")
-    void getAllSongs_ShouldReturnListOfSongs() throws Exception {
+    @DisplayName("GET /api/songs должен вернуть страницу песен")
+    void getSongs_ShouldReturnPageOfSongs() throws Exception {
         // Arrange
         Song song2 = new Song();
         song2.setId(2L);
@@ -64,19 +84,39 @@ class SongControllerTest {
         song2.setCost(1000);
 
         List<Song> songs = Arrays.asList(testSong, song2);
-        when(songService.getAllSongs()).thenReturn(songs);
+        when(songService.findSongs(any(), isNull(), eq(50))).thenReturn(new KeysetPage<>(songs, "2"));
 
         // Act & Assert
         mockMvc.perform(get("/api/songs"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].id", is(1)))
-                .andExpect(jsonPath("$[0].title", is("Тестовая песня")))
-                .andExpect(jsonPath("$[0].cost", is(1000)))
-                .andExpect(jsonPath("$[1].id", is(2)));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is(1)))
+                .andExpect(jsonPath("$.items[0].title", is("Тестовая песня")))
+                .andExpect(jsonPath("$.items[0].cost", is(1000)))
+                .andExpect(jsonPath("$.items[1].id", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is("2")));
+
+        verify(songService, times(1)).findSongs(any(), isNull(), eq(50));
+    }
+
+    @Test
+    @DisplayName("GET /api/songs должен передать фильтры и курсор в сервис")
+    void getSongs_ShouldPassFiltersAndCursor() throws Exception {
+        // Arrange
+        SongFilter expected = new SongFilter("Гость", true);
+        when(songService.findSongs(expected, "10", 5)).thenReturn(new KeysetPage<>(List.of(testSong), null));
 
-        verify(songService, times(1)).getAllSongs();
+        // Act & Assert
+        mockMvc.perform(get("/api/songs")
+                .param("addedBy", "Гость")
+                .param("paid", "true")
+                .param("cursor", "10")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)));
+
+        verify(songService, times(1)).findSongs(expected, "10", 5);
     }
 
     @Test
@@ -98,6 +138,26 @@ class SongControllerTest {
         verify(songService, times(1)).addSong(any(Song.class));
     }
 
+    @Test
+    @DisplayName("POST /api/songs с повторным Idempotency-Key не должен создавать песню повторно")
+    void addSong_RetryWithSameIdempotencyKey_ShouldCreateOnce() throws Exception {
+        // Arrange
+        when(songService.addSong(any(Song.class))).thenReturn(testSong);
+        String body = objectMapper.writeValueAsString(testSong);
+
+        // Act & Assert
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/songs")
+                    .header(IdempotencyStore.HEADER, "retry-song-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id", is(1)));
+        }
+
+        verify(songService, times(1)).addSong(any(Song.class));
+    }
+
     @Test
     @DisplayName("DELETE /api/songs/{id} должен удалить песню")
     void deleteSong_ShouldCallServiceDelete() throws Exception {
@@ -112,6 +172,18 @@ class SongControllerTest {
         verify(songService, times(1)).deleteSong(songId);
     }
 
+    @Test
+    @DisplayName("DELETE /api/songs/{id} должен вернуть 409, если запись одновременно изменила выплата")
+    void deleteSong_ConcurrentPayout_ShouldReturnConflict() throws Exception {
+        // Arrange
+        doThrow(new ResponseStatusException(HttpStatus.CONFLICT, "изменена другой операцией"))
+                .when(songService).deleteSong(1L);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/songs/{id}", 1L))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("POST /api/songs должен установить стоимость 1000")
     void addSong_ShouldSetCostTo1000() throws Exception {
@@ -132,4 +204,42 @@ class SongControllerTest {
 
         verify(songService, times(1)).addSong(any(Song.class));
     }
+
+    @Test
+    @DisplayName("POST /api/songs/batch должен принимать JSON-массив песен")
+    void importSongs_JsonArray_ShouldImportAllRows() throws Exception {
+        // Arrange
+        List<Song> received = new ArrayList<>();
+        when(songService.importSongs(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Song>>getArgument(0).forEachRemaining(received::add);
+            return new BatchImportResult(received.size(), 1000L * received.size());
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/songs/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(testSong, testSong))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.totalCost", is(2000)));
+
+        assertEquals("Тестовая песня", received.get(1).getTitle());
+    }
+
+    @Test
+    @DisplayName("GET /api/songs/export?format=ndjson должен выгрузить песни в NDJSON")
+    void exportSongs_Ndjson_ShouldStream() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            invocation.<Writer>getArgument(2).write("{\"id\":1}\n");
+            return null;
+        }).when(exportService).exportSongs(any(), eq(ExportFormat.NDJSON), any());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/songs/export").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"songs.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
 }
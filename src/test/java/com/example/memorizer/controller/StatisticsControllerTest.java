@@ -1,26 +1,39 @@
 package com.example.memorizer.controller;
 
-import com.example.memorizer.model.Shift;
-import com.example.memorizer.model.Song;
-import com.example.memorizer.repository.ShiftRepository;
-import com.example.memorizer.repository.SongRepository;
-import org.junit.jupiter.api.BeforeEach;
+import com.example.memorizer.dto.BreakdownDTO;
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.dto.PayoutScope;
+import com.example.memorizer.dto.ShiftEarningsDTO;
+import com.example.memorizer.dto.ShiftReportDTO;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.model.PayoutStatus;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.IdempotencyStore;
+import com.example.memorizer.service.DataVersions.Table;
+import com.example.memorizer.service.EarningsHistoryService;
+import com.example.memorizer.service.EarningsLedgerService;
+import com.example.memorizer.service.PayoutService;
+import com.example.memorizer.service.StatisticsService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.Arrays;
+import java.time.YearMonth;
 import java.util.Collections;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.ArgumentMatchers.any;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +45,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * и выполнения выплат (обнуления баланса).
  */
 @WebMvcTest(StatisticsController.class)
+@Import({DataVersions.class, IdempotencyStore.class})
 @DisplayName("StatisticsController Integration Tests")
 class StatisticsControllerTest {
 
@@ -39,80 +53,63 @@ class StatisticsControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private ShiftRepository shiftRepository;
+    private EarningsLedgerService ledgerService;
 
     @MockBean
-    private SongRepository songRepository;
-
-    private Shift testShift;
-    private Song testSong;
-
-    @BeforeEach
-    void setUp() {
-        testShift = new Shift();
-        testShift.setId(1L);
-        testShift.setWorkerName("Я");
-        testShift.setDate(LocalDate.of(2025, 1, 20));
-        testShift.setStartTime(LocalTime.of(0, 0));
-        testShift.setEndTime(LocalTime.of(23, 59));
-        testShift.setCost(3000);
-        testShift.setPaid(false);
-
-        testSong = new Song();
-        testSong.setId(1L);
-        testSong.setTitle("Песня");
-        testSong.setArtist("Вне очереди");
-        testSong.setAddedBy("Гость");
-        testSong.setCost(1000);
-        testSong.setPaid(false);
-    }
+    private EarningsHistoryService historyService;
+
+    @MockBean
+    private PayoutService payoutService;
+
+    @MockBean
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private DataVersions dataVersions;
 
     @Test
-    @DisplayName("GET /api/stats/earnings должен вернуть корректную статистику")
-    void getEarnings_ShouldReturnCorrectStatistics() throws Exception {
+    @DisplayName("GET /api/stats/earnings должен вернуть статистику из журнала")
+    void getEarnings_ShouldReturnLedgerStatistics() throws Exception {
         // Arrange
-        when(shiftRepository.findAll()).thenReturn(Collections.singletonList(testShift));
-        when(songRepository.findAll()).thenReturn(Collections.singletonList(testSong));
+        when(ledgerService.getEarnings()).thenReturn(new EarningsDTO(7000, 4000));
 
         // Act & Assert
         mockMvc.perform(get("/api/stats/earnings"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.lifetimeEarnings", is(4000))) // 3000 + 1000
-                .andExpect(jsonPath("$.currentBalance", is(4000))); // все неоплачено
+                .andExpect(jsonPath("$.lifetimeEarnings", is(7000)))
+                .andExpect(jsonPath("$.currentBalance", is(4000)));
 
-        verify(shiftRepository, times(1)).findAll();
-        verify(songRepository, times(1)).findAll();
+        verify(ledgerService, times(1)).getEarnings();
     }
 
     @Test
-    @DisplayName("GET /api/stats/earnings с оплаченными записями должен вернуть только текущий баланс")
-    void getEarnings_WithPaidItems_ShouldReturnOnlyCurrentBalance() throws Exception {
+    @DisplayName("GET /api/stats/earnings должен вернуть новые данные после изменения версии")
+    void getEarnings_AfterVersionBump_ShouldReturnFreshData() throws Exception {
         // Arrange
-        Shift paidShift = new Shift();
-        paidShift.setId(2L);
-        paidShift.setCost(3000);
-        paidShift.setPaid(true);
+        when(ledgerService.getEarnings()).thenReturn(new EarningsDTO(7000, 4000), new EarningsDTO(8000, 5000));
+        String etag = mockMvc.perform(get("/api/stats/earnings"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/stats/earnings").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
 
-        when(shiftRepository.findAll()).thenReturn(Arrays.asList(testShift, paidShift));
-        when(songRepository.findAll()).thenReturn(Collections.singletonList(testSong));
+        // Act
+        dataVersions.bump(Table.LEDGER);
 
-        // Act & Assert
-        mockMvc.perform(get("/api/stats/earnings"))
+        // Assert
+        mockMvc.perform(get("/api/stats/earnings").header(HttpHeaders.IF_NONE_MATCH, etag))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.lifetimeEarnings", is(7000))) // 3000 + 3000 + 1000
-                .andExpect(jsonPath("$.currentBalance", is(4000))); // только неоплаченные
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.lifetimeEarnings", is(8000)));
 
-        verify(shiftRepository, times(1)).findAll();
-        verify(songRepository, times(1)).findAll();
+        verify(ledgerService, times(2)).getEarnings();
     }
 
     @Test
     @DisplayName("GET /api/stats/earnings без данных должен вернуть нули")
     void getEarnings_WithNoData_ShouldReturnZeros() throws Exception {
         // Arrange
-        when(shiftRepository.findAll()).thenReturn(Collections.emptyList());
-        when(songRepository.findAll()).thenReturn(Collections.emptyList());
+        when(ledgerService.getEarnings()).thenReturn(new EarningsDTO(0, 0));
 
         // Act & Assert
         mockMvc.perform(get("/api/stats/earnings"))
@@ -122,56 +119,193 @@ class StatisticsControllerTest {
     }
 
     @Test
-    @DisplayName("POST /api/stats/payout должен пометить все записи как оплаченные")
-    void payout_ShouldMarkAllItemsAsPaid() throws Exception {
+    @DisplayName("GET /api/stats/earnings с датой или периодом должен считать заработок по индексу дат смен")
+    void getEarnings_WithDates_ShouldUseHistoryIndex() throws Exception {
         // Arrange
-        when(shiftRepository.findAll()).thenReturn(Collections.singletonList(testShift));
-        when(songRepository.findAll()).thenReturn(Collections.singletonList(testSong));
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
-        when(songRepository.save(any(Song.class))).thenReturn(testSong);
+        LocalDate asOf = LocalDate.of(2026, 3, 1);
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        when(historyService.getEarningsAsOf(asOf)).thenReturn(new ShiftEarningsDTO(null, asOf, 9000, 3000));
+        when(historyService.getEarningsBetween(from, null)).thenReturn(new ShiftEarningsDTO(from, null, 5000, 0));
 
         // Act & Assert
-        mockMvc.perform(post("/api/stats/payout"))
-                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/stats/earnings").param("asOf", "2026-03-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.to", is("2026-03-01")))
+                .andExpect(jsonPath("$.shiftsTotal", is(9000)))
+                .andExpect(jsonPath("$.shiftsUnpaidNow", is(3000)))
+                .andExpect(jsonPath("$.currentBalance").doesNotExist());
+        mockMvc.perform(get("/api/stats/earnings").param("from", "2026-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from", is("2026-01-01")))
+                .andExpect(jsonPath("$.shiftsTotal", is(5000)));
+        mockMvc.perform(get("/api/stats/earnings").param("asOf", "01.03.2026"))
+                .andExpect(status().isBadRequest());
+
+        verify(ledgerService, never()).getEarnings();
+    }
+
+    @Test
+    @DisplayName("GET /api/stats/breakdown должен вернуть детализацию по выбранной группировке")
+    void getBreakdown_ShouldReturnRows() throws Exception {
+        // Arrange
+        BreakdownDTO breakdown = new BreakdownDTO("month", 7000, 4000,
+                List.of(new BreakdownDTO.Row(ItemType.SHIFT, "2026-01", 2, 6000, 3000)));
+        when(statisticsService.getBreakdown(StatisticsService.BreakdownGroup.MONTH)).thenReturn(breakdown);
 
-        verify(shiftRepository, times(1)).findAll();
-        verify(songRepository, times(1)).findAll();
-        verify(shiftRepository, times(1)).save(any(Shift.class));
-        verify(songRepository, times(1)).save(any(Song.class));
+        // Act & Assert
+        mockMvc.perform(get("/api/stats/breakdown").param("by", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groupBy", is("month")))
+                .andExpect(jsonPath("$.lifetimeEarnings", is(7000)))
+                .andExpect(jsonPath("$.rows", hasSize(1)))
+                .andExpect(jsonPath("$.rows[0].key", is("2026-01")))
+                .andExpect(jsonPath("$.rows[0].unpaid", is(3000)));
     }
 
     @Test
-    @DisplayName("POST /api/stats/payout с уже оплаченными записями не должен их пересохранять")
-    void payout_WithAlreadyPaidItems_ShouldNotResaveThem() throws Exception {
+    @DisplayName("GET /api/stats/breakdown с неизвестной группировкой должен вернуть 400")
+    void getBreakdown_UnknownGroup_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/stats/breakdown").param("by", "day"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(statisticsService);
+    }
+
+    @Test
+    @DisplayName("GET /api/stats/workers должен разобрать период и вернуть отчет по работникам")
+    void getWorkerReport_ShouldParsePeriod() throws Exception {
         // Arrange
-        testShift.setPaid(true);
-        testSong.setPaid(true);
+        ShiftReportDTO report = new ShiftReportDTO("worker", "2026-01", "2026-03", 7000, 4000,
+                List.of(new ShiftReportDTO.Row("Аня", 2, 7000, 4000)));
+        when(statisticsService.getWorkerReport(YearMonth.of(2026, 1), YearMonth.of(2026, 3))).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/stats/workers").param("from", "2026-01").param("to", "2026-03"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.total", is(7000)))
+                .andExpect(jsonPath("$.rows", hasSize(1)))
+                .andExpect(jsonPath("$.rows[0].key", is("Аня")));
+    }
+
+    @Test
+    @DisplayName("GET /api/stats/monthly должен передать работника и отдавать 304, пока смены не изменились")
+    void getMonthlyReport_SameShiftVersion_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(statisticsService.getMonthlyReport("Я", null, null)).thenReturn(new ShiftReportDTO("month", null, null,
+                3000, 0, List.of(new ShiftReportDTO.Row("2026-01", 1, 3000, 0))));
+        String etag = mockMvc.perform(get("/api/stats/monthly").param("worker", "Я"))
+                .andExpect(jsonPath("$.rows[0].key", is("2026-01")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        dataVersions.bump(Table.SONGS);
+        mockMvc.perform(get("/api/stats/monthly").param("worker", "Я").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
 
-        when(shiftRepository.findAll()).thenReturn(Collections.singletonList(testShift));
-        when(songRepository.findAll()).thenReturn(Collections.singletonList(testSong));
+        dataVersions.bump(Table.SHIFTS);
+        mockMvc.perform(get("/api/stats/monthly").param("worker", "Я").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(statisticsService, times(2)).getMonthlyReport("Я", null, null);
+    }
+
+    @Test
+    @DisplayName("GET /api/stats/workers с некорректным месяцем должен вернуть 400")
+    void getWorkerReport_InvalidMonth_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/stats/workers").param("from", "2026-13"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(statisticsService);
+    }
+
+    @Test
+    @DisplayName("POST /api/stats/payout должен вернуть выполненную выплату")
+    void payout_ShouldReturnPayoutBatch() throws Exception {
+        // Arrange
+        PayoutBatch batch = new PayoutBatch(5L, Instant.parse("2026-01-20T10:00:00Z"), 4000, 1, 3000, 1, 1000);
+        when(payoutService.payout()).thenReturn(batch);
 
         // Act & Assert
         mockMvc.perform(post("/api/stats/payout"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(5)))
+                .andExpect(jsonPath("$.amount", is(4000)))
+                .andExpect(jsonPath("$.shiftCount", is(1)))
+                .andExpect(jsonPath("$.songCount", is(1)));
+
+        verify(payoutService, times(1)).payout();
+    }
+
+    @Test
+    @DisplayName("POST /api/stats/payout с областью должен вернуть 202 с начатой выплатой")
+    void payout_WithScope_ShouldAcceptScope() throws Exception {
+        // Arrange
+        PayoutScope scope = new PayoutScope("Я", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), 10000L);
+        PayoutBatch batch = new PayoutBatch(6L, Instant.parse("2026-02-01T10:00:00Z"), 0, 0, 0, 0, 0);
+        batch.setWorkerName("Я");
+        batch.setStatus(PayoutStatus.IN_PROGRESS);
+        when(payoutService.payout(scope)).thenReturn(batch);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/stats/payout").param("workerName", "Я")
+                .param("from", "2026-01-01").param("to", "2026-01-31").param("maxAmount", "10000"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is(6)))
+                .andExpect(jsonPath("$.workerName", is("Я")))
+                .andExpect(jsonPath("$.status", is("IN_PROGRESS")));
+
+        verify(payoutService, never()).payout();
+    }
+
+    @Test
+    @DisplayName("POST /api/stats/payout с тем же Idempotency-Key и другой областью должен вернуть 422")
+    void payout_SameKeyDifferentScope_ShouldReturnUnprocessable() throws Exception {
+        // Arrange
+        PayoutBatch batch = new PayoutBatch(5L, Instant.parse("2026-01-20T10:00:00Z"), 4000, 1, 3000, 1, 1000);
+        when(payoutService.payout()).thenReturn(batch);
+        mockMvc.perform(post("/api/stats/payout").header(IdempotencyStore.HEADER, "payout-1"))
                 .andExpect(status().isOk());
 
-        verify(shiftRepository, times(1)).findAll();
-        verify(songRepository, times(1)).findAll();
-        verify(shiftRepository, never()).save(any(Shift.class)); // не должен сохранять
-        verify(songRepository, never()).save(any(Song.class)); // не должен сохранять
+        // Act & Assert
+        mockMvc.perform(post("/api/stats/payout").header(IdempotencyStore.HEADER, "payout-1")
+                .param("workerName", "Я"))
+                .andExpect(status().isUnprocessableEntity());
+        mockMvc.perform(post("/api/stats/payout").header(IdempotencyStore.HEADER, "payout-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(5)));
+
+        verify(payoutService, times(1)).payout();
+        verify(payoutService, never()).payout(any(PayoutScope.class));
     }
 
     @Test
-    @DisplayName("GET /api/stats/earnings должен игнорировать записи с null cost")
-    void getEarnings_ShouldIgnoreNullCosts() throws Exception {
+    @DisplayName("GET /api/stats/payouts/{id} должен вернуть ход незавершенной выплаты")
+    void getPayout_InProgress_ShouldReturnProgress() throws Exception {
         // Arrange
-        testShift.setCost(null);
-        when(shiftRepository.findAll()).thenReturn(Collections.singletonList(testShift));
-        when(songRepository.findAll()).thenReturn(Collections.singletonList(testSong));
+        PayoutBatch batch = new PayoutBatch(7L, Instant.parse("2026-02-01T10:00:00Z"), 15000, 5, 15000, 0, 0);
+        batch.setStatus(PayoutStatus.IN_PROGRESS);
+        when(payoutService.getPayout(7L)).thenReturn(batch);
 
         // Act & Assert
-        mockMvc.perform(get("/api/stats/earnings"))
+        mockMvc.perform(get("/api/stats/payouts/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("IN_PROGRESS")))
+                .andExpect(jsonPath("$.shiftCount", is(5)));
+    }
+
+    @Test
+    @DisplayName("GET /api/stats/payouts должен вернуть историю выплат")
+    void getRecentPayouts_ShouldReturnHistory() throws Exception {
+        // Arrange
+        PayoutBatch batch = new PayoutBatch(5L, Instant.parse("2026-01-20T10:00:00Z"), 4000, 1, 3000, 1, 1000);
+        when(payoutService.getRecentPayouts()).thenReturn(Collections.singletonList(batch));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/stats/payouts"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.lifetimeEarnings", is(1000))) // только песня
-                .andExpect(jsonPath("$.currentBalance", is(1000)));
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(5)));
     }
 }
@@ -0,0 +1,82 @@
+package com.example.memorizer.controller;
+
+import com.example.memorizer.model.Tenant;
+import com.example.memorizer.service.TenantService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Интеграционные тесты для {@link TenantController}.
+ *
+ * Тестируют REST API реестра арендаторов.
+ */
+@WebMvcTest(TenantController.class)
+@DisplayName("TenantController Integration Tests")
+class TenantControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TenantService tenantService;
+
+    @Test
+    @DisplayName("GET /api/tenants должен вернуть список арендаторов")
+    void getTenants_ShouldReturnList() throws Exception {
+        // Arrange
+        when(tenantService.findAll()).thenReturn(List.of(
+                new Tenant("bar-2", "Бар на Невском", Instant.now()),
+                new Tenant("default", "default", Instant.now())));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tenants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is("bar-2")))
+                .andExpect(jsonPath("$[0].name", is("Бар на Невском")));
+    }
+
+    @Test
+    @DisplayName("POST /api/tenants должен зарегистрировать арендатора и вернуть 201")
+    void createTenant_ShouldReturnCreated() throws Exception {
+        // Arrange
+        when(tenantService.create("bar-2", "Бар")).thenReturn(new Tenant("bar-2", "Бар", Instant.now()));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/tenants")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"bar-2\",\"name\":\"Бар\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is("bar-2")));
+    }
+
+    @Test
+    @DisplayName("POST /api/tenants с существующим идентификатором должен вернуть 409")
+    void createTenant_Duplicate_ShouldReturnConflict() throws Exception {
+        // Arrange
+        when(tenantService.create("default", null))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Арендатор уже существует: default"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/tenants")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":\"default\"}"))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.memorizer.repository;
+
+import com.example.memorizer.config.SchemaIndexCheck;
+import com.example.memorizer.config.TenantIdentifierResolver;
+import com.example.memorizer.dto.DayTotals;
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.service.ShiftRollupService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Интеграционные тесты запросов репозиториев на H2.
+ *
+ * Схему создают миграции Flyway, Hibernate проверяет её
+ * ({@code ddl-auto=validate}), а {@link SchemaIndexCheck} сверяет индексы
+ * при старте контекста. Нативные и массовые запросы выполняются
+ * на настоящей базе; строки второго арендатора ({@code acme}) вставляются
+ * напрямую, и запросы не должны их затрагивать.
+ */
+@DataJpaTest
+@Import({TenantIdentifierResolver.class, SchemaIndexCheck.class})
+@DisplayName("Repository Queries Tests")
+class RepositoryQueriesTest {
+
+    private static final String TENANT = "default";
+
+    private static final String OTHER_TENANT = "acme";
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ShiftRollupRepository rollupRepository;
+
+    @Autowired
+    private ArchivedShiftRepository archivedShiftRepository;
+
+    @Autowired
+    private ArchivedSongRepository archivedSongRepository;
+
+    @Autowired
+    private ArchiveRollupRepository archiveRollupRepository;
+
+    @Autowired
+    private EarningsLedgerRepository ledgerRepository;
+
+    private void insertShift(String tenant, long id, String workerName, LocalDate date, int cost, boolean paid,
+            Long payoutId) {
+        jdbcTemplate.update("insert into shift (tenant_id, id, worker_name, date, start_time, end_time, cost, paid, "
+                + "payout_id, version) values (?, ?, ?, ?, time '09:00:00', time '18:00:00', ?, ?, ?, 0)",
+                tenant, id, workerName, Date.valueOf(date), cost, paid, payoutId);
+    }
+
+    private void insertSong(String tenant, long id, String title, int cost, boolean paid, Long payoutId) {
+        jdbcTemplate.update("insert into song (tenant_id, id, title, artist, added_by, cost, paid, payout_id, version) "
+                + "values (?, ?, ?, 'Artist', 'Я', ?, ?, ?, 0)", tenant, id, title, cost, paid, payoutId);
+    }
+
+    private void insertPayout(String tenant, long id, LocalDateTime createdAt) {
+        jdbcTemplate.update("insert into payout_batch (tenant_id, id, created_at, amount, shift_count, shift_amount, "
+                + "song_count, song_amount, status) values (?, ?, ?, 0, 0, 0, 0, 0, 'COMPLETED')",
+                tenant, id, Timestamp.valueOf(createdAt));
+    }
+
+    private void mergeRollup(String tenant, String workerName, int year, int month, boolean paid, long count,
+            long amount) {
+        jdbcTemplate.update(ShiftRollupService.MERGE_SQL, tenant, workerName, year, month, paid, count, amount);
+    }
+
+    private long rollupAmount(String tenant, String workerName, int year, int month, boolean paid) {
+        List<Long> amounts = jdbcTemplate.queryForList("select amount from shift_rollup where tenant_id = ? "
+                + "and worker_name = ? and period_year = ? and period_month = ? and paid = ?",
+                Long.class, tenant, workerName, year, month, paid);
+        return amounts.isEmpty() ? -1 : amounts.get(0);
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    @Test
+    @DisplayName("Миграции должны примениться полностью, а схема и индексы пройти проверку")
+    void migrations_ShouldApplyAndValidate() {
+        // Assert: контекст поднялся с ddl-auto=validate и проверкой индексов
+        assertEquals("8", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(1, count("select count(*) from tenant where id = ?", TENANT));
+    }
+
+    @Test
+    @DisplayName("Суммы по дням должны учитывать архив и только указанного арендатора")
+    void sumByDay_ShouldIncludeArchiveAndFilterByTenant() {
+        // Arrange
+        LocalDate day = LocalDate.of(2026, 3, 14);
+        insertShift(TENANT, 1, "Я", day, 3000, false, null);
+        insertShift(TENANT, 2, "Коля", day, 4000, true, null);
+        jdbcTemplate.update("insert into shift_archive (tenant_id, id, archive_year, worker_name, date, cost) "
+                + "values (?, 3, 2026, 'Я', ?, 500)", TENANT, Date.valueOf(day));
+        insertShift(OTHER_TENANT, 4, "Я", day, 9000, false, null);
+        insertShift(OTHER_TENANT, 5, "Я", day.plusDays(1), 1000, false, null);
+
+        // Act
+        List<DayTotals> defaultDays = shiftRepository.sumByDay(TENANT);
+        List<DayTotals> otherDays = shiftRepository.sumByDay(OTHER_TENANT);
+
+        // Assert
+        assertEquals(1, defaultDays.size());
+        assertEquals(day.toEpochDay(), defaultDays.get(0).getEpochDay());
+        assertEquals(7500, defaultDays.get(0).getTotal());
+        assertEquals(3000, defaultDays.get(0).getUnpaid());
+        assertEquals(2, otherDays.size());
+        assertEquals(9000, otherDays.get(0).getTotal());
+        assertEquals(day.plusDays(1).toEpochDay(), otherDays.get(1).getEpochDay());
+    }
+
+    @Test
+    @DisplayName("Выплата всех смен должна увеличить версии и не затронуть другого арендатора")
+    void settleUnpaid_ShouldBumpVersionWithinTenant() {
+        // Arrange
+        LocalDate day = LocalDate.of(2026, 3, 14);
+        insertShift(TENANT, 1, "Я", day, 3000, false, null);
+        insertShift(TENANT, 2, "Я", day.plusDays(1), 3000, false, null);
+        insertShift(OTHER_TENANT, 3, "Я", day, 3000, false, null);
+        insertPayout(TENANT, 10, LocalDateTime.of(2026, 4, 1, 12, 0));
+
+        // Act
+        int settled = shiftRepository.settleUnpaid(10L);
+
+        // Assert
+        assertEquals(2, settled);
+        assertEquals(2, count("select count(*) from shift where tenant_id = ? and paid = true and payout_id = 10 "
+                + "and version = 1", TENANT));
+        assertEquals(1, count("select count(*) from shift where tenant_id = ? and paid = false and version = 0",
+                OTHER_TENANT));
+        assertEquals(0, shiftRepository.sumUnpaidCost());
+    }
+
+    @Test
+    @DisplayName("Выплата по идентификаторам должна затронуть только заданные неоплаченные записи")
+    void settleByIds_ShouldSettleOnlyGivenRows() {
+        // Arrange
+        LocalDate day = LocalDate.of(2026, 3, 14);
+        insertShift(TENANT, 1, "Я", day, 3000, false, null);
+        insertShift(TENANT, 2, "Я", day.plusDays(1), 3000, false, null);
+        insertSong(TENANT, 1, "Первая", 500, false, null);
+        insertSong(TENANT, 2, "Вторая", 500, false, null);
+        insertSong(OTHER_TENANT, 3, "Чужая", 500, false, null);
+        insertPayout(TENANT, 10, LocalDateTime.of(2026, 4, 1, 12, 0));
+
+        // Act
+        int shifts = shiftRepository.settleByIds(10L, List.of(1L));
+        int songs = songRepository.settleByIds(10L, List.of(2L, 3L));
+        int remainingSongs = songRepository.settleUnpaid(10L);
+
+        // Assert
+        assertEquals(1, shifts);
+        assertEquals(1, songs);
+        assertEquals(1, remainingSongs);
+        assertEquals(1, count("select version from shift where id = 1"));
+        assertEquals(0, count("select version from shift where id = 2"));
+        assertEquals(2, count("select count(*) from song where tenant_id = ? and paid = true and version = 1",
+                TENANT));
+        assertEquals(1, count("select count(*) from song where tenant_id = ? and paid = false", OTHER_TENANT));
+    }
+
+    @Test
+    @DisplayName("Удаление по идентификатору не должно затрагивать запись другого арендатора")
+    void deleteById_OtherTenantRow_ShouldNotDelete() {
+        // Arrange
+        insertShift(OTHER_TENANT, 1, "Я", LocalDate.of(2026, 3, 14), 3000, false, null);
+
+        // Act
+        shiftRepository.deleteById(1L);
+
+        // Assert
+        assertEquals(1, count("select count(*) from shift where id = 1"));
+        assertEquals(0, shiftRepository.findById(1L).map(shift -> 1).orElse(0));
+    }
+
+    @Test
+    @DisplayName("MERGE итогов должен создать строку, а повторный — прибавить к ней")
+    void mergeSql_ShouldInsertThenAccumulate() {
+        // Act
+        mergeRollup(TENANT, "Я", 2026, 3, false, 1, 3000);
+        mergeRollup(TENANT, "Я", 2026, 3, false, 2, 8000);
+        mergeRollup(OTHER_TENANT, "Я", 2026, 3, false, 1, 100);
+        int added = rollupRepository.add("Я", 2026, 3, false, 1, 1000);
+        int missing = rollupRepository.add("Я", 2026, 4, false, 1, 1000);
+
+        // Assert
+        assertEquals(1, added);
+        assertEquals(0, missing);
+        assertEquals(12000, rollupAmount(TENANT, "Я", 2026, 3, false));
+        assertEquals(100, rollupAmount(OTHER_TENANT, "Я", 2026, 3, false));
+        List<EarningsBucket> workers = rollupRepository.sumByWorker(202601, 202612);
+        assertEquals(1, workers.size());
+        assertEquals(4, workers.get(0).getCount());
+        assertEquals(12000, workers.get(0).getUnpaid());
+    }
+
+    @Test
+    @DisplayName("Перенос неоплаченных итогов в оплаченные должен затронуть только своего арендатора")
+    void mergeUnpaidIntoPaid_ShouldMoveTenantRows() {
+        // Arrange
+        mergeRollup(TENANT, "Я", 2026, 3, false, 1, 3000);
+        mergeRollup(TENANT, "Я", 2026, 3, true, 1, 4000);
+        mergeRollup(TENANT, "Коля", 2026, 4, false, 1, 2000);
+        mergeRollup(OTHER_TENANT, "Я", 2026, 3, false, 1, 100);
+
+        // Act
+        int merged = rollupRepository.mergeUnpaidIntoPaid(TENANT);
+        int deleted = rollupRepository.deleteUnpaid();
+
+        // Assert
+        assertEquals(2, merged);
+        assertEquals(2, deleted);
+        assertEquals(7000, rollupAmount(TENANT, "Я", 2026, 3, true));
+        assertEquals(2000, rollupAmount(TENANT, "Коля", 2026, 4, true));
+        assertEquals(-1, rollupAmount(TENANT, "Я", 2026, 3, false));
+        assertEquals(100, rollupAmount(OTHER_TENANT, "Я", 2026, 3, false));
+    }
+
+    @Test
+    @DisplayName("Пересборка итогов должна учесть архив и не затронуть другого арендатора")
+    void insertFromShifts_ShouldRebuildTenantRollup() {
+        // Arrange
+        insertShift(TENANT, 1, "Я", LocalDate.of(2026, 3, 14), 3000, false, null);
+        insertShift(TENANT, 2, null, LocalDate.of(2026, 3, 15), 4000, true, null);
+        jdbcTemplate.update("insert into shift_archive (tenant_id, id, archive_year, worker_name, date, cost) "
+                + "values (?, 3, 2025, 'Я', date '2025-12-31', 500)", TENANT);
+        insertShift(OTHER_TENANT, 4, "Я", LocalDate.of(2026, 3, 14), 9000, false, null);
+        mergeRollup(TENANT, "Я", 2026, 3, false, 5, 99999);
+        mergeRollup(OTHER_TENANT, "Я", 2026, 3, false, 1, 9000);
+
+        // Act
+        rollupRepository.deleteAllInBatch();
+        int inserted = rollupRepository.insertFromShifts(TENANT);
+
+        // Assert
+        assertEquals(3, inserted);
+        assertEquals(3000, rollupAmount(TENANT, "Я", 2026, 3, false));
+        assertEquals(4000, rollupAmount(TENANT, "", 2026, 3, true));
+        assertEquals(500, rollupAmount(TENANT, "Я", 2025, 12, true));
+        assertEquals(9000, rollupAmount(OTHER_TENANT, "Я", 2026, 3, false));
+        List<MonthlyBucket> months = rollupRepository.sumByMonth("Я", 202501, 202612);
+        assertEquals(2, months.size());
+        assertEquals(3000, months.get(1).getUnpaid());
+    }
+
+    @Test
+    @DisplayName("Архивация должна скопировать записи с годом выплаты, а без выплаты — с годом смены")
+    void copyToArchive_ShouldUsePayoutYear() {
+        // Arrange
+        insertPayout(TENANT, 10, LocalDateTime.of(2024, 1, 5, 12, 0));
+        insertShift(TENANT, 1, "Я", LocalDate.of(2023, 12, 30), 3000, true, 10L);
+        insertShift(TENANT, 2, "Я", LocalDate.of(2022, 6, 1), 2000, true, null);
+        insertSong(TENANT, 1, "Первая", 500, true, 10L);
+
+        // Act
+        int shifts = archivedShiftRepository.copyFromShifts(List.of(1L, 2L));
+        int songs = archivedSongRepository.copyFromSongs(List.of(1L));
+
+        // Assert
+        assertEquals(2, shifts);
+        assertEquals(1, songs);
+        assertEquals(2024, count("select archive_year from shift_archive where id = 1"));
+        assertEquals(2022, count("select archive_year from shift_archive where id = 2"));
+        assertNull(jdbcTemplate.queryForObject("select payout_id from shift_archive where id = 2", Long.class));
+        assertEquals(2024, count("select archive_year from song_archive where id = 1"));
+        assertEquals(1, count("select count(*) from song_archive where tenant_id = ?", TENANT));
+        assertEquals(2, archivedShiftRepository.sumByYear(List.of(1L, 2L)).size());
+    }
+
+    @Test
+    @DisplayName("Приращения журнала и архивных итогов должны менять только строки своего арендатора")
+    void applyDelta_ShouldUpdateTenantRows() {
+        // Arrange
+        jdbcTemplate.update("insert into earnings_ledger (tenant_id, item_type, lifetime_total, unpaid_total) "
+                + "values (?, 'SHIFT', 1000, 500), (?, 'SHIFT', 7000, 7000)", TENANT, OTHER_TENANT);
+        jdbcTemplate.update("insert into archive_rollup (tenant_id, item_type, archive_year, row_count, amount) "
+                + "values (?, 'SHIFT', 2024, 1, 3000), (?, 'SHIFT', 2024, 1, 9000)", TENANT, OTHER_TENANT);
+
+        // Act
+        int ledger = ledgerRepository.applyDelta(ItemType.SHIFT, 3000, -500);
+        int archive = archiveRollupRepository.add(ItemType.SHIFT, 2024, 2, 4000);
+
+        // Assert
+        assertEquals(1, ledger);
+        assertEquals(1, archive);
+        assertEquals(4000, count("select lifetime_total from earnings_ledger where tenant_id = ?", TENANT));
+        assertEquals(0, count("select unpaid_total from earnings_ledger where tenant_id = ?", TENANT));
+        assertEquals(7000, count("select lifetime_total from earnings_ledger where tenant_id = ?", OTHER_TENANT));
+        assertEquals(7000, archiveRollupRepository.sumAmount(ItemType.SHIFT));
+        assertEquals(9000, count("select amount from archive_rollup where tenant_id = ?", OTHER_TENANT));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.ArchiveResult;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.YearTotals;
+import com.example.memorizer.event.SettledArchivedEvent;
+import com.example.memorizer.model.ArchiveRollup;
+import com.example.memorizer.model.ArchivedSong;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.repository.ArchiveRollupRepository;
+import com.example.memorizer.repository.ArchivedShiftRepository;
+import com.example.memorizer.repository.ArchivedSongRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link ArchiveService}.
+ *
+ * Проверяют перенос оплаченных записей порциями, пополнение итогов
+ * архива и постраничное чтение архива.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ArchiveService Tests")
+class ArchiveServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private ArchivedShiftRepository archivedShiftRepository;
+
+    @Mock
+    private ArchivedSongRepository archivedSongRepository;
+
+    @Mock
+    private ArchiveRollupRepository rollupRepository;
+
+    @Mock
+    private EarningsLedgerService ledgerService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(archiveService, "minAge", Duration.ofDays(365));
+        ReflectionTestUtils.setField(archiveService, "chunkSize", 2);
+    }
+
+    @Test
+    @DisplayName("Архивация должна переносить порции, пока не встретится неполная")
+    void archiveSettled_ShouldMoveChunksAndPublishEvent() {
+        // Arrange
+        runTransactionsInline();
+        when(shiftRepository.findSettledBefore(any(), eq(Limit.of(2)))).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(songRepository.findSettledBefore(any(), eq(Limit.of(2)))).thenReturn(List.of());
+        YearTotals year2024 = totals(2024, 2, 7000);
+        YearTotals year2025 = totals(2025, 1, 3000);
+        when(archivedShiftRepository.sumByYear(List.of(1L, 2L))).thenReturn(List.of(year2024));
+        when(archivedShiftRepository.sumByYear(List.of(3L))).thenReturn(List.of(year2025));
+        when(rollupRepository.add(eq(ItemType.SHIFT), anyInt(), anyLong(), anyLong())).thenReturn(1);
+
+        // Act
+        ArchiveResult result = archiveService.archiveSettled();
+
+        // Assert
+        assertEquals(3, result.getShifts());
+        assertEquals(0, result.getSongs());
+        verify(ledgerService, times(3)).lockAll();
+        verify(archivedShiftRepository).copyFromShifts(List.of(1L, 2L));
+        verify(shiftRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(shiftRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(rollupRepository).add(ItemType.SHIFT, 2024, 2, 7000);
+        verify(rollupRepository).add(ItemType.SHIFT, 2025, 1, 3000);
+        verify(songRepository, never()).deleteAllByIdInBatch(any());
+        verify(eventPublisher).publishEvent(any(SettledArchivedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Первый перенос за год должен создать строку итогов")
+    void archiveSettled_NewYear_ShouldCreateRollup() {
+        // Arrange
+        runTransactionsInline();
+        when(shiftRepository.findSettledBefore(any(), any())).thenReturn(List.of());
+        when(songRepository.findSettledBefore(any(), any())).thenReturn(List.of(5L));
+        YearTotals year2024 = totals(2024, 1, 1000);
+        when(archivedSongRepository.sumByYear(List.of(5L))).thenReturn(List.of(year2024));
+        when(rollupRepository.add(ItemType.SONG, 2024, 1, 1000)).thenReturn(0);
+
+        // Act
+        archiveService.archiveSettled();
+
+        // Assert
+        verify(rollupRepository).save(new ArchiveRollup("default", ItemType.SONG, 2024, 1, 1000));
+        verify(songRepository).deleteAllByIdInBatch(List.of(5L));
+    }
+
+    @Test
+    @DisplayName("Без подходящих записей архивация ничего не меняет и не публикует")
+    void archiveSettled_NothingToMove_ShouldNotPublish() {
+        // Arrange
+        runTransactionsInline();
+        when(shiftRepository.findSettledBefore(any(), any())).thenReturn(List.of());
+        when(songRepository.findSettledBefore(any(), any())).thenReturn(List.of());
+
+        // Act
+        ArchiveResult result = archiveService.archiveSettled();
+
+        // Assert
+        assertEquals(0, result.getShifts() + result.getSongs());
+        verifyNoInteractions(archivedShiftRepository, archivedSongRepository, rollupRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Страница архива должна возвращать курсор по последнему идентификатору")
+    void findSongs_FullPage_ShouldReturnNextCursor() {
+        // Arrange
+        when(archivedSongRepository.findPage(null, null, 10L, Limit.of(3))).thenReturn(List.of(
+                new ArchivedSong(11L, 2024, "a", "b", "c", 1000, 1L),
+                new ArchivedSong(12L, 2024, "a", "b", "c", 1000, 1L),
+                new ArchivedSong(13L, 2024, "a", "b", "c", 1000, 1L)));
+
+        // Act
+        KeysetPage<ArchivedSong> page = archiveService.findSongs(null, null, "10", 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals("12", page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Некорректный курсор архива должен приводить к ошибке 400")
+    void findShifts_InvalidCursor_ShouldThrowBadRequest() {
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> archiveService.findShifts(null, null, "abc", 50));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    private static YearTotals totals(int year, long count, long amount) {
+        YearTotals totals = mock(YearTotals.class);
+        when(totals.getYear()).thenReturn(year);
+        when(totals.getCount()).thenReturn(count);
+        when(totals.getAmount()).thenReturn(amount);
+        return totals;
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.CacheConfig;
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.ArchiveResult;
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.event.LedgerReconciledEvent;
+import com.example.memorizer.event.PayoutCompletedEvent;
+import com.example.memorizer.event.PayoutProgressEvent;
+import com.example.memorizer.event.SettledArchivedEvent;
+import com.example.memorizer.event.ShiftCreatedEvent;
+import com.example.memorizer.event.SongDeletedEvent;
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.service.DataVersions.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link CacheInvalidator}.
+ *
+ * Проверяют, какие кэши и версии данных затрагивает каждое доменное событие.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheInvalidator Tests")
+class CacheInvalidatorTest {
+
+    private static final String[] CACHES = {
+            CacheConfig.SHIFT_PAGES, CacheConfig.SONG_PAGES, CacheConfig.EARNINGS,
+            CacheConfig.BREAKDOWN, CacheConfig.PAYOUTS, CacheConfig.WORKER_REPORTS, CacheConfig.MONTHLY_REPORTS };
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CACHES);
+
+    @Spy
+    private DataVersions dataVersions = new DataVersions();
+
+    @InjectMocks
+    private CacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        for (String cacheName : CACHES) {
+            cacheManager.getCache(cacheName).put("key", "value");
+        }
+    }
+
+    @Test
+    @DisplayName("Изменение смен должно сбросить списки смен и статистику, но не песни")
+    void onEvent_ShiftCreated_ShouldInvalidateShiftCaches() {
+        // Act
+        invalidator.onEvent(new ShiftCreatedEvent(new Shift()));
+
+        // Assert
+        assertEquals(1, dataVersions.get(Table.SHIFTS));
+        assertEquals(0, dataVersions.get(Table.SONGS));
+        assertCleared(CacheConfig.SHIFT_PAGES, CacheConfig.EARNINGS, CacheConfig.BREAKDOWN,
+                CacheConfig.WORKER_REPORTS, CacheConfig.MONTHLY_REPORTS);
+        assertKept(CacheConfig.SONG_PAGES, CacheConfig.PAYOUTS);
+    }
+
+    @Test
+    @DisplayName("Изменение песен должно сбросить списки песен и статистику, но не смены")
+    void onEvent_SongDeleted_ShouldInvalidateSongCaches() {
+        // Act
+        invalidator.onEvent(new SongDeletedEvent(new Song()));
+
+        // Assert
+        assertEquals(0, dataVersions.get(Table.SHIFTS));
+        assertEquals(1, dataVersions.get(Table.SONGS));
+        assertCleared(CacheConfig.SONG_PAGES, CacheConfig.EARNINGS, CacheConfig.BREAKDOWN);
+        assertKept(CacheConfig.SHIFT_PAGES, CacheConfig.PAYOUTS, CacheConfig.WORKER_REPORTS,
+                CacheConfig.MONTHLY_REPORTS);
+    }
+
+    @Test
+    @DisplayName("Выплата должна сбросить все кэши")
+    void onEvent_PayoutCompleted_ShouldInvalidateEverything() {
+        // Act
+        invalidator.onEvent(new PayoutCompletedEvent(new PayoutBatch(1L, Instant.now(), 3000, 1, 3000, 0, 0)));
+
+        // Assert
+        assertEquals(1, dataVersions.get(Table.SHIFTS));
+        assertEquals(1, dataVersions.get(Table.SONGS));
+        assertCleared(CACHES);
+    }
+
+    @Test
+    @DisplayName("Порция выплаты должна сбросить все кэши")
+    void onEvent_PayoutProgress_ShouldInvalidateEverything() {
+        // Act
+        invalidator.onEvent(new PayoutProgressEvent(new PayoutBatch(1L, Instant.now(), 3000, 1, 3000, 0, 0)));
+
+        // Assert
+        assertEquals(1, dataVersions.get(Table.SHIFTS));
+        assertCleared(CACHES);
+    }
+
+    @Test
+    @DisplayName("Пересчет журнала должен сбросить только заработок")
+    void onEvent_LedgerReconciled_ShouldInvalidateEarningsOnly() {
+        // Act
+        invalidator.onEvent(new LedgerReconciledEvent(new EarningsDTO(0, 0)));
+
+        // Assert
+        assertEquals(0, dataVersions.get(Table.SHIFTS));
+        assertEquals(0, dataVersions.get(Table.SONGS));
+        assertEquals(1, dataVersions.get(Table.LEDGER));
+        assertCleared(CacheConfig.EARNINGS);
+        assertKept(CacheConfig.SHIFT_PAGES, CacheConfig.SONG_PAGES, CacheConfig.BREAKDOWN, CacheConfig.PAYOUTS);
+    }
+
+    @Test
+    @DisplayName("Архивация должна сбросить списки и детализацию, но не заработок")
+    void onEvent_SettledArchived_ShouldKeepEarnings() {
+        // Act
+        invalidator.onEvent(new SettledArchivedEvent(new ArchiveResult(Instant.now(), 10, 2)));
+
+        // Assert
+        assertEquals(1, dataVersions.get(Table.SHIFTS));
+        assertEquals(1, dataVersions.get(Table.SONGS));
+        assertEquals(1, dataVersions.get(Table.ARCHIVE));
+        assertCleared(CacheConfig.SHIFT_PAGES, CacheConfig.SONG_PAGES, CacheConfig.BREAKDOWN);
+        assertKept(CacheConfig.EARNINGS, CacheConfig.PAYOUTS);
+    }
+
+    @Test
+    @DisplayName("Изменение данных арендатора не должно сбрасывать кэши других арендаторов")
+    void onEvent_ShiftCreated_ShouldKeepOtherTenantEntries() {
+        // Arrange
+        CacheConfig.TenantKey own = new CacheConfig.TenantKey("default", SimpleKey.EMPTY);
+        CacheConfig.TenantKey foreign = new CacheConfig.TenantKey("bar-2", SimpleKey.EMPTY);
+        cacheManager.getCache(CacheConfig.EARNINGS).put(own, "own");
+        cacheManager.getCache(CacheConfig.EARNINGS).put(foreign, "foreign");
+
+        // Act
+        invalidator.onEvent(new ShiftCreatedEvent(new Shift()));
+
+        // Assert
+        assertNull(cacheManager.getCache(CacheConfig.EARNINGS).get(own));
+        assertNotNull(cacheManager.getCache(CacheConfig.EARNINGS).get(foreign));
+        assertEquals(0, TenantContext.call("bar-2", () -> dataVersions.get(Table.SHIFTS)));
+    }
+
+    private void assertCleared(String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            assertNull(cacheManager.getCache(cacheName).get("key"), cacheName);
+        }
+    }
+
+    private void assertKept(String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            assertNotNull(cacheManager.getCache(cacheName).get("key"), cacheName);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.DayTotals;
+import com.example.memorizer.dto.ShiftEarningsDTO;
+import com.example.memorizer.event.PayoutCompletedEvent;
+import com.example.memorizer.event.ShiftCreatedEvent;
+import com.example.memorizer.event.ShiftDeletedEvent;
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.repository.ShiftRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link EarningsHistoryService}.
+ *
+ * Проверяют ответы по индексу префиксных сумм по дням, его
+ * инкрементальное обновление по событиям смен и пересборку.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EarningsHistoryService Tests")
+class EarningsHistoryServiceTest {
+
+    private static final LocalDate MARCH_1 = LocalDate.of(2026, 3, 1);
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @InjectMocks
+    private EarningsHistoryService historyService;
+
+    private record Day(long epochDay, long total, long unpaid) implements DayTotals {
+
+        @Override
+        public long getEpochDay() {
+            return epochDay;
+        }
+
+        @Override
+        public long getTotal() {
+            return total;
+        }
+
+        @Override
+        public long getUnpaid() {
+            return unpaid;
+        }
+    }
+
+    private static Day day(LocalDate date, long total, long unpaid) {
+        return new Day(date.toEpochDay(), total, unpaid);
+    }
+
+    private static Shift shift(LocalDate date, int cost, boolean paid) {
+        Shift shift = new Shift();
+        shift.setDate(date);
+        shift.setCost(cost);
+        shift.setPaid(paid);
+        return shift;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Заработок на дату и за период должен считаться по индексу, построенному одним запросом")
+    void getEarnings_ShouldAnswerFromIndex() {
+        // Arrange
+        when(shiftRepository.sumByDay("default")).thenReturn(List.of(
+                day(MARCH_1.minusDays(10), 4000, 0),
+                day(MARCH_1, 3000, 3000),
+                day(MARCH_1.plusDays(5), 5000, 2000)));
+
+        // Act
+        ShiftEarningsDTO beforeAll = historyService.getEarningsAsOf(MARCH_1.minusYears(1));
+        ShiftEarningsDTO asOf = historyService.getEarningsAsOf(MARCH_1);
+        ShiftEarningsDTO between = historyService.getEarningsBetween(MARCH_1, MARCH_1.plusDays(5));
+        ShiftEarningsDTO from = historyService.getEarningsBetween(MARCH_1.plusDays(1), null);
+        ShiftEarningsDTO to = historyService.getEarningsBetween(null, MARCH_1.minusDays(1));
+
+        // Assert
+        assertEquals(new ShiftEarningsDTO(null, MARCH_1.minusYears(1), 0, 0), beforeAll);
+        assertEquals(new ShiftEarningsDTO(null, MARCH_1, 7000, 3000), asOf);
+        assertEquals(new ShiftEarningsDTO(MARCH_1, MARCH_1.plusDays(5), 8000, 5000), between);
+        assertEquals(new ShiftEarningsDTO(MARCH_1.plusDays(1), null, 5000, 2000), from);
+        assertEquals(new ShiftEarningsDTO(null, MARCH_1.minusDays(1), 4000, 0), to);
+        verify(shiftRepository, times(1)).sumByDay("default");
+    }
+
+    @Test
+    @DisplayName("Создание и удаление смен должно обновлять индекс, а выплата - сбрасывать его")
+    void onEvent_ShouldUpdateOrDropIndex() {
+        // Arrange
+        when(shiftRepository.sumByDay("default")).thenReturn(List.of(day(MARCH_1, 3000, 3000)));
+        historyService.getEarningsAsOf(MARCH_1);
+
+        // Act
+        historyService.onEvent(new ShiftCreatedEvent(shift(MARCH_1.plusDays(1), 4000, false)));
+        historyService.onEvent(new ShiftDeletedEvent(shift(MARCH_1, 3000, false)));
+        ShiftEarningsDTO updated = historyService.getEarningsBetween(null, null);
+        historyService.onEvent(new PayoutCompletedEvent(new PayoutBatch()));
+        historyService.getEarningsAsOf(MARCH_1);
+
+        // Assert
+        assertEquals(new ShiftEarningsDTO(null, null, 4000, 4000), updated);
+        verify(shiftRepository, times(2)).sumByDay("default");
+    }
+
+    @Test
+    @DisplayName("Индекс, построенный во время незавершенной транзакции, не должен сохраняться, "
+            + "а откаченное изменение - применяться")
+    void getEarnings_DuringTransaction_ShouldNotKeepIndex() {
+        // Arrange
+        when(shiftRepository.sumByDay("default")).thenReturn(List.of(day(MARCH_1, 3000, 3000)));
+        TransactionSynchronizationManager.initSynchronization();
+        historyService.onEvent(new ShiftCreatedEvent(shift(MARCH_1, 1000, false)));
+        historyService.onEvent(new ShiftCreatedEvent(shift(MARCH_1, 2000, false)));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        // Act
+        historyService.getEarningsAsOf(MARCH_1);
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        ShiftEarningsDTO rebuilt = historyService.getEarningsAsOf(MARCH_1);
+        historyService.getEarningsAsOf(MARCH_1);
+
+        // Assert
+        assertEquals(new ShiftEarningsDTO(null, MARCH_1, 3000, 3000), rebuilt);
+        verify(shiftRepository, times(2)).sumByDay("default");
+    }
+
+    @Test
+    @DisplayName("Смена вне диапазона индекса должна приводить к его пересборке")
+    void onEvent_OutsideRange_ShouldRebuild() {
+        // Arrange
+        when(shiftRepository.sumByDay("default")).thenReturn(List.of(day(MARCH_1, 3000, 0)));
+        historyService.getEarningsAsOf(MARCH_1);
+
+        // Act
+        historyService.onEvent(new ShiftCreatedEvent(shift(MARCH_1.minusYears(2), 1000, false)));
+        historyService.getEarningsAsOf(MARCH_1);
+
+        // Assert
+        verify(shiftRepository, times(2)).sumByDay("default");
+    }
+
+    @Test
+    @DisplayName("Начало периода позже конца должно отклоняться с кодом 400")
+    void getEarningsBetween_FromAfterTo_ShouldThrowBadRequest() {
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> historyService.getEarningsBetween(MARCH_1, MARCH_1.minusDays(1)));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(shiftRepository);
+    }
+}
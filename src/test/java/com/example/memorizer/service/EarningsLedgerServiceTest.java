@@ -0,0 +1,197 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.event.LedgerReconciledEvent;
+import com.example.memorizer.model.EarningsLedger;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.repository.ArchiveRollupRepository;
+import com.example.memorizer.repository.EarningsLedgerRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import com.example.memorizer.service.journal.EventJournal;
+import com.example.memorizer.service.journal.JournalEntry.Kind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link EarningsLedgerService}.
+ * 
+ * Проверяют инкрементальное обновление итогов журнала заработка
+ * и их пересчет по исходным таблицам.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EarningsLedgerService Tests")
+class EarningsLedgerServiceTest {
+
+    @Mock
+    private EarningsLedgerRepository ledgerRepository;
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private ArchiveRollupRepository rollupRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventJournal journal;
+
+    @InjectMocks
+    private EarningsLedgerService ledgerService;
+
+    @Test
+    @DisplayName("Статистика должна суммировать итоги всех типов записей")
+    void getEarnings_ShouldSumAllLedgers() {
+        // Arrange
+        when(ledgerRepository.findAll()).thenReturn(Arrays.asList(
+                new EarningsLedger("default", ItemType.SHIFT, 6000, 3000),
+                new EarningsLedger("default", ItemType.SONG, 1000, 1000)));
+
+        // Act
+        EarningsDTO result = ledgerService.getEarnings();
+
+        // Assert
+        assertEquals(7000, result.getLifetimeEarnings());
+        assertEquals(4000, result.getCurrentBalance());
+    }
+
+    @Test
+    @DisplayName("Новая запись увеличивает общий заработок и баланс и попадает в журнал событий")
+    void recordCreated_ShouldIncreaseBothTotals() {
+        // Arrange
+        when(ledgerRepository.applyDelta(ItemType.SHIFT, 4000, 4000)).thenReturn(1);
+
+        // Act
+        ledgerService.recordCreated(ItemType.SHIFT, 4000);
+
+        // Assert
+        verify(ledgerRepository, times(1)).applyDelta(ItemType.SHIFT, 4000, 4000);
+        verify(journal).record(Kind.SHIFT_CREATED, ItemType.SHIFT, 4000, 4000);
+    }
+
+    @Test
+    @DisplayName("Удаление оплаченной записи не меняет текущий баланс")
+    void recordDeleted_Paid_ShouldKeepUnpaidTotal() {
+        // Arrange
+        when(ledgerRepository.applyDelta(ItemType.SONG, -1000, 0)).thenReturn(1);
+
+        // Act
+        ledgerService.recordDeleted(ItemType.SONG, 1000, true);
+
+        // Assert
+        verify(ledgerRepository, times(1)).applyDelta(ItemType.SONG, -1000, 0);
+    }
+
+    @Test
+    @DisplayName("Выплата уменьшает только текущий баланс")
+    void recordPayout_ShouldDecreaseUnpaidTotalOnly() {
+        // Arrange
+        when(ledgerRepository.applyDelta(ItemType.SHIFT, 0, -7000)).thenReturn(1);
+
+        // Act
+        ledgerService.recordPayout(ItemType.SHIFT, 7000);
+
+        // Assert
+        verify(ledgerRepository, times(1)).applyDelta(ItemType.SHIFT, 0, -7000);
+        verify(journal).record(Kind.PAYOUT_EXECUTED, ItemType.SHIFT, 0, -7000);
+    }
+
+    @Test
+    @DisplayName("Пересчет должен записать суммы из исходных таблиц")
+    void reconcile_ShouldStoreTotalsFromBaseTables() {
+        // Arrange
+        EarningsLedger shiftLedger = new EarningsLedger("default", ItemType.SHIFT, 0, 0);
+        EarningsLedger songLedger = new EarningsLedger("default", ItemType.SONG, 5, 5);
+        when(ledgerRepository.lockByItemType(ItemType.SHIFT)).thenReturn(Optional.of(shiftLedger));
+        when(ledgerRepository.lockByItemType(ItemType.SONG)).thenReturn(Optional.of(songLedger));
+        when(shiftRepository.sumCost()).thenReturn(10000L);
+        when(shiftRepository.sumUnpaidCost()).thenReturn(4000L);
+        when(songRepository.sumCost()).thenReturn(2000L);
+        when(songRepository.sumUnpaidCost()).thenReturn(0L);
+
+        // Act
+        ledgerService.reconcile();
+
+        // Assert
+        assertEquals(10000, shiftLedger.getLifetimeTotal());
+        assertEquals(4000, shiftLedger.getUnpaidTotal());
+        assertEquals(2000, songLedger.getLifetimeTotal());
+        assertEquals(0, songLedger.getUnpaidTotal());
+        verify(ledgerRepository, times(2)).save(any(EarningsLedger.class));
+        verify(eventPublisher, times(1)).publishEvent(any(LedgerReconciledEvent.class));
+    }
+
+    @Test
+    @DisplayName("Пересчет без расхождений не должен ничего сохранять и публиковать, но сверяет журнал событий")
+    void reconcile_WithoutDrift_ShouldNotPublishEvent() {
+        // Arrange
+        when(ledgerRepository.lockByItemType(ItemType.SHIFT))
+                .thenReturn(Optional.of(new EarningsLedger("default", ItemType.SHIFT, 10000, 4000)));
+        when(ledgerRepository.lockByItemType(ItemType.SONG))
+                .thenReturn(Optional.of(new EarningsLedger("default", ItemType.SONG, 2000, 0)));
+        when(shiftRepository.sumCost()).thenReturn(10000L);
+        when(shiftRepository.sumUnpaidCost()).thenReturn(4000L);
+        when(songRepository.sumCost()).thenReturn(2000L);
+        when(songRepository.sumUnpaidCost()).thenReturn(0L);
+
+        // Act
+        ledgerService.reconcile();
+
+        // Assert
+        verify(ledgerRepository, never()).save(any(EarningsLedger.class));
+        verifyNoInteractions(eventPublisher);
+        verify(journal).align(12000, 4000);
+    }
+
+    @Test
+    @DisplayName("Пересчет должен учитывать в общем заработке итоги архива")
+    void reconcile_ShouldAddArchivedTotalsToLifetime() {
+        // Arrange
+        EarningsLedger shiftLedger = new EarningsLedger("default", ItemType.SHIFT, 0, 0);
+        when(ledgerRepository.lockByItemType(ItemType.SHIFT)).thenReturn(Optional.of(shiftLedger));
+        when(ledgerRepository.lockByItemType(ItemType.SONG))
+                .thenReturn(Optional.of(new EarningsLedger("default", ItemType.SONG, 0, 0)));
+        when(shiftRepository.sumCost()).thenReturn(4000L);
+        when(shiftRepository.sumUnpaidCost()).thenReturn(4000L);
+        when(rollupRepository.sumAmount(ItemType.SHIFT)).thenReturn(30000L);
+
+        // Act
+        ledgerService.reconcile();
+
+        // Assert
+        assertEquals(34000, shiftLedger.getLifetimeTotal());
+        assertEquals(4000, shiftLedger.getUnpaidTotal());
+    }
+
+    @Test
+    @DisplayName("Отсутствующая строка журнала создается пересчетом")
+    void recordCreated_MissingLedger_ShouldReconcileFirst() {
+        // Arrange
+        when(ledgerRepository.applyDelta(ItemType.SONG, 1000, 1000)).thenReturn(0, 1);
+        when(ledgerRepository.lockByItemType(any())).thenReturn(Optional.empty());
+
+        // Act
+        ledgerService.recordCreated(ItemType.SONG, 1000);
+
+        // Assert
+        verify(ledgerRepository, times(2)).save(any(EarningsLedger.class));
+        verify(ledgerRepository, times(2)).applyDelta(ItemType.SONG, 1000, 1000);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.ShiftFilter;
+import com.example.memorizer.dto.SongFilter;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import com.example.memorizer.service.ExportService.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link ExportService}.
+ * 
+ * Проверяют формат CSV и NDJSON выгрузок и передачу фильтров в запрос.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExportService Tests")
+class ExportServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @InjectMocks
+    private ExportService exportService;
+
+    @Test
+    @DisplayName("CSV выгрузка смен должна содержать заголовок и строки с фильтром по датам")
+    void exportShifts_Csv_ShouldWriteHeaderAndRows() throws Exception {
+        // Arrange
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 1, 31);
+        Shift shift = new Shift();
+        shift.setId(7L);
+        shift.setWorkerName("Анна");
+        shift.setDate(LocalDate.of(2026, 1, 16));
+        shift.setStartTime(LocalTime.of(9, 0));
+        shift.setEndTime(LocalTime.of(18, 0));
+        shift.setCost(3000);
+        when(shiftRepository.streamForExport(null, from, to, null)).thenReturn(Stream.of(shift));
+        StringWriter out = new StringWriter();
+
+        // Act
+        exportService.exportShifts(new ShiftFilter(null, from, to, null), ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals("id,workerName,date,startTime,endTime,cost,paid,payoutId\n"
+                + "7,Анна,2026-01-16,09:00,18:00,3000,false,\n", out.toString());
+        verify(entityManager, times(1)).detach(shift);
+    }
+
+    @Test
+    @DisplayName("CSV выгрузка должна экранировать запятые и кавычки")
+    void exportSongs_Csv_ShouldEscapeSpecialCharacters() throws Exception {
+        // Arrange
+        Song song = new Song();
+        song.setId(1L);
+        song.setTitle("Привет, \"мир\"");
+        song.setCost(1000);
+        when(songRepository.streamForExport(null, null)).thenReturn(Stream.of(song));
+        StringWriter out = new StringWriter();
+
+        // Act
+        exportService.exportSongs(null, ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals("id,title,artist,addedBy,cost,paid,payoutId\n"
+                + "1,\"Привет, \"\"мир\"\"\",,,1000,false,\n", out.toString());
+    }
+
+    @Test
+    @DisplayName("NDJSON выгрузка должна писать по одному JSON-объекту на строку")
+    void exportSongs_Ndjson_ShouldWriteOneObjectPerLine() throws Exception {
+        // Arrange
+        Song first = new Song();
+        first.setId(1L);
+        first.setTitle("Первая");
+        Song second = new Song();
+        second.setId(2L);
+        second.setTitle("Вторая");
+        when(songRepository.streamForExport("Гость", false)).thenReturn(Stream.of(first, second));
+        StringWriter out = new StringWriter();
+
+        // Act
+        exportService.exportSongs(new SongFilter("Гость", false), ExportFormat.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{"), "Строка не должна начинаться с разделителя");
+        assertEquals("Вторая", objectMapper.readValue(lines[1], Song.class).getTitle());
+        verify(entityManager, times(2)).detach(any());
+    }
+
+    @Test
+    @DisplayName("Неизвестный формат выгрузки должен приводить к ошибке 400")
+    void parseFormat_Unknown_ShouldThrowBadRequest() {
+        // Act & Assert
+        assertEquals(ExportFormat.NDJSON, ExportFormat.parse("ndjson"));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> ExportFormat.parse("xml"));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+}
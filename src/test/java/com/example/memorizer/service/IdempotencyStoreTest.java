@@ -0,0 +1,234 @@
+package com.example.memorizer.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link IdempotencyStore}.
+ *
+ * Проверяют однократное выполнение операций по ключу, сверку повторов
+ * и освобождение ключа после ошибки.
+ */
+@DisplayName("IdempotencyStore Tests")
+class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "maxKeys", 100L);
+        ReflectionTestUtils.setField(store, "ttl", Duration.ofMinutes(1));
+        store.init();
+    }
+
+    @Test
+    @DisplayName("Повтор с тем же ключом должен вернуть сохраненный результат без повторного выполнения")
+    void execute_SameKey_ShouldRunOnce() {
+        // Act
+        Integer first = store.execute("k1", "POST /api/songs", "body", calls::incrementAndGet);
+        Integer second = store.execute("k1", "POST /api/songs", "body", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(1, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Без ключа операция должна выполняться каждый раз")
+    void execute_WithoutKey_ShouldRunEveryTime() {
+        // Act
+        store.execute(null, "POST /api/songs", "body", calls::incrementAndGet);
+        store.execute(" ", "POST /api/songs", "body", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(2, calls.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Одинаковые ключи разных операций не должны пересекаться")
+    void execute_SameKeyDifferentScope_ShouldRunBoth() {
+        // Act
+        store.execute("k1", "POST /api/shifts", null, calls::incrementAndGet);
+        store.execute("k1", "POST /api/songs", null, calls::incrementAndGet);
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Ключ с другим телом запроса должен вернуть 422")
+    void execute_SameKeyDifferentBody_ShouldThrowUnprocessable() {
+        // Arrange
+        store.execute("k1", "POST /api/songs", "body", calls::incrementAndGet);
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> store.execute("k1", "POST /api/songs", "other", calls::incrementAndGet));
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("После ошибки ключ должен освобождаться для повтора")
+    void execute_AfterFailure_ShouldAllowRetry() {
+        // Arrange
+        assertThrows(IllegalStateException.class, () -> store.execute("k1", "POST /api/songs", "body", () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        // Act
+        Integer result = store.execute("k1", "POST /api/songs", "body", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(1, result);
+    }
+
+    @Test
+    @DisplayName("Повтор потокового тела с теми же байтами должен вернуть сохраненный результат")
+    void executeStream_SameBytes_ShouldRunOnce() {
+        // Act
+        Integer first = store.execute("k1", "POST /api/shifts/batch", body("[1,2]"), in -> readAll(in));
+        Integer second = store.execute("k1", "POST /api/shifts/batch", body("[1,2]"), in -> readAll(in));
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(1, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Повтор потокового тела с другими байтами должен вернуть 422")
+    void executeStream_DifferentBytes_ShouldThrowUnprocessable() {
+        // Arrange
+        store.execute("k1", "POST /api/shifts/batch", body("[1,2]"), in -> readAll(in));
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> store.execute("k1", "POST /api/shifts/batch", body("[1,3]"), in -> readAll(in)));
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Отпечаток потокового тела должен учитывать байты, не прочитанные и закрытые операцией")
+    void executeStream_PartiallyRead_ShouldFingerprintWholeBody() {
+        // Arrange
+        store.execute("k1", "POST /api/shifts/batch", body("[1,2]"), in -> {
+            closeQuietly(in);
+            return calls.incrementAndGet();
+        });
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> store.execute("k1", "POST /api/shifts/batch", body("[1,3]"), in -> calls.incrementAndGet()));
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Одновременный повтор должен дождаться первого запроса и получить его результат")
+    void execute_ConcurrentRetry_ShouldWaitForFirst() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> store.execute("k1", "POST /api/songs", "body", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return calls.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(
+                    () -> store.execute("k1", "POST /api/songs", "body", calls::incrementAndGet));
+
+            // Act
+            release.countDown();
+
+            // Assert
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Тело запроса, которое, как поток сервлета, нельзя читать после закрытия.
+     */
+    private static InputStream body(String content) {
+        return new FilterInputStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))) {
+            private boolean closed;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                return super.read(b, off, len);
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+        };
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Integer readAll(InputStream in) {
+        try {
+            in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return calls.incrementAndGet();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
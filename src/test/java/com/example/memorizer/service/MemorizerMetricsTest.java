@@ -0,0 +1,73 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.model.PayoutBatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link MemorizerMetrics}.
+ * 
+ * Проверяют имена и теги метрик и их учет только после фиксации транзакции.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MemorizerMetrics Tests")
+class MemorizerMetricsTest {
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private MemorizerMetrics metrics;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Созданные записи должны учитываться по типу")
+    void itemsCreated_ShouldIncrementCountersByType() {
+        // Act
+        metrics.itemsCreated(ItemType.SHIFT, 2, 7000);
+        metrics.itemsCreated(ItemType.SONG, 1, 1000);
+
+        // Assert
+        assertEquals(2, meterRegistry.get("memorizer.items.created").tag("type", "shift").counter().count());
+        assertEquals(7000, meterRegistry.get("memorizer.items.amount").tag("type", "shift").counter().count());
+        assertEquals(1000, meterRegistry.get("memorizer.items.amount").tag("type", "song").counter().count());
+    }
+
+    @Test
+    @DisplayName("Выплата должна учитываться только после фиксации транзакции")
+    void paidOut_InsideTransaction_ShouldWaitForCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        PayoutBatch batch = new PayoutBatch(1L, Instant.now(), 8000, 2, 7000, 1, 1000);
+
+        // Act
+        metrics.paidOut(batch);
+
+        // Assert
+        assertNull(meterRegistry.find("memorizer.payouts").counter(), "До фиксации метрика не учитывается");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, meterRegistry.get("memorizer.payouts").counter().count());
+        assertEquals(7000, meterRegistry.get("memorizer.payout.amount").tag("type", "shift").counter().count());
+        assertEquals(1000, meterRegistry.get("memorizer.payout.amount").tag("type", "song").counter().count());
+    }
+}
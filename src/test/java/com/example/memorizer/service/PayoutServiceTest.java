@@ -0,0 +1,353 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.ItemTotals;
+import com.example.memorizer.dto.PayoutScope;
+import com.example.memorizer.event.PayoutCompletedEvent;
+import com.example.memorizer.event.PayoutProgressEvent;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.model.PayoutBatch;
+import com.example.memorizer.model.PayoutStatus;
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.repository.PayoutBatchRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link PayoutService}.
+ * 
+ * Проверяют, что выплата закрывает неоплаченные записи массовыми
+ * UPDATE запросами, фиксирует выплату и обновляет журнал заработка,
+ * а выплата по области закрывает записи порциями и может быть продолжена.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PayoutService Tests")
+class PayoutServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private PayoutBatchRepository payoutBatchRepository;
+
+    @Mock
+    private EarningsLedgerService ledgerService;
+
+    @Mock
+    private ShiftRollupService rollupService;
+
+    @Mock
+    private MemorizerMetrics metrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TenantService tenantService;
+
+    @InjectMocks
+    private PayoutService payoutService;
+
+    /** Выплата в "базе": сохраняется и читается моками репозитория */
+    private PayoutBatch stored;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(payoutService, "chunkSize", 2);
+        ReflectionTestUtils.setField(payoutService, "executor", (Executor) Runnable::run);
+    }
+
+    private static ItemTotals totals(long count, long amount) {
+        return new ItemTotals() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public long getAmount() {
+                return amount;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Выплата должна закрыть все записи и вернуть выплаченную сумму")
+    void payout_ShouldSettleAllItemsAndReturnAmount() {
+        // Arrange
+        when(shiftRepository.summarizeUnpaid()).thenReturn(totals(2, 7000));
+        when(songRepository.summarizeUnpaid()).thenReturn(totals(1, 1000));
+        when(payoutBatchRepository.save(any(PayoutBatch.class))).thenAnswer(invocation -> {
+            PayoutBatch batch = invocation.getArgument(0);
+            batch.setId(10L);
+            return batch;
+        });
+
+        // Act
+        PayoutBatch result = payoutService.payout();
+
+        // Assert
+        assertEquals(10L, result.getId());
+        assertEquals(8000, result.getAmount());
+        assertEquals(2, result.getShiftCount());
+        assertEquals(1, result.getSongCount());
+        assertNotNull(result.getCreatedAt());
+
+        InOrder inOrder = inOrder(ledgerService, shiftRepository, songRepository);
+        inOrder.verify(ledgerService).lockAll();
+        inOrder.verify(shiftRepository).settleUnpaid(10L);
+        inOrder.verify(songRepository).settleUnpaid(10L);
+        verify(ledgerService, times(1)).recordPayout(ItemType.SHIFT, 7000);
+        verify(ledgerService, times(1)).recordPayout(ItemType.SONG, 1000);
+        verify(rollupService, times(1)).recordPayout();
+        verify(metrics, times(1)).paidOut(result);
+        verify(eventPublisher, times(1)).publishEvent(new PayoutCompletedEvent(result));
+    }
+
+    @Test
+    @DisplayName("Выплата без неоплаченных записей не должна ничего сохранять")
+    void payout_WithNothingUnpaid_ShouldNotPersistBatch() {
+        // Arrange
+        when(shiftRepository.summarizeUnpaid()).thenReturn(totals(0, 0));
+        when(songRepository.summarizeUnpaid()).thenReturn(totals(0, 0));
+
+        // Act
+        PayoutBatch result = payoutService.payout();
+
+        // Assert
+        assertNull(result.getId());
+        assertEquals(0, result.getAmount());
+        verify(payoutBatchRepository, never()).save(any(PayoutBatch.class));
+        verify(shiftRepository, never()).settleUnpaid(any());
+        verify(songRepository, never()).settleUnpaid(any());
+        verify(ledgerService, never()).recordPayout(any(), anyLong());
+        verify(rollupService, never()).recordPayout();
+    }
+
+    @Test
+    @DisplayName("Выплата работнику должна закрыть смены порциями и не трогать песни")
+    void payoutScope_ByWorker_ShouldSettleShiftChunks() {
+        // Arrange
+        runTransactionsInline();
+        storeBatches();
+        when(shiftRepository.findUnpaidForPayout("Я", null, null, Limit.of(1))).thenReturn(List.of(shift(1L, 3000)));
+        when(shiftRepository.findUnpaidForPayout("Я", null, null, Limit.of(2)))
+                .thenReturn(List.of(shift(1L, 3000), shift(2L, 4000)), List.of(shift(3L, 3000)));
+
+        // Act
+        PayoutBatch result = payoutService.payout(new PayoutScope("Я", null, null, null));
+
+        // Assert
+        assertEquals(PayoutStatus.COMPLETED, result.getStatus());
+        assertEquals(3, result.getShiftCount());
+        assertEquals(10000, result.getAmount());
+        assertEquals("Я", result.getWorkerName());
+        verify(ledgerService, times(3)).lockAll();
+        verify(shiftRepository).settleByIds(10L, List.of(1L, 2L));
+        verify(shiftRepository).settleByIds(10L, List.of(3L));
+        verify(ledgerService).recordPayout(ItemType.SHIFT, 7000);
+        verify(ledgerService).recordPayout(ItemType.SHIFT, 3000);
+        verify(rollupService, times(2)).recordSettled(anyList());
+        verify(songRepository, never()).findUnpaidForPayout(any());
+        verify(eventPublisher, times(2)).publishEvent(any(PayoutProgressEvent.class));
+        verify(eventPublisher).publishEvent(any(PayoutCompletedEvent.class));
+        verify(metrics).paidOut(result);
+    }
+
+    @Test
+    @DisplayName("Выплата с пределом должна остановиться на первой не укладывающейся записи")
+    void payoutScope_WithCap_ShouldStopBeforeExceeding() {
+        // Arrange
+        runTransactionsInline();
+        storeBatches();
+        when(shiftRepository.findUnpaidForPayout(null, null, null, Limit.of(1))).thenReturn(List.of(shift(1L, 3000)));
+        when(shiftRepository.findUnpaidForPayout(null, null, null, Limit.of(2)))
+                .thenReturn(List.of(shift(1L, 3000), shift(2L, 4000)));
+
+        // Act
+        PayoutBatch result = payoutService.payout(new PayoutScope(null, null, null, 5000L));
+
+        // Assert
+        assertEquals(3000, result.getAmount());
+        assertEquals(1, result.getShiftCount());
+        verify(shiftRepository).settleByIds(10L, List.of(1L));
+        verify(songRepository, never()).findUnpaidForPayout(any());
+    }
+
+    @Test
+    @DisplayName("Выплата по области должна вернуться до закрытия порций и закрыть их в фоне для арендатора")
+    void payoutScope_ShouldReturnInProgressAndSettleInBackground() {
+        // Arrange
+        List<Runnable> background = new ArrayList<>();
+        ReflectionTestUtils.setField(payoutService, "executor", (Executor) background::add);
+        runTransactionsInline();
+        storeBatches();
+        List<String> lockedTenants = new ArrayList<>();
+        doAnswer(invocation -> lockedTenants.add(TenantContext.current())).when(ledgerService).lockAll();
+        when(shiftRepository.findUnpaidForPayout("Я", null, null, Limit.of(1))).thenReturn(List.of(shift(1L, 3000)));
+        when(shiftRepository.findUnpaidForPayout("Я", null, null, Limit.of(2))).thenReturn(List.of(shift(1L, 3000)));
+
+        // Act
+        PayoutBatch started = TenantContext.call("acme",
+                () -> payoutService.payout(new PayoutScope("Я", null, null, null)));
+
+        // Assert
+        assertEquals(10L, started.getId());
+        assertEquals(PayoutStatus.IN_PROGRESS, started.getStatus());
+        assertEquals(0, started.getShiftCount());
+        verify(shiftRepository, never()).settleByIds(any(), any());
+
+        background.forEach(Runnable::run);
+        assertEquals(PayoutStatus.COMPLETED, payoutService.getPayout(10L).getStatus());
+        assertEquals(1, payoutService.getPayout(10L).getShiftCount());
+        assertEquals(List.of("acme", "acme"), lockedTenants);
+    }
+
+    @Test
+    @DisplayName("Выплата по области без подходящих записей не должна сохраняться")
+    void payoutScope_WithNothingUnpaid_ShouldNotPersistBatch() {
+        // Arrange
+        when(shiftRepository.findUnpaidForPayout("Я", null, null, Limit.of(1))).thenReturn(List.of());
+
+        // Act
+        PayoutBatch result = payoutService.payout(new PayoutScope("Я", null, null, null));
+
+        // Assert
+        assertNull(result.getId());
+        assertEquals(PayoutStatus.COMPLETED, result.getStatus());
+        verify(payoutBatchRepository, never()).save(any());
+        verify(songRepository, never()).findUnpaidForPayout(any());
+    }
+
+    @Test
+    @DisplayName("Продолжение выплаты должно закрыть оставшиеся записи, не повторяя закрытые")
+    void resume_InterruptedPayout_ShouldSettleRemainingItems() {
+        // Arrange
+        runTransactionsInline();
+        storeBatches();
+        stored = new PayoutBatch(10L, Instant.now(), 7000, 2, 7000, 0, 0);
+        stored.setStatus(PayoutStatus.IN_PROGRESS);
+        when(shiftRepository.findUnpaidForPayout(null, null, null, Limit.of(2))).thenReturn(List.of());
+        Song song = new Song();
+        song.setId(5L);
+        song.setCost(1000);
+        when(songRepository.findUnpaidForPayout(Limit.of(2))).thenReturn(List.of(song));
+
+        // Act
+        PayoutBatch result = payoutService.resume(10L);
+
+        // Assert
+        assertEquals(PayoutStatus.COMPLETED, result.getStatus());
+        assertEquals(2, result.getShiftCount());
+        assertEquals(1, result.getSongCount());
+        assertEquals(8000, result.getAmount());
+        verify(songRepository).settleByIds(10L, List.of(5L));
+        verify(ledgerService).recordPayout(ItemType.SONG, 1000);
+        verify(shiftRepository, never()).settleByIds(any(), any());
+    }
+
+    @Test
+    @DisplayName("Прерванные выплаты при старте должны продолжаться в фоне, не задерживая старт")
+    void resumeInterrupted_ShouldSettleInBackground() {
+        // Arrange
+        List<Runnable> background = new ArrayList<>();
+        ReflectionTestUtils.setField(payoutService, "executor", (Executor) background::add);
+        runTransactionsInline();
+        storeBatches();
+        stored = new PayoutBatch(10L, Instant.now(), 0, 0, 0, 0, 0);
+        stored.setStatus(PayoutStatus.IN_PROGRESS);
+        stored.setWorkerName("Я");
+        doAnswer(invocation -> {
+            TenantContext.run("acme", () -> invocation.<Consumer<String>>getArgument(0).accept("acme"));
+            return null;
+        }).when(tenantService).forEachTenant(any());
+        when(payoutBatchRepository.findByStatusOrderByIdAsc(PayoutStatus.IN_PROGRESS)).thenReturn(List.of(stored));
+        List<String> lockedTenants = new ArrayList<>();
+        doAnswer(invocation -> lockedTenants.add(TenantContext.current())).when(ledgerService).lockAll();
+        when(shiftRepository.findUnpaidForPayout("Я", null, null, Limit.of(2))).thenReturn(List.of(shift(1L, 3000)));
+
+        // Act
+        payoutService.resumeInterrupted();
+
+        // Assert
+        assertEquals(1, background.size());
+        verify(shiftRepository, never()).settleByIds(any(), any());
+
+        background.forEach(Runnable::run);
+        assertEquals(PayoutStatus.COMPLETED, stored.getStatus());
+        assertEquals(1, stored.getShiftCount());
+        assertEquals(List.of("acme", "acme"), lockedTenants);
+    }
+
+    @Test
+    @DisplayName("Выплата с началом периода позже конца должна приводить к ошибке 400")
+    void payoutScope_InvertedPeriod_ShouldThrowBadRequest() {
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> payoutService.payout(new PayoutScope(null, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1),
+                        null)));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(payoutBatchRepository, ledgerService);
+    }
+
+    private static Shift shift(Long id, int cost) {
+        Shift shift = new Shift();
+        shift.setId(id);
+        shift.setWorkerName("Я");
+        shift.setDate(LocalDate.of(2026, 1, id.intValue()));
+        shift.setCost(cost);
+        return shift;
+    }
+
+    private void storeBatches() {
+        when(payoutBatchRepository.save(any(PayoutBatch.class))).thenAnswer(invocation -> {
+            stored = invocation.getArgument(0);
+            if (stored.getId() == null) {
+                stored.setId(10L);
+            }
+            return stored;
+        });
+        when(payoutBatchRepository.findById(10L)).thenAnswer(invocation -> Optional.ofNullable(stored));
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
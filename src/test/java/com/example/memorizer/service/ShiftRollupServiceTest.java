@@ -0,0 +1,181 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.model.Shift;
+import com.example.memorizer.model.ShiftRollup;
+import com.example.memorizer.repository.ShiftRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link ShiftRollupService}.
+ *
+ * Проверяют инкрементальное обновление итогов смен по работникам
+ * и месяцам.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShiftRollupService Tests")
+class ShiftRollupServiceTest {
+
+    @Mock
+    private ShiftRollupRepository rollupRepository;
+
+    @Mock
+    private EarningsLedgerService ledgerService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ShiftRollupService rollupService;
+
+    private static Shift shift(String workerName, LocalDate date, int cost, boolean paid) {
+        Shift shift = new Shift();
+        shift.setWorkerName(workerName);
+        shift.setDate(date);
+        shift.setCost(cost);
+        shift.setPaid(paid);
+        return shift;
+    }
+
+    @Test
+    @DisplayName("Новая смена должна прибавляться к существующим итогам месяца")
+    void recordCreated_ExistingRollup_ShouldIncrement() {
+        // Arrange
+        when(rollupRepository.add("Я", 2026, 3, false, 1, 4000)).thenReturn(1);
+
+        // Act
+        rollupService.recordCreated(shift("Я", LocalDate.of(2026, 3, 14), 4000, false));
+
+        // Assert
+        verify(rollupRepository).add("Я", 2026, 3, false, 1, 4000);
+        verify(rollupRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Первая смена работника за месяц должна создать строку итогов")
+    void recordCreated_NoRollup_ShouldInsert() {
+        // Arrange
+        when(rollupRepository.add("", 2026, 3, false, 1, 3000)).thenReturn(0);
+
+        // Act
+        rollupService.recordCreated(shift(null, LocalDate.of(2026, 3, 1), 3000, false));
+
+        // Assert
+        verify(rollupRepository).save(new ShiftRollup("default", "", 2026, 3, false, 1, 3000));
+    }
+
+    @Test
+    @DisplayName("Удаление смены должно вычитаться из итогов, смена без даты не учитывается")
+    void recordDeleted_ShouldDecrement() {
+        // Arrange
+        when(rollupRepository.add("Я", 2025, 12, true, -1, -5000)).thenReturn(1);
+
+        // Act
+        rollupService.recordDeleted(shift("Я", LocalDate.of(2025, 12, 31), 5000, true));
+        rollupService.recordDeleted(shift("Я", null, 5000, true));
+
+        // Assert
+        verify(rollupRepository, times(1)).add(any(), anyInt(), anyInt(), anyBoolean(), anyLong(), anyLong());
+    }
+
+    /**
+     * Возвращает приращения, переданные единственным пакетом merge.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<ShiftRollup.Key, List<Long>> merged() {
+        ArgumentCaptor<Collection<Map.Entry<ShiftRollup.Key, long[]>>> batch =
+                ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(eq(ShiftRollupService.MERGE_SQL), batch.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        Map<ShiftRollup.Key, List<Long>> deltas = new LinkedHashMap<>();
+        for (Map.Entry<ShiftRollup.Key, long[]> entry : batch.getValue()) {
+            deltas.put(entry.getKey(), List.of(entry.getValue()[0], entry.getValue()[1]));
+        }
+        return deltas;
+    }
+
+    @Test
+    @DisplayName("Порция смен должна давать одно обновление на работника и месяц одним пакетом")
+    void recordCreatedAll_ShouldGroupByWorkerAndMonth() {
+        // Act
+        rollupService.recordCreatedAll(List.of(
+                shift("Я", LocalDate.of(2026, 1, 5), 3000, false),
+                shift("Я", LocalDate.of(2026, 1, 6), 4000, false),
+                shift("Аня", LocalDate.of(2026, 1, 6), 3000, false)));
+
+        // Assert
+        assertEquals(Map.of(
+                new ShiftRollup.Key("default", "Я", 2026, 1, false), List.of(2L, 7000L),
+                new ShiftRollup.Key("default", "Аня", 2026, 1, false), List.of(1L, 3000L)), merged());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Выплата части смен должна перенести их итоги из неоплаченных в оплаченные")
+    void recordSettled_ShouldMoveTotalsToPaid() {
+        // Act
+        rollupService.recordSettled(List.of(
+                shift("Я", LocalDate.of(2026, 1, 5), 3000, false),
+                shift("Я", LocalDate.of(2026, 1, 6), 4000, false)));
+
+        // Assert
+        assertEquals(Map.of(
+                new ShiftRollup.Key("default", "Я", 2026, 1, false), List.of(-2L, -7000L),
+                new ShiftRollup.Key("default", "Я", 2026, 1, true), List.of(2L, 7000L)), merged());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Порция без датированных смен не должна обращаться к базе")
+    void recordCreatedAll_WithoutDates_ShouldSkipBatch() {
+        // Act
+        rollupService.recordCreatedAll(List.of(shift("Я", null, 3000, false)));
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Выплата должна перенести неоплаченные итоги в оплаченные")
+    void recordPayout_ShouldMergeThenDeleteUnpaid() {
+        // Act
+        rollupService.recordPayout();
+
+        // Assert
+        InOrder inOrder = inOrder(rollupRepository);
+        inOrder.verify(rollupRepository).mergeUnpaidIntoPaid("default");
+        inOrder.verify(rollupRepository).deleteUnpaid();
+    }
+
+    @Test
+    @DisplayName("Пересборка должна заблокировать журнал и заполнить итоги заново")
+    void rebuild_ShouldLockLedgerAndRefill() {
+        // Act
+        rollupService.rebuild();
+
+        // Assert
+        InOrder inOrder = inOrder(ledgerService, rollupRepository);
+        inOrder.verify(ledgerService).lockAll();
+        inOrder.verify(rollupRepository).deleteAllInBatch();
+        inOrder.verify(rollupRepository).insertFromShifts("default");
+    }
+}
@@ -1,22 +1,51 @@
 package com.example.memorizer.service;
 
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.ShiftFilter;
+import com.example.memorizer.dto.ShiftSummary;
+import com.example.memorizer.event.ShiftCreatedEvent;
+import com.example.memorizer.event.ShiftDeletedEvent;
+import com.example.memorizer.model.ItemType;
 import com.example.memorizer.model.Shift;
 import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.ShiftSpecifications;
+import com.example.memorizer.service.tariff.TariffEngine;
+import com.example.memorizer.service.tariff.TariffProperties;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -32,6 +61,27 @@ class ShiftServiceTest {
     @Mock
     private ShiftRepository shiftRepository;
 
+    @Mock
+    private EarningsLedgerService ledgerService;
+
+    @Mock
+    private ShiftRollupService rollupService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TariffEngine tariffEngine = new TariffEngine(new TariffProperties());
+
+    @Mock
+    private MemorizerMetrics metrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ShiftService shiftService;
 
@@ -51,14 +101,14 @@ class ShiftServiceTest {
         // Arrange - Пятница 17 января 2025
         LocalDate friday = LocalDate.of(2025, 1, 17);
         testShift.setDate(friday);
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
 
         // Act
         Shift result = shiftService.createShift(testShift);
 
         // Assert
         assertEquals(4000, result.getCost(), "Смена в пятницу должна стоить 4000₽");
-        verify(shiftRepository, times(1)).save(testShift);
+        verify(shiftRepository, times(1)).saveAndFlush(testShift);
     }
 
     @Test
@@ -67,14 +117,14 @@ class ShiftServiceTest {
         // Arrange - Суббота 18 января 2025
         LocalDate saturday = LocalDate.of(2025, 1, 18);
         testShift.setDate(saturday);
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
 
         // Act
         Shift result = shiftService.createShift(testShift);
 
         // Assert
         assertEquals(4000, result.getCost(), "Смена в субботу должна стоить 4000₽");
-        verify(shiftRepository, times(1)).save(testShift);
+        verify(shiftRepository, times(1)).saveAndFlush(testShift);
     }
 
     @Test
@@ -83,14 +133,14 @@ class ShiftServiceTest {
         // Arrange - Понедельник 20 января 2025
         LocalDate monday = LocalDate.of(2025, 1, 20);
         testShift.setDate(monday);
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
 
         // Act
         Shift result = shiftService.createShift(testShift);
 
         // Assert
         assertEquals(3000, result.getCost(), "Смена в понедельник должна стоить 3000₽");
-        verify(shiftRepository, times(1)).save(testShift);
+        verify(shiftRepository, times(1)).saveAndFlush(testShift);
     }
 
     @Test
@@ -99,14 +149,14 @@ class ShiftServiceTest {
         // Arrange - 1 января (праздник, несмотря на день недели)
         LocalDate jan1 = LocalDate.of(2025, 1, 1);
         testShift.setDate(jan1);
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
 
         // Act
         Shift result = shiftService.createShift(testShift);
 
         // Assert
         assertEquals(3000, result.getCost(), "Смена в праздничный день (1 янв) должна стоить 3000₽");
-        verify(shiftRepository, times(1)).save(testShift);
+        verify(shiftRepository, times(1)).saveAndFlush(testShift);
     }
 
     @Test
@@ -115,7 +165,7 @@ class ShiftServiceTest {
         // Arrange - 10 января 2025 (пятница, но праздник имеет приоритет)
         LocalDate jan10 = LocalDate.of(2025, 1, 10);
         testShift.setDate(jan10);
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
 
         // Act
         Shift result = shiftService.createShift(testShift);
@@ -123,7 +173,7 @@ class ShiftServiceTest {
         // Assert
         assertEquals(3000, result.getCost(),
                 "Смена в праздник (1-12 янв) должна стоить 3000₽, даже если это пятница");
-        verify(shiftRepository, times(1)).save(testShift);
+        verify(shiftRepository, times(1)).saveAndFlush(testShift);
     }
 
     @Test
@@ -132,46 +182,199 @@ class ShiftServiceTest {
         // Arrange - 13 января (не праздник, обычный будний день)
         LocalDate jan13 = LocalDate.of(2025, 1, 13);
         testShift.setDate(jan13);
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
 
         // Act
         Shift result = shiftService.createShift(testShift);
 
         // Assert
         assertEquals(3000, result.getCost(), "Смена 13 января должна стоить 3000₽ (обычный будний день)");
-        verify(shiftRepository, times(1)).save(testShift);
+        verify(shiftRepository, times(1)).saveAndFlush(testShift);
     }
 
     @Test
-    @DisplayName("Получение всех смен должно вернуть список")
-    void getAllShifts_ShouldReturnList() {
+    @DisplayName("Страница смен должна содержать курсор, если есть ещё записи")
+    void findShifts_WithMoreRows_ShouldReturnNextCursor() {
         // Arrange
         Shift shift1 = new Shift();
-        shift1.setId(1L);
+        shift1.setId(3L);
+        shift1.setDate(LocalDate.of(2025, 1, 20));
         Shift shift2 = new Shift();
         shift2.setId(2L);
-        List<Shift> expectedShifts = Arrays.asList(shift1, shift2);
-        when(shiftRepository.findAll()).thenReturn(expectedShifts);
+        shift2.setDate(LocalDate.of(2025, 1, 18));
+        Shift shift3 = new Shift();
+        shift3.setId(1L);
+        shift3.setDate(LocalDate.of(2025, 1, 17));
+        when(shiftRepository.findBy(any(Specification.class), any())).thenReturn(Arrays.asList(shift1, shift2, shift3));
+
+        // Act
+        KeysetPage<Shift> result = shiftService.findShifts(null, null, 2);
+
+        // Assert
+        assertEquals(2, result.getItems().size(), "Должно быть возвращено 2 смены");
+        assertEquals("2025-01-18:2", result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Последняя страница смен не должна содержать курсор")
+    void findShifts_LastPage_ShouldHaveNoCursor() {
+        // Arrange
+        Shift shift1 = new Shift();
+        shift1.setId(1L);
+        shift1.setDate(LocalDate.of(2025, 1, 20));
+        when(shiftRepository.findBy(any(Specification.class), any())).thenReturn(List.of(shift1));
 
         // Act
-        List<Shift> result = shiftService.getAllShifts();
+        KeysetPage<Shift> result = shiftService.findShifts(new ShiftFilter("Я", null, null, false), "2025-01-21:5", 2);
 
         // Assert
-        assertEquals(2, result.size(), "Должно быть возвращено 2 смены");
-        verify(shiftRepository, times(1)).findAll();
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
-    @DisplayName("Удаление смены должно вызвать deleteById")
-    void deleteShift_ShouldCallRepositoryDeleteById() {
+    @DisplayName("Размер выборки должен задаваться до порядка, чтобы порядок не дублировался в запросе")
+    @SuppressWarnings("unchecked")
+    void findShifts_ShouldLimitBeforeSorting() {
+        // Arrange
+        FetchableFluentQuery<Shift> query = mock(FetchableFluentQuery.class, RETURNS_SELF);
+        when(shiftRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                invocation.<Function<FetchableFluentQuery<Shift>, List<Shift>>>getArgument(1).apply(query));
+
+        // Act
+        shiftService.findShifts(null, null, 10);
+
+        // Assert
+        InOrder order = inOrder(query);
+        order.verify(query).limit(11);
+        order.verify(query).sortBy(ShiftSpecifications.KEYSET_ORDER);
+        order.verify(query).all();
+    }
+
+    @Test
+    @DisplayName("Неверный курсор должен приводить к ошибке 400")
+    void findShifts_InvalidCursor_ShouldThrowBadRequest() {
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> shiftService.findShifts(null, "not-a-cursor", 10));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(shiftRepository);
+    }
+
+    private record Summary(Long id, LocalDate date, String workerName, Integer cost, boolean paid)
+            implements ShiftSummary {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public LocalDate getDate() {
+            return date;
+        }
+
+        @Override
+        public String getWorkerName() {
+            return workerName;
+        }
+
+        @Override
+        public Integer getCost() {
+            return cost;
+        }
+
+        @Override
+        public boolean isPaid() {
+            return paid;
+        }
+    }
+
+    @Test
+    @DisplayName("Компактная страница смен должна читать проекции после курсора и возвращать массивы значений")
+    void findShiftsCompact_WithCursor_ShouldReturnRowsAndNextCursor() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 1, 18);
+        when(shiftRepository.findSummariesAfter(eq(LocalDate.of(2025, 1, 21)), eq(5L), eq("Я"), isNull(), isNull(),
+                eq(false), eq(Limit.of(2)))).thenReturn(List.of(
+                        new Summary(3L, date, "Я", 4000, false), new Summary(2L, date, "Я", 4000, false)));
+
+        // Act
+        CompactPage result = shiftService.findShiftsCompact(new ShiftFilter("Я", null, null, false), "2025-01-21:5", 1);
+
+        // Assert
+        assertEquals(ShiftSummary.COLUMNS, result.getColumns());
+        assertEquals(1, result.getRows().size());
+        assertArrayEquals(new Object[] {3L, date, "Я", 4000, false}, result.getRows().get(0));
+        assertEquals("2025-01-18:3", result.getNextCursor());
+        verify(shiftRepository, never()).findSummaries(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Удаление смены должно удалить её и вычесть стоимость из журнала")
+    void deleteShift_ShouldDeleteAndUpdateLedger() {
         // Arrange
         Long shiftId = 1L;
+        testShift.setId(shiftId);
+        testShift.setCost(4000);
+        when(shiftRepository.findById(shiftId)).thenReturn(Optional.of(testShift));
 
         // Act
         shiftService.deleteShift(shiftId);
 
         // Assert
-        verify(shiftRepository, times(1)).deleteById(shiftId);
+        verify(ledgerService, times(1)).recordDeleted(ItemType.SHIFT, 4000, false);
+        verify(rollupService, times(1)).recordDeleted(any(Shift.class));
+        verify(eventPublisher, times(1)).publishEvent(new ShiftDeletedEvent(testShift));
+        verify(shiftRepository, times(1)).delete(testShift);
+    }
+
+    @Test
+    @DisplayName("Удаление смены, которую одновременно закрыла выплата, должно вернуть 409")
+    void deleteShift_ConcurrentPayout_ShouldThrowConflict() {
+        // Arrange
+        testShift.setId(1L);
+        when(shiftRepository.findById(1L)).thenReturn(Optional.of(testShift));
+        doThrow(new ObjectOptimisticLockingFailureException(Shift.class, 1L)).when(shiftRepository).flush();
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> shiftService.deleteShift(1L));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Удаление несуществующей смены не должно менять журнал")
+    void deleteShift_Missing_ShouldDoNothing() {
+        // Arrange
+        when(shiftRepository.findById(42L)).thenReturn(Optional.empty());
+
+        // Act
+        shiftService.deleteShift(42L);
+
+        // Assert
+        verify(ledgerService, never()).recordDeleted(any(), any(), anyBoolean());
+        verify(shiftRepository, never()).delete(any(Shift.class));
+    }
+
+    @Test
+    @DisplayName("Создание смены должно учесть её стоимость в журнале")
+    void createShift_ShouldRecordCostInLedger() {
+        // Arrange - Суббота 18 января 2025
+        testShift.setDate(LocalDate.of(2025, 1, 18));
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
+
+        // Act
+        shiftService.createShift(testShift);
+
+        // Assert
+        verify(ledgerService, times(1)).recordCreated(ItemType.SHIFT, 4000);
+        verify(rollupService, times(1)).recordCreated(any(Shift.class));
+        verify(metrics, times(1)).itemsCreated(ItemType.SHIFT, 1, 4000);
+        verify(eventPublisher, times(1)).publishEvent(new ShiftCreatedEvent(testShift));
     }
 
     @Test
@@ -180,13 +383,150 @@ class ShiftServiceTest {
         // Arrange
         LocalDate date = LocalDate.of(2025, 1, 20);
         testShift.setDate(date);
-        when(shiftRepository.save(any(Shift.class))).thenReturn(testShift);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenReturn(testShift);
 
         // Act
         Shift result = shiftService.createShift(testShift);
 
         // Assert
         assertFalse(result.isPaid(), "Новая смена должна быть неоплаченной");
-        verify(shiftRepository, times(1)).save(testShift);
+        verify(shiftRepository, times(1)).saveAndFlush(testShift);
+    }
+
+    @Test
+    @DisplayName("Флаг оплаты и выплата из запроса должны игнорироваться, а стоимость попасть в неоплаченное")
+    void createShift_PaidInRequest_ShouldStayUnpaidAndRecordBalance() {
+        // Arrange - понедельник 20 января 2025
+        testShift.setDate(LocalDate.of(2025, 1, 20));
+        testShift.setPaid(true);
+        testShift.setPayoutId(5L);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        Shift result = shiftService.createShift(testShift);
+
+        // Assert
+        assertFalse(result.isPaid());
+        assertNull(result.getPayoutId());
+        verify(ledgerService, times(1)).recordCreated(ItemType.SHIFT, 3000);
+        verify(rollupService, times(1)).recordCreated(argThat(shift -> !shift.isPaid()));
+    }
+
+    @Test
+    @DisplayName("Повторная смена с теми же работником, датой и временем начала должна вернуть 409")
+    void createShift_Duplicate_ShouldThrowConflict() {
+        // Arrange
+        testShift.setDate(LocalDate.of(2025, 1, 20));
+        when(shiftRepository.saveAndFlush(any(Shift.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_shift_worker_date_start"));
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> shiftService.createShift(testShift));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Смена без даты должна отклоняться с кодом 400 до расчета стоимости")
+    void createShift_WithoutDate_ShouldThrowBadRequest() {
+        // Arrange
+        testShift.setDate(null);
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> shiftService.createShift(testShift));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verifyNoInteractions(ledgerService, rollupService, shiftRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Идентификатор и версия из запроса должны игнорироваться")
+    void createShift_ShouldIgnoreClientIdAndVersion() {
+        // Arrange
+        testShift.setDate(LocalDate.of(2025, 1, 20));
+        testShift.setId(7L);
+        testShift.setVersion(3L);
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        Shift result = shiftService.createShift(testShift);
+
+        // Assert
+        assertNull(result.getId());
+        assertNull(result.getVersion());
+    }
+
+    @Test
+    @DisplayName("Пакетный импорт должен рассчитать стоимость смен и обновить журнал одной суммой")
+    void importShifts_ShouldPriceShiftsAndRecordTotal() {
+        // Arrange
+        runCallbacksInline();
+        Shift friday = new Shift();
+        friday.setDate(LocalDate.of(2026, 3, 6));
+        friday.setPaid(true);
+        friday.setId(42L);
+        Shift monday = new Shift();
+        monday.setDate(LocalDate.of(2026, 3, 9));
+
+        // Act
+        BatchImportResult result = shiftService.importShifts(List.of(friday, monday).iterator());
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(7000, result.getTotalCost());
+        assertEquals(4000, friday.getCost());
+        assertEquals(3000, monday.getCost());
+        assertFalse(friday.isPaid(), "Импортированная смена должна быть неоплаченной");
+        assertNull(friday.getId(), "Идентификатор должен назначаться базой");
+        verify(ledgerService, times(1)).recordCreatedTotal(ItemType.SHIFT, 7000);
+        verify(rollupService, times(1)).recordCreatedAll(anyList());
+        verify(metrics, times(1)).itemsCreated(ItemType.SHIFT, 2, 7000);
+        verify(shiftRepository, times(1)).saveAll(List.of(friday, monday));
+    }
+
+    @Test
+    @DisplayName("Пакетный импорт должен сохранять смены порциями")
+    void importShifts_LargeInput_ShouldSaveInChunks() {
+        // Arrange
+        runCallbacksInline();
+        LocalDate monday = LocalDate.of(2026, 3, 9);
+        List<Shift> shifts = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            Shift shift = new Shift();
+            shift.setDate(monday);
+            shifts.add(shift);
+        }
+
+        // Act
+        BatchImportResult result = shiftService.importShifts(shifts.iterator());
+
+        // Assert
+        assertEquals(2500, result.getImported());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(ledgerService, times(2)).recordCreatedTotal(ItemType.SHIFT, 3_000_000L);
+        verify(ledgerService, times(1)).recordCreatedTotal(ItemType.SHIFT, 1_500_000L);
+    }
+
+    @Test
+    @DisplayName("Смена без даты при импорте должна приводить к ошибке 400")
+    void importShifts_MissingDate_ShouldThrowBadRequest() {
+        // Arrange
+        runCallbacksInline();
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> shiftService.importShifts(List.of(new Shift()).iterator()));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(shiftRepository, never()).saveAll(any());
+    }
+
+    private void runCallbacksInline() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 }
@@ -1,7 +1,14 @@
 package com.example.memorizer.service;
 
+import com.example.memorizer.dto.BatchImportResult;
+import com.example.memorizer.dto.CompactPage;
+import com.example.memorizer.dto.KeysetPage;
+import com.example.memorizer.dto.SongFilter;
+import com.example.memorizer.dto.SongSummary;
+import com.example.memorizer.model.ItemType;
 import com.example.memorizer.model.Song;
 import com.example.memorizer.repository.SongRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,9 +16,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +51,21 @@ class SongServiceTest {
 
     private SongRepository songRepository;
 
+    @Mock
+    private EarningsLedgerService ledgerService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private MemorizerMetrics metrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SongService songService;
 
@@ -42,6 +77,25 @@ class SongServiceTest {
         testSong.setTitle("Тестовая песня");
         testSong.setArtist("Тестовый исполнитель");
         testSong.setAddedBy("Тестовый гость");
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("В режиме отложенной записи песня должна ставиться в очередь, а не сохраняться")
+    void addSong_WriteBehind_ShouldEnqueue() {
+        // Arrange
+        SongWriteBehindQueue queue = mock(SongWriteBehindQueue.class);
+        ReflectionTestUtils.setField(songService, "writeBehindQueue", queue);
+        when(queue.enqueue(testSong)).thenReturn(testSong);
+
+        // Act
+        Song result = songService.addSong(testSong);
+
+        // Assert
+        assertSame(testSong, result);
+        assertEquals(1000, result.getCost());
+        verifyNoInteractions(songRepository, ledgerService, transactionTemplate);
     }
 
     @Test
@@ -75,41 +129,118 @@ class SongServiceTest {
     }
 
     @Test
-    @DisplayName("Получение всех песен должно вернуть список")
-    void getAllSongs_ShouldReturnList() {
+    @DisplayName("Страница песен должна содержать курсор, если есть ещё записи")
+    void findSongs_WithMoreRows_ShouldReturnNextCursor() {
         // Arrange
         Song song1 = new Song();
-        song1.setId(1L);
-        song1.setTitle("Песня 1");
+        song1.setId(2L);
+        song1.setTitle("Песня 2");
 
         Song song2 = new Song();
-        song2.setId(2L);
-        song2.setTitle("Песня 2");
+        song2.setId(1L);
+        song2.setTitle("Песня 1");
+
+        when(songRepository.findBy(any(Specification.class), any())).thenReturn(Arrays.asList(song1, song2));
+
+        // Act
+        KeysetPage<Song> result = songService.findSongs(null, null, 1);
+
+        // Assert
+        assertEquals(1, result.getItems().size(), "Должна быть возвращена 1 песня");
+        assertEquals("Песня 2", result.getItems().get(0).getTitle());
+        assertEquals("2", result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Неверный курсор песен должен приводить к ошибке 400")
+    void findSongs_InvalidCursor_ShouldThrowBadRequest() {
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> songService.findSongs(new SongFilter(null, false), "abc", 10));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
 
-        List<Song> expectedSongs = Arrays.asList(song1, song2);
-        when(songRepository.findAll()).thenReturn(expectedSongs);
+    @Test
+    @DisplayName("Первая компактная страница песен должна читать проекции с начала и возвращать массивы значений")
+    void findSongsCompact_FirstPage_ShouldReturnRows() {
+        // Arrange: проекции создаются так же, как их создает Spring Data
+        ProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        SongSummary song = projections.createProjection(SongSummary.class,
+                Map.of("id", 7L, "title", "Песня", "addedBy", "Гость", "cost", 1000, "paid", true));
+        when(songRepository.findSummaries(Long.MAX_VALUE, "Гость", null, Limit.of(51))).thenReturn(List.of(song));
 
         // Act
-        List<Song> result = songService.getAllSongs();
+        CompactPage result = songService.findSongsCompact(new SongFilter("Гость", null), null, 50);
 
         // Assert
-        assertEquals(2, result.size(), "Должно быть возвращено 2 песни");
-        assertEquals("Песня 1", result.get(0).getTitle());
-        assertEquals("Песня 2", result.get(1).getTitle());
-        verify(songRepository, times(1)).findAll();
+        assertEquals(List.of("id", "title", "addedBy", "cost", "paid"), result.getColumns());
+        assertArrayEquals(new Object[] {7L, "Песня", "Гость", 1000, true}, result.getRows().get(0));
+        assertNull(result.getNextCursor());
     }
 
     @Test
-    @DisplayName("Удаление песни должно вызвать deleteById")
-    void deleteSong_ShouldCallRepositoryDeleteById() {
+    @DisplayName("Удаление песни должно удалить её и вычесть стоимость из журнала")
+    void deleteSong_ShouldDeleteAndUpdateLedger() {
         // Arrange
         Long songId = 1L;
+        testSong.setId(songId);
+        testSong.setCost(1000);
+        testSong.setPaid(true);
+        when(songRepository.findById(songId)).thenReturn(Optional.of(testSong));
 
         // Act
         songService.deleteSong(songId);
 
         // Assert
-        verify(songRepository, times(1)).deleteById(songId);
+        verify(ledgerService, times(1)).recordDeleted(ItemType.SONG, 1000, true);
+        verify(songRepository, times(1)).delete(testSong);
+    }
+
+    @Test
+    @DisplayName("Удаление песни, которую одновременно закрыла выплата, должно вернуть 409")
+    void deleteSong_ConcurrentPayout_ShouldThrowConflict() {
+        // Arrange
+        testSong.setId(1L);
+        when(songRepository.findById(1L)).thenReturn(Optional.of(testSong));
+        doThrow(new ObjectOptimisticLockingFailureException(Song.class, 1L)).when(songRepository).flush();
+
+        // Act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> songService.deleteSong(1L));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Добавление песни должно учесть её стоимость в журнале")
+    void addSong_ShouldRecordCostInLedger() {
+        // Arrange
+        when(songRepository.save(any(Song.class))).thenReturn(testSong);
+
+        // Act
+        songService.addSong(testSong);
+
+        // Assert
+        verify(ledgerService, times(1)).recordCreated(ItemType.SONG, 1000);
+    }
+
+    @Test
+    @DisplayName("Флаг оплаты и выплата из запроса должны игнорироваться, а стоимость попасть в неоплаченное")
+    void addSong_PaidInRequest_ShouldStayUnpaidAndRecordBalance() {
+        // Arrange
+        testSong.setPaid(true);
+        testSong.setPayoutId(5L);
+        when(songRepository.save(any(Song.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        Song result = songService.addSong(testSong);
+
+        // Assert
+        assertFalse(result.isPaid());
+        assertNull(result.getPayoutId());
+        verify(ledgerService, times(1)).recordCreated(ItemType.SONG, 1000);
     }
 
     @Test
@@ -140,4 +271,24 @@ class SongServiceTest {
         assertEquals(1000, result.getCost(), "Cost должен быть переопределен на 1000");
         verify(songRepository, times(1)).save(testSong);
     }
+
+    @Test
+    @DisplayName("Пакетный импорт песен должен назначить стоимость 1000₽ каждой песне")
+    void importSongs_ShouldSetCostAndRecordTotal() {
+        // Arrange
+        Song other = new Song();
+        other.setCost(5000);
+        other.setPaid(true);
+
+        // Act
+        BatchImportResult result = songService.importSongs(List.of(testSong, other).iterator());
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(2000, result.getTotalCost());
+        assertEquals(1000, other.getCost(), "Cost должен быть переопределен на 1000");
+        assertFalse(other.isPaid(), "Импортированная песня должна быть неоплаченной");
+        verify(ledgerService, times(1)).recordCreatedTotal(ItemType.SONG, 2000);
+        verify(songRepository, times(1)).saveAll(List.of(testSong, other));
+    }
 }
@@ -0,0 +1,202 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.IdSequenceAligner;
+import com.example.memorizer.event.SongCreatedEvent;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.model.Song;
+import com.example.memorizer.repository.SongRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link SongWriteBehindQueue}.
+ *
+ * Проверяют выдачу идентификаторов, журнал предзаписи, фоновое
+ * сохранение порций, отказ при переполнении и восстановление после
+ * аварийной остановки.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SongWriteBehindQueue Tests")
+class SongWriteBehindQueueTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private EarningsLedgerService ledgerService;
+
+    @Mock
+    private MemorizerMetrics metrics;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private IdSequenceAligner idSequenceAligner;
+
+    @InjectMocks
+    private SongWriteBehindQueue writeBehindQueue;
+
+    @TempDir
+    private Path dir;
+
+    private Path wal;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        wal = dir.resolve("song-wal.ndjson");
+        ReflectionTestUtils.setField(writeBehindQueue, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(writeBehindQueue, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(writeBehindQueue, "capacity", 10);
+        ReflectionTestUtils.setField(writeBehindQueue, "batchSize", 5);
+        ReflectionTestUtils.setField(writeBehindQueue, "offerTimeout", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(writeBehindQueue, "walPath", wal);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writeBehindQueue.stop();
+    }
+
+    @Test
+    @DisplayName("Принятые песни должны получить идентификаторы из блока последовательности и сохраниться одной порцией")
+    void enqueue_ShouldAssignIdsAndFlushBatch() throws Exception {
+        // Arrange
+        runTransactionsInline();
+        when(jdbcTemplate.queryForObject("select next value for song_seq", Long.class)).thenReturn(100L);
+        writeBehindQueue.start();
+
+        // Act
+        Song first = writeBehindQueue.enqueue(song("Кино"));
+        Song second = writeBehindQueue.enqueue(song("Сплин"));
+        verify(eventPublisher, timeout(5000)).publishEvent(new SongCreatedEvent(second));
+        writeBehindQueue.stop();
+
+        // Assert
+        assertEquals(51L, first.getId());
+        assertEquals(52L, second.getId());
+        verify(ledgerService, atLeastOnce()).recordCreatedTotal(eq(ItemType.SONG), anyLong());
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0, writeBehindQueue.size());
+        assertEquals(0, Files.size(wal));
+        assertTrue(meterRegistry.get("memorizer.songs.flush").timer().count() >= 1);
+    }
+
+    @Test
+    @DisplayName("Пока порция не сохранена, песня должна быть в журнале, а переполнение - давать 503")
+    void enqueue_QueueFull_ShouldRejectWith503() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(writeBehindQueue, "capacity", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+        when(jdbcTemplate.queryForObject("select next value for song_seq", Long.class)).thenReturn(50L);
+        writeBehindQueue.start();
+        Song accepted = writeBehindQueue.enqueue(song("Кино"));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> writeBehindQueue.enqueue(song("Сплин")));
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(1, meterRegistry.get("memorizer.songs.queue.rejected").counter().count());
+        List<String> lines = Files.readAllLines(wal, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        SongWriteBehindQueue.Queued logged = objectMapper.readValue(lines.get(0), SongWriteBehindQueue.Queued.class);
+        assertEquals("default", logged.tenant());
+        assertEquals(accepted.getId(), logged.song().getId());
+        assertEquals(accepted.getArtist(), logged.song().getArtist());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("При старте должны досохраняться только песни из журнала, которых нет в базе; "
+            + "записи без арендатора относятся к арендатору по умолчанию")
+    @SuppressWarnings("unchecked")
+    void start_WithLoggedSongs_ShouldRecoverMissing() throws Exception {
+        // Arrange
+        runTransactionsInline();
+        Song stored = song("Кино");
+        stored.setId(1L);
+        Song lost = song("Сплин");
+        lost.setId(2L);
+        lost.setTenantId("default");
+        Files.write(wal, List.of(objectMapper.writeValueAsString(stored),
+                objectMapper.writeValueAsString(new SongWriteBehindQueue.Queued("default", lost)),
+                "{\"id\":3,\"tit"), StandardCharsets.UTF_8);
+        when(songRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        // Act
+        writeBehindQueue.start();
+
+        // Assert
+        ArgumentCaptor<Collection<Song>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), inserted.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(lost), List.copyOf(inserted.getValue()));
+        verify(ledgerService).recordCreatedTotal(ItemType.SONG, 1000);
+        verify(idSequenceAligner).align();
+        verifyNoInteractions(eventPublisher);
+        assertEquals(0, Files.size(wal));
+    }
+
+    private static Song song(String artist) {
+        Song song = new Song();
+        song.setTitle("Песня");
+        song.setArtist(artist);
+        song.setAddedBy("Гость");
+        song.setCost(1000);
+        return song;
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.dto.BreakdownDTO;
+import com.example.memorizer.dto.EarningsBucket;
+import com.example.memorizer.dto.MonthlyBucket;
+import com.example.memorizer.dto.ShiftReportDTO;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.repository.ArchiveRollupRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.ShiftRollupRepository;
+import com.example.memorizer.repository.SongRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link StatisticsService}.
+ * 
+ * Проверяют построение детализации заработка из результатов
+ * агрегатных запросов.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StatisticsService Tests")
+class StatisticsServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private ArchiveRollupRepository rollupRepository;
+
+    @Mock
+    private ShiftRollupRepository shiftRollupRepository;
+
+    @InjectMocks
+    private StatisticsService statisticsService;
+
+    private static EarningsBucket bucket(String key, long count, long total, long unpaid) {
+        EarningsBucket bucket = mock(EarningsBucket.class);
+        when(bucket.getKey()).thenReturn(key);
+        when(bucket.getCount()).thenReturn(count);
+        when(bucket.getTotal()).thenReturn(total);
+        when(bucket.getUnpaid()).thenReturn(unpaid);
+        return bucket;
+    }
+
+    private void stubTotals() {
+        when(shiftRepository.sumCost()).thenReturn(10000L);
+        when(shiftRepository.sumUnpaidCost()).thenReturn(4000L);
+        when(songRepository.sumCost()).thenReturn(2000L);
+        when(songRepository.sumUnpaidCost()).thenReturn(1000L);
+    }
+
+    @Test
+    @DisplayName("Детализация по работникам должна содержать строку на каждого работника")
+    void getBreakdown_ByWorker_ShouldReturnRowPerWorker() {
+        // Arrange
+        List<EarningsBucket> buckets = List.of(bucket("Аня", 2, 7000, 4000), bucket("Я", 1, 3000, 0));
+        stubTotals();
+        when(shiftRepository.sumByWorker()).thenReturn(buckets);
+
+        // Act
+        BreakdownDTO result = statisticsService.getBreakdown(StatisticsService.BreakdownGroup.WORKER);
+
+        // Assert
+        assertEquals("worker", result.getGroupBy());
+        assertEquals(12000, result.getLifetimeEarnings());
+        assertEquals(5000, result.getCurrentBalance());
+        assertEquals(2, result.getRows().size());
+        assertEquals("Аня", result.getRows().get(0).getKey());
+        assertEquals(7000, result.getRows().get(0).getTotal());
+        verify(songRepository, never()).sumByPayout();
+    }
+
+    @Test
+    @DisplayName("Детализация по месяцам должна форматировать ключ как YYYY-MM")
+    void getBreakdown_ByMonth_ShouldFormatKey() {
+        // Arrange
+        MonthlyBucket january = mock(MonthlyBucket.class);
+        when(january.getYear()).thenReturn(2026);
+        when(january.getMonth()).thenReturn(1);
+        when(january.getTotal()).thenReturn(3000L);
+        stubTotals();
+        when(shiftRepository.sumByMonth()).thenReturn(List.of(january));
+
+        // Act
+        BreakdownDTO result = statisticsService.getBreakdown(StatisticsService.BreakdownGroup.MONTH);
+
+        // Assert
+        assertEquals("2026-01", result.getRows().get(0).getKey());
+        assertEquals(3000, result.getRows().get(0).getTotal());
+    }
+
+    @Test
+    @DisplayName("Детализация по выплатам должна включать смены и песни")
+    void getBreakdown_ByPayout_ShouldIncludeShiftsAndSongs() {
+        // Arrange
+        List<EarningsBucket> shiftBuckets = List.of(bucket("1", 2, 6000, 0));
+        List<EarningsBucket> songBuckets = List.of(bucket("1", 1, 1000, 0));
+        stubTotals();
+        when(shiftRepository.sumByPayout()).thenReturn(shiftBuckets);
+        when(songRepository.sumByPayout()).thenReturn(songBuckets);
+
+        // Act
+        BreakdownDTO result = statisticsService.getBreakdown(StatisticsService.BreakdownGroup.PAYOUT);
+
+        // Assert
+        assertEquals(2, result.getRows().size());
+        assertEquals(ItemType.SHIFT, result.getRows().get(0).getItemType());
+        assertEquals(ItemType.SONG, result.getRows().get(1).getItemType());
+    }
+
+    @Test
+    @DisplayName("Общий заработок детализации должен включать архив")
+    void getBreakdown_WithArchive_ShouldIncludeArchivedTotal() {
+        // Arrange
+        stubTotals();
+        when(rollupRepository.sumAmount()).thenReturn(50000L);
+        when(shiftRepository.sumByWorker()).thenReturn(List.of());
+
+        // Act
+        BreakdownDTO result = statisticsService.getBreakdown(StatisticsService.BreakdownGroup.WORKER);
+
+        // Assert
+        assertEquals(62000, result.getLifetimeEarnings());
+        assertEquals(5000, result.getCurrentBalance());
+    }
+
+    @Test
+    @DisplayName("Отчет по работникам должен читать итоги за период и суммировать строки")
+    void getWorkerReport_ShouldSumRollupRows() {
+        // Arrange
+        List<EarningsBucket> buckets = List.of(bucket("Аня", 2, 7000, 4000), bucket("Я", 1, 3000, 0));
+        when(shiftRollupRepository.sumByWorker(202601, 202603)).thenReturn(buckets);
+
+        // Act
+        ShiftReportDTO result = statisticsService.getWorkerReport(YearMonth.of(2026, 1), YearMonth.of(2026, 3));
+
+        // Assert
+        assertEquals("worker", result.getGroupBy());
+        assertEquals("2026-01", result.getFrom());
+        assertEquals(10000, result.getTotal());
+        assertEquals(4000, result.getUnpaid());
+        assertEquals("Аня", result.getRows().get(0).getKey());
+        verifyNoInteractions(shiftRepository);
+    }
+
+    @Test
+    @DisplayName("Помесячный отчет без границ должен охватывать всю историю работника")
+    void getMonthlyReport_OpenPeriod_ShouldFormatMonthKeys() {
+        // Arrange
+        MonthlyBucket march = mock(MonthlyBucket.class);
+        when(march.getYear()).thenReturn(2025);
+        when(march.getMonth()).thenReturn(3);
+        when(march.getCount()).thenReturn(4L);
+        when(march.getTotal()).thenReturn(12000L);
+        when(shiftRollupRepository.sumByMonth("Я", 0, Integer.MAX_VALUE)).thenReturn(List.of(march));
+
+        // Act
+        ShiftReportDTO result = statisticsService.getMonthlyReport("Я", null, null);
+
+        // Assert
+        assertEquals("month", result.getGroupBy());
+        assertNull(result.getFrom());
+        assertEquals("2025-03", result.getRows().get(0).getKey());
+        assertEquals(4, result.getRows().get(0).getCount());
+        assertEquals(12000, result.getTotal());
+    }
+
+    @Test
+    @DisplayName("Отчет с началом периода позже конца должен приводить к ошибке 400")
+    void getWorkerReport_InvertedPeriod_ShouldThrowBadRequest() {
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> statisticsService.getWorkerReport(YearMonth.of(2026, 5), YearMonth.of(2026, 1)));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(shiftRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Неизвестная группировка должна приводить к ошибке 400")
+    void parse_UnknownGroup_ShouldThrowBadRequest() {
+        // Act & Assert
+        assertEquals(StatisticsService.BreakdownGroup.MONTH, StatisticsService.BreakdownGroup.parse("Month"));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> StatisticsService.BreakdownGroup.parse("day"));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.memorizer.service;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.config.TenantRoutingDataSource;
+import com.example.memorizer.model.Tenant;
+import com.example.memorizer.repository.TenantRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link TenantService}.
+ *
+ * Проверяют реестр арендаторов, регистрацию арендаторов с выделенной
+ * базой и обход арендаторов фоновыми задачами.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TenantService Tests")
+class TenantServiceTest {
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private TenantRoutingDataSource dataSource;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private TenantService tenantService;
+
+    @Test
+    @DisplayName("Арендатор с выделенной базой должен заноситься в реестр при первом обращении")
+    void exists_DedicatedTenant_ShouldRegisterIt() {
+        // Arrange
+        runTransactionsInline();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant("default")));
+        when(dataSource.getDedicatedTenants()).thenReturn(Set.of("big"));
+
+        // Act
+        boolean exists = tenantService.exists("big");
+
+        // Assert
+        assertTrue(exists);
+        assertFalse(tenantService.exists("bar-2"));
+        verify(tenantRepository).save(argThat(tenant -> tenant.getId().equals("big")));
+        verify(tenantRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Новый арендатор должен сразу становиться доступным")
+    void create_NewTenant_ShouldSaveAndCache() {
+        // Arrange
+        runTransactionsInline();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant("default")));
+        when(tenantRepository.save(any(Tenant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Tenant created = tenantService.create("bar-2", " ");
+
+        // Assert
+        assertEquals("bar-2", created.getName());
+        assertTrue(tenantService.exists("bar-2"));
+    }
+
+    @Test
+    @DisplayName("Недопустимый или занятый идентификатор должен приводить к ошибкам 400 и 409")
+    void create_InvalidOrDuplicateId_ShouldThrow() {
+        // Arrange
+        runTransactionsInline();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant("default")));
+
+        // Act
+        ResponseStatusException invalid = assertThrows(ResponseStatusException.class,
+                () -> tenantService.create("Bar 2", null));
+        ResponseStatusException duplicate = assertThrows(ResponseStatusException.class,
+                () -> tenantService.create("default", null));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, duplicate.getStatusCode());
+        verify(tenantRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Обход арендаторов должен выполнять действие от имени каждого и не прерываться на ошибке")
+    void forEachTenant_ShouldRunInTenantContext() {
+        // Arrange
+        runTransactionsInline();
+        when(tenantRepository.findAll()).thenReturn(List.of(tenant("default"), tenant("bar-2")));
+        List<String> visited = new ArrayList<>();
+
+        // Act
+        tenantService.forEachTenant(tenant -> {
+            visited.add(TenantContext.current());
+            if (tenant.equals("bar-2")) {
+                throw new IllegalStateException("сбой");
+            }
+        });
+
+        // Assert
+        assertEquals(List.of("bar-2", "default"), visited);
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.current());
+    }
+
+    private static Tenant tenant(String id) {
+        return new Tenant(id, id, Instant.now());
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
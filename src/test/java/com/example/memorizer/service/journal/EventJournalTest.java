@@ -0,0 +1,182 @@
+package com.example.memorizer.service.journal;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.EarningsDTO;
+import com.example.memorizer.model.ItemType;
+import com.example.memorizer.service.journal.JournalEntry.Kind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link EventJournal}.
+ *
+ * Проверяют добавление записей после фиксации транзакции, восстановление
+ * по снимку и хвосту журнала, баланс на момент времени и сверку
+ * с журналом заработка.
+ */
+@DisplayName("EventJournal Tests")
+class EventJournalTest {
+
+    @TempDir
+    private Path dir;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Балансы должны восстанавливаться после перезапуска отдельно для каждого арендатора")
+    void open_AfterClose_ShouldRestoreBalancesPerTenant() throws IOException {
+        // Arrange
+        EventJournal journal = open(1000, DataSize.ofMegabytes(1));
+        journal.record(Kind.SHIFT_CREATED, ItemType.SHIFT, 4000, 4000);
+        journal.record(Kind.PAYOUT_EXECUTED, ItemType.SHIFT, 0, -4000);
+        TenantContext.run("bar-2", () -> journal.record(Kind.SONG_ADDED, ItemType.SONG, 1000, 1000));
+        journal.close();
+
+        // Act
+        EventJournal reopened = open(1000, DataSize.ofMegabytes(1));
+
+        // Assert
+        assertEquals(new EarningsDTO(4000, 0), reopened.getEarnings());
+        assertEquals(new EarningsDTO(1000, 1000), TenantContext.call("bar-2", () -> reopened.getEarnings()));
+        assertEquals(3, reopened.getLastSeq());
+        assertEquals(1, snapshotFiles().size());
+    }
+
+    @Test
+    @DisplayName("После аварийной остановки должны применяться записи после последнего снимка, "
+            + "а оборванная запись отбрасываться")
+    void open_AfterCrash_ShouldReplayTailAcrossSegments() throws IOException {
+        // Arrange: по две записи в сегменте, снимок после каждых трех
+        EventJournal journal = open(3, DataSize.ofBytes(128));
+        for (int i = 0; i < 7; i++) {
+            journal.record(Kind.SHIFT_CREATED, ItemType.SHIFT, 1000, 1000);
+        }
+        Path lastSegment = segmentFiles().get(segmentFiles().size() - 1);
+        try (RandomAccessFile file = new RandomAccessFile(lastSegment.toFile(), "rw")) {
+            file.seek(51);
+            file.writeInt(40);
+        }
+
+        // Act
+        EventJournal recovered = open(3, DataSize.ofBytes(128));
+        recovered.record(Kind.ITEM_DELETED, ItemType.SHIFT, -1000, -1000);
+
+        // Assert
+        assertEquals(4, segmentFiles().size());
+        assertEquals(2, snapshotFiles().size());
+        assertEquals(new EarningsDTO(6000, 6000), recovered.getEarnings());
+        assertEquals(8, recovered.getLastSeq());
+        recovered.close();
+        assertEquals(new EarningsDTO(6000, 6000), open(3, DataSize.ofBytes(128)).getEarnings());
+    }
+
+    @Test
+    @DisplayName("Баланс на момент времени должен учитывать только записи до этого момента")
+    void getEarnings_AtInstant_ShouldReplayUpToIt() throws Exception {
+        // Arrange
+        EventJournal journal = open(2, DataSize.ofBytes(128));
+        journal.record(Kind.SHIFT_CREATED, ItemType.SHIFT, 3000, 3000);
+        journal.record(Kind.SHIFT_CREATED, ItemType.SHIFT, 4000, 4000);
+        journal.record(Kind.SONG_ADDED, ItemType.SONG, 1000, 1000);
+        Thread.sleep(5);
+        Instant beforePayout = Instant.now();
+        Thread.sleep(5);
+        journal.record(Kind.PAYOUT_EXECUTED, ItemType.SHIFT, 0, -7000);
+        journal.record(Kind.PAYOUT_EXECUTED, ItemType.SONG, 0, -1000);
+
+        // Act
+        EarningsDTO before = journal.getEarnings(beforePayout);
+        EarningsDTO start = journal.getEarnings(Instant.EPOCH);
+        EarningsDTO now = journal.getEarnings(Instant.now());
+
+        // Assert
+        assertEquals(new EarningsDTO(8000, 8000), before);
+        assertEquals(new EarningsDTO(0, 0), start);
+        assertEquals(new EarningsDTO(8000, 0), now);
+    }
+
+    @Test
+    @DisplayName("Изменение в транзакции должно попадать в журнал только после фиксации")
+    void record_InTransaction_ShouldAppendAfterCommit() throws IOException {
+        // Arrange
+        EventJournal journal = open(1000, DataSize.ofMegabytes(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        journal.record(Kind.SHIFT_CREATED, ItemType.SHIFT, 4000, 4000);
+        journal.record(Kind.SONG_ADDED, ItemType.SONG, 1000, 1000);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        EarningsDTO beforeCommit = journal.getEarnings();
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertEquals(new EarningsDTO(0, 0), beforeCommit);
+        assertEquals(new EarningsDTO(4000, 4000), journal.getEarnings());
+        assertEquals(1, journal.getLastSeq());
+    }
+
+    @Test
+    @DisplayName("Сверка должна добавлять корректировку, а при незавершенных изменениях откладываться")
+    void align_ShouldAdjustUnlessChangesInFlight() throws IOException {
+        // Arrange
+        EventJournal journal = open(1000, DataSize.ofMegabytes(1));
+        journal.record(Kind.SHIFT_CREATED, ItemType.SHIFT, 4000, 4000);
+
+        // Act
+        journal.align(19000, 9000);
+        journal.align(19000, 9000);
+        TransactionSynchronizationManager.initSynchronization();
+        journal.record(Kind.SHIFT_CREATED, ItemType.SHIFT, 3000, 3000);
+        journal.align(0, 0);
+
+        // Assert
+        assertEquals(new EarningsDTO(19000, 9000), journal.getEarnings());
+        assertEquals(2, journal.getLastSeq());
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    private EventJournal open(int snapshotEvery, DataSize segmentSize) throws IOException {
+        EventJournal journal = new EventJournal();
+        ReflectionTestUtils.setField(journal, "dir", dir);
+        ReflectionTestUtils.setField(journal, "segmentSize", segmentSize);
+        ReflectionTestUtils.setField(journal, "snapshotEvery", snapshotEvery);
+        journal.open();
+        return journal;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        return files("journal-");
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        return files("snapshot-");
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.memorizer.service.report;
+
+import com.example.memorizer.config.TenantContext;
+import com.example.memorizer.dto.IdRange;
+import com.example.memorizer.dto.ReportDTO;
+import com.example.memorizer.dto.ReportFact;
+import com.example.memorizer.dto.ReportSpec;
+import com.example.memorizer.repository.ArchivedShiftRepository;
+import com.example.memorizer.repository.ArchivedSongRepository;
+import com.example.memorizer.repository.ShiftRepository;
+import com.example.memorizer.repository.SongRepository;
+import com.example.memorizer.service.DataVersions;
+import com.example.memorizer.service.DataVersions.Table;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для {@link ReportService}.
+ *
+ * Проверяют построение отчетов порциями, переиспользование готовых
+ * заданий по отпечатку описания и версий данных, ограничение очереди
+ * и проверку описаний.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportService Tests")
+class ReportServiceTest {
+
+    private static final ReportSpec WORKER_YEARLY = new ReportSpec(ReportSpec.Type.WORKER_YEARLY, null, null, null);
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @Mock
+    private ArchivedShiftRepository archivedShiftRepository;
+
+    @Mock
+    private SongRepository songRepository;
+
+    @Mock
+    private ArchivedSongRepository archivedSongRepository;
+
+    @Spy
+    private DataVersions dataVersions = new DataVersions();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ReportService reportService;
+
+    private record Range(Long lowId, Long highId) implements IdRange {
+
+        @Override
+        public Long getLowId() {
+            return lowId;
+        }
+
+        @Override
+        public Long getHighId() {
+            return highId;
+        }
+    }
+
+    private record Fact(long id, LocalDate date, String name, Integer cost, boolean paid) implements ReportFact {
+
+        @Override
+        public LocalDate getDate() {
+            return date;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Integer getCost() {
+            return cost;
+        }
+
+        @Override
+        public boolean isPaid() {
+            return paid;
+        }
+    }
+
+    private static final List<Fact> SHIFTS = List.of(
+            new Fact(1, LocalDate.of(2025, 12, 5), "Я", 4000, true),
+            new Fact(4, LocalDate.of(2026, 1, 9), "Я", 4000, false),
+            new Fact(7, LocalDate.of(2026, 1, 12), "Аня", 3000, false),
+            new Fact(11, LocalDate.of(2026, 1, 14), "Я", 3000, true),
+            new Fact(12, null, "Я", 3000, false));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reportService, "threads", 1);
+        ReflectionTestUtils.setField(reportService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(reportService, "parallelism", 2);
+        ReflectionTestUtils.setField(reportService, "chunkSize", 5);
+        ReflectionTestUtils.setField(reportService, "maxJobs", 100L);
+        ReflectionTestUtils.setField(reportService, "ttl", Duration.ofHours(1));
+        reportService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportService.shutdown();
+    }
+
+    private void givenShifts() {
+        when(shiftRepository.findIdRange()).thenReturn(new Range(1L, 12L));
+        when(shiftRepository.findReportFacts(anyLong(), anyLong(), any(), any(), any())).thenAnswer(invocation -> {
+            long lowId = invocation.getArgument(0);
+            long highId = invocation.getArgument(1);
+            return SHIFTS.stream().filter(fact -> fact.id() >= lowId && fact.id() <= highId).toList();
+        });
+        when(archivedShiftRepository.findIdRange()).thenReturn(new Range(null, null));
+    }
+
+    private static ReportDTO await(ReportJob job) {
+        return job.getCompletion().orTimeout(10, TimeUnit.SECONDS).join();
+    }
+
+    @Test
+    @DisplayName("Отчет по годам и работникам должен собираться из порций диапазона идентификаторов")
+    void submit_WorkerYearly_ShouldAggregateChunks() {
+        // Arrange
+        givenShifts();
+
+        // Act
+        ReportJob job = reportService.submit(WORKER_YEARLY);
+        ReportDTO report = await(job);
+
+        // Assert
+        assertEquals(ReportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(List.of(
+                new ReportDTO.Row("2025/Я", 1, 4000, 0),
+                new ReportDTO.Row("2026/Аня", 1, 3000, 3000),
+                new ReportDTO.Row("2026/Я", 2, 7000, 4000)), report.getRows());
+        assertEquals(4, report.getCount());
+        assertEquals(14000, report.getTotal());
+        assertEquals(7000, report.getUnpaid());
+        // Диапазон 1..12 при порции 5 читается четырьмя запросами
+        verify(shiftRepository, times(4)).findReportFacts(anyLong(), anyLong(), any(), any(), any());
+        verify(archivedShiftRepository, never()).findReportFacts(anyLong(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Отчет по дням недели должен упорядочивать строки по дням недели")
+    void submit_ShiftWeekdays_ShouldOrderByDayOfWeek() {
+        // Arrange
+        givenShifts();
+
+        // Act
+        ReportDTO report = await(reportService.submit(
+                new ReportSpec(ReportSpec.Type.SHIFT_WEEKDAYS, null, null, null)));
+
+        // Assert
+        assertEquals(List.of("MONDAY", "WEDNESDAY", "FRIDAY"),
+                report.getRows().stream().map(ReportDTO.Row::getKey).toList());
+        assertEquals(new ReportDTO.Row("FRIDAY", 2, 8000, 4000), report.getRows().get(2));
+    }
+
+    @Test
+    @DisplayName("Отчет по песням должен учитывать архив как оплаченный")
+    void submit_SongsByAddedBy_ShouldIncludeArchive() {
+        // Arrange
+        when(songRepository.findIdRange()).thenReturn(new Range(20L, 21L));
+        when(songRepository.findReportFacts(20L, 21L)).thenReturn(List.of(
+                new Fact(20, null, "Гость", 1000, false), new Fact(21, null, null, 1000, false)));
+        when(archivedSongRepository.findIdRange()).thenReturn(new Range(3L, 3L));
+        when(archivedSongRepository.findReportFacts(3L, 3L)).thenReturn(List.of(
+                new Fact(3, null, "Гость", 1000, true)));
+
+        // Act
+        ReportDTO report = await(reportService.submit(
+                new ReportSpec(ReportSpec.Type.SONGS_BY_ADDED_BY, null, null, null)));
+
+        // Assert
+        assertEquals(List.of(new ReportDTO.Row("", 1, 1000, 1000), new ReportDTO.Row("Гость", 2, 2000, 1000)),
+                report.getRows());
+    }
+
+    @Test
+    @DisplayName("Повторный заказ по неизменным данным должен вернуть то же задание, "
+            + "а после изменения данных - построить новое")
+    void submit_SameSpec_ShouldReuseJobUntilDataChanges() {
+        // Arrange
+        givenShifts();
+        ReportJob first = reportService.submit(WORKER_YEARLY);
+        await(first);
+
+        // Act
+        ReportJob repeated = reportService.submit(WORKER_YEARLY);
+        dataVersions.bump(Table.SHIFTS);
+        ReportJob afterChange = reportService.submit(WORKER_YEARLY);
+        await(afterChange);
+
+        // Assert
+        assertSame(first, repeated);
+        assertNotEquals(first.getId(), afterChange.getId());
+        assertSame(first, reportService.getJob(first.getId()));
+        verify(shiftRepository, times(2)).findIdRange();
+    }
+
+    @Test
+    @DisplayName("Задание с ошибкой должно строиться заново при повторном заказе")
+    void submit_AfterFailure_ShouldRebuild() {
+        // Arrange
+        when(shiftRepository.findIdRange()).thenThrow(new IllegalStateException("База недоступна"))
+                .thenReturn(new Range(null, null));
+        when(archivedShiftRepository.findIdRange()).thenReturn(new Range(null, null));
+        ReportJob failed = reportService.submit(WORKER_YEARLY);
+        assertThrows(CompletionException.class, () -> await(failed));
+
+        // Act
+        ReportJob retried = reportService.submit(WORKER_YEARLY);
+        ReportDTO report = await(retried);
+
+        // Assert
+        assertEquals(ReportJob.Status.FAILED, failed.getStatus());
+        assertEquals("База недоступна", failed.getError());
+        assertNotSame(failed, retried);
+        assertEquals(0, report.getCount());
+    }
+
+    @Test
+    @DisplayName("При заполненной очереди заказ должен отклоняться с кодом 503")
+    void submit_QueueFull_ShouldThrowServiceUnavailable() throws Exception {
+        // Arrange: одно задание строится, одно ждет в очереди
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(shiftRepository.findIdRange()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new Range(null, null);
+        });
+        when(archivedShiftRepository.findIdRange()).thenReturn(new Range(null, null));
+        ReportJob running = reportService.submit(WORKER_YEARLY);
+        started.await(10, TimeUnit.SECONDS);
+        ReportJob queued = reportService.submit(new ReportSpec(ReportSpec.Type.SHIFT_WEEKDAYS, null, null, null));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> reportService.submit(new ReportSpec(ReportSpec.Type.WORKER_YEARLY, null, null, "Я")));
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(ReportJob.Status.RUNNING, running.getStatus());
+        assertEquals(ReportJob.Status.QUEUED, queued.getStatus());
+        release.countDown();
+        await(running);
+        await(queued);
+    }
+
+    @Test
+    @DisplayName("Некорректное описание и чужое задание должны отклоняться")
+    void submitAndGetJob_InvalidRequests_ShouldBeRejected() {
+        // Arrange
+        when(shiftRepository.findIdRange()).thenReturn(new Range(null, null));
+        when(archivedShiftRepository.findIdRange()).thenReturn(new Range(null, null));
+        ReportJob job = reportService.submit(WORKER_YEARLY);
+
+        // Act
+        ResponseStatusException songsWithDates = assertThrows(ResponseStatusException.class,
+                () -> reportService.submit(new ReportSpec(ReportSpec.Type.SONGS_BY_ADDED_BY,
+                        LocalDate.of(2026, 1, 1), null, null)));
+        ResponseStatusException reversed = assertThrows(ResponseStatusException.class,
+                () -> reportService.submit(new ReportSpec(ReportSpec.Type.WORKER_YEARLY,
+                        LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1), null)));
+        ResponseStatusException otherTenant = assertThrows(ResponseStatusException.class,
+                () -> TenantContext.call("bar-2", () -> reportService.getJob(job.getId())));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, songsWithDates.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, otherTenant.getStatusCode());
+        await(job);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.memorizer.service.tariff;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для {@link TariffEngine}.
+ * 
+ * Проверяют, что предрасчитанный календарь воспроизводит исходные
+ * правила тарификации и корректно учитывает настраиваемые правила.
+ */
+@DisplayName("TariffEngine Tests")
+class TariffEngineTest {
+
+    @Test
+    @DisplayName("Правила по умолчанию должны совпадать с исходной логикой для каждого дня")
+    void defaultRules_ShouldMatchOriginalLogicForEveryDay() {
+        // Arrange
+        TariffEngine engine = new TariffEngine(new TariffProperties());
+        LocalDate date = LocalDate.now().minusYears(12).withDayOfYear(1);
+        LocalDate end = LocalDate.now().plusYears(7);
+
+        // Act & Assert - окно календаря и даты вне его
+        while (date.isBefore(end)) {
+            int expected;
+            DayOfWeek day = date.getDayOfWeek();
+            if (date.getMonthValue() == 1 && date.getDayOfMonth() <= 12) {
+                expected = 3000;
+            } else if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) {
+                expected = 4000;
+            } else {
+                expected = 3000;
+            }
+            assertEquals(expected, engine.price(date, "Я"), "Неверная стоимость на " + date);
+            date = date.plusDays(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Переопределение по диапазону дат должно иметь высший приоритет")
+    void override_ShouldWinOverHolidayAndWeekday() {
+        // Arrange
+        TariffProperties properties = new TariffProperties();
+        TariffProperties.DateRangeOverride override = new TariffProperties.DateRangeOverride();
+        override.setFrom("2025-01-10");
+        override.setTo("2025-01-11");
+        override.setRate(5000);
+        properties.getOverrides().add(override);
+        TariffEngine engine = new TariffEngine(properties);
+
+        // Act & Assert
+        assertEquals(5000, engine.price(LocalDate.of(2025, 1, 10), null), "10 января - переопределение");
+        assertEquals(5000, engine.price(LocalDate.of(2025, 1, 11), null), "11 января - переопределение");
+        assertEquals(3000, engine.price(LocalDate.of(2025, 1, 12), null), "12 января - праздник");
+    }
+
+    @Test
+    @DisplayName("Индивидуальные ставки работника не должны влиять на остальных")
+    void workerRates_ShouldApplyOnlyToThatWorker() {
+        // Arrange
+        TariffProperties properties = new TariffProperties();
+        TariffProperties.WorkerRates rates = new TariffProperties.WorkerRates();
+        rates.setDefaultRate(3500);
+        rates.getWeekdayRates().put(DayOfWeek.SUNDAY, 4500);
+        properties.getWorkers().put("Аня", rates);
+        TariffEngine engine = new TariffEngine(properties);
+        LocalDate monday = LocalDate.of(2025, 1, 20);
+        LocalDate friday = LocalDate.of(2025, 1, 24);
+        LocalDate sunday = LocalDate.of(2025, 1, 26);
+
+        // Act & Assert
+        assertEquals(3500, engine.price(monday, "Аня"));
+        assertEquals(3500, engine.price(friday, "Аня"), "Свои ставки по дням недели заменяют общие");
+        assertEquals(4500, engine.price(sunday, "Аня"));
+        assertEquals(3000, engine.price(LocalDate.of(2025, 1, 5), "Аня"), "Праздник действует для всех");
+        assertEquals(3000, engine.price(monday, "Я"));
+        assertEquals(4000, engine.price(friday, "Я"));
+    }
+
+    @Test
+    @DisplayName("Правила-бины должны проверяться раньше правил из настроек")
+    void customRules_ShouldHavePriority() {
+        // Arrange
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("newYearEve", (TariffRule) date ->
+                date.getMonthValue() == 12 && date.getDayOfMonth() == 31 ? OptionalInt.of(10000) : OptionalInt.empty());
+        ObjectProvider<TariffRule> rules = beanFactory.getBeanProvider(TariffRule.class);
+        TariffEngine engine = new TariffEngine(new TariffProperties(), rules);
+
+        // Act & Assert
+        assertEquals(10000, engine.price(LocalDate.of(2025, 12, 31), null));
+        assertEquals(4000, engine.price(LocalDate.of(2025, 12, 26), null));
+    }
+
+    @Test
+    @DisplayName("Окно календаря должно охватывать настроенное количество лет")
+    void calendarWindow_ShouldCoverConfiguredYears() {
+        // Arrange
+        TariffProperties properties = new TariffProperties();
+        properties.setWindowYearsBack(1);
+        properties.setWindowYearsAhead(2);
+        int year = LocalDate.now().getYear();
+
+        // Act
+        TariffCalendar calendar = new TariffEngine(properties).calendarFor(null);
+
+        // Assert
+        assertEquals(LocalDate.of(year - 1, 1, 1), calendar.getFirstDay());
+        assertEquals(LocalDate.of(year + 2, 12, 31), calendar.getLastDay());
+    }
+}